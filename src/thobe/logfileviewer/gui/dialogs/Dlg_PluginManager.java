@@ -25,6 +25,7 @@ import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
 import thobe.logfileviewer.kernel.plugin.PluginManager;
 import thobe.logfileviewer.plugin.api.IPlugin;
 import thobe.widgets.editor.Editor;
@@ -141,9 +142,12 @@ public class Dlg_PluginManager extends Editor
 			long totalMemory = Runtime.getRuntime( ).totalMemory( );
 			long usedMemory = totalMemory - freeMemory;
 
+			// updates the accounts of the plugins
+			manager.getMemory( );
 			for ( PluginPanel p : pluginPanels )
 			{
-				p.updateMemoryConsumption( usedMemory );
+				MemoryAccount account = manager.getMemoryAccount( p.getPluginName( ) );
+				p.updateMemoryConsumption( ( account != null ) ? account.get( ) : 0, usedMemory );
 			}
 		}
 	}
@@ -211,10 +211,18 @@ public class PluginPanel extends JPanel
 		this.pluginManagerPreferences.setPluginEnabled( this.plugin.getPluginName( ), enabled );
 	}
 
-	public void updateMemoryConsumption( long completeMemory )
+	public String getPluginName( )
 	{
-		long pluginMemory = this.plugin.getMemory( );
+		return this.plugin.getPluginName( );
+	}
 
+	/**
+	 * Shows the memory of the plugin in relation to the given complete memory.
+	 * @param pluginMemory - the memory accounted for the plugin
+	 * @param completeMemory
+	 */
+	public void updateMemoryConsumption( long pluginMemory, long completeMemory )
+	{
 		if ( pluginMemory > completeMemory )
 		{
 			pluginMemory = completeMemory;
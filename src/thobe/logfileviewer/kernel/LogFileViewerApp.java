@@ -27,6 +27,8 @@ import thobe.logfileviewer.kernel.plugin.PluginManager;
 import thobe.logfileviewer.kernel.plugin.PluginManagerException;
 import thobe.logfileviewer.kernel.preferences.LogFileViewerPreferences;
 import thobe.logfileviewer.kernel.source.connector.LogStreamConnector;
+import thobe.logfileviewer.kernel.source.logline.LogLine;
+import thobe.logfileviewer.kernel.source.logline.LogLineDat;
 import thobe.logfileviewer.kernel.source.logstream.LogStream;
 import thobe.logfileviewer.kernel.util.CmdLineArguments;
 import thobe.logfileviewer.kernel.util.StatsPrinter;
@@ -126,6 +128,19 @@ public class LogFileViewerApp extends Thread implements ILogStreamStateListener
 		LOG( ).info( "Load configuration from '" + configFile.getAbsolutePath( ) + "'..." );
 		this.configuration = new LogFileViewerConfiguration( configFile );
 		LOG( ).info( "Load configuration from '" + configFile.getAbsolutePath( ) + "'...done." );
+		this.logStream.setLogLineBufferSettings( this.configuration.getLogLineBufferMode( ), this.configuration.getLogLineBufferMaxCapacity( ) );
+		this.logStream.setSpillSettings( this.configuration.isSpillEnabled( ), this.configuration.getSpillMaxSizeMB( ) );
+		this.logStream.setTemplateMiningEnabled( this.configuration.isTemplateMining( ) );
+		try
+		{
+			this.logStream.setTimeStampFormat( this.configuration.getTimeStampPattern( ), this.configuration.getTimeStampDetectionLines( ) );
+		}
+		catch ( IllegalArgumentException e )
+		{
+			LOG( ).severe( "Invalid time-stamp pattern, detecting the format instead: " + e.getLocalizedMessage( ) );
+			this.logStream.setTimeStampFormat( null, this.configuration.getTimeStampDetectionLines( ) );
+		}
+		this.logStream.setListenerDeliverySettings( this.configuration.getDeliveryQueueCapacity( ), this.configuration.getDeliveryOverflowPolicy( ), this.configuration.getDeliverySampleRate( ), this.configuration.getDeliveryThreads( ) );
 
 		// create the plugin-manager		
 		LOG( ).info( "Create the pluginmanager..." );
@@ -137,9 +152,14 @@ public class LogFileViewerApp extends Thread implements ILogStreamStateListener
 		{ // create background task, that prints out some statistics
 			this.statsPrinter = new StatsPrinter( this.pluginManager, this.logStream, this.configuration.getStatsPrinterUpdateInterval( ) );
 		}
+		LogLine.getInstanceTracker( ).setSampleInterval( this.configuration.getInstanceSampleInterval( ) );
+		LogLineDat.getInstanceTracker( ).setSampleInterval( this.configuration.getInstanceSampleInterval( ) );
 
 		// create background task, that opens and keeps connections alive
 		this.logStreamConnector = new LogStreamConnector( this.logStream );
+		this.logStreamConnector.setFileReaderMode( this.configuration.getFileReaderMode( ) );
+		this.logStreamConnector.setIpReaderMode( this.configuration.getIpReaderMode( ) );
+		this.logStreamConnector.setLineBufferSettings( this.configuration.getLineBufferCapacity( ), this.configuration.getLineBufferOverflowPolicy( ), this.configuration.getLineBufferSampleRate( ) );
 
 		// create background task, that watches and clears memory
 		this.memoryWatchDog = new MemoryWatchDog( );
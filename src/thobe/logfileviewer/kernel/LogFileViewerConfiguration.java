@@ -16,7 +16,17 @@ import java.io.IOException;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import thobe.logfileviewer.kernel.memory.InstanceTracker;
 import thobe.logfileviewer.kernel.plugin.PluginManager;
+import thobe.logfileviewer.kernel.source.FileReaderMode;
+import thobe.logfileviewer.kernel.source.IpReaderMode;
+import thobe.logfileviewer.kernel.source.LogLineBufferMode;
+import thobe.logfileviewer.kernel.source.OverflowPolicy;
+import thobe.logfileviewer.kernel.source.extreader.ExternalLogStreamReader;
+import thobe.logfileviewer.kernel.source.connector.LogStreamConnector;
+import thobe.logfileviewer.kernel.source.logline.LogLineBuffer;
+import thobe.logfileviewer.kernel.source.logstream.LogStream;
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampFormatDetector;
 
 /**
  * @author Thomas Obenaus
@@ -43,11 +53,72 @@ public class LogFileViewerConfiguration
 	private static final boolean	DEF_SP_ENABLED			= false;
 	private static final String		KEY_SP_UPD_INTERVAL		= PREF_STATS_PRINTER + "updateInterval";
 	private static final int		DEF_SP_UPD_INTERVAL		= 10000;
+	private static final String		KEY_SP_INST_SAMPLING	= PREF_STATS_PRINTER + "instanceSampleInterval";
+	private static final int		DEF_SP_INST_SAMPLING	= InstanceTracker.DEF_SAMPLE_INTERVAL;
+
+	/**
+	 * Settings for the {@link LogStreamConnector}
+	 */
+	private static final String		PREF_LS_CONNECTOR		= "LogStreamConnector.";
+	private static final String		KEY_LSC_FILE_READER		= PREF_LS_CONNECTOR + "fileReaderMode";
+	private static final FileReaderMode	DEF_LSC_FILE_READER	= FileReaderMode.BUFFERED;
+	private static final String		KEY_LSC_IP_READER		= PREF_LS_CONNECTOR + "ipReaderMode";
+	private static final IpReaderMode	DEF_LSC_IP_READER	= IpReaderMode.BLOCKING;
+	private static final String		KEY_LSC_LB_CAPACITY		= PREF_LS_CONNECTOR + "lineBufferCapacity";
+	private static final int		DEF_LSC_LB_CAPACITY		= ExternalLogStreamReader.DEF_LINE_BUFFER_CAPACITY;
+	private static final String		KEY_LSC_LB_OVERFLOW		= PREF_LS_CONNECTOR + "lineBufferOverflowPolicy";
+	private static final OverflowPolicy	DEF_LSC_LB_OVERFLOW	= OverflowPolicy.BLOCK;
+	private static final String		KEY_LSC_LB_SAMPLE_RATE	= PREF_LS_CONNECTOR + "lineBufferSampleRate";
+	private static final int		DEF_LSC_LB_SAMPLE_RATE	= 10;
+
+	/**
+	 * Settings for the LogStream
+	 */
+	private static final String		PREF_LOG_STREAM			= "LogStream.";
+	private static final String		KEY_LS_DQ_CAPACITY		= PREF_LOG_STREAM + "deliveryQueueCapacity";
+	private static final int		DEF_LS_DQ_CAPACITY		= LogStream.DEF_DELIVERY_QUEUE_CAPACITY;
+	private static final String		KEY_LS_DQ_OVERFLOW		= PREF_LOG_STREAM + "deliveryOverflowPolicy";
+	private static final OverflowPolicy	DEF_LS_DQ_OVERFLOW	= OverflowPolicy.DROP_OLDEST;
+	private static final String		KEY_LS_DQ_SAMPLE_RATE	= PREF_LOG_STREAM + "deliverySampleRate";
+	private static final int		DEF_LS_DQ_SAMPLE_RATE	= 10;
+	private static final String		KEY_LS_DQ_THREADS		= PREF_LOG_STREAM + "deliveryThreads";
+	private static final int		DEF_LS_DQ_THREADS		= LogStream.DEF_DELIVERY_THREADS;
+	private static final String		KEY_LS_LLB_MODE			= PREF_LOG_STREAM + "logLineBufferMode";
+	private static final LogLineBufferMode	DEF_LS_LLB_MODE	= LogLineBufferMode.HEAP;
+	private static final String		KEY_LS_LLB_CAPACITY		= PREF_LOG_STREAM + "logLineBufferMaxCapacity";
+	private static final int		DEF_LS_LLB_CAPACITY		= LogLineBuffer.DEFAULT_MAX_CAPACITY;
+	private static final String		KEY_LS_SPILL_ENABLED	= PREF_LOG_STREAM + "spillEnabled";
+	private static final boolean	DEF_LS_SPILL_ENABLED	= false;
+	private static final String		KEY_LS_SPILL_MAX_SIZE	= PREF_LOG_STREAM + "spillMaxSizeMB";
+	private static final int		DEF_LS_SPILL_MAX_SIZE	= 4096;
+	private static final String		KEY_LS_TEMPLATE_MINING	= PREF_LOG_STREAM + "templateMining";
+	private static final boolean	DEF_LS_TEMPLATE_MINING	= false;
+	private static final String		KEY_LS_TS_PATTERN		= PREF_LOG_STREAM + "timeStampPattern";
+	private static final String		DEF_LS_TS_PATTERN		= "";
+	private static final String		KEY_LS_TS_DETECTION		= PREF_LOG_STREAM + "timeStampDetectionLines";
+	private static final int		DEF_LS_TS_DETECTION		= TimeStampFormatDetector.DEF_DETECTION_LINES;
 
 	private Logger					log;
 	private File					pluginDirectory;
 	private boolean					statsPrinterEnabled;
 	private int						statsPrinterUpdateInterval;
+	private int						instanceSampleInterval;
+	private FileReaderMode			fileReaderMode;
+	private IpReaderMode			ipReaderMode;
+	private int						lineBufferCapacity;
+	private OverflowPolicy			lineBufferOverflowPolicy;
+	private int						lineBufferSampleRate;
+	private int						deliveryQueueCapacity;
+	private OverflowPolicy			deliveryOverflowPolicy;
+	private int						deliverySampleRate;
+	private int						deliveryThreads;
+	private LogLineBufferMode		logLineBufferMode;
+	private int						logLineBufferMaxCapacity;
+	private boolean					spillEnabled;
+	private int						spillMaxSizeMB;
+	private boolean					templateMining;
+	private String					timeStampPattern;
+	private int						timeStampDetectionLines;
 
 	public LogFileViewerConfiguration( File configFile )
 	{
@@ -71,6 +142,23 @@ public class LogFileViewerConfiguration
 		this.pluginDirectory = new File( props.getProperty( KEY_PM_PLUGIN_DIR, DEF_PM_PLUGIN_DIR ) );
 		this.statsPrinterEnabled = getProp( props, KEY_SP_ENABLED, DEF_SP_ENABLED );
 		this.statsPrinterUpdateInterval = getProp( props, KEY_SP_UPD_INTERVAL, DEF_SP_UPD_INTERVAL );
+		this.instanceSampleInterval = Math.max( 0, getProp( props, KEY_SP_INST_SAMPLING, DEF_SP_INST_SAMPLING ) );
+		this.fileReaderMode = getProp( props, KEY_LSC_FILE_READER, DEF_LSC_FILE_READER );
+		this.ipReaderMode = getProp( props, KEY_LSC_IP_READER, DEF_LSC_IP_READER );
+		this.lineBufferCapacity = Math.max( 1, getProp( props, KEY_LSC_LB_CAPACITY, DEF_LSC_LB_CAPACITY ) );
+		this.lineBufferOverflowPolicy = getProp( props, KEY_LSC_LB_OVERFLOW, DEF_LSC_LB_OVERFLOW );
+		this.lineBufferSampleRate = Math.max( 1, getProp( props, KEY_LSC_LB_SAMPLE_RATE, DEF_LSC_LB_SAMPLE_RATE ) );
+		this.deliveryQueueCapacity = Math.max( 1, getProp( props, KEY_LS_DQ_CAPACITY, DEF_LS_DQ_CAPACITY ) );
+		this.deliveryOverflowPolicy = getProp( props, KEY_LS_DQ_OVERFLOW, DEF_LS_DQ_OVERFLOW );
+		this.deliverySampleRate = Math.max( 1, getProp( props, KEY_LS_DQ_SAMPLE_RATE, DEF_LS_DQ_SAMPLE_RATE ) );
+		this.deliveryThreads = Math.max( 1, getProp( props, KEY_LS_DQ_THREADS, DEF_LS_DQ_THREADS ) );
+		this.logLineBufferMode = getProp( props, KEY_LS_LLB_MODE, DEF_LS_LLB_MODE );
+		this.logLineBufferMaxCapacity = Math.max( 1, getProp( props, KEY_LS_LLB_CAPACITY, DEF_LS_LLB_CAPACITY ) );
+		this.spillEnabled = getProp( props, KEY_LS_SPILL_ENABLED, DEF_LS_SPILL_ENABLED );
+		this.spillMaxSizeMB = Math.max( 1, getProp( props, KEY_LS_SPILL_MAX_SIZE, DEF_LS_SPILL_MAX_SIZE ) );
+		this.templateMining = getProp( props, KEY_LS_TEMPLATE_MINING, DEF_LS_TEMPLATE_MINING );
+		this.timeStampPattern = props.getProperty( KEY_LS_TS_PATTERN, DEF_LS_TS_PATTERN ).trim( );
+		this.timeStampDetectionLines = Math.max( 1, getProp( props, KEY_LS_TS_DETECTION, DEF_LS_TS_DETECTION ) );
 	}
 
 	private void setDefaultProps( )
@@ -78,6 +166,23 @@ public class LogFileViewerConfiguration
 		this.pluginDirectory = getDefaultPluginDir( );
 		this.statsPrinterEnabled = DEF_SP_ENABLED;
 		this.statsPrinterUpdateInterval = DEF_SP_UPD_INTERVAL;
+		this.instanceSampleInterval = DEF_SP_INST_SAMPLING;
+		this.fileReaderMode = DEF_LSC_FILE_READER;
+		this.ipReaderMode = DEF_LSC_IP_READER;
+		this.lineBufferCapacity = DEF_LSC_LB_CAPACITY;
+		this.lineBufferOverflowPolicy = DEF_LSC_LB_OVERFLOW;
+		this.lineBufferSampleRate = DEF_LSC_LB_SAMPLE_RATE;
+		this.deliveryQueueCapacity = DEF_LS_DQ_CAPACITY;
+		this.deliveryOverflowPolicy = DEF_LS_DQ_OVERFLOW;
+		this.deliverySampleRate = DEF_LS_DQ_SAMPLE_RATE;
+		this.deliveryThreads = DEF_LS_DQ_THREADS;
+		this.logLineBufferMode = DEF_LS_LLB_MODE;
+		this.logLineBufferMaxCapacity = DEF_LS_LLB_CAPACITY;
+		this.spillEnabled = DEF_LS_SPILL_ENABLED;
+		this.spillMaxSizeMB = DEF_LS_SPILL_MAX_SIZE;
+		this.templateMining = DEF_LS_TEMPLATE_MINING;
+		this.timeStampPattern = DEF_LS_TS_PATTERN;
+		this.timeStampDetectionLines = DEF_LS_TS_DETECTION;
 	}
 
 	public boolean isStatsPrinterEnabled( )
@@ -90,6 +195,99 @@ public class LogFileViewerConfiguration
 		return statsPrinterUpdateInterval;
 	}
 
+	/**
+	 * Returns the interval of the sampling of the instances of the lines (1 = all, 0 = none).
+	 * @return
+	 */
+	public int getInstanceSampleInterval( )
+	{
+		return instanceSampleInterval;
+	}
+
+	public FileReaderMode getFileReaderMode( )
+	{
+		return fileReaderMode;
+	}
+
+	public IpReaderMode getIpReaderMode( )
+	{
+		return ipReaderMode;
+	}
+
+	public int getLineBufferCapacity( )
+	{
+		return lineBufferCapacity;
+	}
+
+	public OverflowPolicy getLineBufferOverflowPolicy( )
+	{
+		return lineBufferOverflowPolicy;
+	}
+
+	public int getLineBufferSampleRate( )
+	{
+		return lineBufferSampleRate;
+	}
+
+	public int getDeliveryQueueCapacity( )
+	{
+		return deliveryQueueCapacity;
+	}
+
+	public OverflowPolicy getDeliveryOverflowPolicy( )
+	{
+		return deliveryOverflowPolicy;
+	}
+
+	public int getDeliverySampleRate( )
+	{
+		return deliverySampleRate;
+	}
+
+	public int getDeliveryThreads( )
+	{
+		return deliveryThreads;
+	}
+
+	public LogLineBufferMode getLogLineBufferMode( )
+	{
+		return logLineBufferMode;
+	}
+
+	public int getLogLineBufferMaxCapacity( )
+	{
+		return logLineBufferMaxCapacity;
+	}
+
+	public boolean isSpillEnabled( )
+	{
+		return spillEnabled;
+	}
+
+	public int getSpillMaxSizeMB( )
+	{
+		return spillMaxSizeMB;
+	}
+
+	public boolean isTemplateMining( )
+	{
+		return templateMining;
+	}
+
+	/**
+	 * Returns the fixed pattern of the time-stamps, empty if the format should be detected.
+	 * @return
+	 */
+	public String getTimeStampPattern( )
+	{
+		return timeStampPattern;
+	}
+
+	public int getTimeStampDetectionLines( )
+	{
+		return timeStampDetectionLines;
+	}
+
 	protected Logger LOG( )
 	{
 		return this.log;
@@ -128,6 +326,24 @@ public class LogFileViewerConfiguration
 		return result;
 	}
 
+	private static <E extends Enum<E>> E getProp( Properties props, String key, E defaultValue )
+	{
+		E result = defaultValue;
+
+		String valueStr = props.getProperty( key, defaultValue + "" );
+		if ( valueStr != null )
+		{
+			try
+			{
+				result = Enum.valueOf( defaultValue.getDeclaringClass( ), valueStr.trim( ).toUpperCase( ) );
+			}
+			catch ( IllegalArgumentException e )
+			{}
+		}
+
+		return result;
+	}
+
 	private static boolean getProp( Properties props, String key, boolean defaultValue )
 	{
 		boolean result = defaultValue;
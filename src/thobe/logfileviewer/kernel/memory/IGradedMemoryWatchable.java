@@ -0,0 +1,51 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.memory;
+
+/**
+ * {@link IMemoryWatchable} that is able to free a part of its memory. On exceeding the threshold the {@link MemoryWatchDog} asks the
+ * watchables in the order of their priority (lowest first) to free just as much memory as needed to get back under the low-water mark,
+ * instead of clearing everything.
+ * @author Thomas Obenaus
+ * @source IGradedMemoryWatchable.java
+ * @date Oct 17, 2026
+ */
+public interface IGradedMemoryWatchable extends IMemoryWatchable
+{
+	/**
+	 * Priority of memory that is rebuilt cheaply (e.g. caches).
+	 */
+	public static final int	PRIORITY_CACHE		= 0;
+
+	/**
+	 * Priority of memory that is lost when freed (e.g. the history of a stream).
+	 */
+	public static final int	PRIORITY_HISTORY	= 100;
+
+	/**
+	 * Returns the memory (in bytes) that could be freed by {@link #freeMemory(long)}.
+	 * @return
+	 */
+	public long getReclaimableMemory( );
+
+	/**
+	 * Returns the priority of the memory, memory of watchables having a lower priority is freed first.
+	 * @return
+	 */
+	public int getEvictionPriority( );
+
+	/**
+	 * Frees (about) the given amount of memory, the oldest and coldest parts first.
+	 * @param bytes
+	 * @return - the memory freed (in bytes)
+	 */
+	public long freeMemory( long bytes );
+}
@@ -0,0 +1,27 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.memory;
+
+/**
+ * Listener notified if an entry is removed from a {@link TinyLfuCache} (evicted, not admitted or cleared).
+ * @author Thomas Obenaus
+ * @source IRemovalListener.java
+ * @date Oct 17, 2026
+ */
+public interface IRemovalListener<K, V>
+{
+	/**
+	 * Called after the entry was removed, while the part of the cache holding it is locked (so keep it short).
+	 * @param key
+	 * @param value
+	 */
+	public void onRemoval( K key, V value );
+}
@@ -0,0 +1,146 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.memory;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the instances of a class without finalizers. All allocations are counted ({@link LongAdder}), a random sample of them (one in
+ * {@link #getSampleInterval()} on average) is tracked by {@link PhantomReference}s, so the number of live instances is estimated as the
+ * number of live samples times the interval without registering every instance for finalization. An interval of 1 tracks every instance
+ * (exact, for diagnostics), 0 disables the tracking (only the allocations are counted).
+ * Threadsafe.
+ * @author Thomas Obenaus
+ * @source InstanceTracker.java
+ * @date Oct 17, 2026
+ */
+public final class InstanceTracker
+{
+	/**
+	 * Default sample interval, the references cost about 1/1000 of an object per instance.
+	 */
+	public static final int						DEF_SAMPLE_INTERVAL	= 1024;
+
+	private final String						name;
+	private final LongAdder						allocated;
+
+	/**
+	 * The references of the live samples (has to keep them reachable), the queue receives the ones of the collected samples.
+	 */
+	private final Set<Reference<Object>>		samples;
+	private final ReferenceQueue<Object>		queue;
+
+	private volatile int						sampleInterval;
+
+	public InstanceTracker( String name )
+	{
+		this( name, DEF_SAMPLE_INTERVAL );
+	}
+
+	/**
+	 * Ctor
+	 * @param name
+	 * @param sampleInterval - one in sampleInterval instances is tracked, 1 = all, 0 = none
+	 */
+	public InstanceTracker( String name, int sampleInterval )
+	{
+		this.name = name;
+		this.allocated = new LongAdder( );
+		this.samples = Collections.newSetFromMap( new ConcurrentHashMap<Reference<Object>, Boolean>( ) );
+		this.queue = new ReferenceQueue<>( );
+		this.setSampleInterval( sampleInterval );
+	}
+
+	/**
+	 * Has to be called for each new instance (e.g. at the end of its constructor).
+	 * @param instance
+	 */
+	public void allocated( Object instance )
+	{
+		this.allocated.increment( );
+
+		final int sampleInterval = this.sampleInterval;
+		if ( sampleInterval == 0 || ( sampleInterval > 1 && ThreadLocalRandom.current( ).nextInt( sampleInterval ) != 0 ) )
+			return;
+
+		this.samples.add( new PhantomReference<Object>( instance, this.queue ) );
+		this.expungeCollectedSamples( );
+	}
+
+	/**
+	 * Removes the references of the samples collected meanwhile.
+	 */
+	private void expungeCollectedSamples( )
+	{
+		Reference<? extends Object> reference;
+		while ( ( reference = this.queue.poll( ) ) != null )
+			this.samples.remove( reference );
+	}
+
+	/**
+	 * Sets the sample interval, the samples taken so far are dropped.
+	 * @param sampleInterval - one in sampleInterval instances is tracked, 1 = all, 0 = none
+	 */
+	public void setSampleInterval( int sampleInterval )
+	{
+		if ( sampleInterval < 0 )
+			throw new IllegalArgumentException( "The sample interval should never be smaller than 0" );
+		this.sampleInterval = sampleInterval;
+		this.samples.clear( );
+	}
+
+	public int getSampleInterval( )
+	{
+		return sampleInterval;
+	}
+
+	/**
+	 * Returns the number of instances created so far.
+	 * @return
+	 */
+	public long getNumAllocated( )
+	{
+		return this.allocated.sum( );
+	}
+
+	/**
+	 * Returns the estimated number of live instances (created since the last change of the sample interval), -1 if tracking is disabled.
+	 * Instances not reachable any more are counted until they are collected.
+	 * @return
+	 */
+	public long getNumLiveEstimate( )
+	{
+		final int sampleInterval = this.sampleInterval;
+		if ( sampleInterval == 0 )
+			return -1;
+		this.expungeCollectedSamples( );
+		return ( long ) this.samples.size( ) * sampleInterval;
+	}
+
+	public String getName( )
+	{
+		return name;
+	}
+
+	@Override
+	public String toString( )
+	{
+		final long live = this.getNumLiveEstimate( );
+		return this.name + "=" + ( ( live < 0 ) ? "n/a" : ( ( this.sampleInterval > 1 ) ? "~" : "" ) + live ) + " (allocated=" + this.getNumAllocated( ) + ")";
+	}
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.memory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counter of the bytes retained by one component (a buffer, a cache, a plugin). The component charges the account on allocating and
+ * releases it on dropping memory (sizes from {@link ObjectLayout}), so reading the retained bytes is O(1) and consistent with the
+ * eviction. Threadsafe.
+ * @author Thomas Obenaus
+ * @source MemoryAccount.java
+ * @date Oct 17, 2026
+ */
+public final class MemoryAccount
+{
+	private final String		name;
+	private final AtomicLong	retained;
+
+	public MemoryAccount( String name )
+	{
+		this.name = name;
+		this.retained = new AtomicLong( 0 );
+	}
+
+	/**
+	 * Adds the given number of bytes.
+	 * @param bytes
+	 * @return - the bytes retained now
+	 */
+	public long charge( long bytes )
+	{
+		return this.retained.addAndGet( bytes );
+	}
+
+	/**
+	 * Subtracts the given number of bytes.
+	 * @param bytes
+	 * @return - the bytes retained now
+	 */
+	public long release( long bytes )
+	{
+		return this.retained.addAndGet( -bytes );
+	}
+
+	/**
+	 * Sets the retained bytes, for components that only report their memory (e.g. plugins).
+	 * @param bytes
+	 */
+	public void set( long bytes )
+	{
+		this.retained.set( bytes );
+	}
+
+	/**
+	 * Sets the retained bytes to 0.
+	 */
+	public void reset( )
+	{
+		this.retained.set( 0 );
+	}
+
+	/**
+	 * Returns the bytes retained.
+	 * @return
+	 */
+	public long get( )
+	{
+		return this.retained.get( );
+	}
+
+	public String getName( )
+	{
+		return name;
+	}
+
+	@Override
+	public String toString( )
+	{
+		return String.format( "%s: %.2f MB", this.name, this.retained.get( ) / ( 1024.0 * 1024.0 ) );
+	}
+}
@@ -10,32 +10,92 @@
 
 package thobe.logfileviewer.kernel.memory;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
 /**
- * A watchdog keeping track of the current memory consumption.
+ * A watchdog keeping track of the real heap usage. The usage threshold and the collection usage threshold (usage after a gc) of the old
+ * generation ({@link MemoryPoolMXBean}) are set to the threshold, their notifications and the notifications of the garbage collectors
+ * wake up the watchdog. If the usage after the last gc exceeds the threshold memory is freed until the low-water mark (threshold *
+ * low-water factor) is reached: first the {@link IGradedMemoryWatchable}s give back parts of their memory in the order of their priority,
+ * only if that is not enough the other {@link IMemoryWatchable}s are cleared completely. The (estimated) memory of the watchables only
+ * decides which of them gives memory back, not when. Memory is freed at most once per gc, since the memory freed is only reclaimed by the
+ * next gc. If the JVM offers no such pool the used heap is polled.
  * @author Thomas Obenaus
  * @source MemoryWatchdog.java
  * @date 23.09.2014
  */
 public class MemoryWatchDog extends Thread
 {
-	private static final String		NAME	= "thobe.logfileviewer.kernel.memory.MemoryWatchDog";
+	private static final String				NAME						= "thobe.logfileviewer.kernel.memory.MemoryWatchDog";
+
+	/**
+	 * Default of the low-water mark in percent of the threshold.
+	 */
+	public static final float				DEF_LOW_WATER_FACTOR		= 0.75f;
+
+	/**
+	 * Default of the threshold in percent of the max size of the old generation.
+	 */
+	public static final float				DEF_HEAP_THRESHOLD_FACTOR	= 0.8f;
 
 	/**
 	 * List of instances that should be monitored.
 	 */
-	private List<IMemoryWatchable>	toBeWatched;
+	private List<IMemoryWatchable>			toBeWatched;
+
+	private Logger							log;
+	private AtomicBoolean					quitRequested;
+	private AtomicInteger					intervalTime;
+
+	/**
+	 * Threshold of the heap usage (in bytes), <= 0 if it is derived from the max size of the old generation and
+	 * {@link #heapThresholdFactor}.
+	 */
+	private AtomicLong						memoryThreshold;
+	private volatile float					heapThresholdFactor;
+	private volatile float					lowWaterFactor;
+
+	/**
+	 * The old generation, null if the JVM has no pool supporting thresholds.
+	 */
+	private final MemoryPoolMXBean			oldGenPool;
 
-	private Logger					log;
-	private AtomicBoolean			quitRequested;
-	private AtomicInteger			intervalTime;
-	private AtomicLong				memoryThreshold;
+	/**
+	 * Released by the notifications, the watchdog waits for it (at most {@link #intervalTime} ms).
+	 */
+	private final Semaphore					pressureSignal;
+	private final NotificationListener		notificationListener;
+	private final List<NotificationEmitter>	emitters;
+
+	/**
+	 * Number of gcs of the old generation when memory was freed the last time.
+	 */
+	private long							gcCountAtLastFree;
+	private final AtomicLong				numFrees;
 
 	public MemoryWatchDog( )
 	{
@@ -45,7 +105,40 @@ public class MemoryWatchDog extends Thread
 		this.log = Logger.getLogger( NAME );
 		this.quitRequested = new AtomicBoolean( false );
 		this.intervalTime = new AtomicInteger( 1000 );
-		this.memoryThreshold = new AtomicLong( 1000 * 1024 * 1024 );
+		this.memoryThreshold = new AtomicLong( 0 );
+		this.heapThresholdFactor = DEF_HEAP_THRESHOLD_FACTOR;
+		this.lowWaterFactor = DEF_LOW_WATER_FACTOR;
+		this.oldGenPool = findOldGenPool( );
+		this.pressureSignal = new Semaphore( 0 );
+		this.emitters = new ArrayList<>( );
+		this.gcCountAtLastFree = -1;
+		this.numFrees = new AtomicLong( 0 );
+		this.notificationListener = new NotificationListener( )
+		{
+			@Override
+			public void handleNotification( Notification notification, Object handback )
+			{
+				onNotification( notification );
+			}
+		};
+	}
+
+	/**
+	 * Returns the heap pool supporting usage and collection usage thresholds having the biggest max size (the old generation), null if
+	 * there is none.
+	 * @return
+	 */
+	private static MemoryPoolMXBean findOldGenPool( )
+	{
+		MemoryPoolMXBean oldGenPool = null;
+		for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans( ) )
+		{
+			if ( pool.getType( ) != MemoryType.HEAP || !pool.isUsageThresholdSupported( ) || !pool.isCollectionUsageThresholdSupported( ) )
+				continue;
+			if ( oldGenPool == null || pool.getUsage( ).getMax( ) > oldGenPool.getUsage( ).getMax( ) )
+				oldGenPool = pool;
+		}// for ( MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans( ) ) .
+		return oldGenPool;
 	}
 
 	/**
@@ -67,6 +160,7 @@ public class MemoryWatchDog extends Thread
 	public void quit( )
 	{
 		this.quitRequested.set( true );
+		this.pressureSignal.release( );
 	}
 
 	/**
@@ -79,64 +173,272 @@ public class MemoryWatchDog extends Thread
 	}
 
 	/**
-	 * Sets the threshold at which a free of the memory should be called.
-	 * @param memoryThreshold
+	 * Sets the threshold of the heap usage at which memory is freed.
+	 * @param memoryThreshold - in bytes, <= 0 to derive it from the max size of the old generation (see
+	 *            {@link #setHeapThresholdFactor(float)})
 	 */
 	public void setMemoryThreshold( long memoryThreshold )
 	{
 		this.memoryThreshold.set( memoryThreshold );
+		this.armThresholds( );
 	}
 
-	@Override
-	public void run( )
+	/**
+	 * Sets the threshold in percent of the max size of the old generation, used if no absolute threshold is set.
+	 * @param heapThresholdFactor - (0,1]
+	 */
+	public void setHeapThresholdFactor( float heapThresholdFactor )
 	{
-		LOG( ).info( "Thread: " + NAME + " started" );
-		while ( !this.quitRequested.get( ) )
-		{
-			long completeMemory = 0;
+		if ( heapThresholdFactor <= 0 || heapThresholdFactor > 1 )
+			throw new IllegalArgumentException( "The heap-threshold factor has to be in (0,1] but was " + heapThresholdFactor );
+		this.heapThresholdFactor = heapThresholdFactor;
+		this.armThresholds( );
+	}
+
+	/**
+	 * Sets the low-water mark in percent of the threshold, memory is freed until it is reached.
+	 * @param lowWaterFactor - [0,1]
+	 */
+	public void setLowWaterFactor( float lowWaterFactor )
+	{
+		if ( lowWaterFactor < 0 || lowWaterFactor > 1 )
+			throw new IllegalArgumentException( "The low-water factor has to be in [0,1] but was " + lowWaterFactor );
+		this.lowWaterFactor = lowWaterFactor;
+	}
+
+	/**
+	 * Returns the threshold of the heap usage (in bytes).
+	 * @return
+	 */
+	public long getThreshold( )
+	{
+		final long memoryThreshold = this.memoryThreshold.get( );
+		if ( memoryThreshold > 0 )
+			return memoryThreshold;
 
-			// collect the current memory-usage
-			synchronized ( this.toBeWatched )
+		long max = ( this.oldGenPool != null ) ? this.oldGenPool.getUsage( ).getMax( ) : -1;
+		if ( max <= 0 )
+			max = Runtime.getRuntime( ).maxMemory( );
+		return ( long ) ( max * this.heapThresholdFactor );
+	}
+
+	/**
+	 * Returns how often memory was freed so far.
+	 * @return
+	 */
+	public long getNumFrees( )
+	{
+		return this.numFrees.get( );
+	}
+
+	/**
+	 * Sets the thresholds of the old generation (the notifications are emitted on exceeding them).
+	 */
+	private void armThresholds( )
+	{
+		if ( this.oldGenPool == null )
+			return;
+		final long threshold = this.getThreshold( );
+		this.oldGenPool.setUsageThreshold( threshold );
+		this.oldGenPool.setCollectionUsageThreshold( threshold );
+	}
+
+	/**
+	 * Registers the listener for the threshold notifications and the notifications of the garbage collectors.
+	 */
+	private void addNotificationListeners( )
+	{
+		List<Object> sources = new ArrayList<>( );
+		sources.add( ManagementFactory.getMemoryMXBean( ) );
+		sources.addAll( ManagementFactory.getGarbageCollectorMXBeans( ) );
+		for ( Object source : sources )
+		{
+			if ( source instanceof NotificationEmitter )
 			{
-				for ( IMemoryWatchable watchable : this.toBeWatched )
-				{
-					completeMemory += watchable.getMemory( );
-				}// for(IMemoryWatchable watchable : this.toBeWatched ).
-			}// synchronized ( this.toBeWatched ).
+				( ( NotificationEmitter ) source ).addNotificationListener( this.notificationListener, null, null );
+				this.emitters.add( ( NotificationEmitter ) source );
+			}// if ( source instanceof NotificationEmitter ) .
+		}// for ( Object source : sources ) .
+	}
 
-			// check threshold
-			if ( completeMemory >= memoryThreshold.get( ) )
+	private void removeNotificationListeners( )
+	{
+		for ( NotificationEmitter emitter : this.emitters )
+		{
+			try
 			{
-				LOG( ).info( "Memorythreshold exceeded (threshold=" + ( memoryThreshold.get( ) / 1024f / 1024f ) + "MB, currentMemory=" + ( completeMemory / 1024f / 1024f ) + "MB)" );
+				emitter.removeNotificationListener( this.notificationListener );
+			}
+			catch ( ListenerNotFoundException e )
+			{
+				LOG( ).warning( "Unable to remove notification listener: " + e.getLocalizedMessage( ) );
+			}
+		}// for ( NotificationEmitter emitter : this.emitters ) .
+		this.emitters.clear( );
+	}
 
-				// free memory
-				synchronized ( this.toBeWatched )
-				{
-					for ( IMemoryWatchable watchable : this.toBeWatched )
-					{
-						LOG( ).info( "Free memory of '" + watchable.getNameOfMemoryWatchable( ) + "'" );
-						watchable.freeMemory( );
+	/**
+	 * Wakes up the watchdog if a threshold was exceeded or a gc left the old generation above the threshold.
+	 * @param notification
+	 */
+	private void onNotification( Notification notification )
+	{
+		final String type = notification.getType( );
+		if ( MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals( type ) || MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals( type ) )
+		{
+			this.pressureSignal.release( );
+		}
+		else if ( GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals( type ) && this.oldGenPool != null )
+		{
+			GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from( ( CompositeData ) notification.getUserData( ) );
+			MemoryUsage usage = info.getGcInfo( ).getMemoryUsageAfterGc( ).get( this.oldGenPool.getName( ) );
+			if ( usage != null && usage.getUsed( ) >= this.getThreshold( ) )
+				this.pressureSignal.release( );
+		}
+	}
 
-					}// for(IMemoryWatchable watchable : this.toBeWatched ).
-				}// synchronized ( this.toBeWatched ).
+	/**
+	 * Returns the heap usage after the last gc (the old generation), the current usage of the heap if there is no such pool.
+	 * @return
+	 */
+	private long getUsedHeap( )
+	{
+		if ( this.oldGenPool != null )
+		{
+			MemoryUsage usage = this.oldGenPool.getCollectionUsage( );
+			return ( usage != null ) ? usage.getUsed( ) : this.oldGenPool.getUsage( ).getUsed( );
+		}// if ( this.oldGenPool != null ) .
+		Runtime runtime = Runtime.getRuntime( );
+		return runtime.totalMemory( ) - runtime.freeMemory( );
+	}
 
-			}// if ( completeMemory >= memoryThreshold.get( ) ).
+	/**
+	 * Returns the number of gcs collecting the old generation (all gcs if there is no such pool).
+	 * @return
+	 */
+	private long getGcCount( )
+	{
+		long count = 0;
+		for ( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans( ) )
+		{
+			if ( this.oldGenPool == null || Arrays.asList( gc.getMemoryPoolNames( ) ).contains( this.oldGenPool.getName( ) ) )
+				count += Math.max( 0, gc.getCollectionCount( ) );
+		}// for ( GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans( ) ) .
+		return count;
+	}
 
-			// wait
+	@Override
+	public void run( )
+	{
+		LOG( ).info( "Thread: " + NAME + " started (pool=" + ( ( this.oldGenPool != null ) ? this.oldGenPool.getName( ) : "n/a, polling" ) + ", threshold=" + ( this.getThreshold( ) / 1024f / 1024f ) + "MB)" );
+		this.armThresholds( );
+		this.addNotificationListeners( );
+		while ( !this.quitRequested.get( ) )
+		{
+			// wait for a notification (polling as fallback)
 			try
 			{
-				Thread.sleep( this.intervalTime.get( ) );
+				this.pressureSignal.tryAcquire( this.intervalTime.get( ), TimeUnit.MILLISECONDS );
+				this.pressureSignal.drainPermits( );
 			}
 			catch ( InterruptedException e )
 			{
 				this.quitRequested.set( true );
+				break;
 			}
+
+			final long threshold = this.getThreshold( );
+			final long usedHeap = this.getUsedHeap( );
+			if ( usedHeap < threshold )
+				continue;
+
+			// the memory freed the last time is not reclaimed before the next gc
+			final long gcCount = this.getGcCount( );
+			if ( gcCount == this.gcCountAtLastFree )
+				continue;
+
+			LOG( ).info( "Memorythreshold exceeded (threshold=" + ( threshold / 1024f / 1024f ) + "MB, usedHeap=" + ( usedHeap / 1024f / 1024f ) + "MB)" );
+			this.freeMemory( usedHeap - ( long ) ( threshold * this.lowWaterFactor ) );
+			this.gcCountAtLastFree = gcCount;
+			this.numFrees.incrementAndGet( );
 		}// while ( !this.quitRequested.get( ) ).
+		this.removeNotificationListeners( );
 		LOG( ).info( "Thread: " + NAME + " stopped" );
 	}
 
+	/**
+	 * Frees the given amount of memory, the graded watchables in the order of their priority first.
+	 * @param bytes
+	 */
+	private void freeMemory( long bytes )
+	{
+		long toFree = bytes;
+		synchronized ( this.toBeWatched )
+		{
+			// the priority may change while freeing, thus it is read once
+			List<GradedCandidate> candidates = new ArrayList<>( );
+			for ( IMemoryWatchable watchable : this.toBeWatched )
+			{
+				if ( watchable instanceof IGradedMemoryWatchable )
+					candidates.add( new GradedCandidate( ( IGradedMemoryWatchable ) watchable ) );
+			}// for ( IMemoryWatchable watchable : this.toBeWatched ) .
+			Collections.sort( candidates, new Comparator<GradedCandidate>( )
+			{
+				@Override
+				public int compare( GradedCandidate o1, GradedCandidate o2 )
+				{
+					return Integer.compare( o1.priority, o2.priority );
+				}
+			} );
+
+			for ( GradedCandidate candidate : candidates )
+			{
+				if ( toFree <= 0 )
+					break;
+				IGradedMemoryWatchable watchable = candidate.watchable;
+				long reclaimable = watchable.getReclaimableMemory( );
+				if ( reclaimable <= 0 )
+					continue;
+				long freed = watchable.freeMemory( Math.min( toFree, reclaimable ) );
+				toFree -= freed;
+				LOG( ).info( "Freed " + ( freed / 1024f / 1024f ) + "MB of '" + watchable.getNameOfMemoryWatchable( ) + "'" );
+			}// for ( GradedCandidate candidate : candidates ) .
+
+			// the others can only be cleared completely
+			for ( IMemoryWatchable watchable : this.toBeWatched )
+			{
+				if ( toFree <= 0 )
+					break;
+				if ( watchable instanceof IGradedMemoryWatchable )
+					continue;
+				long memoryBefore = watchable.getMemory( );
+				LOG( ).info( "Free memory of '" + watchable.getNameOfMemoryWatchable( ) + "'" );
+				watchable.freeMemory( );
+				toFree -= memoryBefore - watchable.getMemory( );
+			}// for ( IMemoryWatchable watchable : this.toBeWatched ) .
+		}// synchronized ( this.toBeWatched ).
+
+		if ( toFree > 0 )
+			LOG( ).warning( "Unable to free enough memory, " + ( toFree / 1024f / 1024f ) + "MB above the low-water mark" );
+	}
+
 	private Logger LOG( )
 	{
 		return this.log;
 	}
+
+	/**
+	 * A {@link IGradedMemoryWatchable} with its priority at the time memory has to be freed.
+	 */
+	private static final class GradedCandidate
+	{
+		private final IGradedMemoryWatchable	watchable;
+		private final int						priority;
+
+		public GradedCandidate( IGradedMemoryWatchable watchable )
+		{
+			this.watchable = watchable;
+			this.priority = watchable.getEvictionPriority( );
+		}
+	}
 }
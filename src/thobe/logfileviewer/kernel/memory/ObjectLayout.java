@@ -0,0 +1,261 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.memory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.logging.Logger;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+/**
+ * Sizes of objects on the heap of the running JVM, replacing the fixed values of {@link thobe.logfileviewer.plugin.util.SizeOf}. The
+ * header-, reference- and array-sizes are taken from the real layout (field- and array-offsets as reported by sun.misc.Unsafe, alignment
+ * and compact strings as configured for the VM), the shallow size of a class is computed from the offsets of its fields. If the layout
+ * can't be inspected the values of a 64-bit VM with compressed oops are used.
+ * Computing a shallow size uses reflection, so the sizes of the classes should be computed once and kept in constants.
+ * @author Thomas Obenaus
+ * @source ObjectLayout.java
+ * @date Oct 17, 2026
+ */
+public final class ObjectLayout
+{
+	private static final String		NAME			= "thobe.logfileviewer.kernel.memory.ObjectLayout";
+
+	/**
+	 * #bytes of a reference.
+	 */
+	public static final int			REFERENCE;
+
+	/**
+	 * #bytes of the header of an object.
+	 */
+	public static final int			OBJECT_HEADER;
+
+	/**
+	 * #bytes of the header of an array (incl. the length).
+	 */
+	public static final int			ARRAY_HEADER;
+
+	/**
+	 * Objects start at multiples of this number of bytes.
+	 */
+	public static final int			ALIGNMENT;
+
+	/**
+	 * True if the layout was inspected, false if the defaults are used.
+	 */
+	public static final boolean		CALIBRATED;
+
+	/**
+	 * True if strings keep their characters in a byte[] using one byte per character if possible (java 9+).
+	 */
+	private static final boolean	COMPACT_STRINGS;
+
+	/**
+	 * sun.misc.Unsafe and its method objectFieldOffset, null if not available.
+	 */
+	private static final Object		UNSAFE;
+	private static final Method		OBJECT_FIELD_OFFSET;
+
+	/**
+	 * Shallow size of a {@link String} (without the array).
+	 */
+	private static final long		STRING_SIZE;
+
+	static
+	{
+		int reference = 4;
+		int objectHeader = 12;
+		int arrayHeader = 16;
+		boolean calibrated = false;
+		Object unsafe = null;
+		Method objectFieldOffset = null;
+		try
+		{
+			Class<?> unsafeClass = Class.forName( "sun.misc.Unsafe" );
+			Field theUnsafe = unsafeClass.getDeclaredField( "theUnsafe" );
+			theUnsafe.setAccessible( true );
+			unsafe = theUnsafe.get( null );
+			objectFieldOffset = unsafeClass.getMethod( "objectFieldOffset", Field.class );
+
+			reference = ( Integer ) unsafeClass.getMethod( "arrayIndexScale", Class.class ).invoke( unsafe, Object[].class );
+			arrayHeader = ( Integer ) unsafeClass.getMethod( "arrayBaseOffset", Class.class ).invoke( unsafe, long[].class );
+			objectHeader = ( int ) ( ( Long ) objectFieldOffset.invoke( unsafe, HeaderProbe.class.getDeclaredField( "field" ) ) ).longValue( );
+			calibrated = true;
+		}
+		catch ( Exception | LinkageError e )
+		{
+			unsafe = null;
+			objectFieldOffset = null;
+			Logger.getLogger( NAME ).warning( "Unable to inspect the object-layout, defaults are used: " + e.getLocalizedMessage( ) );
+		}
+
+		REFERENCE = reference;
+		OBJECT_HEADER = objectHeader;
+		ARRAY_HEADER = arrayHeader;
+		UNSAFE = unsafe;
+		OBJECT_FIELD_OFFSET = objectFieldOffset;
+		CALIBRATED = calibrated;
+		ALIGNMENT = Integer.parseInt( getVMOption( "ObjectAlignmentInBytes", "8" ) );
+
+		boolean byteArrayStrings = false;
+		try
+		{
+			byteArrayStrings = String.class.getDeclaredField( "value" ).getType( ) == byte[].class;
+		}
+		catch ( NoSuchFieldException | SecurityException e )
+		{
+			// keep char[]
+		}
+		COMPACT_STRINGS = byteArrayStrings && Boolean.parseBoolean( getVMOption( "CompactStrings", "true" ) );
+		STRING_SIZE = shallowSizeOf( String.class );
+	}
+
+	private ObjectLayout( )
+	{}
+
+	/**
+	 * Returns the value of the given option of the VM, the default if it is unknown.
+	 */
+	private static String getVMOption( String name, String defaultValue )
+	{
+		try
+		{
+			HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean( HotSpotDiagnosticMXBean.class );
+			return ( bean != null ) ? bean.getVMOption( name ).getValue( ) : defaultValue;
+		}
+		catch ( RuntimeException | LinkageError e )
+		{
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Rounds the given size up to the next multiple of {@link #ALIGNMENT}.
+	 * @param size
+	 * @return
+	 */
+	public static long align( long size )
+	{
+		return ( size + ALIGNMENT - 1 ) / ALIGNMENT * ALIGNMENT;
+	}
+
+	/**
+	 * Returns the size of an instance of the given class without the objects it references (incl. header and alignment).
+	 * @param clazz
+	 * @return
+	 */
+	public static long shallowSizeOf( Class<?> clazz )
+	{
+		long end = OBJECT_HEADER;
+		long sumOfFields = OBJECT_HEADER;
+		boolean offsetsKnown = ( OBJECT_FIELD_OFFSET != null );
+		for ( Class<?> c = clazz; c != null; c = c.getSuperclass( ) )
+		{
+			for ( Field field : c.getDeclaredFields( ) )
+			{
+				if ( Modifier.isStatic( field.getModifiers( ) ) )
+					continue;
+				final int size = sizeOfField( field.getType( ) );
+				sumOfFields += size;
+				if ( offsetsKnown )
+				{
+					try
+					{
+						end = Math.max( end, ( ( Long ) OBJECT_FIELD_OFFSET.invoke( UNSAFE, field ) ) + size );
+					}
+					catch ( Exception e )
+					{
+						offsetsKnown = false;
+					}
+				}// if ( offsetsKnown ) .
+			}// for ( Field field : c.getDeclaredFields( ) ) .
+		}// for ( Class<?> c = clazz; c != null; c = c.getSuperclass( ) ) .
+
+		// without offsets: no gaps between the fields
+		return align( offsetsKnown ? end : sumOfFields );
+	}
+
+	/**
+	 * Returns the shallow size of the class with the given name, the given default if the class does not exist.
+	 * @param className
+	 * @param defaultSize
+	 * @return
+	 */
+	public static long shallowSizeOf( String className, long defaultSize )
+	{
+		try
+		{
+			return shallowSizeOf( Class.forName( className ) );
+		}
+		catch ( ClassNotFoundException | LinkageError e )
+		{
+			return defaultSize;
+		}
+	}
+
+	/**
+	 * Returns the size of an array of the given length.
+	 * @param componentType - e.g. long.class or Object.class for an array of references
+	 * @param length
+	 * @return
+	 */
+	public static long sizeOfArray( Class<?> componentType, int length )
+	{
+		return align( ARRAY_HEADER + ( long ) sizeOfField( componentType ) * length );
+	}
+
+	/**
+	 * Returns the size of the given {@link String} incl. its array of characters (not the reference to it).
+	 * @param str
+	 * @return
+	 */
+	public static long sizeOf( String str )
+	{
+		final int length = str.length( );
+		return STRING_SIZE + align( ARRAY_HEADER + ( long ) length * ( ( COMPACT_STRINGS && isLatin1( str ) ) ? 1 : 2 ) );
+	}
+
+	private static boolean isLatin1( String str )
+	{
+		for ( int i = 0; i < str.length( ); ++i )
+		{
+			if ( str.charAt( i ) > 0xFF )
+				return false;
+		}// for ( int i = 0; i < str.length( ); ++i ) .
+		return true;
+	}
+
+	private static int sizeOfField( Class<?> type )
+	{
+		if ( !type.isPrimitive( ) )
+			return REFERENCE;
+		if ( type == long.class || type == double.class )
+			return 8;
+		if ( type == int.class || type == float.class )
+			return 4;
+		if ( type == short.class || type == char.class )
+			return 2;
+		return 1;
+	}
+
+	/**
+	 * The offset of its field is the size of the header.
+	 */
+	@SuppressWarnings ( "unused")
+	private static final class HeaderProbe
+	{
+		private byte	field;
+	}
+}
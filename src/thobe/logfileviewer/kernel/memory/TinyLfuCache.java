@@ -0,0 +1,608 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.memory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A threadsafe cache with a bounded number of entries using the W-TinyLFU policy: new entries enter a small LRU window (1% of the
+ * capacity), an entry leaving the window is only admitted to the main area (a segmented LRU: probation and protected) if it was requested
+ * more often than the entry it would replace. The frequencies are estimated by a count-min sketch of 4-bit counters which are halved
+ * periodically, so one-hit wonders (e.g. lines with a counter or time in it) do not flush the frequently repeated entries out of the cache
+ * as they do with a plain LRU.
+ * The cache is split into stripes by the hash of the key, each stripe has its own lock, policy and sketch, so concurrent accesses to
+ * different stripes do not block each other. Hits and misses are counted with {@link LongAdder}s.
+ * @author Thomas Obenaus
+ * @source TinyLfuCache.java
+ * @date Oct 17, 2026
+ */
+public class TinyLfuCache<K, V>
+{
+	public static final int					DEFAULT_MAX_SIZE	= 1000;
+
+	/**
+	 * Heap-memory used by the cache per entry (its node, the node of the map and about two slots of the table), without key and value.
+	 */
+	public static final long				ENTRY_OVERHEAD		= ObjectLayout.shallowSizeOf( Node.class ) + ObjectLayout.shallowSizeOf( "java.util.HashMap$Node", 32 ) + 2 * ObjectLayout.REFERENCE;
+
+	/**
+	 * Stripes are not made smaller than this (number of entries), otherwise the policy does not work well.
+	 */
+	private static final int				MIN_STRIPE_SIZE		= 64;
+
+	private final Stripe<K, V>[]			stripes;
+	private final int						maxCacheSize;
+	private final IRemovalListener<K, V>	removalListener;
+
+	private final AtomicInteger				size;
+	private final LongAdder					hits;
+	private final LongAdder					misses;
+	private final LongAdder					evictions;
+
+	public TinyLfuCache( )
+	{
+		this( DEFAULT_MAX_SIZE, null );
+	}
+
+	/**
+	 * Ctor
+	 * @param maxSize - max number of entries
+	 * @param removalListener - notified about removed entries, may be null
+	 */
+	@SuppressWarnings ( "unchecked")
+	public TinyLfuCache( int maxSize, IRemovalListener<K, V> removalListener )
+	{
+		if ( maxSize < 1 )
+			throw new IllegalArgumentException( "MaxSize should never be smaller than 1" );
+
+		this.maxCacheSize = maxSize;
+		this.removalListener = removalListener;
+		this.size = new AtomicInteger( 0 );
+		this.hits = new LongAdder( );
+		this.misses = new LongAdder( );
+		this.evictions = new LongAdder( );
+
+		// power of two, about 4 stripes per core
+		int numStripes = 1;
+		while ( numStripes < Runtime.getRuntime( ).availableProcessors( ) * 4 && ( numStripes * 2 ) * MIN_STRIPE_SIZE <= maxSize )
+			numStripes *= 2;
+
+		this.stripes = ( Stripe<K, V>[] ) new Stripe<?, ?>[numStripes];
+		for ( int i = 0; i < numStripes; ++i )
+		{
+			// distribute the remainder
+			int stripeSize = ( maxSize / numStripes ) + ( ( i < maxSize % numStripes ) ? 1 : 0 );
+			this.stripes[i] = new Stripe<>( this, stripeSize );
+		}// for ( int i = 0; i < numStripes; ++i ) .
+	}
+
+	/**
+	 * Get the value associated with the given key or null if there is no value in the cache. Counts as hit or miss.
+	 * @param key
+	 * @return
+	 */
+	public V get( K key )
+	{
+		final int hash = spread( key.hashCode( ) );
+		V value = this.stripeFor( hash ).get( key, hash );
+		if ( value != null )
+			this.hits.increment( );
+		else
+			this.misses.increment( );
+		return value;
+	}
+
+	/**
+	 * Adds the value if there is no value associated with the given key. The entry may be dropped later on without being used if it is not
+	 * requested frequently enough.
+	 * @param key
+	 * @param value
+	 * @return - the value already associated with the key (the new one was not added) or null
+	 */
+	public V putIfAbsent( K key, V value )
+	{
+		final int hash = spread( key.hashCode( ) );
+		return this.stripeFor( hash ).putIfAbsent( key, value, hash );
+	}
+
+	/**
+	 * Removes the value associated with the given key.
+	 * @param key
+	 */
+	public void remove( K key )
+	{
+		final int hash = spread( key.hashCode( ) );
+		this.stripeFor( hash ).remove( key );
+	}
+
+	/**
+	 * Clears the cache (the statistics are kept).
+	 */
+	public void clear( )
+	{
+		for ( Stripe<K, V> stripe : this.stripes )
+			stripe.clear( );
+	}
+
+	/**
+	 * Evicts (about) the given number of entries, the coldest ones first: the entries on probation, the ones in the window and finally the
+	 * least recently used protected ones. The entries are evicted evenly from all stripes.
+	 * @param numEntries
+	 * @return - the number of entries evicted
+	 */
+	public int evict( int numEntries )
+	{
+		if ( numEntries <= 0 )
+			return 0;
+		final int perStripe = ( numEntries + this.stripes.length - 1 ) / this.stripes.length;
+		int evicted = 0;
+		for ( Stripe<K, V> stripe : this.stripes )
+			evicted += stripe.evict( perStripe );
+		return evicted;
+	}
+
+	/**
+	 * Returns the current size of the cache.
+	 * @return
+	 */
+	public int size( )
+	{
+		return this.size.get( );
+	}
+
+	/**
+	 * Returns the maximum size of the cache.
+	 * @return
+	 */
+	public int getMaxCacheSize( )
+	{
+		return maxCacheSize;
+	}
+
+	public long getHits( )
+	{
+		return this.hits.sum( );
+	}
+
+	public long getMisses( )
+	{
+		return this.misses.sum( );
+	}
+
+	/**
+	 * Returns the number of entries removed to make room for others (or not admitted at all).
+	 * @return
+	 */
+	public long getEvictions( )
+	{
+		return this.evictions.sum( );
+	}
+
+	/**
+	 * Returns hits/(hits+misses), 0 if there was no request.
+	 * @return
+	 */
+	public float getHitRatio( )
+	{
+		final long hits = this.hits.sum( );
+		final long overall = hits + this.misses.sum( );
+		if ( overall == 0 )
+			return 0;
+		return hits / ( float ) overall;
+	}
+
+	int getNumStripes( )
+	{
+		return this.stripes.length;
+	}
+
+	@Override
+	public String toString( )
+	{
+		return "TinyLfuCache [size=" + this.size( ) + "/" + this.maxCacheSize + ", stripes=" + this.stripes.length + ", hits=" + this.getHits( ) + ", misses=" + this.getMisses( ) + ", evictions=" + this.getEvictions( ) + "]";
+	}
+
+	private Stripe<K, V> stripeFor( int hash )
+	{
+		// the high bits, the sketch uses the low ones
+		return this.stripes[( hash >>> 16 ) & ( this.stripes.length - 1 )];
+	}
+
+	private static int spread( int hash )
+	{
+		int h = hash * 0x9E3779B9;
+		return h ^ ( h >>> 16 );
+	}
+
+	private void onRemoval( K key, V value, boolean evicted )
+	{
+		this.size.decrementAndGet( );
+		if ( evicted )
+			this.evictions.increment( );
+		if ( this.removalListener != null )
+			this.removalListener.onRemoval( key, value );
+	}
+
+	/**
+	 * Area of an entry.
+	 */
+	private enum Queue
+	{
+		WINDOW, PROBATION, PROTECTED;
+	}
+
+	private static final class Node<K, V>
+	{
+		private final K		key;
+		private final V		value;
+		private final int	hash;
+		private Queue		queue;
+		private Node<K, V>	prev;
+		private Node<K, V>	next;
+
+		public Node( K key, V value, int hash )
+		{
+			this.key = key;
+			this.value = value;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * Doubly linked list of nodes, the head is the least recently used one.
+	 */
+	private static final class AccessOrder<K, V>
+	{
+		private Node<K, V>	head;
+		private Node<K, V>	tail;
+		private int			size;
+
+		public void addLast( Node<K, V> node )
+		{
+			node.prev = this.tail;
+			node.next = null;
+			if ( this.tail == null )
+				this.head = node;
+			else
+				this.tail.next = node;
+			this.tail = node;
+			this.size++;
+		}
+
+		public void remove( Node<K, V> node )
+		{
+			if ( node.prev == null )
+				this.head = node.next;
+			else
+				node.prev.next = node.next;
+			if ( node.next == null )
+				this.tail = node.prev;
+			else
+				node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+			this.size--;
+		}
+
+		public void moveToLast( Node<K, V> node )
+		{
+			if ( this.tail != node )
+			{
+				this.remove( node );
+				this.addLast( node );
+			}
+		}
+
+		public void clear( )
+		{
+			this.head = null;
+			this.tail = null;
+			this.size = 0;
+		}
+	}
+
+	/**
+	 * Independent part of the cache (own lock, policy and frequency-sketch).
+	 */
+	private static final class Stripe<K, V>
+	{
+		private final TinyLfuCache<K, V>	cache;
+		private final ReentrantLock			lock;
+		private final Map<K, Node<K, V>>	data;
+		private final FrequencySketch		sketch;
+
+		private final int					maxWindow;
+		private final int					maxMain;
+		private final int					maxProtected;
+
+		private final AccessOrder<K, V>		window;
+		private final AccessOrder<K, V>		probation;
+		private final AccessOrder<K, V>		protectedArea;
+
+		public Stripe( TinyLfuCache<K, V> cache, int maxSize )
+		{
+			this.cache = cache;
+			this.lock = new ReentrantLock( );
+			this.data = new HashMap<>( );
+			this.sketch = new FrequencySketch( maxSize );
+			this.maxWindow = Math.max( 1, maxSize / 100 );
+			this.maxMain = maxSize - this.maxWindow;
+			this.maxProtected = ( int ) ( this.maxMain * 0.8f );
+			this.window = new AccessOrder<>( );
+			this.probation = new AccessOrder<>( );
+			this.protectedArea = new AccessOrder<>( );
+		}
+
+		public V get( K key, int hash )
+		{
+			this.lock.lock( );
+			try
+			{
+				this.sketch.increment( hash );
+				Node<K, V> node = this.data.get( key );
+				if ( node == null )
+					return null;
+				this.onAccess( node );
+				return node.value;
+			}
+			finally
+			{
+				this.lock.unlock( );
+			}
+		}
+
+		public V putIfAbsent( K key, V value, int hash )
+		{
+			this.lock.lock( );
+			try
+			{
+				Node<K, V> node = this.data.get( key );
+				if ( node != null )
+				{
+					this.onAccess( node );
+					return node.value;
+				}// if ( node != null ) .
+
+				node = new Node<>( key, value, hash );
+				node.queue = Queue.WINDOW;
+				this.data.put( key, node );
+				this.window.addLast( node );
+				this.cache.size.incrementAndGet( );
+
+				if ( this.window.size > this.maxWindow )
+					this.evict( );
+				return null;
+			}
+			finally
+			{
+				this.lock.unlock( );
+			}
+		}
+
+		public void remove( K key )
+		{
+			this.lock.lock( );
+			try
+			{
+				Node<K, V> node = this.data.remove( key );
+				if ( node != null )
+				{
+					this.queueOf( node ).remove( node );
+					this.cache.onRemoval( node.key, node.value, false );
+				}// if ( node != null ) .
+			}
+			finally
+			{
+				this.lock.unlock( );
+			}
+		}
+
+		public void clear( )
+		{
+			this.lock.lock( );
+			try
+			{
+				for ( Node<K, V> node : this.data.values( ) )
+					this.cache.onRemoval( node.key, node.value, false );
+				this.data.clear( );
+				this.window.clear( );
+				this.probation.clear( );
+				this.protectedArea.clear( );
+			}
+			finally
+			{
+				this.lock.unlock( );
+			}
+		}
+
+		public int evict( int numEntries )
+		{
+			this.lock.lock( );
+			try
+			{
+				int evicted = 0;
+				while ( evicted < numEntries )
+				{
+					Node<K, V> victim = ( this.probation.head != null ) ? this.probation.head : ( this.window.head != null ) ? this.window.head : this.protectedArea.head;
+					if ( victim == null )
+						break;
+					this.queueOf( victim ).remove( victim );
+					this.data.remove( victim.key );
+					this.cache.onRemoval( victim.key, victim.value, true );
+					evicted++;
+				}// while ( evicted < numEntries ) .
+				return evicted;
+			}
+			finally
+			{
+				this.lock.unlock( );
+			}
+		}
+
+		private AccessOrder<K, V> queueOf( Node<K, V> node )
+		{
+			switch ( node.queue )
+			{
+			case WINDOW:
+				return this.window;
+			case PROBATION:
+				return this.probation;
+			case PROTECTED:
+			default:
+				return this.protectedArea;
+			}// switch ( node.queue ) .
+		}
+
+		/**
+		 * Updates the position of the node on a hit, a node in probation is promoted to the protected area.
+		 * @param node
+		 */
+		private void onAccess( Node<K, V> node )
+		{
+			switch ( node.queue )
+			{
+			case WINDOW:
+				this.window.moveToLast( node );
+				break;
+			case PROBATION:
+				this.probation.remove( node );
+				node.queue = Queue.PROTECTED;
+				this.protectedArea.addLast( node );
+
+				// demote the least recently used protected node
+				if ( this.protectedArea.size > this.maxProtected )
+				{
+					Node<K, V> demoted = this.protectedArea.head;
+					this.protectedArea.remove( demoted );
+					demoted.queue = Queue.PROBATION;
+					this.probation.addLast( demoted );
+				}// if ( this.protectedArea.size > this.maxProtected ) .
+				break;
+			case PROTECTED:
+				this.protectedArea.moveToLast( node );
+				break;
+			}// switch ( node.queue ) .
+		}
+
+		/**
+		 * Moves the least recently used node of the window to the main area, if the main area is full either the candidate or the victim
+		 * (least recently used node of the main area) is evicted, whichever was requested less frequently.
+		 */
+		private void evict( )
+		{
+			Node<K, V> candidate = this.window.head;
+			this.window.remove( candidate );
+
+			if ( this.probation.size + this.protectedArea.size < this.maxMain )
+			{
+				candidate.queue = Queue.PROBATION;
+				this.probation.addLast( candidate );
+				return;
+			}// if ( this.probation.size + this.protectedArea.size < this.maxMain ) .
+
+			Node<K, V> victim = ( this.probation.head != null ) ? this.probation.head : this.protectedArea.head;
+			if ( victim != null && this.sketch.frequency( candidate.hash ) > this.sketch.frequency( victim.hash ) )
+			{
+				this.queueOf( victim ).remove( victim );
+				this.data.remove( victim.key );
+				this.cache.onRemoval( victim.key, victim.value, true );
+
+				candidate.queue = Queue.PROBATION;
+				this.probation.addLast( candidate );
+			}// if ( victim != null && ... ) .
+			else
+			{
+				this.data.remove( candidate.key );
+				this.cache.onRemoval( candidate.key, candidate.value, true );
+			}// if ( victim != null && ... ) ... else ...
+		}
+	}
+
+	/**
+	 * Count-min sketch with 4 counters of 4 bits per entry (16 counters per long). All counters are halved after 10*maxSize increments, so
+	 * the frequencies reflect the recent history.
+	 */
+	private static final class FrequencySketch
+	{
+		private static final long[]	SEEDS	= { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+		private static final long	ONE_MASK	= 0x1111111111111111L;
+		private static final long	RESET_MASK	= 0x7777777777777777L;
+
+		private final long[]		table;
+		private final int			sampleSize;
+		private int					additions;
+
+		public FrequencySketch( int maxSize )
+		{
+			int length = 1;
+			while ( length < maxSize )
+				length <<= 1;
+			this.table = new long[length];
+			this.sampleSize = 10 * Math.max( 1, maxSize );
+			this.additions = 0;
+		}
+
+		public int frequency( int hash )
+		{
+			final int start = ( hash & 3 ) << 2;
+			int frequency = Integer.MAX_VALUE;
+			for ( int i = 0; i < 4; ++i )
+			{
+				int index = this.indexOf( hash, i );
+				int count = ( int ) ( ( this.table[index] >>> ( ( start + i ) << 2 ) ) & 0xfL );
+				frequency = Math.min( frequency, count );
+			}
+			return frequency;
+		}
+
+		public void increment( int hash )
+		{
+			final int start = ( hash & 3 ) << 2;
+			boolean added = false;
+			for ( int i = 0; i < 4; ++i )
+			{
+				int index = this.indexOf( hash, i );
+				int offset = ( start + i ) << 2;
+				long mask = 0xfL << offset;
+				if ( ( this.table[index] & mask ) != mask )
+				{
+					this.table[index] += 1L << offset;
+					added = true;
+				}
+			}// for ( int i = 0; i < 4; ++i ) .
+
+			if ( added && ++this.additions == this.sampleSize )
+				this.reset( );
+		}
+
+		private void reset( )
+		{
+			int odd = 0;
+			for ( int i = 0; i < this.table.length; ++i )
+			{
+				odd += Long.bitCount( this.table[i] & ONE_MASK );
+				this.table[i] = ( this.table[i] >>> 1 ) & RESET_MASK;
+			}
+			this.additions = ( this.additions - ( odd >>> 2 ) ) >>> 1;
+		}
+
+		private int indexOf( int hash, int i )
+		{
+			long h = ( hash + SEEDS[i] ) * SEEDS[i];
+			h += h >>> 32;
+			return ( ( int ) h ) & ( this.table.length - 1 );
+		}
+	}
+}
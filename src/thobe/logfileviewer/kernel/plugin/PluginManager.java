@@ -25,12 +25,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.Logger;
 
 import thobe.logfileviewer.kernel.LogFileViewerConfiguration;
 import thobe.logfileviewer.kernel.memory.IMemoryWatchable;
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
 import thobe.logfileviewer.kernel.preferences.PluginManagerPrefs;
 import thobe.logfileviewer.plugin.Plugin;
 import thobe.logfileviewer.plugin.PluginApiVersion;
@@ -51,6 +53,11 @@ public class PluginManager implements IPluginAccess, IMemoryWatchable
 
 	private Map<String, IPlugin>	plugins;
 	private Map<String, IPlugin>	incompatiblePlugins;
+
+	/**
+	 * The memory of each plugin, updated from the memory reported by the plugin on each call of {@link #getMemory()}.
+	 */
+	private Map<String, MemoryAccount>	memoryAccounts;
 	private Logger					log;
 	private PluginManagerPrefs		prefs;
 	private File					pluginDirectory;
@@ -62,6 +69,7 @@ public class PluginManager implements IPluginAccess, IMemoryWatchable
 		this.log = Logger.getLogger( NAME );
 		this.plugins = new HashMap<>( );
 		this.incompatiblePlugins = new HashMap<>( );
+		this.memoryAccounts = new ConcurrentHashMap<>( );
 	}
 
 	public String getPluginDirectory( )
@@ -257,16 +265,29 @@ public class PluginManager implements IPluginAccess, IMemoryWatchable
 	public void registerPlugin( IPlugin plugin )
 	{
 		this.plugins.put( plugin.getPluginName( ), plugin );
+		this.memoryAccounts.put( plugin.getPluginName( ), new MemoryAccount( "Plugin." + plugin.getPluginName( ) ) );
 	}
 
 	public void unregisterPlugin( IPlugin plugin )
 	{
-		this.plugins.remove( plugin );
+		this.plugins.remove( plugin.getPluginName( ) );
+		this.memoryAccounts.remove( plugin.getPluginName( ) );
 	}
 
 	public void unregisterAllPlugins( )
 	{
 		this.plugins.clear( );
+		this.memoryAccounts.clear( );
+	}
+
+	/**
+	 * Returns the account of the memory of the given plugin, null if there is no such plugin.
+	 * @param pluginName
+	 * @return
+	 */
+	public MemoryAccount getMemoryAccount( String pluginName )
+	{
+		return this.memoryAccounts.get( pluginName );
 	}
 
 	public Map<String, IPlugin> getPlugins( )
@@ -302,6 +323,7 @@ public class PluginManager implements IPluginAccess, IMemoryWatchable
 				entry.getValue( ).freeMemory( );
 
 				long memAfterFree = plugin.getMemory( );
+				this.updateMemoryAccount( plugin, memAfterFree );
 				if ( ( memBeforeFree != 0 ) && ( memBeforeFree <= memAfterFree ) )
 				{
 					LOG( ).warning( "Plugin '" + plugin.getPluginName( ) + "' failed to free memory (remaining: " + ( memAfterFree / 1024f / 1024f ) + "MB)" );
@@ -354,11 +376,23 @@ public class PluginManager implements IPluginAccess, IMemoryWatchable
 		for ( Entry<String, IPlugin> entry : this.getPlugins( ).entrySet( ) )
 		{
 			IPlugin plugin = entry.getValue( );
-			completeMemory += plugin.getMemory( );
+			completeMemory += this.updateMemoryAccount( plugin, plugin.getMemory( ) );
 		}// for ( Entry<String, Plugin> entry : this.getPlugins( ).entrySet( ) ) .
 		return completeMemory;
 	}
 
+	/**
+	 * Sets the account of the given plugin to the memory it reported (negative values are ignored), returns the memory accounted.
+	 */
+	private long updateMemoryAccount( IPlugin plugin, long reportedMemory )
+	{
+		final long memory = Math.max( 0, reportedMemory );
+		MemoryAccount account = this.memoryAccounts.get( plugin.getPluginName( ) );
+		if ( account != null )
+			account.set( memory );
+		return memory;
+	}
+
 	@Override
 	public String getNameOfMemoryWatchable( )
 	{
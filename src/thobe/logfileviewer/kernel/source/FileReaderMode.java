@@ -0,0 +1,27 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source;
+
+/**
+ * The way a log-file is read.
+ * <ul>
+ * <li>BUFFERED - line by line using a {@link java.io.BufferedReader}</li>
+ * <li>MAPPED - memory-mapped windows of the file, lines are framed at byte level</li>
+ * <li>PARALLEL - the file is split into chunks that are mapped and framed on all cores (initial load of big files)</li>
+ * </ul>
+ * @author Thomas Obenaus
+ * @source FileReaderMode.java
+ * @date Oct 17, 2026
+ */
+public enum FileReaderMode
+{
+	BUFFERED, MAPPED, PARALLEL;
+}
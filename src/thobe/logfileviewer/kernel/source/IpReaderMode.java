@@ -0,0 +1,26 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source;
+
+/**
+ * The way a log is read over ip.
+ * <ul>
+ * <li>BLOCKING - line by line from the socket-stream, a block ends on reaching the socket-timeout</li>
+ * <li>NIO - non-blocking socket-channel, all available bytes are drained and framed into blocks</li>
+ * </ul>
+ * @author Thomas Obenaus
+ * @source IpReaderMode.java
+ * @date Oct 17, 2026
+ */
+public enum IpReaderMode
+{
+	BLOCKING, NIO;
+}
@@ -0,0 +1,28 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source;
+
+/**
+ * The way the lines retained by the LogLineBuffer are stored.
+ * <ul>
+ * <li>HEAP - the line-objects are kept on the heap</li>
+ * <li>OFF_HEAP - the bytes of the lines are kept in direct buffers, line-objects are created on access (for tens of millions of lines)</li>
+ * <li>COLUMNAR - time-stamps and references to the pooled data are kept in primitive arrays, line-objects are created on access</li>
+ * <li>COMPRESSED - full segments are deflated in the background, the newest lines and the recently read segments are kept as objects</li>
+ * </ul>
+ * @author Thomas Obenaus
+ * @source LogLineBufferMode.java
+ * @date Oct 17, 2026
+ */
+public enum LogLineBufferMode
+{
+	HEAP, OFF_HEAP, COLUMNAR, COMPRESSED;
+}
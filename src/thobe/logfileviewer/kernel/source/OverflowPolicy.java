@@ -0,0 +1,27 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source;
+
+/**
+ * What happens if a bounded buffer between a producer and a (slower) consumer is full.
+ * <ul>
+ * <li>BLOCK - the producer waits until there is free space (back-pressure, nothing is lost)</li>
+ * <li>DROP_OLDEST - the oldest entry is dropped in favour of the new one</li>
+ * <li>SAMPLE - only every n-th new entry is kept (replacing the oldest one), all others are dropped</li>
+ * </ul>
+ * @author Thomas Obenaus
+ * @source OverflowPolicy.java
+ * @date Oct 17, 2026
+ */
+public enum OverflowPolicy
+{
+	BLOCK, DROP_OLDEST, SAMPLE;
+}
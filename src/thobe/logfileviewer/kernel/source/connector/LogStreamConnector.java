@@ -18,9 +18,16 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
+import thobe.logfileviewer.kernel.source.FileReaderMode;
+import thobe.logfileviewer.kernel.source.IpReaderMode;
+import thobe.logfileviewer.kernel.source.OverflowPolicy;
 import thobe.logfileviewer.kernel.source.err.LogStreamException;
+import thobe.logfileviewer.kernel.source.extreader.ExternalLogStreamReader;
 import thobe.logfileviewer.kernel.source.extreader.FileLogStreamReader;
 import thobe.logfileviewer.kernel.source.extreader.IpLogStreamReader;
+import thobe.logfileviewer.kernel.source.extreader.MappedFileLogStreamReader;
+import thobe.logfileviewer.kernel.source.extreader.NioIpLogStreamReader;
+import thobe.logfileviewer.kernel.source.extreader.ParallelFileLogStreamReader;
 import thobe.logfileviewer.kernel.source.logstream.LogStream;
 import thobe.logfileviewer.plugin.source.logstream.ILogStreamStateListener;
 
@@ -47,6 +54,23 @@ public class LogStreamConnector extends Thread implements ILogStreamStateListene
 	private LogStream				logStream;
 	private AtomicBoolean			automaticReconnect;
 
+	/**
+	 * The way log-files are read.
+	 */
+	private FileReaderMode			fileReaderMode;
+
+	/**
+	 * The way logs are read over ip.
+	 */
+	private IpReaderMode			ipReaderMode;
+
+	/**
+	 * Settings for the line-buffer of the readers (see {@link ExternalLogStreamReader#setLineBufferSettings(int, OverflowPolicy, int)}).
+	 */
+	private int						lineBufferCapacity;
+	private OverflowPolicy			lineBufferOverflowPolicy;
+	private int						lineBufferSampleRate;
+
 	public LogStreamConnector( LogStream logStream )
 	{
 		super( "LogStreamConnector" );
@@ -57,6 +81,11 @@ public class LogStreamConnector extends Thread implements ILogStreamStateListene
 		this.eventSemaphore = new Semaphore( 1, true );
 		this.eventQueue = new ConcurrentLinkedDeque<>( );
 		this.lastConnectionEvent = null;
+		this.fileReaderMode = FileReaderMode.BUFFERED;
+		this.ipReaderMode = IpReaderMode.BLOCKING;
+		this.lineBufferCapacity = ExternalLogStreamReader.DEF_LINE_BUFFER_CAPACITY;
+		this.lineBufferOverflowPolicy = OverflowPolicy.BLOCK;
+		this.lineBufferSampleRate = 1;
 		this.log = Logger.getLogger( "thobe.logfileviewer.source.LogStreamConnector" );
 	}
 
@@ -72,6 +101,47 @@ public class LogStreamConnector extends Thread implements ILogStreamStateListene
 		this.addConnectEvent( event );
 	}
 
+	/**
+	 * Sets the way log-files are read (affects the next connection to a file).
+	 * @param fileReaderMode
+	 */
+	public void setFileReaderMode( FileReaderMode fileReaderMode )
+	{
+		this.fileReaderMode = fileReaderMode;
+	}
+
+	public FileReaderMode getFileReaderMode( )
+	{
+		return fileReaderMode;
+	}
+
+	/**
+	 * Sets the way logs are read over ip (affects the next connection).
+	 * @param ipReaderMode
+	 */
+	public void setIpReaderMode( IpReaderMode ipReaderMode )
+	{
+		this.ipReaderMode = ipReaderMode;
+	}
+
+	public IpReaderMode getIpReaderMode( )
+	{
+		return ipReaderMode;
+	}
+
+	/**
+	 * Sets capacity and overflow-policy of the line-buffer of the readers (affects the next connection).
+	 * @param capacity - max number of blocks
+	 * @param overflowPolicy - what happens if the line-buffer is full
+	 * @param sampleRate - only used for {@link OverflowPolicy#SAMPLE}
+	 */
+	public void setLineBufferSettings( int capacity, OverflowPolicy overflowPolicy, int sampleRate )
+	{
+		this.lineBufferCapacity = capacity;
+		this.lineBufferOverflowPolicy = overflowPolicy;
+		this.lineBufferSampleRate = sampleRate;
+	}
+
 	protected void addConnectEvent( LSConnectorEvent evt )
 	{
 		this.eventQueue.add( evt );
@@ -142,13 +212,17 @@ public class LogStreamConnector extends Thread implements ILogStreamStateListene
 			if ( connectToEvt instanceof LSCEvt_ConnectToIP )
 			{
 				LSCEvt_ConnectToIP connectToIpEvt = ( LSCEvt_ConnectToIP ) connectToEvt;
-				this.logStream.open( new IpLogStreamReader( connectToIpEvt.getHost( ), connectToIpEvt.getPort( ) ) );
+				ExternalLogStreamReader reader = this.createIpReader( connectToIpEvt.getHost( ), connectToIpEvt.getPort( ) );
+				reader.setLineBufferSettings( this.lineBufferCapacity, this.lineBufferOverflowPolicy, this.lineBufferSampleRate );
+				this.logStream.open( reader );
 				this.automaticReconnect.set( true );
 			}// if ( connectToEvt instanceof LSCEvt_ConnectToIP )
 			else if ( connectToEvt instanceof LSCEvt_ConnectoToFile )
 			{
 				LSCEvt_ConnectoToFile connectToFileEvt = ( LSCEvt_ConnectoToFile ) connectToEvt;
-				this.logStream.open( new FileLogStreamReader( connectToFileEvt.getFile( ) ) );
+				ExternalLogStreamReader reader = this.createFileReader( connectToFileEvt.getFile( ) );
+				reader.setLineBufferSettings( this.lineBufferCapacity, this.lineBufferOverflowPolicy, this.lineBufferSampleRate );
+				this.logStream.open( reader );
 				this.automaticReconnect.set( false );
 			}// else if ( connectToEvt instanceof LSCEvt_ConnectoToFile )
 			else
@@ -166,6 +240,43 @@ public class LogStreamConnector extends Thread implements ILogStreamStateListene
 		{}
 	}
 
+	/**
+	 * Creates the {@link ExternalLogStreamReader} for the given file matching the current {@link FileReaderMode}.
+	 * @param file
+	 * @return
+	 */
+	private ExternalLogStreamReader createFileReader( File file )
+	{
+		switch ( this.fileReaderMode )
+		{
+		case MAPPED:
+			return new MappedFileLogStreamReader( file );
+		case PARALLEL:
+			return new ParallelFileLogStreamReader( file );
+		case BUFFERED:
+		default:
+			return new FileLogStreamReader( file );
+		}// switch ( this.fileReaderMode ) .
+	}
+
+	/**
+	 * Creates the {@link ExternalLogStreamReader} for the given host and port matching the current {@link IpReaderMode}.
+	 * @param host
+	 * @param port
+	 * @return
+	 */
+	private ExternalLogStreamReader createIpReader( String host, int port )
+	{
+		switch ( this.ipReaderMode )
+		{
+		case NIO:
+			return new NioIpLogStreamReader( host, port );
+		case BLOCKING:
+		default:
+			return new IpLogStreamReader( host, port );
+		}// switch ( this.ipReaderMode ) .
+	}
+
 	@Override
 	public String getLogStreamListenerName( )
 	{
@@ -10,15 +10,14 @@
 
 package thobe.logfileviewer.kernel.source.extreader;
 
-import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import thobe.logfileviewer.kernel.LogFileViewerApp;
+import thobe.logfileviewer.kernel.source.OverflowPolicy;
 import thobe.logfileviewer.kernel.source.err.LogStreamException;
 import thobe.logfileviewer.kernel.source.err.LogStreamTimeoutException;
 import thobe.logfileviewer.kernel.source.logstream.LogStreamReaderState;
@@ -36,9 +35,19 @@ import thobe.logfileviewer.kernel.source.logstream.LogStreamReaderState;
 public abstract class ExternalLogStreamReader extends Thread
 {
 	/**
-	 * deque containing the contents of the log line by line.
+	 * Default max number of blocks in the line-buffer.
 	 */
-	private Deque<String>			lineBuffer;
+	public static final int			DEF_LINE_BUFFER_CAPACITY	= 256;
+
+	/**
+	 * Max time (in ms) to wait for free space in the line-buffer before checking whether quitting was requested.
+	 */
+	private static final int		OFFER_TIMEOUT				= 200;
+
+	/**
+	 * ring-buffer containing the contents of the log block by block.
+	 */
+	private LineBlockQueue			lineBuffer;
 
 	/**
 	 * true if the termination/ quit of reading the source/log, was requested.
@@ -93,7 +102,7 @@ public abstract class ExternalLogStreamReader extends Thread
 	/**
 	 * State of this {@link ExternalLogStreamReader}.
 	 */
-	private LogStreamReaderState	currentState;
+	private volatile LogStreamReaderState	currentState;
 
 	/**
 	 * Ctor
@@ -102,8 +111,8 @@ public abstract class ExternalLogStreamReader extends Thread
 	{
 		super( name );
 		this.log = Logger.getLogger( "thobe.logfileviewer.source.ExternalLogStreamReader" );
+		this.lineBuffer = new LineBlockQueue( DEF_LINE_BUFFER_CAPACITY, OverflowPolicy.BLOCK, 1 );
 		this.updateState( LogStreamReaderState.CLOSED );
-		this.lineBuffer = new ConcurrentLinkedDeque<>( );
 		this.quitRequested = new AtomicBoolean( false );
 		this.sourceOpened = new AtomicBoolean( false );
 		this.sourceEOFReached = new AtomicBoolean( false );
@@ -115,11 +124,29 @@ public abstract class ExternalLogStreamReader extends Thread
 		this.timeStampOfOpeningSource = 0;
 	}
 
+	/**
+	 * Sets the capacity (max number of blocks) of the internal line-buffer and what happens if it is full. Has to be called before the
+	 * {@link ExternalLogStreamReader} is opened.
+	 * @param capacity - max number of blocks
+	 * @param overflowPolicy - what happens if the line-buffer is full (the consumer is too slow)
+	 * @param sampleRate - only used for {@link OverflowPolicy#SAMPLE}, one of sampleRate blocks is kept while the buffer is full
+	 * @throws LogStreamException - if the reader is already open
+	 */
+	public void setLineBufferSettings( int capacity, OverflowPolicy overflowPolicy, int sampleRate ) throws LogStreamException
+	{
+		if ( this.sourceOpened.get( ) )
+			throw new LogStreamException( "Unable to change the line-buffer settings, reader is already open" );
+		this.lineBuffer = new LineBlockQueue( capacity, overflowPolicy, sampleRate );
+	}
+
 	private void updateState( LogStreamReaderState state )
 	{
 		String msg = "Upd state: " + this.currentState + "->" + state;
 		this.currentState = state;
 		LOG( ).info( msg );
+
+		// the consumer has to publish the new state
+		this.lineBuffer.wakeUp( );
 	}
 
 	/**
@@ -145,9 +172,9 @@ public abstract class ExternalLogStreamReader extends Thread
 		String result = null;
 		synchronized ( this.lineBuffer )
 		{
-			if ( !this.hasNextLine( ) )
+			result = this.lineBuffer.pollLine( );
+			if ( result == null )
 				throw new LogStreamException( "The queue is empty" );
-			result = this.lineBuffer.pop( );
 
 			// set state to EOF if the source has reached eof and if the complete line-buffer was consumed.
 			if ( this.isSourceEOFReached( ) && this.lineBuffer.isEmpty( ) )
@@ -171,12 +198,10 @@ public abstract class ExternalLogStreamReader extends Thread
 		List<String> block = null;
 		synchronized ( this.lineBuffer )
 		{
-			if ( !this.hasNextLine( ) )
+			block = this.lineBuffer.drainLines( );
+			if ( block.isEmpty( ) )
 				throw new LogStreamException( "The queue is empty" );
 
-			block = new ArrayList<>( this.lineBuffer );
-			this.lineBuffer.clear( );
-
 			// set state to EOF if the source has reached eof and if the complete line-buffer was consumed.
 			if ( this.isSourceEOFReached( ) )
 			{
@@ -186,18 +211,100 @@ public abstract class ExternalLogStreamReader extends Thread
 		return block;
 	}
 
+	/**
+	 * Waits at most timeout ms until at least one more line is available. Returns earlier if the state of the {@link ExternalLogStreamReader}
+	 * changes.
+	 * @param timeout - in ms
+	 * @return - true if at least one more line is available, false otherwise
+	 * @throws InterruptedException
+	 */
+	public boolean awaitNextLine( long timeout ) throws InterruptedException
+	{
+		return this.lineBuffer.awaitNotEmpty( timeout );
+	}
+
+	/**
+	 * Waits at most timeout ms until the state of the {@link ExternalLogStreamReader} changes (e.g. the source was opened).
+	 * @param timeout - in ms
+	 * @throws InterruptedException
+	 */
+	public void awaitStateChange( long timeout ) throws InterruptedException
+	{
+		this.lineBuffer.awaitWakeUp( timeout );
+	}
+
+	/**
+	 * Lets the consumer waiting in {@link #awaitNextLine(long)} or {@link #awaitStateChange(long)} return immediately.
+	 */
+	public void wakeUpConsumer( )
+	{
+		this.lineBuffer.wakeUp( );
+	}
+
+	/**
+	 * Returns the average time (in ms) a block of lines stays in the internal buffer until it is taken via
+	 * {@link ExternalLogStreamReader#nextLines()}.
+	 * @return
+	 */
+	public double getAvgHandOverLatency( )
+	{
+		return this.lineBuffer.getAvgHandOverLatency( ) / TimeUnit.MILLISECONDS.toNanos( 1 );
+	}
+
+	/**
+	 * Returns the max time (in ms) a block of lines stayed in the internal buffer until it was taken via
+	 * {@link ExternalLogStreamReader#nextLines()}.
+	 * @return
+	 */
+	public double getMaxHandOverLatency( )
+	{
+		return this.lineBuffer.getMaxHandOverLatency( ) / ( double ) TimeUnit.MILLISECONDS.toNanos( 1 );
+	}
+
+	/**
+	 * Returns the fill-level of the internal line-buffer (number of blocks / capacity) [0..1].
+	 * @return
+	 */
+	public double getLineBufferFillLevel( )
+	{
+		return this.lineBuffer.getFillLevel( );
+	}
+
+	/**
+	 * Returns the number of lines dropped since the internal line-buffer was full (see {@link OverflowPolicy}).
+	 * @return
+	 */
+	public long getNumDroppedLines( )
+	{
+		return this.lineBuffer.getDroppedLines( );
+	}
+
+	/**
+	 * Returns the number of blocks dropped since the internal line-buffer was full (see {@link OverflowPolicy}).
+	 * @return
+	 */
+	public long getNumDroppedBlocks( )
+	{
+		return this.lineBuffer.getDroppedBlocks( );
+	}
+
+	public OverflowPolicy getLineBufferOverflowPolicy( )
+	{
+		return this.lineBuffer.getOverflowPolicy( );
+	}
+
+	public int getLineBufferCapacity( )
+	{
+		return this.lineBuffer.getCapacity( );
+	}
+
 	/**
 	 * Returns true if at least one more line is available, false otherwise.
 	 * @return
 	 */
 	public boolean hasNextLine( )
 	{
-		boolean empty = false;
-		synchronized ( lineBuffer )
-		{
-			empty = this.lineBuffer.isEmpty( );
-		}
-		return !empty;
+		return !this.lineBuffer.isEmpty( );
 	}
 
 	/**
@@ -235,33 +342,37 @@ public abstract class ExternalLogStreamReader extends Thread
 				// delegate the reading to the specific source-implementation
 				List<String> block = readBlockImpl( 200, this.maxBlockTime, 10, this.maxBlockSize );
 
-				synchronized ( this.lineBuffer )
+				if ( !block.isEmpty( ) )
 				{
-					if ( !block.isEmpty( ) )
-					{
-						somethingAdded = true;
-
-						// add the lines to the buffer
-						this.lineBuffer.addAll( block );
-						this.numLinesRead += block.size( );
-						//					System.out.println("ELSR NB: " + block.size( ) + "(" + this.numLinesRead + ")");
-					}// if ( !block.isEmpty( ) ) .
-				}// synchronized ( this.lineBuffer )
+					somethingAdded = true;
 
-				// set EOF if nothing was read/added
-				if ( !somethingAdded )
+					// add the lines to the buffer (wakes up the consumer), wait while the buffer is full
+					while ( !this.lineBuffer.offer( block, OFFER_TIMEOUT ) )
+					{
+						if ( this.quitRequested.get( ) )
+							break;
+					}// while ( !this.lineBuffer.offer( block, OFFER_TIMEOUT ) ) .
+					this.numLinesRead += block.size( );
+				}// if ( !block.isEmpty( ) ) .
+
+				// set EOF if nothing was read/added (a source that just had no data yet is not at its end)
+				if ( !somethingAdded && !this.isSourceIdle( ) )
 				{
 					// end of file reached
-					this.sourceEOFReached.set( true );
-					LOG( ).info( "End of file reached" );
+					this.setSourceEOFReached( );
 				}// if ( newLine != null ) ... else ...
 			}
 			catch ( LogStreamTimeoutException e )
 			{
 				// The call to readLineImpl() timed out --> EOF
 				LOG( ).warning( this.getClass( ).getSimpleName( ) + " error reading next line: '" + e.getLocalizedMessage( ) + ( this.stopOnReachingEOF ? "'. stop reading." : "'. continue reading" ) );
-				this.sourceEOFReached.set( true );
+				this.setSourceEOFReached( );
 			}//catch ( LogStreamTimeoutException e ) .
+			catch ( InterruptedException e )
+			{
+				LOG( ).info( "" + this.getClass( ).getSimpleName( ) + " interrupted: " + e.getLocalizedMessage( ) );
+				break;
+			}// catch ( InterruptedException e ) .
 			catch ( LogStreamException e )
 			{
 				LOG( ).warning( this.getClass( ).getSimpleName( ) + " error reading next line: '" + e.getLocalizedMessage( ) + "'. stop reading." );
@@ -269,8 +380,8 @@ public abstract class ExternalLogStreamReader extends Thread
 				break;
 			}// catch ( LogStreamException e ) .
 
-			// sleep only if we don't have already reached the EOF or if we don't want to stop at the end of file
-			if ( !this.sourceEOFReached.get( ) || !this.stopOnReachingEOF )
+			// sleep only if a sleep-time is set and if we don't have already reached the EOF or if we don't want to stop at the end of file
+			if ( ( this.sleepTime.get( ) > 0 ) && ( !this.sourceEOFReached.get( ) || !this.stopOnReachingEOF ) )
 			{
 				try
 				{
@@ -313,6 +424,24 @@ public abstract class ExternalLogStreamReader extends Thread
 		return ( this.numLinesRead / ( elapsed / 1000.0d ) );
 	}
 
+	/**
+	 * Marks the source as completely read. If all lines where already consumed the state changes to
+	 * {@link LogStreamReaderState#EOF_REACHED} immediately, otherwise on consuming the last line.
+	 */
+	private void setSourceEOFReached( )
+	{
+		synchronized ( this.lineBuffer )
+		{
+			this.sourceEOFReached.set( true );
+			LOG( ).info( "End of file reached" );
+
+			if ( this.lineBuffer.isEmpty( ) && this.currentState == LogStreamReaderState.OPEN )
+			{
+				this.updateState( LogStreamReaderState.EOF_REACHED );
+			}// if ( this.lineBuffer.isEmpty( ) && this.currentState == LogStreamReaderState.OPEN ) .
+		}// synchronized ( this.lineBuffer ) .
+	}
+
 	private boolean isSourceEOFReached( )
 	{
 		return sourceEOFReached.get( );
@@ -363,6 +492,17 @@ public abstract class ExternalLogStreamReader extends Thread
 	 */
 	protected abstract List<String> readBlockImpl( int minBlockTime, int maxBlockTime, int minBlockSize, int maxBlockSize ) throws LogStreamException, LogStreamTimeoutException;
 
+	/**
+	 * Returns true if the last (empty) block returned by {@link ExternalLogStreamReader#readBlockImpl(int, int, int, int)} was empty because
+	 * the source had no data available, not because the end of the source was reached. Sources reading without timeouts (e.g. non-blocking
+	 * sockets) should override this method, by default an empty block means eof.
+	 * @return
+	 */
+	protected boolean isSourceIdle( )
+	{
+		return false;
+	}
+
 	/**
 	 * Implement this method in the specific trace-source. This method will called each time a new source should be opened.
 	 * @param timeout - max time (in ms) this method will be blocked until an {@link LogStreamException} is thrown.
@@ -0,0 +1,89 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.extreader;
+
+import java.util.List;
+
+/**
+ * One slot of the {@link LineBlockQueue}: a block of lines read from the source together with the time it was handed over to the queue.
+ * The slots are preallocated and reused, lines can be consumed one by one ({@link #nextLine()}) or all remaining at once
+ * ({@link #remainingLines()}).
+ * @author Thomas Obenaus
+ * @source LineBlock.java
+ * @date Oct 17, 2026
+ */
+final class LineBlock
+{
+	private List<String>	lines;
+
+	/**
+	 * Time ({@link System#nanoTime()}) the block was added to the queue.
+	 */
+	private long			enqueueTime;
+
+	/**
+	 * Index of the next line that was not consumed yet.
+	 */
+	private int				nextLine;
+
+	/**
+	 * Fills this slot with the given lines.
+	 * @param lines
+	 */
+	public void set( List<String> lines )
+	{
+		this.lines = lines;
+		this.enqueueTime = System.nanoTime( );
+		this.nextLine = 0;
+	}
+
+	/**
+	 * Releases the lines of this slot.
+	 */
+	public void clear( )
+	{
+		this.lines = null;
+		this.nextLine = 0;
+	}
+
+	public long getEnqueueTime( )
+	{
+		return enqueueTime;
+	}
+
+	public boolean isConsumed( )
+	{
+		return this.nextLine >= this.lines.size( );
+	}
+
+	public int getNumRemainingLines( )
+	{
+		return this.lines.size( ) - this.nextLine;
+	}
+
+	/**
+	 * Consumes and returns the next line of this block.
+	 * @return
+	 */
+	public String nextLine( )
+	{
+		return this.lines.get( this.nextLine++ );
+	}
+
+	/**
+	 * Returns all lines that where not consumed yet (without consuming them).
+	 * @return
+	 */
+	public List<String> remainingLines( )
+	{
+		return ( this.nextLine == 0 ) ? this.lines : this.lines.subList( this.nextLine, this.lines.size( ) );
+	}
+}
@@ -0,0 +1,410 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.extreader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import thobe.logfileviewer.kernel.source.OverflowPolicy;
+
+/**
+ * Bounded ring buffer of {@link LineBlock}s handing over the lines from the thread reading the source (single producer) to the thread
+ * publishing them (single consumer). The slots are preallocated, the capacity is fixed. The consumer waits until a block arrives (or it is
+ * woken up explicitly e.g. on a change of the state) instead of polling. If the ring is full the {@link OverflowPolicy} decides whether the
+ * producer waits (back-pressure) or blocks are dropped.
+ * @author Thomas Obenaus
+ * @source LineBlockQueue.java
+ * @date Oct 17, 2026
+ */
+final class LineBlockQueue
+{
+	/**
+	 * The preallocated slots.
+	 */
+	private final LineBlock[]		ring;
+
+	/**
+	 * Index of the oldest block.
+	 */
+	private int						head;
+
+	/**
+	 * Number of blocks in the ring.
+	 */
+	private int						size;
+
+	/**
+	 * Number of lines in all blocks that where not consumed yet.
+	 */
+	private int						numLines;
+
+	private final OverflowPolicy	overflowPolicy;
+
+	/**
+	 * Only used for {@link OverflowPolicy#SAMPLE}: one of sampleRate blocks is kept while the ring is full.
+	 */
+	private final int				sampleRate;
+	private long					sampleCounter;
+
+	private final ReentrantLock		lock;
+	private final Condition			notEmpty;
+	private final Condition			notFull;
+
+	/**
+	 * True if {@link #wakeUp()} was called and the consumer did not return from {@link #awaitNotEmpty(long)} since then.
+	 */
+	private boolean					wakeUpPending;
+
+	private final AtomicLong		droppedBlocks;
+	private final AtomicLong		droppedLines;
+
+	/**
+	 * Sum of the hand-over latencies (time between adding a block and taking it) in ns.
+	 */
+	private final AtomicLong		handOverLatencySum;
+	private final AtomicLong		handOverCount;
+	private final AtomicLong		handOverLatencyMax;
+
+	/**
+	 * Ctor
+	 * @param capacity - max number of blocks in the ring
+	 * @param overflowPolicy - what happens if the ring is full
+	 * @param sampleRate - for {@link OverflowPolicy#SAMPLE} keep one of sampleRate blocks while the ring is full
+	 */
+	public LineBlockQueue( int capacity, OverflowPolicy overflowPolicy, int sampleRate )
+	{
+		if ( capacity < 1 )
+			throw new IllegalArgumentException( "Capacity has to be >= 1 (" + capacity + ")" );
+		this.ring = new LineBlock[capacity];
+		for ( int i = 0; i < capacity; ++i )
+			this.ring[i] = new LineBlock( );
+		this.head = 0;
+		this.size = 0;
+		this.numLines = 0;
+		this.overflowPolicy = overflowPolicy;
+		this.sampleRate = Math.max( 1, sampleRate );
+		this.sampleCounter = 0;
+		this.lock = new ReentrantLock( );
+		this.notEmpty = this.lock.newCondition( );
+		this.notFull = this.lock.newCondition( );
+		this.wakeUpPending = false;
+		this.droppedBlocks = new AtomicLong( 0 );
+		this.droppedLines = new AtomicLong( 0 );
+		this.handOverLatencySum = new AtomicLong( 0 );
+		this.handOverCount = new AtomicLong( 0 );
+		this.handOverLatencyMax = new AtomicLong( 0 );
+	}
+
+	/**
+	 * Adds the given block of lines. If the ring is full the {@link OverflowPolicy} is applied, for {@link OverflowPolicy#BLOCK} this
+	 * method waits at most timeout ms for a free slot.
+	 * @param lines
+	 * @param timeout - in ms
+	 * @return - false if the block could not be added since the ring is still full after timeout ms
+	 * @throws InterruptedException
+	 */
+	public boolean offer( List<String> lines, long timeout ) throws InterruptedException
+	{
+		long nanos = TimeUnit.MILLISECONDS.toNanos( timeout );
+		this.lock.lockInterruptibly( );
+		try
+		{
+			if ( this.size == this.ring.length )
+			{
+				switch ( this.overflowPolicy )
+				{
+				case DROP_OLDEST:
+					this.dropHead( );
+					break;
+				case SAMPLE:
+					if ( ( this.sampleCounter++ % this.sampleRate ) != 0 )
+					{
+						// drop the new block
+						this.droppedBlocks.incrementAndGet( );
+						this.droppedLines.addAndGet( lines.size( ) );
+						return true;
+					}// if ( ( this.sampleCounter++ % this.sampleRate ) != 0 ) .
+					this.dropHead( );
+					break;
+				case BLOCK:
+				default:
+					while ( this.size == this.ring.length )
+					{
+						if ( nanos <= 0 )
+							return false;
+						nanos = this.notFull.awaitNanos( nanos );
+					}// while ( this.size == this.ring.length ) .
+					break;
+				}// switch ( this.overflowPolicy ) .
+			}// if ( this.size == this.ring.length ) .
+			else
+			{
+				this.sampleCounter = 0;
+			}// if ( this.size == this.ring.length ) ... else ...
+
+			this.ring[( this.head + this.size ) % this.ring.length].set( lines );
+			this.size++;
+			this.numLines += lines.size( );
+			this.notEmpty.signal( );
+			return true;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Waits at most timeout ms until the ring contains at least one line or {@link #wakeUp()} was called.
+	 * @param timeout - in ms
+	 * @return - true if the ring is not empty
+	 * @throws InterruptedException
+	 */
+	public boolean awaitNotEmpty( long timeout ) throws InterruptedException
+	{
+		long nanos = TimeUnit.MILLISECONDS.toNanos( timeout );
+		this.lock.lockInterruptibly( );
+		try
+		{
+			while ( ( this.numLines == 0 ) && !this.wakeUpPending && ( nanos > 0 ) )
+			{
+				nanos = this.notEmpty.awaitNanos( nanos );
+			}
+			this.wakeUpPending = false;
+			return this.numLines > 0;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Waits at most timeout ms until {@link #wakeUp()} was called, regardless of the lines in the ring (for a consumer that does not take
+	 * lines, e.g. while the source is not open).
+	 * @param timeout - in ms
+	 * @throws InterruptedException
+	 */
+	public void awaitWakeUp( long timeout ) throws InterruptedException
+	{
+		long nanos = TimeUnit.MILLISECONDS.toNanos( timeout );
+		this.lock.lockInterruptibly( );
+		try
+		{
+			while ( !this.wakeUpPending && ( nanos > 0 ) )
+			{
+				nanos = this.notEmpty.awaitNanos( nanos );
+			}
+			this.wakeUpPending = false;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Wakes up the consumer waiting in {@link #awaitNotEmpty(long)} or {@link #awaitWakeUp(long)} (or lets its next call return immediately).
+	 */
+	public void wakeUp( )
+	{
+		this.lock.lock( );
+		try
+		{
+			this.wakeUpPending = true;
+			this.notEmpty.signalAll( );
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Consumes and returns the next line or null if the ring is empty.
+	 * @return
+	 */
+	public String pollLine( )
+	{
+		this.lock.lock( );
+		try
+		{
+			if ( this.numLines == 0 )
+				return null;
+
+			// skip empty blocks
+			while ( this.ring[this.head].isConsumed( ) )
+			{
+				this.removeHead( );
+			}
+
+			LineBlock head = this.ring[this.head];
+			String line = head.nextLine( );
+			this.numLines--;
+			if ( head.isConsumed( ) )
+			{
+				this.updateHandOverLatency( System.nanoTime( ) - head.getEnqueueTime( ) );
+				this.removeHead( );
+			}
+			return line;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Removes and returns all lines that where not consumed yet.
+	 * @return - the lines, an empty list if the ring is empty
+	 */
+	public List<String> drainLines( )
+	{
+		this.lock.lock( );
+		try
+		{
+			List<String> result = null;
+			long now = System.nanoTime( );
+			while ( this.size > 0 )
+			{
+				LineBlock block = this.ring[this.head];
+				if ( result == null && this.size == 1 )
+				{
+					// only one block, hand it over without copying
+					result = block.remainingLines( );
+				}// if ( result == null && this.size == 1 ) .
+				else
+				{
+					if ( result == null )
+						result = new ArrayList<>( this.numLines );
+					result.addAll( block.remainingLines( ) );
+				}// if ( result == null && this.size == 1 ) ... else ...
+
+				this.updateHandOverLatency( now - block.getEnqueueTime( ) );
+				this.removeHead( );
+			}// while ( this.size > 0 ) .
+			this.numLines = 0;
+			return ( result != null ) ? result : new ArrayList<String>( );
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Returns true if there is no line that was not consumed yet.
+	 * @return
+	 */
+	public boolean isEmpty( )
+	{
+		this.lock.lock( );
+		try
+		{
+			return this.numLines == 0;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Returns the fill-level of the ring (number of blocks / capacity) [0..1].
+	 * @return
+	 */
+	public double getFillLevel( )
+	{
+		this.lock.lock( );
+		try
+		{
+			return this.size / ( double ) this.ring.length;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	public int getCapacity( )
+	{
+		return this.ring.length;
+	}
+
+	public OverflowPolicy getOverflowPolicy( )
+	{
+		return overflowPolicy;
+	}
+
+	public long getDroppedBlocks( )
+	{
+		return this.droppedBlocks.get( );
+	}
+
+	public long getDroppedLines( )
+	{
+		return this.droppedLines.get( );
+	}
+
+	/**
+	 * Returns the average hand-over latency in ns.
+	 * @return
+	 */
+	public double getAvgHandOverLatency( )
+	{
+		long count = this.handOverCount.get( );
+		if ( count == 0 )
+			return 0;
+		return this.handOverLatencySum.get( ) / ( double ) count;
+	}
+
+	/**
+	 * Returns the max hand-over latency in ns.
+	 * @return
+	 */
+	public long getMaxHandOverLatency( )
+	{
+		return this.handOverLatencyMax.get( );
+	}
+
+	private void updateHandOverLatency( long latency )
+	{
+		this.handOverLatencySum.addAndGet( latency );
+		this.handOverCount.incrementAndGet( );
+		if ( latency > this.handOverLatencyMax.get( ) )
+			this.handOverLatencyMax.set( latency );
+	}
+
+	/**
+	 * Drops the oldest block (ring is full).
+	 */
+	private void dropHead( )
+	{
+		LineBlock block = this.ring[this.head];
+		int lines = block.getNumRemainingLines( );
+		this.numLines -= lines;
+		this.droppedBlocks.incrementAndGet( );
+		this.droppedLines.addAndGet( lines );
+		this.removeHead( );
+	}
+
+	private void removeHead( )
+	{
+		this.ring[this.head].clear( );
+		this.head = ( this.head + 1 ) % this.ring.length;
+		this.size--;
+		this.notFull.signal( );
+	}
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.extreader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * Splits raw bytes into lines by scanning for '\n' at byte level. The bytes are copied in bulk from the given {@link ByteBuffer} into a
+ * reusable work-array, only complete lines are decoded into {@link String}s. An incomplete line at the end of a buffer is kept in an
+ * internal carry-buffer and will be completed by the bytes passed in on the next call. A trailing '\r' is removed (windows line-endings).
+ * Not thread-safe, each reader has to use its own instance.
+ * @author Thomas Obenaus
+ * @source LineFramer.java
+ * @date Oct 17, 2026
+ */
+final class LineFramer
+{
+	/**
+	 * Size of the work-array used for bulk-copies from the {@link ByteBuffer}.
+	 */
+	private static final int	WORK_SIZE			= 64 * 1024;
+
+	/**
+	 * Initial size of the carry-buffer.
+	 */
+	private static final int	INITIAL_CARRY_SIZE	= 1024;
+
+	private final Charset		charset;
+
+	/**
+	 * Array the bytes are copied to before scanning them.
+	 */
+	private final byte[]		work;
+
+	/**
+	 * Buffer for the bytes of a line that is not yet complete.
+	 */
+	private byte[]				carry;
+
+	/**
+	 * Number of bytes in the carry-buffer.
+	 */
+	private int					carryLen;
+
+	public LineFramer( Charset charset )
+	{
+		this.charset = charset;
+		this.work = new byte[WORK_SIZE];
+		this.carry = new byte[INITIAL_CARRY_SIZE];
+		this.carryLen = 0;
+	}
+
+	/**
+	 * Frames complete lines from the remaining bytes of the given {@link ByteBuffer} and appends them to the given list. Stops as soon
+	 * as maxLines lines where added, in this case the position of the buffer points to the first byte that was not consumed. Otherwise
+	 * the buffer is consumed completely and the bytes of a trailing incomplete line are kept until the next call.
+	 * @param src - the bytes
+	 * @param lines - list the complete lines are added to
+	 * @param maxLines - max number of lines that should be added
+	 * @return - the number of lines added
+	 */
+	public int frame( ByteBuffer src, List<String> lines, int maxLines )
+	{
+		int added = 0;
+		while ( ( added < maxLines ) && src.hasRemaining( ) )
+		{
+			final int base = src.position( );
+			final int len = Math.min( src.remaining( ), this.work.length );
+			src.get( this.work, 0, len );
+
+			int lineStart = 0;
+			int i = 0;
+			while ( ( i < len ) && ( added < maxLines ) )
+			{
+				if ( this.work[i] == '\n' )
+				{
+					lines.add( this.emit( lineStart, i ) );
+					lineStart = i + 1;
+					added++;
+				}// if ( this.work[i] == '\n' ) .
+				i++;
+			}// while ( ( i < len ) && ( added < maxLines ) ) .
+
+			if ( added >= maxLines && lineStart < len )
+			{
+				// hand back the bytes that where not consumed
+				src.position( base + lineStart );
+			}// if ( added >= maxLines && lineStart < len ) .
+			else
+			{
+				this.appendToCarry( this.work, lineStart, len - lineStart );
+			}// if ( added >= maxLines && lineStart < len ) ... else ...
+		}// while ( ( added < maxLines ) && src.hasRemaining( ) ) .
+		return added;
+	}
+
+	/**
+	 * Returns the incomplete line that is currently kept (bytes without a terminating '\n') or null if there is none. The line will be
+	 * consumed.
+	 * @return
+	 */
+	public String flush( )
+	{
+		if ( this.carryLen == 0 )
+			return null;
+		String line = this.decode( this.carry, 0, this.carryLen );
+		this.carryLen = 0;
+		return line;
+	}
+
+	/**
+	 * Returns true if bytes of an incomplete line are kept.
+	 * @return
+	 */
+	public boolean hasPartialLine( )
+	{
+		return this.carryLen > 0;
+	}
+
+	/**
+	 * Drops the bytes of an incomplete line.
+	 */
+	public void reset( )
+	{
+		this.carryLen = 0;
+	}
+
+	private String emit( int from, int to )
+	{
+		if ( this.carryLen == 0 )
+		{
+			return this.decode( this.work, from, to - from );
+		}// if ( this.carryLen == 0 ) .
+
+		// the line started in a previous buffer
+		this.appendToCarry( this.work, from, to - from );
+		String line = this.decode( this.carry, 0, this.carryLen );
+		this.carryLen = 0;
+		return line;
+	}
+
+	private String decode( byte[] bytes, int offset, int len )
+	{
+		if ( len > 0 && bytes[offset + len - 1] == '\r' )
+		{
+			len--;
+		}
+		return new String( bytes, offset, len, this.charset );
+	}
+
+	private void appendToCarry( byte[] bytes, int offset, int len )
+	{
+		if ( len == 0 )
+			return;
+
+		if ( this.carryLen + len > this.carry.length )
+		{
+			byte[] newCarry = new byte[Math.max( this.carry.length * 2, this.carryLen + len )];
+			System.arraycopy( this.carry, 0, newCarry, 0, this.carryLen );
+			this.carry = newCarry;
+		}// if ( this.carryLen + len > this.carry.length ) .
+
+		System.arraycopy( bytes, offset, this.carry, this.carryLen, len );
+		this.carryLen += len;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.extreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import thobe.logfileviewer.kernel.source.err.LogStreamException;
+import thobe.logfileviewer.kernel.source.err.LogStreamTimeoutException;
+
+/**
+ * {@link ExternalLogStreamReader} reading a file through memory-mapped windows ({@link FileChannel#map}). The lines are framed at byte
+ * level directly from the mapped pages, which avoids the per-char decoding of a {@link java.io.BufferedReader} and makes sequential reads
+ * of multi-GB files cheap.
+ * @author Thomas Obenaus
+ * @source MappedFileLogStreamReader.java
+ * @date Oct 17, 2026
+ */
+public class MappedFileLogStreamReader extends ExternalLogStreamReader
+{
+	/**
+	 * Size of one mapped window (in bytes).
+	 */
+	private static final long	WINDOW_SIZE				= 64 * 1024 * 1024;
+
+	/**
+	 * Default max number of lines of one block, framing is cheap so blocks can be much bigger than for line-by-line readers.
+	 */
+	private static final int	DEFAULT_MAX_BLOCK_SIZE	= 10000;
+
+	private File				file;
+	private FileChannel			channel;
+
+	/**
+	 * The currently mapped window of the file.
+	 */
+	private MappedByteBuffer	window;
+
+	/**
+	 * Position (in the file) of the first byte of the current window.
+	 */
+	private long				windowPosition;
+
+	private LineFramer			framer;
+
+	public MappedFileLogStreamReader( File file )
+	{
+		super( "MappedFileLogStreamReader" );
+		this.file = file;
+		this.framer = new LineFramer( Charset.defaultCharset( ) );
+		this.setMaxBlockSize( DEFAULT_MAX_BLOCK_SIZE );
+	}
+
+	@Override
+	protected synchronized String readLineImpl( int maxBlockTime ) throws LogStreamException, LogStreamTimeoutException
+	{
+		List<String> line = this.readBlockImpl( 0, maxBlockTime, 1, 1 );
+		return line.isEmpty( ) ? null : line.get( 0 );
+	}
+
+	@Override
+	protected synchronized List<String> readBlockImpl( int minBlockTime, int maxBlockTime, int minBlockSize, int maxBlockSize ) throws LogStreamException, LogStreamTimeoutException
+	{
+		List<String> block = new ArrayList<>( );
+
+		if ( this.channel == null )
+		{
+			throw new LogStreamException( "Reader not open, resource is null" );
+		}// if ( this.channel == null ) .
+
+		try
+		{
+			long startTime = System.currentTimeMillis( );
+			long elapsedTime = 0;
+			boolean minBlockTimeExceeded = false;
+			boolean minBlockSizeExceeded = false;
+			long halfBlockTime = maxBlockTime / 2;
+
+			while ( ( elapsedTime < maxBlockTime ) && ( block.size( ) < maxBlockSize ) )
+			{
+				if ( ( this.window == null || !this.window.hasRemaining( ) ) && !this.mapNextWindow( ) )
+				{
+					// eof reached, hand over the last line even if it is not terminated (as BufferedReader.readLine() does)
+					String lastLine = this.framer.flush( );
+					if ( lastLine != null )
+						block.add( lastLine );
+					break;
+				}// if ( ( this.window == null || !this.window.hasRemaining( ) ) && !this.mapNextWindow( ) ) .
+
+				this.framer.frame( this.window, block, maxBlockSize - block.size( ) );
+				elapsedTime = System.currentTimeMillis( ) - startTime;
+
+				minBlockTimeExceeded = elapsedTime >= minBlockTime;
+				minBlockSizeExceeded = block.size( ) >= minBlockSize;
+
+				// leave loop if min-blocktime and min-blocksize where exceeded
+				if ( ( minBlockSizeExceeded && minBlockTimeExceeded ) || ( minBlockSizeExceeded && ( elapsedTime >= halfBlockTime ) ) )
+				{
+					break;
+				}
+			}// while ( ( elapsedTime < maxBlockTime ) && ( block.size( ) < maxBlockSize ) ).
+			return block;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "Error reading from '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+	}
+
+	/**
+	 * Maps the next window of the file, starting at the first byte that was not consumed yet.
+	 * @return - false if there are no more bytes to map (eof)
+	 * @throws IOException
+	 */
+	private boolean mapNextWindow( ) throws IOException
+	{
+		long position = this.windowPosition + ( this.window != null ? this.window.position( ) : 0 );
+		long size = this.channel.size( );
+		if ( position >= size )
+			return false;
+
+		long len = Math.min( WINDOW_SIZE, size - position );
+		this.window = this.channel.map( FileChannel.MapMode.READ_ONLY, position, len );
+		this.windowPosition = position;
+		return true;
+	}
+
+	@Override
+	protected synchronized void openImpl( int timeout ) throws LogStreamException
+	{
+		if ( this.file == null )
+			throw new LogStreamException( "File is missing" );
+
+		if ( this.file.isDirectory( ) )
+			throw new LogStreamException( "File is a directory" );
+
+		if ( !this.file.canRead( ) )
+			throw new LogStreamException( "File not readable" );
+
+		try
+		{
+			this.channel = FileChannel.open( this.file.toPath( ), StandardOpenOption.READ );
+			this.window = null;
+			this.windowPosition = 0;
+			this.framer.reset( );
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "(IOException) Unable to open file '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+	}
+
+	@Override
+	protected synchronized void closeImpl( ) throws LogStreamException
+	{
+		try
+		{
+			// close open resources, the mapped window is released by the gc
+			this.window = null;
+			if ( this.channel != null )
+				this.channel.close( );
+			this.channel = null;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "Failed to close file '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.extreader;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import thobe.logfileviewer.kernel.source.err.LogStreamException;
+import thobe.logfileviewer.kernel.source.err.LogStreamTimeoutException;
+
+/**
+ * {@link ExternalLogStreamReader} reading over ip using a non-blocking {@link SocketChannel} and a {@link Selector}. All bytes available on
+ * the socket are drained into a reusable direct {@link ByteBuffer} and framed into lines incrementally, so a burst is handed over as one
+ * block instead of reading line by line. A quiet socket is not treated as end of the stream, the reader just waits for the next data.
+ * @author Thomas Obenaus
+ * @source NioIpLogStreamReader.java
+ * @date Oct 17, 2026
+ */
+public class NioIpLogStreamReader extends ExternalLogStreamReader
+{
+	/**
+	 * Size of the receive-buffer (in bytes).
+	 */
+	private static final int	BUFFER_SIZE				= 256 * 1024;
+
+	/**
+	 * Default max number of lines of one block.
+	 */
+	private static final int	DEFAULT_MAX_BLOCK_SIZE	= 10000;
+
+	private int					port;
+	private String				host;
+	private SocketChannel		channel;
+	private Selector			selector;
+	private ByteBuffer			buffer;
+	private LineFramer			framer;
+
+	/**
+	 * True if the last empty block was returned since no data was available on the socket.
+	 */
+	private boolean				idle;
+
+	public NioIpLogStreamReader( String host, int port )
+	{
+		super( "NioIpLogStreamReader" );
+		this.host = host;
+		this.port = port;
+		this.buffer = ByteBuffer.allocateDirect( BUFFER_SIZE );
+		this.framer = new LineFramer( Charset.forName( "UTF-8" ) );
+		this.idle = false;
+		this.setMaxBlockSize( DEFAULT_MAX_BLOCK_SIZE );
+	}
+
+	@Override
+	protected synchronized String readLineImpl( int maxBlockTime ) throws LogStreamException, LogStreamTimeoutException
+	{
+		List<String> line = this.readBlockImpl( 0, maxBlockTime, 1, 1 );
+		if ( line.isEmpty( ) && this.idle )
+		{
+			throw new LogStreamTimeoutException( "No data received within " + maxBlockTime + " ms" );
+		}
+		return line.isEmpty( ) ? null : line.get( 0 );
+	}
+
+	@Override
+	protected synchronized List<String> readBlockImpl( int minBlockTime, int maxBlockTime, int minBlockSize, int maxBlockSize ) throws LogStreamException, LogStreamTimeoutException
+	{
+		List<String> block = new ArrayList<>( );
+
+		if ( this.channel == null )
+		{
+			throw new LogStreamException( "Reader not open, resource is null" );
+		}// if ( this.channel == null ) .
+
+		try
+		{
+			long startTime = System.currentTimeMillis( );
+			long elapsedTime = 0;
+			this.idle = false;
+
+			// lines left in the buffer by the previous call (max block size reached)
+			this.frameBuffer( block, maxBlockSize );
+
+			while ( ( elapsedTime < maxBlockTime ) && ( block.size( ) < maxBlockSize ) )
+			{
+				int read = this.channel.read( this.buffer );
+				if ( read < 0 )
+				{
+					// eof reached, hand over the last line even if it is not terminated
+					String lastLine = this.framer.flush( );
+					if ( lastLine != null )
+						block.add( lastLine );
+					return block;
+				}// if ( read < 0 ) .
+
+				if ( read > 0 )
+				{
+					this.frameBuffer( block, maxBlockSize );
+				}// if ( read > 0 ) .
+				else if ( !block.isEmpty( ) && ( block.size( ) >= minBlockSize || ( elapsedTime >= minBlockTime ) ) )
+				{
+					// socket drained, hand over what we have
+					break;
+				}// else if ( !block.isEmpty( ) && ( block.size( ) >= minBlockSize || ( elapsedTime >= minBlockTime ) ) ) .
+				else
+				{
+					// nothing available, wait for the socket to become readable
+					long waitTime = maxBlockTime - elapsedTime;
+					if ( !block.isEmpty( ) )
+					{
+						waitTime = Math.min( waitTime, minBlockTime - elapsedTime );
+					}
+
+					if ( waitTime > 0 )
+					{
+						this.selector.select( waitTime );
+						this.selector.selectedKeys( ).clear( );
+					}
+				}// if ( read > 0 ) ... else ...
+
+				elapsedTime = System.currentTimeMillis( ) - startTime;
+			}// while ( ( elapsedTime < maxBlockTime ) && ( block.size( ) < maxBlockSize ) ).
+
+			this.idle = block.isEmpty( );
+			return block;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( e.getLocalizedMessage( ) );
+		}
+	}
+
+	/**
+	 * Frames the bytes currently in the receive-buffer into lines, leaving the bytes that where not consumed in the buffer.
+	 * @param block
+	 * @param maxBlockSize
+	 */
+	private void frameBuffer( List<String> block, int maxBlockSize )
+	{
+		this.buffer.flip( );
+		this.framer.frame( this.buffer, block, maxBlockSize - block.size( ) );
+		this.buffer.compact( );
+	}
+
+	@Override
+	protected boolean isSourceIdle( )
+	{
+		return this.idle;
+	}
+
+	@Override
+	protected synchronized void openImpl( int timeout ) throws LogStreamException
+	{
+		if ( this.host == null || this.host.trim( ).isEmpty( ) )
+			throw new LogStreamException( "Hostname is missing" );
+		if ( this.port == 0 )
+			throw new LogStreamException( "Port '" + this.port + "' is invalid" );
+
+		try
+		{
+			this.selector = Selector.open( );
+			this.channel = SocketChannel.open( );
+			this.channel.configureBlocking( false );
+			this.channel.register( this.selector, SelectionKey.OP_CONNECT );
+
+			// connect to socket regarding timeout
+			if ( !this.channel.connect( new InetSocketAddress( this.host, this.port ) ) )
+			{
+				this.selector.select( timeout );
+				this.selector.selectedKeys( ).clear( );
+				if ( !this.channel.finishConnect( ) )
+				{
+					throw new IOException( "Connection not established within " + timeout + " ms" );
+				}
+			}// if ( !this.channel.connect( new InetSocketAddress( this.host, this.port ) ) ) .
+
+			this.channel.keyFor( this.selector ).interestOps( SelectionKey.OP_READ );
+			this.buffer.clear( );
+			this.framer.reset( );
+		}
+		catch ( IOException e )
+		{
+			this.closeQuietly( );
+			throw new LogStreamException( "(IOException) Unable to open connection to " + this.host + ":" + this.port + ". " + e.getLocalizedMessage( ) );
+		}
+	}
+
+	private void closeQuietly( )
+	{
+		try
+		{
+			// close open resources
+			if ( this.selector != null )
+				this.selector.close( );
+			if ( this.channel != null )
+				this.channel.close( );
+		}
+		catch ( IOException e1 )
+		{
+			LOG( ).severe( "Error while closing the ressources: " + e1.getLocalizedMessage( ) );
+		}
+		this.selector = null;
+		this.channel = null;
+	}
+
+	@Override
+	protected synchronized void closeImpl( ) throws LogStreamException
+	{
+		try
+		{
+			// close open resources
+			if ( this.selector != null )
+				this.selector.close( );
+			if ( this.channel != null )
+				this.channel.close( );
+			this.selector = null;
+			this.channel = null;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "Failed to close connection to " + this.host + ":" + this.port + ". " + e.getLocalizedMessage( ) );
+		}
+	}
+}
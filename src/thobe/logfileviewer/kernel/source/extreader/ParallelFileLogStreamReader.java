@@ -0,0 +1,296 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.extreader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import thobe.logfileviewer.kernel.source.err.LogStreamException;
+import thobe.logfileviewer.kernel.source.err.LogStreamTimeoutException;
+
+/**
+ * {@link ExternalLogStreamReader} for the initial load of big files. The file is split into byte-ranges (chunks) that are aligned to line
+ * boundaries. The chunks are mapped and framed into lines on all cores using the common {@link ForkJoinPool} (shared with the
+ * LogLineFactory, so decoding and building the lines do not compete with a second set of threads). The chunks are handed over in the
+ * order of the file, split into blocks of at most maxBlockSize lines so the bound of the line-buffer (number of blocks) still limits the
+ * memory. At most {@link #MAX_CHUNKS_IN_FLIGHT_PER_CORE} chunks per core are decoded ahead of the consumer to keep the memory bounded.
+ * @author Thomas Obenaus
+ * @source ParallelFileLogStreamReader.java
+ * @date Oct 17, 2026
+ */
+public class ParallelFileLogStreamReader extends ExternalLogStreamReader
+{
+	/**
+	 * Nominal size of a chunk (in bytes). The real size differs since each chunk ends with a complete line.
+	 */
+	private static final long					CHUNK_SIZE						= 8 * 1024 * 1024;
+
+	/**
+	 * Default max number of lines of one block (a chunk contains about 100k lines).
+	 */
+	private static final int					DEFAULT_MAX_BLOCK_SIZE			= 10000;
+
+	/**
+	 * Number of chunks (per core) that are decoded ahead of the consumer.
+	 */
+	private static final int					MAX_CHUNKS_IN_FLIGHT_PER_CORE	= 2;
+
+	/**
+	 * Number of bytes read at once while searching for the end of a line.
+	 */
+	private static final int					PROBE_SIZE						= 4096;
+
+	private File								file;
+	private FileChannel							channel;
+	private final Charset						charset;
+
+	/**
+	 * Chunks currently decoded, in the order of the file.
+	 */
+	private Deque<ForkJoinTask<List<String>>>	chunksInFlight;
+
+	/**
+	 * Position (in the file) of the first byte that is not covered by a chunk yet.
+	 */
+	private long								nextChunkStart;
+
+	/**
+	 * The chunk that is handed over currently, null if all its lines where handed over.
+	 */
+	private List<String>						currentChunk;
+
+	/**
+	 * Index of the first line of {@link #currentChunk} that was not handed over yet.
+	 */
+	private int									currentChunkPos;
+
+	public ParallelFileLogStreamReader( File file )
+	{
+		super( "ParallelFileLogStreamReader" );
+		this.file = file;
+		this.charset = Charset.defaultCharset( );
+		this.chunksInFlight = new ArrayDeque<>( );
+		this.currentChunk = null;
+		this.currentChunkPos = 0;
+		this.setMaxBlockSize( DEFAULT_MAX_BLOCK_SIZE );
+	}
+
+	@Override
+	protected synchronized String readLineImpl( int maxBlockTime ) throws LogStreamException, LogStreamTimeoutException
+	{
+		List<String> block = this.readBlockImpl( 0, maxBlockTime, 1, 1 );
+		return block.isEmpty( ) ? null : block.get( 0 );
+	}
+
+	/**
+	 * Returns the next maxBlockSize lines of the current chunk, the next chunk is taken if the current one was handed over completely. The
+	 * block-time parameters are ignored since the lines are available as soon as the chunk is decoded.
+	 */
+	@Override
+	protected synchronized List<String> readBlockImpl( int minBlockTime, int maxBlockTime, int minBlockSize, int maxBlockSize ) throws LogStreamException, LogStreamTimeoutException
+	{
+		if ( this.channel == null )
+		{
+			throw new LogStreamException( "Reader not open, resource is null" );
+		}// if ( this.channel == null ) .
+
+		try
+		{
+			while ( this.currentChunk == null )
+			{
+				this.scheduleChunks( );
+				ForkJoinTask<List<String>> nextChunk = this.chunksInFlight.poll( );
+				if ( nextChunk == null )
+				{
+					// eof reached
+					return new ArrayList<>( );
+				}
+
+				List<String> chunk = nextChunk.join( );
+
+				// keep the pool busy while the consumer processes the current chunk
+				this.scheduleChunks( );
+				if ( !chunk.isEmpty( ) )
+				{
+					this.currentChunk = chunk;
+					this.currentChunkPos = 0;
+				}// if ( !chunk.isEmpty( ) ) .
+			}// while ( this.currentChunk == null ) .
+
+			final int from = this.currentChunkPos;
+			final int to = ( int ) Math.min( this.currentChunk.size( ), ( long ) from + Math.max( 1, maxBlockSize ) );
+			List<String> block = new ArrayList<>( this.currentChunk.subList( from, to ) );
+			this.currentChunkPos = to;
+			if ( to == this.currentChunk.size( ) )
+			{
+				// release the chunk
+				this.currentChunk = null;
+			}// if ( to == this.currentChunk.size( ) ) .
+			return block;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "Error reading from '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+		catch ( RuntimeException e )
+		{
+			throw new LogStreamException( "Error decoding chunk of '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+	}
+
+	/**
+	 * Submits new chunks to the pool until the max number of chunks in flight is reached or the whole file is covered.
+	 * @throws IOException
+	 */
+	private void scheduleChunks( ) throws IOException
+	{
+		final int maxChunksInFlight = ForkJoinPool.getCommonPoolParallelism( ) * MAX_CHUNKS_IN_FLIGHT_PER_CORE;
+		final long size = this.channel.size( );
+
+		while ( this.chunksInFlight.size( ) < maxChunksInFlight && this.nextChunkStart < size )
+		{
+			long start = this.nextChunkStart;
+			long end = this.findLineBoundary( Math.min( start + CHUNK_SIZE, size ), size );
+			this.chunksInFlight.add( ForkJoinPool.commonPool( ).submit( new ChunkDecoder( this.channel, start, end, this.charset ) ) );
+			this.nextChunkStart = end;
+		}// while ( this.chunksInFlight.size( ) < maxChunksInFlight && this.nextChunkStart < size ) .
+	}
+
+	/**
+	 * Returns the position directly behind the first '\n' at or after the given position or the given size if there is none.
+	 * @param position
+	 * @param size
+	 * @return
+	 * @throws IOException
+	 */
+	private long findLineBoundary( long position, long size ) throws IOException
+	{
+		ByteBuffer probe = ByteBuffer.allocate( PROBE_SIZE );
+		long current = position;
+		while ( current < size )
+		{
+			probe.clear( );
+			int read = this.channel.read( probe, current );
+			if ( read <= 0 )
+				break;
+
+			for ( int i = 0; i < read; ++i )
+			{
+				if ( probe.get( i ) == '\n' )
+				{
+					return current + i + 1;
+				}
+			}// for ( int i = 0; i < read; ++i ) .
+			current += read;
+		}// while ( current < size ) .
+		return size;
+	}
+
+	@Override
+	protected synchronized void openImpl( int timeout ) throws LogStreamException
+	{
+		if ( this.file == null )
+			throw new LogStreamException( "File is missing" );
+
+		if ( this.file.isDirectory( ) )
+			throw new LogStreamException( "File is a directory" );
+
+		if ( !this.file.canRead( ) )
+			throw new LogStreamException( "File not readable" );
+
+		try
+		{
+			this.channel = FileChannel.open( this.file.toPath( ), StandardOpenOption.READ );
+			this.chunksInFlight.clear( );
+			this.currentChunk = null;
+			this.currentChunkPos = 0;
+			this.nextChunkStart = 0;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "(IOException) Unable to open file '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+	}
+
+	@Override
+	protected synchronized void closeImpl( ) throws LogStreamException
+	{
+		try
+		{
+			// close open resources
+			for ( ForkJoinTask<List<String>> chunk : this.chunksInFlight )
+				chunk.cancel( true );
+			this.chunksInFlight.clear( );
+			this.currentChunk = null;
+			if ( this.channel != null )
+				this.channel.close( );
+			this.channel = null;
+		}
+		catch ( IOException e )
+		{
+			throw new LogStreamException( "Failed to close file '" + this.file.getAbsolutePath( ) + "': " + e.getLocalizedMessage( ) );
+		}
+	}
+
+	/**
+	 * Task that maps one chunk of the file and frames it into lines.
+	 */
+	@SuppressWarnings ( "serial")
+	private static final class ChunkDecoder extends RecursiveTask<List<String>>
+	{
+		private final FileChannel	channel;
+		private final long			start;
+		private final long			end;
+		private final Charset		charset;
+
+		public ChunkDecoder( FileChannel channel, long start, long end, Charset charset )
+		{
+			this.channel = channel;
+			this.start = start;
+			this.end = end;
+			this.charset = charset;
+		}
+
+		@Override
+		protected List<String> compute( )
+		{
+			try
+			{
+				MappedByteBuffer chunk = this.channel.map( FileChannel.MapMode.READ_ONLY, this.start, this.end - this.start );
+				List<String> lines = new ArrayList<>( );
+				LineFramer framer = new LineFramer( this.charset );
+				framer.frame( chunk, lines, Integer.MAX_VALUE );
+
+				// the last chunk might end without '\n'
+				String lastLine = framer.flush( );
+				if ( lastLine != null )
+					lines.add( lastLine );
+				return lines;
+			}
+			catch ( IOException e )
+			{
+				throw new IllegalStateException( "Unable to map bytes " + this.start + "-" + this.end + ": " + e.getLocalizedMessage( ), e );
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton finding all occurrences of a set of ASCII literals in a single pass over a line. The automaton is built as a
+ * complete transition-table (states x 128 chars), so scanning a char is one array-access. Non-ASCII chars can't be part of a literal, they
+ * reset the automaton to the root-state. Immutable and thread-safe once built.
+ * @author Thomas Obenaus
+ * @source LiteralAutomaton.java
+ * @date Oct 17, 2026
+ */
+final class LiteralAutomaton
+{
+	private static final int	ALPHABET_SIZE	= 128;
+	private static final int[]	NO_OUTPUT		= new int[0];
+
+	/**
+	 * The transition-table: next state = transitions[state * ALPHABET_SIZE + char].
+	 */
+	private final int[]			transitions;
+
+	/**
+	 * The ids of the literals found when entering a state (including the ones of the suffixes).
+	 */
+	private final int[][]		outputs;
+
+	private final int			numLiterals;
+
+	/**
+	 * Builds the automaton for the given literals, the index of a literal in the list is its id.
+	 * @param literals - ASCII literals (see {@link #isSupported(String)})
+	 */
+	public LiteralAutomaton( List<String> literals )
+	{
+		this.numLiterals = literals.size( );
+
+		// 1. build the trie
+		List<int[]> gotoTable = new ArrayList<>( );
+		List<List<Integer>> outputList = new ArrayList<>( );
+		gotoTable.add( newRow( ) );
+		outputList.add( new ArrayList<Integer>( ) );
+
+		for ( int id = 0; id < literals.size( ); ++id )
+		{
+			String literal = literals.get( id );
+			int state = 0;
+			for ( int i = 0; i < literal.length( ); ++i )
+			{
+				char c = literal.charAt( i );
+				int next = gotoTable.get( state )[c];
+				if ( next < 0 )
+				{
+					next = gotoTable.size( );
+					gotoTable.add( newRow( ) );
+					outputList.add( new ArrayList<Integer>( ) );
+					gotoTable.get( state )[c] = next;
+				}// if ( next < 0 ) .
+				state = next;
+			}// for ( int i = 0; i < literal.length( ); ++i ) .
+			outputList.get( state ).add( id );
+		}// for ( int id = 0; id < literals.size( ); ++id ) .
+
+		// 2. compute the failure-links (bfs) and complete the transitions
+		final int numStates = gotoTable.size( );
+		int[] fail = new int[numStates];
+		Deque<Integer> queue = new ArrayDeque<>( );
+		int[] root = gotoTable.get( 0 );
+		for ( int c = 0; c < ALPHABET_SIZE; ++c )
+		{
+			if ( root[c] < 0 )
+			{
+				root[c] = 0;
+			}
+			else
+			{
+				fail[root[c]] = 0;
+				queue.add( root[c] );
+			}
+		}// for ( int c = 0; c < ALPHABET_SIZE; ++c ) .
+
+		while ( !queue.isEmpty( ) )
+		{
+			int state = queue.poll( );
+			int[] row = gotoTable.get( state );
+			outputList.get( state ).addAll( outputList.get( fail[state] ) );
+			for ( int c = 0; c < ALPHABET_SIZE; ++c )
+			{
+				if ( row[c] < 0 )
+				{
+					row[c] = gotoTable.get( fail[state] )[c];
+				}
+				else
+				{
+					fail[row[c]] = gotoTable.get( fail[state] )[c];
+					queue.add( row[c] );
+				}
+			}// for ( int c = 0; c < ALPHABET_SIZE; ++c ) .
+		}// while ( !queue.isEmpty( ) ) .
+
+		// 3. flatten
+		this.transitions = new int[numStates * ALPHABET_SIZE];
+		this.outputs = new int[numStates][];
+		for ( int state = 0; state < numStates; ++state )
+		{
+			System.arraycopy( gotoTable.get( state ), 0, this.transitions, state * ALPHABET_SIZE, ALPHABET_SIZE );
+			List<Integer> out = outputList.get( state );
+			if ( out.isEmpty( ) )
+			{
+				this.outputs[state] = NO_OUTPUT;
+			}
+			else
+			{
+				this.outputs[state] = new int[out.size( )];
+				for ( int i = 0; i < out.size( ); ++i )
+					this.outputs[state][i] = out.get( i );
+			}
+		}// for ( int state = 0; state < numStates; ++state ) .
+	}
+
+	/**
+	 * Returns true if the given literal can be added to the automaton (non-empty, ASCII only).
+	 * @param literal
+	 * @return
+	 */
+	public static boolean isSupported( String literal )
+	{
+		if ( literal == null || literal.isEmpty( ) )
+			return false;
+		for ( int i = 0; i < literal.length( ); ++i )
+		{
+			if ( literal.charAt( i ) >= ALPHABET_SIZE )
+				return false;
+		}
+		return true;
+	}
+
+	public int getNumLiterals( )
+	{
+		return numLiterals;
+	}
+
+	/**
+	 * Scans the given line once and marks the ids of all literals found in the given array.
+	 * @param line
+	 * @param found - array of size {@link #getNumLiterals()}, found[id] is set to true if the literal with the given id was found
+	 * @return - the number of literal-occurrences found
+	 */
+	public int scan( String line, boolean[] found )
+	{
+		int hits = 0;
+		int state = 0;
+		final int len = line.length( );
+		for ( int i = 0; i < len; ++i )
+		{
+			char c = line.charAt( i );
+			if ( c >= ALPHABET_SIZE )
+			{
+				state = 0;
+				continue;
+			}
+			state = this.transitions[state * ALPHABET_SIZE + c];
+			int[] out = this.outputs[state];
+			for ( int j = 0; j < out.length; ++j )
+			{
+				found[out[j]] = true;
+				hits++;
+			}
+		}// for ( int i = 0; i < len; ++i ) .
+		return hits;
+	}
+
+	private static int[] newRow( )
+	{
+		int[] row = new int[ALPHABET_SIZE];
+		Arrays.fill( row, -1 );
+		return row;
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import thobe.logfileviewer.plugin.util.PatternMatch;
+
+/**
+ * Evaluates a single {@link Pattern} like {@link PatternMatch#matches(Pattern, String)}, but rejects lines not containing the literals
+ * required by the pattern (see {@link RequiredLiteralExtractor}) using {@link String#indexOf(String)} before the regex-engine runs.
+ * Thread-safe.
+ * @author Thomas Obenaus
+ * @source LiteralPrefilter.java
+ * @date Oct 17, 2026
+ */
+public class LiteralPrefilter
+{
+	private final Pattern			pattern;
+	private final String[]			requiredLiterals;
+	private final PrefilterStats	stats;
+
+	/**
+	 * Ctor
+	 * @param pattern
+	 * @param stats - statistics to update (might be null)
+	 */
+	public LiteralPrefilter( Pattern pattern, PrefilterStats stats )
+	{
+		this.pattern = pattern;
+		List<String> literals = RequiredLiteralExtractor.extract( pattern );
+		this.requiredLiterals = literals.toArray( new String[literals.size( )] );
+		this.stats = stats;
+	}
+
+	/**
+	 * Returns true if the given line matches the pattern.
+	 * @param line
+	 * @return
+	 */
+	public boolean matches( String line )
+	{
+		if ( this.requiredLiterals.length > 0 )
+		{
+			// the longest (most selective) literal comes first
+			boolean rejected = false;
+			for ( String literal : this.requiredLiterals )
+			{
+				if ( line.indexOf( literal ) < 0 )
+				{
+					rejected = true;
+					break;
+				}
+			}// for ( String literal : this.requiredLiterals ) .
+
+			if ( this.stats != null )
+				this.stats.onChecked( rejected );
+			if ( rejected )
+				return false;
+		}// if ( this.requiredLiterals.length > 0 ) .
+
+		return PatternMatch.matches( this.pattern, line );
+	}
+
+	public Pattern getPattern( )
+	{
+		return pattern;
+	}
+
+	/**
+	 * Returns true if the pattern requires at least one literal (the prefilter is active).
+	 * @return
+	 */
+	public boolean hasRequiredLiterals( )
+	{
+		return this.requiredLiterals.length > 0;
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.regex.Pattern;
+
+/**
+ * Result of analysing a {@link Pattern} that consists only of a literal and leading/trailing '.*' (e.g. ".*ERROR.*", "Start.*", ".*"). Such
+ * patterns can be evaluated using plain string-operations instead of the regex-engine. All other patterns have the kind
+ * {@link Kind#REGEX}.
+ * @author Thomas Obenaus
+ * @source LiteralShape.java
+ * @date Oct 17, 2026
+ */
+final class LiteralShape
+{
+	enum Kind
+	{
+		/**
+		 * ".*" - matches each line (without line-terminators)
+		 */
+		MATCH_ALL,
+		/**
+		 * empty pattern - matches nothing (see {@link thobe.logfileviewer.plugin.util.PatternMatch})
+		 */
+		MATCH_NONE,
+		/**
+		 * "LIT" - the line equals the literal
+		 */
+		EQUALS,
+		/**
+		 * "LIT.*" - the line starts with the literal
+		 */
+		STARTS_WITH,
+		/**
+		 * ".*LIT" - the line ends with the literal
+		 */
+		ENDS_WITH,
+		/**
+		 * ".*LIT.*" - the line contains the literal
+		 */
+		CONTAINS,
+		/**
+		 * everything else, the regex-engine is needed
+		 */
+		REGEX;
+
+		/**
+		 * Returns true if the shape contains a '.*' which (without {@link Pattern#DOTALL}) does not match line-terminators. In this case a
+		 * line containing a line-terminator has to be evaluated using the regex-engine.
+		 * @return
+		 */
+		public boolean isDotSensitive( )
+		{
+			return this == MATCH_ALL || this == STARTS_WITH || this == ENDS_WITH || this == CONTAINS;
+		}
+	}
+
+	private static final String	META_CHARS	= "\\^$.|?*+()[]{}";
+
+	private final Kind			kind;
+	private final String		literal;
+
+	private LiteralShape( Kind kind, String literal )
+	{
+		this.kind = kind;
+		this.literal = literal;
+	}
+
+	public Kind getKind( )
+	{
+		return kind;
+	}
+
+	/**
+	 * The literal of the pattern (null for {@link Kind#REGEX}, {@link Kind#MATCH_ALL} and {@link Kind#MATCH_NONE}).
+	 * @return
+	 */
+	public String getLiteral( )
+	{
+		return literal;
+	}
+
+	/**
+	 * Analyses the given {@link Pattern}.
+	 * @param pattern
+	 * @return
+	 */
+	public static LiteralShape analyse( Pattern pattern )
+	{
+		String regex = pattern.pattern( );
+		if ( regex.trim( ).isEmpty( ) )
+			return new LiteralShape( Kind.MATCH_NONE, null );
+
+		// flags would change the semantics of the literal (e.g. case-insensitive)
+		if ( pattern.flags( ) != 0 )
+			return new LiteralShape( Kind.REGEX, null );
+
+		boolean leadingDotStar = false;
+		boolean trailingDotStar = false;
+		StringBuilder literal = new StringBuilder( );
+		int i = 0;
+		final int len = regex.length( );
+		while ( i < len )
+		{
+			char c = regex.charAt( i );
+			if ( c == '.' && ( i + 1 < len ) && regex.charAt( i + 1 ) == '*' )
+			{
+				// '.*' is only allowed before and after the literal
+				if ( literal.length( ) == 0 && !trailingDotStar )
+					leadingDotStar = true;
+				else
+					trailingDotStar = true;
+				i += 2;
+				continue;
+			}// if ( c == '.' && ( i + 1 < len ) && regex.charAt( i + 1 ) == '*' ) .
+
+			if ( trailingDotStar )
+				return new LiteralShape( Kind.REGEX, null );
+
+			if ( c == '\\' )
+			{
+				if ( i + 1 >= len )
+					return new LiteralShape( Kind.REGEX, null );
+				char next = regex.charAt( i + 1 );
+				if ( next == 'Q' )
+				{
+					// quoted sequence \Q...\E
+					int end = regex.indexOf( "\\E", i + 2 );
+					if ( end < 0 )
+						end = len;
+					literal.append( regex, i + 2, end );
+					i = Math.min( len, end + 2 );
+					continue;
+				}// if ( next == 'Q' ) .
+
+				// only escaped non-alphanumeric chars are plain literals (\d, \w, \t, ... are not)
+				if ( Character.isLetterOrDigit( next ) )
+					return new LiteralShape( Kind.REGEX, null );
+				literal.append( next );
+				i += 2;
+				continue;
+			}// if ( c == '\\' ) .
+
+			if ( META_CHARS.indexOf( c ) >= 0 )
+				return new LiteralShape( Kind.REGEX, null );
+
+			literal.append( c );
+			i++;
+		}// while ( i < len ) .
+
+		if ( literal.length( ) == 0 && ( leadingDotStar || trailingDotStar ) )
+			return new LiteralShape( Kind.MATCH_ALL, null );
+
+		Kind kind = null;
+		if ( leadingDotStar && trailingDotStar )
+			kind = Kind.CONTAINS;
+		else if ( leadingDotStar )
+			kind = Kind.ENDS_WITH;
+		else if ( trailingDotStar )
+			kind = Kind.STARTS_WITH;
+		else
+			kind = Kind.EQUALS;
+		return new LiteralShape( kind, literal.toString( ) );
+	}
+}
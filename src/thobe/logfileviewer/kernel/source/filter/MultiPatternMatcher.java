@@ -0,0 +1,276 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import thobe.logfileviewer.plugin.util.PatternMatch;
+
+/**
+ * Matches a line against a set of {@link Pattern}s at once and returns the values (e.g. listeners) of all matching patterns. The semantics
+ * are the same as calling {@link PatternMatch#matches(Pattern, String)} for each pattern, but:
+ * <ul>
+ * <li>patterns consisting only of a literal and leading/trailing '.*' (e.g. ".*ERROR.*") are evaluated without the regex-engine, the
+ * literals of all ".*LIT.*" patterns are found in a single pass over the line using an Aho-Corasick automaton</li>
+ * <li>".*" matches each line without any evaluation</li>
+ * <li>only the remaining patterns are evaluated using the regex-engine and only if the line contains the longest literal the pattern
+ * requires (see {@link RequiredLiteralExtractor}), these anchor-literals are found by the same single pass</li>
+ * </ul>
+ * Immutable and thread-safe, build a new instance if the set of patterns changes.
+ * @author Thomas Obenaus
+ * @source MultiPatternMatcher.java
+ * @date Oct 17, 2026
+ */
+public class MultiPatternMatcher<T>
+{
+	private final List<T>			values;
+	private final Pattern[]			patterns;
+	private final LiteralShape[]	shapes;
+
+	/**
+	 * How each pattern is evaluated (the kind of its shape, {@link LiteralShape.Kind#REGEX} if the automaton can't handle its literal).
+	 */
+	private final LiteralShape.Kind[]	kinds;
+
+	/**
+	 * For each pattern of kind {@link LiteralShape.Kind#CONTAINS} the id of its literal within the automaton, for patterns of kind
+	 * {@link LiteralShape.Kind#REGEX} the id of its anchor-literal (required literal), -1 otherwise.
+	 */
+	private final int[]				literalIds;
+
+	/**
+	 * Counts the regex-evaluations saved by the anchor-literals.
+	 */
+	private final PrefilterStats	prefilterStats;
+
+	/**
+	 * Automaton for the literals of all patterns of kind {@link LiteralShape.Kind#CONTAINS} (null if there is none).
+	 */
+	private final LiteralAutomaton	automaton;
+
+	private int						numRegexPatterns;
+
+	/**
+	 * Ctor
+	 * @param patternToValue - the patterns and the value returned for each of them if it matches (a null-pattern matches each line).
+	 */
+	public MultiPatternMatcher( Map<Pattern, T> patternToValue )
+	{
+		this( patternToValue, new PrefilterStats( ) );
+	}
+
+	/**
+	 * Ctor
+	 * @param patternToValue - the patterns and the value returned for each of them if it matches (a null-pattern matches each line).
+	 * @param prefilterStats - statistics for the anchor-literals of the regex-patterns (might be shared by several matchers)
+	 */
+	public MultiPatternMatcher( Map<Pattern, T> patternToValue, PrefilterStats prefilterStats )
+	{
+		final int size = patternToValue.size( );
+		this.prefilterStats = prefilterStats;
+		this.values = new ArrayList<>( size );
+		this.patterns = new Pattern[size];
+		this.shapes = new LiteralShape[size];
+		this.kinds = new LiteralShape.Kind[size];
+		this.literalIds = new int[size];
+		this.numRegexPatterns = 0;
+
+		Map<String, Integer> literalToId = new HashMap<>( );
+		List<String> literals = new ArrayList<>( );
+		int i = 0;
+		for ( Entry<Pattern, T> entry : patternToValue.entrySet( ) )
+		{
+			Pattern pattern = ( entry.getKey( ) != null ) ? entry.getKey( ) : Pattern.compile( ".*" );
+			LiteralShape shape = LiteralShape.analyse( pattern );
+			LiteralShape.Kind kind = shape.getKind( );
+
+			// literals the automaton can't handle are evaluated using the regex-engine
+			if ( kind == LiteralShape.Kind.CONTAINS && !LiteralAutomaton.isSupported( shape.getLiteral( ) ) )
+			{
+				kind = LiteralShape.Kind.REGEX;
+			}// if ( kind == LiteralShape.Kind.CONTAINS && !LiteralAutomaton.isSupported( shape.getLiteral( ) ) ) .
+
+			this.values.add( entry.getValue( ) );
+			this.patterns[i] = pattern;
+			this.shapes[i] = shape;
+			this.kinds[i] = kind;
+			this.literalIds[i] = -1;
+
+			if ( kind == LiteralShape.Kind.CONTAINS )
+			{
+				this.literalIds[i] = addLiteral( shape.getLiteral( ), literals, literalToId );
+			}// if ( kind == LiteralShape.Kind.CONTAINS ) .
+			else if ( kind == LiteralShape.Kind.REGEX )
+			{
+				this.numRegexPatterns++;
+
+				// the longest required literal the automaton can handle is the anchor
+				for ( String requiredLiteral : RequiredLiteralExtractor.extract( pattern ) )
+				{
+					if ( LiteralAutomaton.isSupported( requiredLiteral ) )
+					{
+						this.literalIds[i] = addLiteral( requiredLiteral, literals, literalToId );
+						break;
+					}
+				}// for ( String requiredLiteral : RequiredLiteralExtractor.extract( pattern ) ) .
+			}// else if ( kind == LiteralShape.Kind.REGEX ) .
+			i++;
+		}// for ( Entry<Pattern, T> entry : patternToValue.entrySet( ) ) .
+
+		this.automaton = literals.isEmpty( ) ? null : new LiteralAutomaton( literals );
+	}
+
+	/**
+	 * Returns the values of all patterns matching the given line.
+	 * @param line
+	 * @return - the values of the matching patterns or null if no pattern matches
+	 */
+	public List<T> match( String line )
+	{
+		// find all literals in one pass
+		boolean[] foundLiterals = null;
+		if ( this.automaton != null )
+		{
+			foundLiterals = new boolean[this.automaton.getNumLiterals( )];
+			this.automaton.scan( line, foundLiterals );
+		}// if ( this.automaton != null ) .
+
+		// computed only if needed: '.' does not match line-terminators
+		int lineTerminator = -1;
+
+		List<T> result = null;
+		for ( int i = 0; i < this.patterns.length; ++i )
+		{
+			LiteralShape shape = this.shapes[i];
+			LiteralShape.Kind kind = this.kinds[i];
+			boolean matches = false;
+			switch ( kind )
+			{
+			case MATCH_NONE:
+				matches = false;
+				break;
+			case MATCH_ALL:
+				matches = true;
+				break;
+			case EQUALS:
+				matches = line.equals( shape.getLiteral( ) );
+				break;
+			case STARTS_WITH:
+				matches = line.startsWith( shape.getLiteral( ) );
+				break;
+			case ENDS_WITH:
+				matches = line.endsWith( shape.getLiteral( ) );
+				break;
+			case CONTAINS:
+				matches = foundLiterals[this.literalIds[i]];
+				break;
+			case REGEX:
+			default:
+				if ( this.literalIds[i] >= 0 )
+				{
+					// skip the regex if the line does not contain the anchor-literal
+					boolean rejected = !foundLiterals[this.literalIds[i]];
+					this.prefilterStats.onChecked( rejected );
+					if ( rejected )
+						break;
+				}// if ( this.literalIds[i] >= 0 ) .
+				matches = matchRegex( this.patterns[i], line );
+				break;
+			}// switch ( kind ) .
+
+			if ( matches && kind.isDotSensitive( ) )
+			{
+				if ( lineTerminator < 0 )
+					lineTerminator = containsLineTerminator( line ) ? 1 : 0;
+
+				// fall back to the regex-engine
+				if ( lineTerminator == 1 )
+					matches = matchRegex( this.patterns[i], line );
+			}// if ( matches && kind.isDotSensitive( ) ) .
+
+			if ( matches )
+			{
+				if ( result == null )
+					result = new ArrayList<>( 2 );
+				result.add( this.values.get( i ) );
+			}// if ( matches ) .
+		}// for ( int i = 0; i < this.patterns.length; ++i ) .
+		return result;
+	}
+
+	/**
+	 * Returns the number of patterns.
+	 * @return
+	 */
+	public int getNumPatterns( )
+	{
+		return this.patterns.length;
+	}
+
+	/**
+	 * Returns the number of patterns that have to be evaluated using the regex-engine.
+	 * @return
+	 */
+	public int getNumRegexPatterns( )
+	{
+		return numRegexPatterns;
+	}
+
+	/**
+	 * Returns the statistics of the anchor-literals.
+	 * @return
+	 */
+	public PrefilterStats getPrefilterStats( )
+	{
+		return prefilterStats;
+	}
+
+	private static int addLiteral( String literal, List<String> literals, Map<String, Integer> literalToId )
+	{
+		Integer id = literalToId.get( literal );
+		if ( id == null )
+		{
+			id = literals.size( );
+			literals.add( literal );
+			literalToId.put( literal, id );
+		}// if ( id == null ) .
+		return id;
+	}
+
+	private static boolean matchRegex( Pattern pattern, String line )
+	{
+		try
+		{
+			return PatternMatch.matches( pattern, line );
+		}
+		catch ( PatternSyntaxException e )
+		{
+			return false;
+		}
+	}
+
+	private static boolean containsLineTerminator( String line )
+	{
+		for ( int i = 0; i < line.length( ); ++i )
+		{
+			char c = line.charAt( i );
+			if ( c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' )
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Interns {@link Pattern}s by their source and flags. {@link Pattern} does not override equals/hashCode, so two filters compiled from the
+ * same regex are different keys in a map. The registry maps all equivalent patterns to one canonical instance and counts the subscribers
+ * of each canonical pattern, the pattern is forgotten as soon as the last subscriber released it. A null pattern is passed through
+ * unchanged. Thread-safe.
+ * @author Thomas Obenaus
+ * @source PatternRegistry.java
+ * @date Oct 17, 2026
+ */
+public class PatternRegistry
+{
+	private final Map<PatternKey, Registration>	registrations;
+
+	/**
+	 * Sum of the subscribers of all patterns.
+	 */
+	private int									numSubscriptions;
+
+	public PatternRegistry( )
+	{
+		this.registrations = new HashMap<>( );
+		this.numSubscriptions = 0;
+	}
+
+	/**
+	 * Returns the canonical instance of the given pattern and adds one subscriber to it.
+	 * @param pattern
+	 * @return
+	 */
+	public synchronized Pattern acquire( Pattern pattern )
+	{
+		if ( pattern == null )
+			return null;
+
+		PatternKey key = new PatternKey( pattern );
+		Registration registration = this.registrations.get( key );
+		if ( registration == null )
+		{
+			registration = new Registration( pattern );
+			this.registrations.put( key, registration );
+		}// if ( registration == null ) .
+		registration.refCount++;
+		this.numSubscriptions++;
+		return registration.canonical;
+	}
+
+	/**
+	 * Removes one subscriber from the canonical instance of the given pattern.
+	 * @param pattern
+	 * @return - true if this was the last subscriber (the pattern is not registered anymore)
+	 */
+	public synchronized boolean release( Pattern pattern )
+	{
+		if ( pattern == null )
+			return false;
+
+		PatternKey key = new PatternKey( pattern );
+		Registration registration = this.registrations.get( key );
+		if ( registration == null )
+			return false;
+
+		registration.refCount--;
+		this.numSubscriptions--;
+		if ( registration.refCount <= 0 )
+		{
+			this.registrations.remove( key );
+			return true;
+		}// if ( registration.refCount <= 0 ) .
+		return false;
+	}
+
+	/**
+	 * Returns the canonical instance of the given pattern without adding a subscriber, the given pattern if it is not registered.
+	 * @param pattern
+	 * @return
+	 */
+	public synchronized Pattern lookup( Pattern pattern )
+	{
+		if ( pattern == null )
+			return null;
+
+		Registration registration = this.registrations.get( new PatternKey( pattern ) );
+		return ( registration != null ) ? registration.canonical : pattern;
+	}
+
+	/**
+	 * Returns the number of subscribers of the given pattern (or an equivalent one).
+	 * @param pattern
+	 * @return
+	 */
+	public synchronized int getRefCount( Pattern pattern )
+	{
+		if ( pattern == null )
+			return 0;
+
+		Registration registration = this.registrations.get( new PatternKey( pattern ) );
+		return ( registration != null ) ? registration.refCount : 0;
+	}
+
+	/**
+	 * Returns the number of distinct patterns.
+	 * @return
+	 */
+	public synchronized int getNumPatterns( )
+	{
+		return this.registrations.size( );
+	}
+
+	/**
+	 * Returns the sum of the subscribers of all patterns.
+	 * @return
+	 */
+	public synchronized int getNumSubscriptions( )
+	{
+		return this.numSubscriptions;
+	}
+
+	@Override
+	public synchronized String toString( )
+	{
+		return "distinct=" + this.registrations.size( ) + ", subscriptions=" + this.numSubscriptions;
+	}
+
+	/**
+	 * Key of a pattern: its source and its flags.
+	 */
+	private static final class PatternKey
+	{
+		private final String	source;
+		private final int		flags;
+
+		public PatternKey( Pattern pattern )
+		{
+			this.source = pattern.pattern( );
+			this.flags = pattern.flags( );
+		}
+
+		@Override
+		public int hashCode( )
+		{
+			return 31 * this.source.hashCode( ) + this.flags;
+		}
+
+		@Override
+		public boolean equals( Object obj )
+		{
+			if ( this == obj )
+				return true;
+			if ( !( obj instanceof PatternKey ) )
+				return false;
+			PatternKey other = ( PatternKey ) obj;
+			return ( this.flags == other.flags ) && this.source.equals( other.source );
+		}
+	}
+
+	private static final class Registration
+	{
+		private final Pattern	canonical;
+		private int				refCount;
+
+		public Registration( Pattern canonical )
+		{
+			this.canonical = canonical;
+			this.refCount = 0;
+		}
+	}
+}
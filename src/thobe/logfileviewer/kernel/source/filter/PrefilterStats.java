@@ -0,0 +1,75 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often a literal prefilter was checked before running the regex-engine and how often it rejected the line (the regex-engine
+ * was not needed). Thread-safe.
+ * @author Thomas Obenaus
+ * @source PrefilterStats.java
+ * @date Oct 17, 2026
+ */
+public class PrefilterStats
+{
+	private final AtomicLong	checked;
+	private final AtomicLong	rejected;
+
+	public PrefilterStats( )
+	{
+		this.checked = new AtomicLong( 0 );
+		this.rejected = new AtomicLong( 0 );
+	}
+
+	void onChecked( boolean lineRejected )
+	{
+		this.checked.incrementAndGet( );
+		if ( lineRejected )
+			this.rejected.incrementAndGet( );
+	}
+
+	/**
+	 * Returns the number of lines checked by a prefilter.
+	 * @return
+	 */
+	public long getChecked( )
+	{
+		return this.checked.get( );
+	}
+
+	/**
+	 * Returns the number of lines rejected by a prefilter (no regex evaluation was needed).
+	 * @return
+	 */
+	public long getRejected( )
+	{
+		return this.rejected.get( );
+	}
+
+	/**
+	 * Returns the ratio of rejected to checked lines [0..1].
+	 * @return
+	 */
+	public double getHitRate( )
+	{
+		long checked = this.checked.get( );
+		if ( checked == 0 )
+			return 0;
+		return this.rejected.get( ) / ( double ) checked;
+	}
+
+	@Override
+	public String toString( )
+	{
+		return "checked=" + this.getChecked( ) + ", rejected=" + this.getRejected( ) + ", hitRate=" + String.format( "%.3f", this.getHitRate( ) );
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Analyses a {@link Pattern} and extracts the literal substrings each line matching the pattern has to contain. E.g. ".*CAN_RX 0x1A3.*"
+ * requires "CAN_RX 0x1A3", "(\\d+) ms: ERROR in [a-z]+" requires " ms: ERROR in ". A line not containing all of them can be rejected
+ * without running the regex-engine. The analysis is conservative: constructs it does not understand (alternations, flags, lookarounds,
+ * ...) just contribute no literal, so the result might be empty but is never wrong.
+ * @author Thomas Obenaus
+ * @source RequiredLiteralExtractor.java
+ * @date Oct 17, 2026
+ */
+public final class RequiredLiteralExtractor
+{
+	private static final int	NO_QUANTIFIER	= 0;
+
+	/**
+	 * Quantifier requiring at least one occurrence (+, {n,m} with n > 0).
+	 */
+	private static final int	REQUIRED		= 1;
+
+	/**
+	 * Quantifier allowing zero occurrences (*, ?, {0,m}).
+	 */
+	private static final int	OPTIONAL		= 2;
+
+	private final String		regex;
+	private int					pos;
+	private final List<String>	literals;
+
+	private RequiredLiteralExtractor( String regex )
+	{
+		this.regex = regex;
+		this.pos = 0;
+		this.literals = new ArrayList<>( );
+	}
+
+	/**
+	 * Returns the literals each line matching the given pattern has to contain, the longest (most selective) first.
+	 * @param pattern
+	 * @return - the required literals, empty if none could be found
+	 */
+	public static List<String> extract( Pattern pattern )
+	{
+		// flags change the semantics of the literals (e.g. case-insensitive)
+		if ( pattern == null || pattern.flags( ) != 0 )
+			return Collections.emptyList( );
+
+		RequiredLiteralExtractor extractor = new RequiredLiteralExtractor( pattern.pattern( ) );
+		List<String> result = extractor.parseSequence( false ) ? extractor.literals : new ArrayList<String>( );
+		Collections.sort( result, new Comparator<String>( )
+		{
+			@Override
+			public int compare( String o1, String o2 )
+			{
+				return o2.length( ) - o1.length( );
+			}
+		} );
+		return result;
+	}
+
+	/**
+	 * Parses a sequence (top-level or content of a group) and adds the required literals found to {@link #literals}.
+	 * @param inGroup - true if the sequence is the content of a group (ends at the closing ')')
+	 * @return - false if the sequence contains an alternation or a construct that makes its literals unreliable
+	 */
+	private boolean parseSequence( boolean inGroup )
+	{
+		StringBuilder run = new StringBuilder( );
+		final int len = this.regex.length( );
+		while ( this.pos < len )
+		{
+			char c = this.regex.charAt( this.pos );
+			switch ( c )
+			{
+			case '|':
+				// alternation: none of the literals is required
+				return false;
+			case ')':
+				if ( !inGroup )
+					return false;
+				this.pos++;
+				this.endRun( run );
+				return true;
+			case '(':
+			{
+				this.endRun( run );
+				int sizeBefore = this.literals.size( );
+				this.pos++;
+				boolean lookAround = false;
+				if ( this.regex.startsWith( "?", this.pos ) )
+				{
+					if ( this.regex.startsWith( "?:", this.pos ) || this.regex.startsWith( "?>", this.pos ) )
+					{
+						this.pos += 2;
+					}
+					else if ( this.regex.startsWith( "?<", this.pos ) && this.pos + 2 < len && Character.isLetter( this.regex.charAt( this.pos + 2 ) ) )
+					{
+						// named group
+						int end = this.regex.indexOf( '>', this.pos );
+						if ( end < 0 )
+							return false;
+						this.pos = end + 1;
+					}
+					else if ( this.regex.startsWith( "?=", this.pos ) || this.regex.startsWith( "?!", this.pos ) )
+					{
+						lookAround = true;
+						this.pos += 2;
+					}
+					else if ( this.regex.startsWith( "?<=", this.pos ) || this.regex.startsWith( "?<!", this.pos ) )
+					{
+						lookAround = true;
+						this.pos += 3;
+					}
+					else
+					{
+						// inline flags (e.g. (?i)) change the semantics of the literals
+						return false;
+					}
+				}// if ( this.regex.startsWith( "?", this.pos ) ) .
+
+				boolean groupValid = this.parseSequence( true );
+				if ( !groupValid && !this.skipToGroupEnd( ) )
+					return false;
+
+				if ( ( this.skipQuantifier( ) == OPTIONAL ) || lookAround || !groupValid )
+				{
+					// the literals of the group are not required (optional group, alternation, lookaround)
+					while ( this.literals.size( ) > sizeBefore )
+						this.literals.remove( this.literals.size( ) - 1 );
+				}// if ( ( this.skipQuantifier( ) == OPTIONAL ) || lookAround || !groupValid ) .
+				break;
+			}
+			case '[':
+				this.endRun( run );
+				if ( !this.skipCharClass( ) )
+					return false;
+				this.skipQuantifier( );
+				break;
+			case '\\':
+			{
+				if ( this.pos + 1 >= len )
+					return false;
+				char next = this.regex.charAt( this.pos + 1 );
+				if ( next == 'Q' )
+				{
+					int end = this.regex.indexOf( "\\E", this.pos + 2 );
+					if ( end < 0 )
+						end = len;
+					String quoted = this.regex.substring( this.pos + 2, end );
+					this.pos = Math.min( len, end + 2 );
+					for ( int i = 0; i < quoted.length( ); )
+					{
+						int codePoint = quoted.codePointAt( i );
+						i += Character.charCount( codePoint );
+						this.appendCodePoint( run, codePoint, i == quoted.length( ) );
+					}// for ( int i = 0; i < quoted.length( ); ) .
+				}// if ( next == 'Q' ) .
+				else if ( !Character.isLetterOrDigit( next ) )
+				{
+					// escaped meta-char
+					int codePoint = this.regex.codePointAt( this.pos + 1 );
+					this.pos += 1 + Character.charCount( codePoint );
+					this.appendCodePoint( run, codePoint, true );
+				}// else if ( !Character.isLetterOrDigit( next ) ) .
+				else
+				{
+					// char-class (\d, \w,...) or assertion (\b,...)
+					this.endRun( run );
+					this.pos += 2;
+
+					// escapes having arguments (\x41, \p{L}, \0101, back-references,...) are not analysed
+					if ( Character.isDigit( next ) || "pPxucNk".indexOf( next ) >= 0 )
+						return false;
+					this.skipQuantifier( );
+				}// if ( next == 'Q' ) ... else ...
+				break;
+			}
+			case '.':
+				this.endRun( run );
+				this.pos++;
+				this.skipQuantifier( );
+				break;
+			case '^':
+			case '$':
+				this.endRun( run );
+				this.pos++;
+				break;
+			case '*':
+			case '+':
+			case '?':
+			case '{':
+				// quantifier without a preceding atom (or not understood)
+				return false;
+			default:
+			{
+				// a char outside the BMP (surrogate pair) is one atom, a quantifier applies to both units
+				int codePoint = this.regex.codePointAt( this.pos );
+				this.pos += Character.charCount( codePoint );
+				this.appendCodePoint( run, codePoint, true );
+				break;
+			}
+			}// switch ( c ) .
+		}// while ( this.pos < len ) .
+
+		this.endRun( run );
+		return !inGroup;
+	}
+
+	/**
+	 * Appends the given char (code point) to the current run of literal chars, regarding a quantifier following it.
+	 * @param run
+	 * @param codePoint
+	 * @param checkQuantifier - true if a quantifier might follow the char
+	 */
+	private void appendCodePoint( StringBuilder run, int codePoint, boolean checkQuantifier )
+	{
+		if ( !checkQuantifier )
+		{
+			run.appendCodePoint( codePoint );
+			return;
+		}
+
+		int quantifier = this.skipQuantifier( );
+		if ( quantifier == NO_QUANTIFIER )
+		{
+			run.appendCodePoint( codePoint );
+			return;
+		}
+
+		// the char is repeated, it is required only if the quantifier requires at least one occurrence
+		if ( quantifier == REQUIRED )
+			run.appendCodePoint( codePoint );
+		this.endRun( run );
+	}
+
+	/**
+	 * Skips a quantifier (including a lazy/possessive suffix) at the current position.
+	 * @return - {@link #NO_QUANTIFIER}, {@link #REQUIRED} or {@link #OPTIONAL}
+	 */
+	private int skipQuantifier( )
+	{
+		if ( this.pos >= this.regex.length( ) )
+			return NO_QUANTIFIER;
+
+		int result = NO_QUANTIFIER;
+		char c = this.regex.charAt( this.pos );
+		if ( c == '*' || c == '?' )
+		{
+			this.pos++;
+			result = OPTIONAL;
+		}
+		else if ( c == '+' )
+		{
+			this.pos++;
+			result = REQUIRED;
+		}
+		else if ( c == '{' )
+		{
+			int end = this.regex.indexOf( '}', this.pos );
+			if ( end > 0 )
+			{
+				result = this.regex.startsWith( "{0", this.pos ) ? OPTIONAL : REQUIRED;
+				this.pos = end + 1;
+			}
+		}// if ( c == '*' || c == '?' ) ... else ...
+
+		// lazy/ possessive
+		if ( result != NO_QUANTIFIER && this.pos < this.regex.length( ) && ( this.regex.charAt( this.pos ) == '?' || this.regex.charAt( this.pos ) == '+' ) )
+			this.pos++;
+		return result;
+	}
+
+	private boolean skipCharClass( )
+	{
+		// skip '[' and a leading ']' or '^]'
+		this.pos++;
+		if ( this.regex.startsWith( "^", this.pos ) )
+			this.pos++;
+		if ( this.regex.startsWith( "]", this.pos ) )
+			this.pos++;
+
+		int depth = 1;
+		while ( this.pos < this.regex.length( ) )
+		{
+			char c = this.regex.charAt( this.pos );
+			if ( c == '\\' )
+			{
+				this.pos += 2;
+				continue;
+			}
+			this.pos++;
+			if ( c == '[' )
+				depth++;
+			else if ( c == ']' && --depth == 0 )
+				return true;
+		}// while ( this.pos < this.regex.length( ) ) .
+		return false;
+	}
+
+	/**
+	 * Skips everything up to (including) the ')' closing the current group.
+	 * @return - false if there is no closing ')'
+	 */
+	private boolean skipToGroupEnd( )
+	{
+		int depth = 1;
+		while ( this.pos < this.regex.length( ) )
+		{
+			char c = this.regex.charAt( this.pos );
+			if ( c == '\\' )
+			{
+				this.pos += 2;
+				continue;
+			}
+			if ( c == '[' )
+			{
+				if ( !this.skipCharClass( ) )
+					return false;
+				continue;
+			}
+			this.pos++;
+			if ( c == '(' )
+				depth++;
+			else if ( c == ')' && --depth == 0 )
+				return true;
+		}// while ( this.pos < this.regex.length( ) ) .
+		return false;
+	}
+
+	private void endRun( StringBuilder run )
+	{
+		if ( run.length( ) > 0 )
+		{
+			this.literals.add( run.toString( ) );
+			run.setLength( 0 );
+		}
+	}
+}
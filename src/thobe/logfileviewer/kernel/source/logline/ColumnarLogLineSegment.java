@@ -0,0 +1,162 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * {@link LogLineSegment} storing the lines in columns of primitives instead of line-objects: the time-stamps in a long[], the data as
+ * int[] of indices into a dictionary of the {@link LogLineDat}s used in this segment (the pooled instances of the {@link LogLineFactory},
+ * so repeated lines share one entry), the id is implicit. A line costs 12 bytes plus the share of its dictionary-entry.
+ * {@link ILogLine}s are created on access ({@link FlyweightLogLine}). The dictionary belongs to the segment, so dropping the segment frees
+ * it without any bookkeeping and readers of an old snapshot are not affected. Lines not created from pooled data (e.g.
+ * {@link TemplatedLogLine}s, already sharing their template) are kept as they are in a separate column.
+ * @author Thomas Obenaus
+ * @source ColumnarLogLineSegment.java
+ * @date Oct 17, 2026
+ */
+final class ColumnarLogLineSegment extends LogLineSegment
+{
+	/**
+	 * Initial size of the dictionary.
+	 */
+	private static final int				INITIAL_DICTIONARY_SIZE	= 64;
+
+	private static final long				SIZE					= ObjectLayout.shallowSizeOf( ColumnarLogLineSegment.class );
+
+	private final long[]					timeStamps;
+
+	/**
+	 * Index into {@link #dictionary} for each line.
+	 */
+	private final int[]						dataIds;
+
+	/**
+	 * The distinct data of the lines. Replaced (by a bigger copy) if it is full, the reference is written before the line is published.
+	 */
+	private volatile LogLineDat[]			dictionary;
+
+	/**
+	 * Number of entries in the {@link #dictionary} (only accessed by the writer).
+	 */
+	private int								dictionarySize;
+
+	/**
+	 * Lookup of the dictionary-index while lines are added, dropped when the segment is full (only accessed by the writer).
+	 */
+	private Map<LogLineDat, Integer>		dictionaryLookup;
+
+	/**
+	 * The lines that are not {@link LogLine}s (null at the index of the other lines), created with the first of them. The reference is
+	 * written before the line is published.
+	 */
+	private volatile ILogLine[]				otherLines;
+
+	/**
+	 * Memory of the data in the dictionary and of the {@link #otherLines} (only accessed by the writer).
+	 */
+	private long							dataMemory;
+
+	/**
+	 * Ctor
+	 * @param capacity - max number of lines
+	 * @param firstId - id of the first line that will be added
+	 */
+	public ColumnarLogLineSegment( int capacity, long firstId )
+	{
+		super( capacity, firstId );
+		this.timeStamps = new long[capacity];
+		this.dataIds = new int[capacity];
+		this.dictionary = new LogLineDat[Math.min( capacity, INITIAL_DICTIONARY_SIZE )];
+		this.dictionarySize = 0;
+		this.dictionaryLookup = new IdentityHashMap<>( );
+		this.otherLines = null;
+		this.dataMemory = 0;
+	}
+
+	@Override
+	protected void store( int index, ILogLine line )
+	{
+		this.timeStamps[index] = line.getTimeStamp( );
+		if ( line instanceof LogLine )
+			this.storeLogLine( index, ( LogLine ) line );
+		else
+			this.storeOtherLine( index, line );
+
+		// no more lines will be added
+		if ( index == this.capacity - 1 )
+			this.dictionaryLookup = null;
+	}
+
+	/**
+	 * Stores the pooled data of the given line in the dictionary.
+	 */
+	private void storeLogLine( int index, LogLine line )
+	{
+		LogLineDat dat = line.getLogLineDat( );
+		Integer dataId = this.dictionaryLookup.get( dat );
+		if ( dataId == null )
+		{
+			LogLineDat[] dictionary = this.dictionary;
+			if ( this.dictionarySize == dictionary.length )
+			{
+				dictionary = Arrays.copyOf( dictionary, Math.min( this.capacity, dictionary.length * 2 ) );
+				this.dictionary = dictionary;
+			}// if ( this.dictionarySize == dictionary.length ) .
+
+			dataId = this.dictionarySize++;
+			dictionary[dataId] = dat;
+			this.dictionaryLookup.put( dat, dataId );
+			this.dataMemory += dat.getMemory( );
+		}// if ( dataId == null ) .
+		this.dataIds[index] = dataId;
+	}
+
+	/**
+	 * Keeps the given line (not a {@link LogLine}) as it is, wrapping its data into a {@link LogLineDat} would defeat the pooling.
+	 */
+	private void storeOtherLine( int index, ILogLine line )
+	{
+		ILogLine[] otherLines = this.otherLines;
+		if ( otherLines == null )
+		{
+			otherLines = new ILogLine[this.capacity];
+			this.otherLines = otherLines;
+			this.dataMemory += ObjectLayout.sizeOfArray( ILogLine.class, this.capacity );
+		}// if ( otherLines == null ) .
+
+		otherLines[index] = line;
+		this.dataIds[index] = -1;
+		this.dataMemory += line.getMemory( );
+	}
+
+	@Override
+	public ILogLine get( int index )
+	{
+		final int dataId = this.dataIds[index];
+		if ( dataId < 0 )
+			return this.otherLines[index];
+		return new FlyweightLogLine( this.firstId + index, this.timeStamps[index], this.dictionary[dataId].getData( ) );
+	}
+
+	@Override
+	public long getMemory( )
+	{
+		final long columns = ObjectLayout.sizeOfArray( long.class, this.capacity ) + ObjectLayout.sizeOfArray( int.class, this.capacity );
+		final long dictionary = ObjectLayout.sizeOfArray( LogLineDat.class, this.dictionary.length );
+		return SIZE + columns + dictionary + this.dataMemory;
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import thobe.logfileviewer.kernel.memory.LRUCache;
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * {@link LogLineSegment} that is compressed once it is sealed (no more lines will be added). While lines are added it keeps the
+ * {@link ILogLine}s like the {@link HeapLogLineSegment}, so the live tail is not affected. {@link #compress()} (called in the background)
+ * encodes all lines into one block [time-stamp delta (zigzag varint), length (varint), UTF-8 bytes] deflated at level 1 (text lines
+ * compress 5-10x), {@link #publish(Block)} replaces the lines by the block. On access a compressed segment is inflated into
+ * {@link FlyweightLogLine}s kept in a small LRU of hot segments shared by all segments of the buffer, so consecutive requests touching the
+ * same segment inflate it once.
+ * @author Thomas Obenaus
+ * @source CompressedLogLineSegment.java
+ * @date Oct 17, 2026
+ */
+final class CompressedLogLineSegment extends LogLineSegment
+{
+	private static final Charset						UTF8	= Charset.forName( "UTF-8" );
+
+	private static final long							SIZE	= ObjectLayout.shallowSizeOf( CompressedLogLineSegment.class ) + ObjectLayout.shallowSizeOf( Block.class );
+
+	/**
+	 * The lines until the segment is compressed, null afterwards. Written after {@link #block}, so a reader seeing null always finds the
+	 * block.
+	 */
+	private volatile ILogLine[]							lines;
+
+	/**
+	 * The compressed lines, null until the segment is compressed.
+	 */
+	private volatile Block								block;
+
+	/**
+	 * Memory of the uncompressed lines (only accessed by the writer).
+	 */
+	private long										linesMemory;
+
+	/**
+	 * The inflated lines of the recently accessed segments.
+	 */
+	private final LRUCache<LogLineSegment, ILogLine[]>	hotSegments;
+
+	/**
+	 * Ctor
+	 * @param capacity - max number of lines
+	 * @param firstId - id of the first line that will be added
+	 * @param hotSegments - LRU of the inflated segments (shared by the segments of a buffer)
+	 */
+	public CompressedLogLineSegment( int capacity, long firstId, LRUCache<LogLineSegment, ILogLine[]> hotSegments )
+	{
+		super( capacity, firstId );
+		this.lines = new ILogLine[capacity];
+		this.block = null;
+		this.linesMemory = ObjectLayout.sizeOfArray( ILogLine.class, capacity );
+		this.hotSegments = hotSegments;
+	}
+
+	@Override
+	protected void store( int index, ILogLine line )
+	{
+		this.lines[index] = line;
+		this.linesMemory += line.getMemory( );
+	}
+
+	@Override
+	public ILogLine get( int index )
+	{
+		return this.getLines( )[index];
+	}
+
+	@Override
+	public LogLineBlock view( int from, int to )
+	{
+		return new LogLineBlock( this.getLines( ), from, to );
+	}
+
+	@Override
+	public void copyTo( ILogLine[] dst, int dstPos, int from, int to )
+	{
+		System.arraycopy( this.getLines( ), from, dst, dstPos, to - from );
+	}
+
+	/**
+	 * Returns the lines, inflated (and kept in the LRU of hot segments) if the segment is compressed.
+	 * @return
+	 */
+	private ILogLine[] getLines( )
+	{
+		final ILogLine[] lines = this.lines;
+		if ( lines != null )
+			return lines;
+
+		ILogLine[] inflated = this.hotSegments.get( this );
+		if ( inflated == null )
+		{
+			inflated = this.inflate( this.block );
+			this.hotSegments.put( this, inflated );
+		}// if ( inflated == null ) .
+		return inflated;
+	}
+
+	public boolean isCompressed( )
+	{
+		return this.lines == null;
+	}
+
+	/**
+	 * Encodes and deflates all lines of this segment, the segment itself is not modified. Has to be called after the segment was sealed.
+	 * @return
+	 */
+	public Block compress( )
+	{
+		final ILogLine[] lines = this.lines;
+		final int size = this.size( );
+
+		ByteArrayOutputStream raw = new ByteArrayOutputStream( size * 64 );
+		long previousTimeStamp = 0;
+		for ( int i = 0; i < size; ++i )
+		{
+			ILogLine line = lines[i];
+			final long delta = line.getTimeStamp( ) - previousTimeStamp;
+			previousTimeStamp = line.getTimeStamp( );
+			writeVarLong( raw, ( delta << 1 ) ^ ( delta >> 63 ) );
+
+			String data = line.getData( );
+			byte[] bytes = ( data != null ) ? data.getBytes( UTF8 ) : new byte[0];
+			writeVarLong( raw, bytes.length );
+			raw.write( bytes, 0, bytes.length );
+		}// for ( int i = 0; i < size; ++i ) .
+		byte[] rawBytes = raw.toByteArray( );
+
+		Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+		try
+		{
+			deflater.setInput( rawBytes );
+			deflater.finish( );
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream( rawBytes.length / 4 + 64 );
+			byte[] buffer = new byte[16 * 1024];
+			while ( !deflater.finished( ) )
+			{
+				int length = deflater.deflate( buffer );
+				compressed.write( buffer, 0, length );
+			}// while ( !deflater.finished( ) ) .
+			return new Block( compressed.toByteArray( ), rawBytes.length, size );
+		}
+		finally
+		{
+			deflater.end( );
+		}
+	}
+
+	/**
+	 * Replaces the lines by the given block (created by {@link #compress()}). Called by the writer.
+	 * @param block
+	 */
+	public void publish( Block block )
+	{
+		this.block = block;
+		this.lines = null;
+	}
+
+	private ILogLine[] inflate( Block block )
+	{
+		byte[] raw = new byte[block.rawLength];
+		Inflater inflater = new Inflater( );
+		try
+		{
+			inflater.setInput( block.data );
+			int length = 0;
+			while ( length < raw.length && !inflater.finished( ) )
+			{
+				int inflated = inflater.inflate( raw, length, raw.length - length );
+				if ( inflated == 0 && ( inflater.needsInput( ) || inflater.needsDictionary( ) ) )
+					break;
+				length += inflated;
+			}// while ( length < raw.length && !inflater.finished( ) ) .
+			if ( length != raw.length )
+				throw new IllegalStateException( "Compressed segment (firstId=" + this.firstId + ") is truncated: " + length + " of " + raw.length + " bytes" );
+		}
+		catch ( DataFormatException e )
+		{
+			throw new IllegalStateException( "Compressed segment (firstId=" + this.firstId + ") is corrupt: " + e.getLocalizedMessage( ) );
+		}
+		finally
+		{
+			inflater.end( );
+		}
+
+		ILogLine[] lines = new ILogLine[block.numLines];
+		int[] pos = new int[1];
+		long timeStamp = 0;
+		for ( int i = 0; i < lines.length; ++i )
+		{
+			long zigzag = readVarLong( raw, pos );
+			timeStamp += ( zigzag >>> 1 ) ^ -( zigzag & 1 );
+			int length = ( int ) readVarLong( raw, pos );
+			lines[i] = new FlyweightLogLine( this.firstId + i, timeStamp, new String( raw, pos[0], length, UTF8 ) );
+			pos[0] += length;
+		}// for ( int i = 0; i < lines.length; ++i ) .
+		return lines;
+	}
+
+	private static void writeVarLong( ByteArrayOutputStream out, long value )
+	{
+		while ( ( value & ~0x7FL ) != 0 )
+		{
+			out.write( ( int ) ( ( value & 0x7F ) | 0x80 ) );
+			value >>>= 7;
+		}// while ( ( value & ~0x7FL ) != 0 ) .
+		out.write( ( int ) value );
+	}
+
+	private static long readVarLong( byte[] in, int[] pos )
+	{
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = in[pos[0]++];
+			value |= ( long ) ( b & 0x7F ) << shift;
+			shift += 7;
+		}
+		while ( ( b & 0x80 ) != 0 );
+		return value;
+	}
+
+	/**
+	 * The inflated lines in the LRU of hot segments are not counted (their number is bounded).
+	 */
+	@Override
+	public long getMemory( )
+	{
+		final Block block = this.block;
+		if ( this.lines != null || block == null )
+			return SIZE + this.linesMemory;
+		return SIZE + ObjectLayout.sizeOfArray( byte.class, block.data.length );
+	}
+
+	/**
+	 * The deflated lines of a segment.
+	 */
+	static final class Block
+	{
+		private final byte[]	data;
+		private final int		rawLength;
+		private final int		numLines;
+
+		private Block( byte[] data, int rawLength, int numLines )
+		{
+			this.data = data;
+			this.rawLength = rawLength;
+			this.numLines = numLines;
+		}
+
+		public int getRawLength( )
+		{
+			return rawLength;
+		}
+
+		public int getLength( )
+		{
+			return data.length;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Frees the direct {@link ByteBuffer}s of the {@link OffHeapLogLineSegment}s explicitly instead of waiting for the GC to collect them
+ * (with most of the data off the heap collections are rare, so the direct memory would be exhausted long before the heap). Since the
+ * readers of the {@link LogLineBuffer} do not lock, a buffer that is not used any more ({@link #retire(ByteBuffer)}) is only freed while
+ * no reader is active: readers enclose their access to the segments by {@link #enter()} and {@link #exit()}, the buffers retired before
+ * the number of active readers was seen to be 0 can't be reached by any reader any more (the segments where unpublished before).
+ * Threadsafe.
+ * @author Thomas Obenaus
+ * @source DirectMemoryReclaimer.java
+ * @date Oct 17, 2026
+ */
+final class DirectMemoryReclaimer
+{
+	private static final String							NAME	= "thobe.logfileviewer.kernel.source.logline.DirectMemoryReclaimer";
+
+	/**
+	 * sun.misc.Unsafe and its method invokeCleaner (java 9+), null if not available.
+	 */
+	private static final Object							UNSAFE;
+	private static final Method							INVOKE_CLEANER;
+
+	static
+	{
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try
+		{
+			Class<?> unsafeClass = Class.forName( "sun.misc.Unsafe" );
+			Field theUnsafe = unsafeClass.getDeclaredField( "theUnsafe" );
+			theUnsafe.setAccessible( true );
+			unsafe = theUnsafe.get( null );
+			invokeCleaner = unsafeClass.getMethod( "invokeCleaner", ByteBuffer.class );
+		}
+		catch ( Exception | LinkageError e )
+		{
+			// java 8: the cleaner of the buffer is used
+			unsafe = null;
+			invokeCleaner = null;
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	/**
+	 * Number of readers currently accessing the segments.
+	 */
+	private final AtomicInteger							activeReaders;
+
+	/**
+	 * Buffers not used by the segments any more, waiting to be freed.
+	 */
+	private final ConcurrentLinkedQueue<ByteBuffer>	retired;
+
+	public DirectMemoryReclaimer( )
+	{
+		this.activeReaders = new AtomicInteger( 0 );
+		this.retired = new ConcurrentLinkedQueue<>( );
+	}
+
+	/**
+	 * Has to be called by a reader before it reads the array of segments.
+	 */
+	public void enter( )
+	{
+		this.activeReaders.incrementAndGet( );
+	}
+
+	/**
+	 * Has to be called by a reader when it does not access the segments any more, frees the retired buffers if it was the last reader.
+	 */
+	public void exit( )
+	{
+		if ( this.activeReaders.decrementAndGet( ) == 0 && !this.retired.isEmpty( ) )
+			this.reclaim( );
+	}
+
+	/**
+	 * Marks the given buffer as unused, it has to be unreachable for readers entering from now on (e.g. its segment was removed from the
+	 * array of segments before). The buffer is freed as soon as no reader is active.
+	 * @param buffer
+	 */
+	public void retire( ByteBuffer buffer )
+	{
+		if ( !buffer.isDirect( ) )
+			return;
+		this.retired.add( buffer );
+		this.reclaim( );
+	}
+
+	/**
+	 * Frees the retired buffers if no reader is active.
+	 */
+	private void reclaim( )
+	{
+		// take the buffers before checking the readers: a reader still using one of them entered before it was retired
+		List<ByteBuffer> batch = new ArrayList<>( );
+		ByteBuffer buffer;
+		while ( ( buffer = this.retired.poll( ) ) != null )
+			batch.add( buffer );
+		if ( batch.isEmpty( ) )
+			return;
+
+		if ( this.activeReaders.get( ) != 0 )
+		{
+			// freed by the last reader
+			this.retired.addAll( batch );
+			return;
+		}// if ( this.activeReaders.get( ) != 0 ) .
+
+		for ( ByteBuffer toFree : batch )
+			free( toFree );
+	}
+
+	/**
+	 * Returns the number of buffers waiting to be freed.
+	 * @return
+	 */
+	public int getNumRetired( )
+	{
+		return this.retired.size( );
+	}
+
+	/**
+	 * Releases the memory of the given direct buffer, if that is not possible it is left to the GC.
+	 * @param buffer
+	 */
+	private static void free( ByteBuffer buffer )
+	{
+		try
+		{
+			if ( INVOKE_CLEANER != null )
+			{
+				INVOKE_CLEANER.invoke( UNSAFE, buffer );
+			}// if ( INVOKE_CLEANER != null ) .
+			else
+			{
+				Method cleanerMethod = buffer.getClass( ).getMethod( "cleaner" );
+				cleanerMethod.setAccessible( true );
+				Object cleaner = cleanerMethod.invoke( buffer );
+				if ( cleaner != null )
+					cleaner.getClass( ).getMethod( "clean" ).invoke( cleaner );
+			}// if ( INVOKE_CLEANER != null ) ... else ...
+		}
+		catch ( Exception | LinkageError e )
+		{
+			Logger.getLogger( NAME ).fine( "Unable to free a direct buffer, it is left to the GC: " + e.getLocalizedMessage( ) );
+		}
+	}
+}
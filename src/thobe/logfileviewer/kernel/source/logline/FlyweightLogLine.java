@@ -0,0 +1,73 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * Short-living {@link ILogLine} created on access to a line that is not kept as object (e.g. stored off-heap). Unlike {@link LogLine} it
+ * is not counted, so creating it is cheap.
+ * @author Thomas Obenaus
+ * @source FlyweightLogLine.java
+ * @date Oct 17, 2026
+ */
+final class FlyweightLogLine implements ILogLine
+{
+	private static final long	SIZE	= ObjectLayout.shallowSizeOf( FlyweightLogLine.class );
+
+	private final long		id;
+	private final long		timeStamp;
+	private final String	data;
+
+	public FlyweightLogLine( long id, long timeStamp, String data )
+	{
+		this.id = id;
+		this.timeStamp = timeStamp;
+		this.data = data;
+	}
+
+	@Override
+	public String getData( )
+	{
+		return data;
+	}
+
+	@Override
+	public long getTimeStamp( )
+	{
+		return timeStamp;
+	}
+
+	@Override
+	public long getId( )
+	{
+		return id;
+	}
+
+	@Override
+	public long getMemory( )
+	{
+		return SIZE + ObjectLayout.sizeOf( this.data );
+	}
+
+	@Override
+	public String getTimeStampStr( )
+	{
+		return String.format( "%tH:%tM:%tS.%tL", this.timeStamp, this.timeStamp, this.timeStamp, this.timeStamp );
+	}
+
+	@Override
+	public String toString( )
+	{
+		return String.format( "{%5d|%s} - %s", this.id, this.getTimeStampStr( ), this.data );
+	}
+}
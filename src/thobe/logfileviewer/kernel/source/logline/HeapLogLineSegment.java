@@ -0,0 +1,75 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * {@link LogLineSegment} keeping references to the {@link ILogLine}s in an array. Ranges are handed out as views on this array without
+ * copying.
+ * @author Thomas Obenaus
+ * @source HeapLogLineSegment.java
+ * @date Oct 17, 2026
+ */
+final class HeapLogLineSegment extends LogLineSegment
+{
+	private static final long	SIZE	= ObjectLayout.shallowSizeOf( HeapLogLineSegment.class );
+
+	private final ILogLine[]	lines;
+
+	/**
+	 * Memory of this segment incl. the lines (only accessed by the writer).
+	 */
+	private long				memory;
+
+	public HeapLogLineSegment( int capacity, long firstId )
+	{
+		super( capacity, firstId );
+		this.lines = new ILogLine[capacity];
+		this.memory = SIZE + ObjectLayout.sizeOfArray( ILogLine.class, capacity );
+	}
+
+	@Override
+	protected void store( int index, ILogLine line )
+	{
+		this.lines[index] = line;
+		this.memory += line.getMemory( );
+	}
+
+	@Override
+	public ILogLine get( int index )
+	{
+		return this.lines[index];
+	}
+
+	/**
+	 * Returns an immutable view on the lines [from,to) of this segment, the lines are not copied (they are never modified once
+	 * published).
+	 */
+	@Override
+	public LogLineBlock view( int from, int to )
+	{
+		return new LogLineBlock( this.lines, from, to );
+	}
+
+	@Override
+	public void copyTo( ILogLine[] dst, int dstPos, int from, int to )
+	{
+		System.arraycopy( this.lines, from, dst, dstPos, to - from );
+	}
+
+	@Override
+	public long getMemory( )
+	{
+		return memory;
+	}
+}
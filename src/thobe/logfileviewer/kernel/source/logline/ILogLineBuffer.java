@@ -10,18 +10,49 @@
 
 package thobe.logfileviewer.kernel.source.logline;
 
-import thobe.logfileviewer.kernel.memory.IMemoryWatchable;
+import thobe.logfileviewer.kernel.memory.IGradedMemoryWatchable;
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
 
 /**
  * @author Thomas Obenaus
  * @source ILogLineBuffer.java
  * @date Oct 12, 2014
  */
-public interface ILogLineBuffer extends IMemoryWatchable
+public interface ILogLineBuffer extends IGradedMemoryWatchable
 {
 	public float getLoadFactor( );
 
 	public int getMaxCapacity( );
 
 	public int getCurrentLoad( );
+
+	/**
+	 * Returns the memory used outside of the heap.
+	 * @return
+	 */
+	public long getOffHeapMemory( );
+
+	/**
+	 * Returns the account of the heap-memory retained by the buffer.
+	 * @return
+	 */
+	public MemoryAccount getMemoryAccount( );
+
+	/**
+	 * Returns the number of segments waiting to be compressed (0 if the lines are not compressed).
+	 * @return
+	 */
+	public int getNumPendingCompressions( );
+
+	/**
+	 * Returns the number of lines written to disk after they where dropped from memory.
+	 * @return
+	 */
+	public long getNumSpilledLines( );
+
+	/**
+	 * Returns the size of the lines on disk (in bytes).
+	 * @return
+	 */
+	public long getSpillSize( );
 }
@@ -10,6 +10,9 @@
 
 package thobe.logfileviewer.kernel.source.logline;
 
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
+import thobe.logfileviewer.kernel.source.template.TemplateMiner;
+
 /**
  * Interface that generalizes the access to a {@link LogLineFactory}.
  * @author Thomas Obenaus
@@ -54,9 +57,21 @@ public interface ILogLineFactoryAccess
 	 */
 	public long getCacheMemory( );
 
+	/**
+	 * Returns the account of the memory consumed by the cache.
+	 * @return
+	 */
+	public MemoryAccount getCacheMemoryAccount( );
+
 	/**
 	 * Frees the memory used in internal cache.
 	 */
 	public void clearCache( );
 
+	/**
+	 * Returns the miner of the templates of the lines (used if template-mining is enabled), listeners for new templates are added here.
+	 * @return
+	 */
+	public TemplateMiner getTemplateMiner( );
+
 }
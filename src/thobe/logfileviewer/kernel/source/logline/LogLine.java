@@ -10,8 +10,9 @@
 
 package thobe.logfileviewer.kernel.source.logline;
 
+import thobe.logfileviewer.kernel.memory.InstanceTracker;
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
 import thobe.logfileviewer.plugin.source.logline.ILogLine;
-import thobe.logfileviewer.plugin.util.SizeOf;
 
 /**
  * Class representing one log-line.
@@ -21,9 +22,18 @@ import thobe.logfileviewer.plugin.util.SizeOf;
  */
 public class LogLine implements ILogLine
 {
+	/**
+	 * Size of a line without its data.
+	 */
+	private static final long				SIZE		= ObjectLayout.shallowSizeOf( LogLine.class );
+
+	/**
+	 * Counts the instances (there is no finalizer, so the lines are collected as soon as they are unreachable).
+	 */
+	private static final InstanceTracker	TRACKER		= new InstanceTracker( "LogLine" );
+
 	private final long			id;
 	private final long			timeStamp;
-	private static long			instances	= 0;
 
 	private final LogLineDat	data;
 	private boolean				dataCached;
@@ -34,19 +44,21 @@ public class LogLine implements ILogLine
 		this.timeStamp = timeStamp;
 		this.data = data;
 		this.dataCached = dataCached;
-		instances++;
+		TRACKER.allocated( this );
 	}
 
-	@Override
-	protected void finalize( ) throws Throwable
+	/**
+	 * Returns the estimated number of live instances, -1 if tracking is disabled (see {@link #getInstanceTracker()}).
+	 * @return
+	 */
+	public static long getNumberOfInstances( )
 	{
-		instances--;
-		super.finalize( );
+		return TRACKER.getNumLiveEstimate( );
 	}
 
-	public static long getNumberOfInstances( )
+	public static InstanceTracker getInstanceTracker( )
 	{
-		return instances;
+		return TRACKER;
 	}
 
 	public long getTimeStamp( )
@@ -64,6 +76,15 @@ public class LogLine implements ILogLine
 		return data.getData( );
 	}
 
+	/**
+	 * Returns the (pooled) data of this line.
+	 * @return
+	 */
+	LogLineDat getLogLineDat( )
+	{
+		return data;
+	}
+
 	public String getTimeStampStr( )
 	{
 		return String.format( "%tH:%tM:%tS.%tL", this.timeStamp, this.timeStamp, this.timeStamp, this.timeStamp );
@@ -75,8 +96,11 @@ public class LogLine implements ILogLine
 		return String.format( "{%5d|%s} - %s", this.id, this.getTimeStampStr( ), this.data.getData( ) );
 	}
 
+	/**
+	 * The (pooled) data is counted only by the line that created it, lines taking it from the cache of the {@link LogLineFactory} share it.
+	 */
 	public long getMemory( )
 	{
-		return ( SizeOf.LONG * 2 ) + SizeOf.BOOLEAN + ( dataCached ? SizeOf.STRING( this.getData( ) ) : 0 );
+		return SIZE + ( dataCached ? 0 : this.data.getMemory( ) );
 	}
 }
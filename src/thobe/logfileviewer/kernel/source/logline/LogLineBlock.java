@@ -0,0 +1,122 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+import thobe.logfileviewer.plugin.source.logstream.ILogStreamDataListener;
+
+/**
+ * Immutable block of {@link ILogLine}s, an index-range over an array whose elements in this range are never modified. This is the type of
+ * the blocks passed to {@link ILogStreamDataListener#onNewBlockOfLines(java.util.List)}: one block is shared by all listeners (having the
+ * same filter), the listeners may keep a reference to the block (or to a {@link #subList(int, int)} of it) without copying it. All
+ * modifying methods throw an {@link UnsupportedOperationException}.
+ * @author Thomas Obenaus
+ * @source LogLineBlock.java
+ * @date Oct 17, 2026
+ */
+public final class LogLineBlock extends AbstractList<ILogLine> implements RandomAccess
+{
+	/**
+	 * The empty block.
+	 */
+	public static final LogLineBlock	EMPTY	= new LogLineBlock( new ILogLine[0] );
+
+	private final ILogLine[]			lines;
+	private final int					from;
+	private final int					to;
+
+	/**
+	 * Ctor, the block takes ownership of the given array, it must not be modified afterwards.
+	 * @param lines
+	 */
+	public LogLineBlock( ILogLine[] lines )
+	{
+		this( lines, 0, lines.length );
+	}
+
+	/**
+	 * Ctor, a view on the range [from,to) of the given array which must not be modified afterwards.
+	 * @param lines
+	 * @param from - index of the first line (inclusive)
+	 * @param to - index of the last line (exclusive)
+	 */
+	public LogLineBlock( ILogLine[] lines, int from, int to )
+	{
+		if ( from < 0 || to > lines.length || from > to )
+			throw new IndexOutOfBoundsException( "Invalid range [" + from + "," + to + ") for " + lines.length + " lines" );
+		this.lines = lines;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Returns an immutable block containing the given lines (copied).
+	 * @param lines
+	 * @return
+	 */
+	public static LogLineBlock copyOf( Collection<? extends ILogLine> lines )
+	{
+		if ( lines instanceof LogLineBlock )
+			return ( LogLineBlock ) lines;
+		if ( lines.isEmpty( ) )
+			return EMPTY;
+		return new LogLineBlock( lines.toArray( new ILogLine[lines.size( )] ) );
+	}
+
+	@Override
+	public ILogLine get( int index )
+	{
+		if ( index < 0 || index >= ( this.to - this.from ) )
+			throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + ( this.to - this.from ) );
+		return this.lines[this.from + index];
+	}
+
+	@Override
+	public int size( )
+	{
+		return this.to - this.from;
+	}
+
+	/**
+	 * Returns an immutable view on the given range of this block, the lines are not copied.
+	 */
+	@Override
+	public LogLineBlock subList( int fromIndex, int toIndex )
+	{
+		if ( fromIndex < 0 || toIndex > this.size( ) || fromIndex > toIndex )
+			throw new IndexOutOfBoundsException( "Invalid range [" + fromIndex + "," + toIndex + ") for " + this.size( ) + " lines" );
+		return new LogLineBlock( this.lines, this.from + fromIndex, this.from + toIndex );
+	}
+
+	@Override
+	public Object[] toArray( )
+	{
+		return Arrays.copyOfRange( this.lines, this.from, this.to, Object[].class );
+	}
+
+	@Override
+	@SuppressWarnings ( "unchecked")
+	public <T> T[] toArray( T[] a )
+	{
+		int size = this.size( );
+		if ( a.length < size )
+			return ( T[] ) Arrays.copyOfRange( this.lines, this.from, this.to, a.getClass( ) );
+		System.arraycopy( this.lines, this.from, a, 0, size );
+		if ( a.length > size )
+			a[size] = null;
+		return a;
+	}
+}
@@ -10,20 +10,36 @@
 
 package thobe.logfileviewer.kernel.source.logline;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
+import thobe.logfileviewer.kernel.memory.LRUCache;
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
+import thobe.logfileviewer.kernel.source.LogLineBufferMode;
 import thobe.logfileviewer.kernel.source.err.LogLineBufferException;
 import thobe.logfileviewer.plugin.source.logline.ILogLine;
-import thobe.logfileviewer.plugin.util.SizeOf;
 
 /**
- * Buffer for instances of {@link ILogLine}s with a max capacity.
+ * Buffer for instances of {@link ILogLine}s with a max capacity. The lines are stored in fixed-size array segments
+ * ({@link LogLineSegment}) of lines with contiguous ids, so the position of an id is computed instead of searched. On reaching the max
+ * capacity whole segments are dropped from the head. Reads do not lock: the array of segments is replaced (copy-on-write) on each
+ * structural change and the segments publish their lines safely, so a reader works on a consistent snapshot while lines are added. The
+ * {@link LogLineBufferMode} decides whether new segments keep the line-objects, store the lines off-heap or in primitive columns. If spilling is
+ * enabled ({@link #setSpillSettings(boolean, long)}) dropped segments are written to disk ({@link SpillStore}) by a background thread,
+ * so dropping lines never waits for IO while holding the lock of the writer. Until they are on disk the dropped segments stay readable,
+ * {@link #getLines(long, long)} merges the lines on disk, the ones waiting to be written and the ones in memory transparently. A sparse {@link TimeIndex} maintained on adding lines answers requests for time-ranges
+ * ({@link #getLinesByTime(long, long)}) without scanning the buffer. In {@link LogLineBufferMode#COMPRESSED} mode each segment is
+ * compressed in the background as soon as the next one is started (the live tail stays uncompressed), reading compressed segments
+ * inflates them into a small LRU of hot segments.
  * @author Thomas Obenaus
  * @source LogLineBuffer.java
  * @date Oct 12, 2014
@@ -33,7 +49,7 @@ public class LogLineBuffer implements ILogLineBuffer
 	/**
 	 * Default initial capacity (#items)
 	 */
-	private static final int	DEFAULT_MAX_CAPACITY	= 100000;
+	public static final int		DEFAULT_MAX_CAPACITY	= 100000;
 
 	/**
 	 * Name of the logchannel
@@ -41,14 +57,41 @@ public class LogLineBuffer implements ILogLineBuffer
 	private static final String	NAME					= "thobe.logfileviewer.kernel.source.logline.LogLineBuffer";
 
 	/**
-	 * Internal list of buffered {@link LogLine}s
+	 * Max number of lines per segment.
 	 */
-	private List<ILogLine>		internalBuffer;
+	private static final int	SEGMENT_SIZE			= 4096;
+
+	/**
+	 * Max number of inflated segments kept in memory (in {@link LogLineBufferMode#COMPRESSED} mode).
+	 */
+	private static final int	HOT_SEGMENTS			= 4;
+
+	/**
+	 * Max number of dropped segments waiting to be spilled, dropping more waits for the spiller (the memory stays bounded if the disk is
+	 * slow).
+	 */
+	private static final int	MAX_PENDING_SPILL		= 64;
+
+	/**
+	 * The segments, ordered by the ids of their lines (ascending). The array is never modified, it is replaced on each change (by the
+	 * writer holding {@link #writeLock}).
+	 */
+	private volatile LogLineSegment[]	segments;
+
+	/**
+	 * Lock for all modifications.
+	 */
+	private final Object				writeLock;
+
+	/**
+	 * Number of lines in all segments.
+	 */
+	private volatile int				size;
 
 	/**
 	 * Max capacity (#items)
 	 */
-	private int					maxCapacity;
+	private volatile int		maxCapacity;
 
 	/**
 	 * Load factor ... number of items the buffer will contain after it has reached its max capacity (this factor is the percentage of the
@@ -68,9 +111,61 @@ public class LogLineBuffer implements ILogLineBuffer
 	private Timer				bufferOverflowWatcherTimer;
 
 	/**
-	 * Current memory usage.
+	 * Storage of the segments created from now on.
+	 */
+	private volatile LogLineBufferMode	mode;
+
+	/**
+	 * Disk tier for the dropped segments, null if spilling is disabled.
+	 */
+	private volatile SpillStore			spillStore;
+
+	/**
+	 * Lock for appending to the {@link #spillStore} and replacing it (acquired after {@link #writeLock} if both are needed).
+	 */
+	private final Object				spillLock;
+
+	/**
+	 * The dropped segments that are not written to the {@link #spillStore} yet, ordered by the ids of their lines. Replaced on each change
+	 * (holding {@link #pendingSpillLock}) like {@link #segments}.
+	 */
+	private volatile LogLineSegment[]	pendingSpill;
+	private final Object				pendingSpillLock;
+
+	/**
+	 * Thread writing the dropped segments to the {@link #spillStore}, created on first use.
+	 */
+	private ExecutorService				spiller;
+
+	/**
+	 * Index of the time-stamps of the lines in memory and on disk.
+	 */
+	private final TimeIndex				timeIndex;
+
+	/**
+	 * Heap-memory retained by the segments, charged on adding lines and released on dropping segments.
+	 */
+	private final MemoryAccount			memoryAccount;
+
+	/**
+	 * The inflated lines of the recently read compressed segments.
+	 */
+	private final LRUCache<LogLineSegment, ILogLine[]>	hotSegments;
+
+	/**
+	 * Frees the direct memory of the segments stored in {@link LogLineBufferMode#OFF_HEAP} mode once no reader uses it.
 	 */
-	private long				memory;
+	private final DirectMemoryReclaimer	reclaimer;
+
+	/**
+	 * Thread compressing the sealed segments, created on first use.
+	 */
+	private ExecutorService				compressor;
+
+	/**
+	 * Number of segments waiting to be compressed.
+	 */
+	private final AtomicInteger			pendingCompressions;
 
 	/**
 	 * DefCtor with maxCapacity=100000 and loadFactor=0.75
@@ -96,7 +191,18 @@ public class LogLineBuffer implements ILogLineBuffer
 		if ( this.loadFactor > 1.0 )
 			throw new IllegalArgumentException( "LoadFactor should never be greater than 1.0 (100%)" );
 
-		this.internalBuffer = new LinkedList<ILogLine>( );
+		this.segments = new LogLineSegment[0];
+		this.writeLock = new Object( );
+		this.spillLock = new Object( );
+		this.pendingSpill = new LogLineSegment[0];
+		this.pendingSpillLock = new Object( );
+		this.size = 0;
+		this.mode = LogLineBufferMode.HEAP;
+		this.timeIndex = new TimeIndex( );
+		this.memoryAccount = new MemoryAccount( "LogLineBuffer" );
+		this.hotSegments = new LRUCache<>( HOT_SEGMENTS );
+		this.reclaimer = new DirectMemoryReclaimer( );
+		this.pendingCompressions = new AtomicInteger( 0 );
 		this.log = Logger.getLogger( NAME );
 
 		bufferOverflowWatcherTimer = new Timer( NAME + ".Timer" );
@@ -114,24 +220,14 @@ public class LogLineBuffer implements ILogLineBuffer
 		if ( entries.isEmpty( ) )
 			return;
 
-		synchronized ( this.internalBuffer )
+		synchronized ( this.writeLock )
 		{
 			// check if we can add the block or if it overlaps
-			if ( !this.internalBuffer.isEmpty( ) )
-			{
-				ILogLine lastEntry = this.internalBuffer.get( this.internalBuffer.size( ) - 1 );
-				ILogLine firstEntry = entries.get( 0 );
-				if ( lastEntry.getId( ) >= firstEntry.getId( ) )
-				{
-					throw new LogLineBufferException( "Unable to add this block, since the ids overlap. idOfLastEntryInBuffer=" + lastEntry.getId( ) + ", idOfFirstEntryInNewBlock=" + firstEntry.getId( ) );
-				}
-			}// if ( !this.internalBuffer.isEmpty( ) ).
-
-			this.internalBuffer.addAll( this.internalBuffer.size( ), entries );
-		}// synchronized ( this.internalBuffer ).
+			this.checkOverlap( entries.get( 0 ) );
 
-		for ( ILogLine l : entries )
-			this.memory += l.getMemory( );
+			for ( ILogLine entry : entries )
+				this.append( entry );
+		}// synchronized ( this.writeLock ).
 	}
 
 	/**
@@ -141,104 +237,669 @@ public class LogLineBuffer implements ILogLineBuffer
 	 */
 	public void add( ILogLine entry ) throws LogLineBufferException
 	{
-		synchronized ( this.internalBuffer )
+		synchronized ( this.writeLock )
 		{
 			// check if we can add the block or if it overlaps
-			if ( !this.internalBuffer.isEmpty( ) )
+			this.checkOverlap( entry );
+			this.append( entry );
+		}// synchronized ( this.writeLock ).
+	}
+
+	private void checkOverlap( ILogLine firstEntry ) throws LogLineBufferException
+	{
+		final LogLineSegment[] segments = this.segments;
+		if ( segments.length > 0 )
+		{
+			long lastId = segments[segments.length - 1].getLastId( );
+			if ( lastId >= firstEntry.getId( ) )
 			{
-				ILogLine lastEntry = this.internalBuffer.get( this.internalBuffer.size( ) - 1 );
-				if ( lastEntry.getId( ) >= entry.getId( ) )
+				throw new LogLineBufferException( "Unable to add this block, since the ids overlap. idOfLastEntryInBuffer=" + lastId + ", idOfFirstEntryInNewBlock=" + firstEntry.getId( ) );
+			}
+		}// if ( segments.length > 0 ).
+	}
+
+	/**
+	 * Appends the line to the last segment, a new segment is started if the last one is full or if the id does not follow the last id (gap).
+	 * Has to be called holding {@link #writeLock}.
+	 * @param entry
+	 */
+	private void append( ILogLine entry )
+	{
+		final LogLineSegment[] segments = this.segments;
+		LogLineSegment last = ( segments.length == 0 ) ? null : segments[segments.length - 1];
+		if ( last == null || !last.accepts( entry ) )
+		{
+			// fill the new segment before publishing it
+			last = this.createSegment( entry );
+			last.add( entry );
+			LogLineSegment[] newSegments = Arrays.copyOf( segments, segments.length + 1 );
+			newSegments[segments.length] = last;
+			this.segments = newSegments;
+			this.memoryAccount.charge( last.getMemory( ) );
+
+			// the previous segment is sealed now
+			if ( segments.length > 0 )
+			{
+				final LogLineSegment previous = segments[segments.length - 1];
+				final long memoryBefore = previous.getMemory( );
+				previous.seal( );
+				this.memoryAccount.charge( previous.getMemory( ) - memoryBefore );
+				if ( previous instanceof CompressedLogLineSegment )
+					this.compressInBackground( ( CompressedLogLineSegment ) previous );
+			}// if ( segments.length > 0 ) .
+		}// if ( last == null || !last.accepts( entry ) ) .
+		else
+		{
+			final long memoryBefore = last.getMemory( );
+			last.add( entry );
+			this.memoryAccount.charge( last.getMemory( ) - memoryBefore );
+		}// if ( last == null || !last.accepts( entry ) ) ... else ...
+
+		this.timeIndex.add( entry.getId( ), entry.getTimeStamp( ) );
+		this.size++;
+	}
+
+	/**
+	 * Creates a new segment starting with the given line, according to the current {@link LogLineBufferMode}.
+	 * @param firstEntry
+	 * @return
+	 */
+	private LogLineSegment createSegment( ILogLine firstEntry )
+	{
+		switch ( this.mode )
+		{
+		case OFF_HEAP:
+			return new OffHeapLogLineSegment( SEGMENT_SIZE, firstEntry.getId( ), firstEntry.getTimeStamp( ), this.reclaimer );
+		case COLUMNAR:
+			return new ColumnarLogLineSegment( SEGMENT_SIZE, firstEntry.getId( ) );
+		case COMPRESSED:
+			return new CompressedLogLineSegment( SEGMENT_SIZE, firstEntry.getId( ), this.hotSegments );
+		case HEAP:
+		default:
+			return new HeapLogLineSegment( SEGMENT_SIZE, firstEntry.getId( ) );
+		}// switch ( this.mode ) .
+	}
+
+	/**
+	 * Compresses the given (sealed) segment on the compressor-thread, the compressed block replaces the lines only if the segment was not
+	 * dropped meanwhile. Has to be called holding {@link #writeLock}.
+	 * @param segment
+	 */
+	private void compressInBackground( final CompressedLogLineSegment segment )
+	{
+		if ( this.compressor == null )
+			this.compressor = newBackgroundThread( NAME + ".Compressor", Thread.MIN_PRIORITY );
+
+		this.pendingCompressions.incrementAndGet( );
+		this.compressor.execute( new Runnable( )
+		{
+			@Override
+			public void run( )
+			{
+				try
 				{
-					throw new LogLineBufferException( "Unable to add this block, since the ids overlap. idOfLastEntryInBuffer=" + lastEntry.getId( ) + ", idOfFirstEntryInNewBlock=" + entry.getId( ) );
+					// the expensive part without holding the lock, the segment is immutable
+					CompressedLogLineSegment.Block block = segment.compress( );
+					synchronized ( writeLock )
+					{
+						if ( !contains( segments, segment ) )
+							return;
+						final long memoryBefore = segment.getMemory( );
+						segment.publish( block );
+						memoryAccount.release( memoryBefore - segment.getMemory( ) );
+					}// synchronized ( writeLock ).
 				}
-			}// if ( !this.internalBuffer.isEmpty( ) ).
+				catch ( RuntimeException e )
+				{
+					LOG( ).severe( "Unable to compress the segment starting at id " + segment.getFirstId( ) + ", it is kept uncompressed: " + e.getLocalizedMessage( ) );
+				}
+				finally
+				{
+					pendingCompressions.decrementAndGet( );
+				}
+			}
+		} );
+	}
 
-			this.internalBuffer.add( entry );
-		}// synchronized ( this.internalBuffer ).
+	/**
+	 * Creates an executor running the tasks on one daemon thread having the given name and priority.
+	 */
+	private static ExecutorService newBackgroundThread( final String name, final int priority )
+	{
+		return Executors.newSingleThreadExecutor( new ThreadFactory( )
+		{
+			@Override
+			public Thread newThread( Runnable r )
+			{
+				Thread thread = new Thread( r, name );
+				thread.setDaemon( true );
+				thread.setPriority( priority );
+				return thread;
+			}
+		} );
+	}
 
-		this.memory += SizeOf.STRING( entry.getData( ) );
+	/**
+	 * Returns true if the given segment is one of the given ones.
+	 */
+	private static boolean contains( LogLineSegment[] segments, LogLineSegment segment )
+	{
+		// usually one of the newest ones
+		for ( int i = segments.length - 1; i >= 0; --i )
+		{
+			if ( segments[i] == segment )
+				return true;
+		}// for ( int i = segments.length - 1; i >= 0; --i ) .
+		return false;
 	}
 
+	/**
+	 * Returns the number of segments waiting to be compressed (in {@link LogLineBufferMode#COMPRESSED} mode).
+	 */
+	@Override
+	public int getNumPendingCompressions( )
+	{
+		return this.pendingCompressions.get( );
+	}
+
+	/**
+	 * Returns all lines having an id within [start,end] as immutable block. The buffer is not locked and only the returned lines are
+	 * touched, if the range lies within one segment even no line is copied. Lines of the range that where already dropped from memory are
+	 * read from the {@link SpillStore} (if spilling is enabled) or taken from the segments waiting to be written there.
+	 * @param start - the first id, -1 for all lines from the beginning of the buffer (the spilled lines are not included)
+	 * @param end - the last id, -1 for all lines till the end of the buffer
+	 * @return
+	 */
 	public List<ILogLine> getLines( long start, long end )
 	{
-		List<ILogLine> lines = new ArrayList<ILogLine>( );
+		// the direct memory of the segments of the snapshot must not be freed while they are read
+		this.reclaimer.enter( );
+		try
+		{
+			return this.getLinesImpl( start, end );
+		}
+		finally
+		{
+			this.reclaimer.exit( );
+		}
+	}
+
+	private List<ILogLine> getLinesImpl( long start, long end )
+	{
+		// snapshot, lines added afterwards are not visible. Read in the order opposite to the one lines move in (memory -> pending ->
+		// spill-store), so each line dropped before the snapshot was taken is found at least once, overlaps are cut off by the ids.
+		final LogLineSegment[] segments = this.segments;
+		final LogLineSegment[] pendingSpill = this.pendingSpill;
+		final SpillStore spillStore = this.spillStore;
+
+		final long firstId = ( start == -1 ) ? Long.MIN_VALUE : start;
+		final long lastId = ( end == -1 ) ? Long.MAX_VALUE : end;
+
+		final List<ILogLine> memoryLines = getLines( segments, firstId, lastId );
+		final long firstIdInMemory = ( segments.length == 0 ) ? Long.MAX_VALUE : segments[0].getFirstId( );
+		if ( start == -1 || start >= firstIdInMemory )
+			return memoryLines;
+
+		// the part that was dropped from memory, still waiting to be written or already on disk
+		final List<ILogLine> pendingLines = getLines( pendingSpill, firstId, Math.min( lastId, firstIdInMemory - 1 ) );
+		final long firstIdPending = ( pendingSpill.length == 0 ) ? firstIdInMemory : pendingSpill[0].getFirstId( );
+		final List<ILogLine> spilledLines = ( spillStore != null && firstId < firstIdPending ) ? spillStore.read( firstId, Math.min( lastId, firstIdPending - 1 ) ) : new ArrayList<ILogLine>( );
+		if ( spilledLines.isEmpty( ) && pendingLines.isEmpty( ) )
+			return memoryLines;
+		spilledLines.addAll( pendingLines );
+		spilledLines.addAll( memoryLines );
+		return new LogLineBlock( spilledLines.toArray( new ILogLine[spilledLines.size( )] ) );
+	}
+
+	/**
+	 * Returns the lines from the first line having a time-stamp >= startTime to the last line having a time-stamp <= endTime (ids
+	 * contiguous, thus lines in between that are out of order are included). The {@link TimeIndex} is binary-searched, only the lines of
+	 * the two blocks containing the boundaries are scanned. Lines already dropped from memory are included if they where spilled.
+	 * @param startTime - ms since epoch
+	 * @param endTime - ms since epoch
+	 * @return
+	 */
+	public List<ILogLine> getLinesByTime( long startTime, long endTime )
+	{
+		if ( startTime > endTime )
+			return LogLineBlock.EMPTY;
+
+		// 1. first line having a time-stamp >= startTime
+		final long[] firstBlock = this.timeIndex.findFirstBlock( startTime );
+		if ( firstBlock == null )
+			return LogLineBlock.EMPTY;
+		long firstId = -1;
+		for ( ILogLine line : this.getLines( firstBlock[0], firstBlock[1] ) )
+		{
+			if ( line.getTimeStamp( ) >= startTime )
+			{
+				firstId = line.getId( );
+				break;
+			}// if ( line.getTimeStamp( ) >= startTime ) .
+		}// for ( ILogLine line : this.getLines( firstBlock[0], firstBlock[1] ) ) .
+		if ( firstId == -1 )
+		{
+			// open block: no such line, complete block: the lines are not available any more
+			if ( firstBlock[1] == Long.MAX_VALUE )
+				return LogLineBlock.EMPTY;
+			firstId = firstBlock[0];
+		}// if ( firstId == -1 ) .
+
+		// 2. last line having a time-stamp <= endTime, the open block contains the newest lines
+		long lastId = -1;
+		final long openFirstId = this.timeIndex.getOpenFirstId( );
+		if ( openFirstId >= 0 )
+			lastId = findLastId( this.getLines( openFirstId, -1 ), endTime );
+		if ( lastId == -1 )
+		{
+			final long[] lastBlock = this.timeIndex.findLastBlock( endTime );
+			if ( lastBlock == null )
+				return LogLineBlock.EMPTY;
+			lastId = findLastId( this.getLines( lastBlock[0], lastBlock[1] ), endTime );
+			if ( lastId == -1 )
+				lastId = lastBlock[1];
+		}// if ( lastId == -1 ) .
+
+		if ( lastId < firstId )
+			return LogLineBlock.EMPTY;
+		return this.getLines( firstId, lastId );
+	}
+
+	/**
+	 * Returns the id of the last of the given lines having a time-stamp <= the given one, -1 if there is none.
+	 */
+	private static long findLastId( List<ILogLine> lines, long timeStamp )
+	{
+		for ( int i = lines.size( ) - 1; i >= 0; --i )
+		{
+			ILogLine line = lines.get( i );
+			if ( line.getTimeStamp( ) <= timeStamp )
+				return line.getId( );
+		}// for ( int i = lines.size( ) - 1; i >= 0; --i ) .
+		return -1;
+	}
 
-		List<ILogLine> copyOfBuffer = null;
-		synchronized ( this.internalBuffer )
+	/**
+	 * Returns all lines of the given segments having an id within [firstId,lastId].
+	 * @param segments
+	 * @param firstId
+	 * @param lastId
+	 * @return
+	 */
+	private static List<ILogLine> getLines( LogLineSegment[] segments, long firstId, long lastId )
+	{
+		if ( segments.length == 0 )
+			return LogLineBlock.EMPTY;
+
+		// 1. collect the ranges of the segments covered by [start,end] (the size of a segment is read only once)
+		final int firstSegment = findSegment( segments, firstId );
+		int lastSegment = firstSegment;
+		while ( lastSegment < segments.length && segments[lastSegment].getFirstId( ) <= lastId )
+			lastSegment++;
+
+		final int numSegments = lastSegment - firstSegment;
+		if ( numSegments == 0 )
+			return LogLineBlock.EMPTY;
+
+		int[] from = new int[numSegments];
+		int[] to = new int[numSegments];
+		int numLines = 0;
+		for ( int i = 0; i < numSegments; ++i )
 		{
-			copyOfBuffer = new ArrayList<ILogLine>( this.internalBuffer );
+			LogLineSegment segment = segments[firstSegment + i];
+			from[i] = segment.lowerBound( firstId );
+			to[i] = Math.max( from[i], segment.upperBound( lastId ) );
+			numLines += to[i] - from[i];
+		}// for ( int i = 0; i < numSegments; ++i ) .
+
+		// 2. within one segment: a view, otherwise copy exactly the lines of the range
+		if ( numSegments == 1 )
+			return segments[firstSegment].view( from[0], to[0] );
+
+		ILogLine[] lines = new ILogLine[numLines];
+		int pos = 0;
+		for ( int i = 0; i < numSegments; ++i )
+		{
+			segments[firstSegment + i].copyTo( lines, pos, from[i], to[i] );
+			pos += to[i] - from[i];
 		}
+		return new LogLineBlock( lines );
+	}
+
+	/**
+	 * Returns the index of the first segment containing ids >= the given id (the number of segments if there is none). Since all segments
+	 * but the last are full and ids are usually contiguous the index is computed, only if there where gaps between the ids the segments
+	 * are searched.
+	 * @param segments
+	 * @param id
+	 * @return
+	 */
+	private static int findSegment( LogLineSegment[] segments, long id )
+	{
+		final LogLineSegment first = segments[0];
+		if ( id <= first.getFirstId( ) )
+			return 0;
+
+		// fast path: no gaps
+		long guess = ( id - first.getFirstId( ) ) / SEGMENT_SIZE;
+		if ( guess < segments.length )
+		{
+			LogLineSegment segment = segments[( int ) guess];
+			if ( segment.getFirstId( ) <= id && segment.getLastId( ) >= id )
+				return ( int ) guess;
+		}// if ( guess < segments.length ) .
+
+		// binary search for the first segment having lastId >= id
+		int low = 0;
+		int high = segments.length;
+		while ( low < high )
+		{
+			int mid = ( low + high ) >>> 1;
+			if ( segments[mid].getLastId( ) < id )
+				low = mid + 1;
+			else
+				high = mid;
+		}// while ( low < high ) .
+		return low;
+	}
+
+	@Override
+	public long getMemory( )
+	{
+		return this.memoryAccount.get( );
+	}
+
+	@Override
+	public MemoryAccount getMemoryAccount( )
+	{
+		return memoryAccount;
+	}
+
+	/**
+	 * Returns the memory used outside of the heap (by segments stored in {@link LogLineBufferMode#OFF_HEAP} mode).
+	 */
+	@Override
+	public long getOffHeapMemory( )
+	{
+		long memory = 0;
+		for ( LogLineSegment segment : this.segments )
+			memory += segment.getOffHeapMemory( );
+		return memory;
+	}
+
+	/**
+	 * Sets how the lines are stored, applied to the lines added from now on.
+	 * @param mode
+	 */
+	public void setMode( LogLineBufferMode mode )
+	{
+		this.mode = mode;
+	}
+
+	public LogLineBufferMode getMode( )
+	{
+		return mode;
+	}
+
+	/**
+	 * Sets the maximum capacity (entries of {@link ILogLine}s) of this buffer, applied with the next check of the capacity.
+	 * @param maxCapacity
+	 */
+	public void setMaxCapacity( int maxCapacity )
+	{
+		if ( maxCapacity < 1 )
+			throw new IllegalArgumentException( "MaxCapacity should never be smaller than 1" );
+		this.maxCapacity = maxCapacity;
+	}
 
-		if ( !copyOfBuffer.isEmpty( ) )
+	/**
+	 * Enables/ disables writing the lines dropped from memory to disk. Disabling deletes the lines spilled so far.
+	 * @param enabled
+	 * @param maxSize - max size of the spilled lines on disk (in bytes), the oldest ones are deleted if it is exceeded
+	 */
+	public void setSpillSettings( boolean enabled, long maxSize )
+	{
+		synchronized ( this.writeLock )
 		{
-			final long firstId = copyOfBuffer.get( 0 ).getId( );
-			final long lastId = copyOfBuffer.get( copyOfBuffer.size( ) - 1 ).getId( );
-			final boolean fromStart = ( start == -1 ) || ( firstId >= start );
-			final boolean tillEnd = ( end == -1 ) || ( lastId <= end );
-
-			int firstIdx = 0;
-			int lastIdx = copyOfBuffer.size( ) - 1;
-			if ( !fromStart )
+			// waits for the segment currently written
+			synchronized ( this.spillLock )
 			{
-				// 1. obtain index for first 
-				// find the first id that matches start or is bigger than start
-				// e.g. 7,8,[10,11,12,30,31,32 : where start = 10 ==> take idx=2, which is 10
-				// e.g. 7,8,[10,11,12,30,31,32 : where start = 9 ==> take idx=2, which is 10
+				SpillStore oldStore = this.spillStore;
+				this.spillStore = null;
+				if ( oldStore != null )
+					oldStore.close( );
 
-				for ( int i = 0; i < copyOfBuffer.size( ); ++i )
+				if ( enabled )
 				{
-					// first found that is bigger than or matches start --> use it
-					if ( copyOfBuffer.get( i ).getId( ) >= start )
+					try
 					{
-						firstIdx = i;
-						break;
+						this.spillStore = new SpillStore( maxSize );
+					}
+					catch ( IOException e )
+					{
+						LOG( ).severe( "Unable to create the spill-store, lines will be discarded: " + e.getLocalizedMessage( ) );
 					}
-				}// for(int i=0;i<copyOfBuffer.size( );++i)
+				}// if ( enabled ) .
+			}// synchronized ( this.spillLock ).
+			this.trimTimeIndex( );
+		}// synchronized ( this.writeLock ).
+	}
 
-			}// if ( !fromStart )
+	public boolean isSpillEnabled( )
+	{
+		return this.spillStore != null;
+	}
 
-			if ( !tillEnd )
-			{
-				// 2. obtain index for last 
-				// find the first id that matches end or the last one that is smaller end
-				// e.g. 7,8,10,11,12],30,31,32 : where end = 12 ==> take idx=4, which is 12
-				// e.g. 7,8,10,11,12],30,31,32 : where end = 28 ==> take idx=4, which is 12
+	/**
+	 * Returns the number of lines written to disk so far (0 if spilling is disabled).
+	 */
+	@Override
+	public long getNumSpilledLines( )
+	{
+		final SpillStore spillStore = this.spillStore;
+		return ( spillStore != null ) ? spillStore.getNumLines( ) : 0;
+	}
 
-				ListIterator<ILogLine> iter = copyOfBuffer.listIterator( copyOfBuffer.size( ) );
-				while ( iter.hasPrevious( ) )
+	/**
+	 * Returns the size of the lines on disk (in bytes, 0 if spilling is disabled).
+	 */
+	@Override
+	public long getSpillSize( )
+	{
+		final SpillStore spillStore = this.spillStore;
+		return ( spillStore != null ) ? spillStore.getSize( ) : 0;
+	}
+
+	/**
+	 * Writes the given dropped segments to the spill-store on the spiller-thread (without holding {@link #writeLock}), afterwards they are
+	 * removed from {@link #pendingSpill} and released. On failure spilling is disabled. Has to be called holding {@link #writeLock}, the
+	 * spiller itself never acquires it.
+	 * @param dropped - the head of {@link #pendingSpill}
+	 */
+	private void spillInBackground( final LogLineSegment[] dropped )
+	{
+		if ( this.spiller == null )
+			this.spiller = newBackgroundThread( NAME + ".Spiller", Thread.NORM_PRIORITY );
+
+		this.spiller.execute( new Runnable( )
+		{
+			@Override
+			public void run( )
+			{
+				synchronized ( spillLock )
 				{
-					final ILogLine ll = iter.previous( );
-					// last found that is smaller than or matches end --> use it
-					if ( ll.getId( ) <= end )
+					final SpillStore store = spillStore;
+					if ( store != null )
 					{
-						break;
-					}// if ( ll.getId( ) <= end )
+						try
+						{
+							for ( LogLineSegment segment : dropped )
+								store.append( segment );
+						}
+						catch ( IOException | RuntimeException e )
+						{
+							LOG( ).severe( "Unable to spill lines to disk, spilling will be disabled: " + e.getLocalizedMessage( ) );
+							spillStore = null;
+							store.close( );
+						}
+					}// if ( store != null ) .
+				}// synchronized ( spillLock ).
+
+				// the lines are on disk now (or discarded), readers taking a snapshot from now on read them from there
+				synchronized ( pendingSpillLock )
+				{
+					final LogLineSegment[] pending = pendingSpill;
+					pendingSpill = Arrays.copyOfRange( pending, dropped.length, pending.length );
+					pendingSpillLock.notifyAll( );
+				}// synchronized ( pendingSpillLock ).
+				releaseSegments( dropped );
+			}
+		} );
+	}
 
-					lastIdx--;
-				}// while ( iter.hasPrevious( ) )
-			}// if ( !tillEnd )
+	/**
+	 * Releases the given segments, that are not reachable for new readers any more.
+	 * @param dropped
+	 */
+	private void releaseSegments( LogLineSegment[] dropped )
+	{
+		// spilling may have inflated the segments, readers still working on an old array keep the direct memory until they are done
+		for ( LogLineSegment segment : dropped )
+		{
+			this.hotSegments.remove( segment );
+			segment.release( );
+		}// for ( LogLineSegment segment : dropped ) .
+	}
+
+	/**
+	 * Drops the segments [0,numSegments), returns the memory released. If spilling is enabled the segments are written to disk in the
+	 * background, they stay readable till then. Has to be called holding {@link #writeLock}.
+	 * @param segments - the current segments
+	 * @param numSegments
+	 * @return
+	 */
+	private long dropSegments( LogLineSegment[] segments, int numSegments )
+	{
+		if ( numSegments == 0 )
+			return 0;
 
-			// now copy the elements from firstIdx to lastIdx
-			for ( int i = firstIdx; i < ( lastIdx + 1 ); ++i )
+		long released = 0;
+		int lines = 0;
+		for ( int i = 0; i < numSegments; ++i )
+		{
+			released += segments[i].getMemory( );
+			lines += segments[i].size( );
+		}// for ( int i = 0; i < numSegments; ++i ) .
+
+		// published as pending before they disappear from the segments, readers still working on the old array are not affected
+		final LogLineSegment[] dropped = Arrays.copyOf( segments, numSegments );
+		final boolean spill = ( this.spillStore != null );
+		if ( spill )
+		{
+			synchronized ( this.pendingSpillLock )
 			{
-				lines.add( copyOfBuffer.get( i ) );
-			}// for(int i=firstIdx;i<(lastIdx+1);++i)
+				try
+				{
+					while ( this.pendingSpill.length >= MAX_PENDING_SPILL )
+						this.pendingSpillLock.wait( );
+				}
+				catch ( InterruptedException e )
+				{
+					Thread.currentThread( ).interrupt( );
+				}
 
-		}// if ( !copyOfBuffer.isEmpty( ) ).
-		copyOfBuffer.clear( );
-		return lines;
+				final LogLineSegment[] pending = this.pendingSpill;
+				LogLineSegment[] newPending = Arrays.copyOf( pending, pending.length + numSegments );
+				System.arraycopy( dropped, 0, newPending, pending.length, numSegments );
+				this.pendingSpill = newPending;
+			}// synchronized ( this.pendingSpillLock ).
+		}// if ( spill ) .
+		this.segments = Arrays.copyOfRange( segments, numSegments, segments.length );
+		this.size -= lines;
+		this.memoryAccount.release( released );
+		this.trimTimeIndex( );
+
+		if ( spill )
+			this.spillInBackground( dropped );
+		else
+			this.releaseSegments( dropped );
+		return released;
 	}
 
-	@Override
-	public long getMemory( )
+	/**
+	 * Removes the entries of the {@link TimeIndex} for lines that are neither in memory, waiting to be spilled nor on disk. Has to be called
+	 * holding {@link #writeLock} after segments where dropped.
+	 */
+	private void trimTimeIndex( )
 	{
-		return memory;
+		final LogLineSegment[] segments = this.segments;
+		final LogLineSegment[] pendingSpill = this.pendingSpill;
+		final SpillStore spillStore = this.spillStore;
+		long firstId = ( spillStore != null ) ? spillStore.getFirstId( ) : -1;
+		if ( firstId == -1 && pendingSpill.length > 0 )
+			firstId = pendingSpill[0].getFirstId( );
+		if ( firstId == -1 )
+			firstId = ( segments.length > 0 ) ? segments[0].getFirstId( ) : Long.MAX_VALUE;
+		this.timeIndex.trim( firstId );
 	}
 
 	@Override
 	public void freeMemory( )
 	{
-		this.internalBuffer.clear( );
+		synchronized ( this.writeLock )
+		{
+			this.dropSegments( this.segments, this.segments.length );
+
+			// all lines are gone, so errors of the accounting do not accumulate
+			this.memoryAccount.reset( );
+			this.hotSegments.clear( );
+		}// synchronized ( this.writeLock ).
+	}
+
+	/**
+	 * Drops the oldest segments (written to disk if spilling is enabled) until the given amount of memory is freed, the newest segment is
+	 * always kept.
+	 */
+	@Override
+	public long freeMemory( long bytes )
+	{
+		synchronized ( this.writeLock )
+		{
+			final LogLineSegment[] segments = this.segments;
+			int segmentsToRemove = 0;
+			long toBeFreed = 0;
+			while ( toBeFreed < bytes && segmentsToRemove < segments.length - 1 )
+			{
+				toBeFreed += segments[segmentsToRemove].getMemory( );
+				segmentsToRemove++;
+			}// while ( toBeFreed < bytes && segmentsToRemove < segments.length - 1 ) .
+
+			if ( segmentsToRemove == 0 )
+				return 0;
+
+			final int sizeBefore = this.size;
+			final long freed = this.dropSegments( segments, segmentsToRemove );
+			LOG( ).info( "Removed " + ( sizeBefore - this.size ) + " lines to free " + ( freed / 1024 ) + "kB (currentLoad=" + this.size + ")" );
+			return freed;
+		}// synchronized ( this.writeLock ).
+	}
+
+	/**
+	 * All segments but the newest one.
+	 */
+	@Override
+	public long getReclaimableMemory( )
+	{
+		final LogLineSegment[] segments = this.segments;
+		if ( segments.length == 0 )
+			return 0;
+		return Math.max( 0, this.memoryAccount.get( ) - segments[segments.length - 1].getMemory( ) );
+	}
+
+	@Override
+	public int getEvictionPriority( )
+	{
+		return PRIORITY_HISTORY;
 	}
 
 	@Override
@@ -249,27 +910,29 @@ public class LogLineBuffer implements ILogLineBuffer
 
 	protected void removeEntriesIfMaxCapacityWasReached( )
 	{
-		if ( this.internalBuffer.isEmpty( ) )
-			return;
-
-		List<ILogLine> tmp = new ArrayList<>( );
-		synchronized ( this.internalBuffer )
+		synchronized ( this.writeLock )
 		{
-			if ( this.internalBuffer.size( ) >= this.maxCapacity )
+			if ( this.size >= this.maxCapacity )
 			{
 				int wantedLoad = ( int ) Math.floor( this.maxCapacity * ( loadFactor ) + 0.5 );
-				int linesToRemove = this.internalBuffer.size( ) - wantedLoad;
-
-				tmp = new ArrayList<>( this.internalBuffer.subList( 0, linesToRemove ) );
 
-				this.internalBuffer.subList( 0, linesToRemove ).clear( );
-				LOG( ).info( "Removed " + linesToRemove + " lines for LogLineBuffer (currentLoad=" + this.internalBuffer.size( ) + ", loadFactor=" + this.loadFactor + ", maxCapacity=" + this.maxCapacity + ")" );
-			}// if ( this.internalBuffer.size( ) >= this.maxCapacity ).
-		}// synchronized ( this.internalBuffer ).
-
-		// for memory only
-		for ( ILogLine ll : tmp )
-			this.memory -= ll.getMemory( );
+				// drop whole segments from the head as long as at least wantedLoad lines remain
+				int segmentsToRemove = 0;
+				int linesToRemove = 0;
+				final LogLineSegment[] segments = this.segments;
+				while ( segmentsToRemove < segments.length )
+				{
+					LogLineSegment segment = segments[segmentsToRemove];
+					if ( this.size - linesToRemove - segment.size( ) < wantedLoad )
+						break;
+					linesToRemove += segment.size( );
+					segmentsToRemove++;
+				}// while ( segmentsToRemove < segments.length ) .
+
+				this.dropSegments( segments, segmentsToRemove );
+				LOG( ).info( "Removed " + linesToRemove + " lines for LogLineBuffer (currentLoad=" + this.size + ", loadFactor=" + this.loadFactor + ", maxCapacity=" + this.maxCapacity + ")" );
+			}// if ( this.size >= this.maxCapacity ).
+		}// synchronized ( this.writeLock ).
 	}
 
 	private Logger LOG( )
@@ -311,11 +974,6 @@ public class LogLineBuffer implements ILogLineBuffer
 	@Override
 	public int getCurrentLoad( )
 	{
-		int currentLoad = 0;
-		synchronized ( this.internalBuffer )
-		{
-			currentLoad = this.internalBuffer.size( );
-		}
-		return currentLoad;
+		return this.size;
 	}
 }
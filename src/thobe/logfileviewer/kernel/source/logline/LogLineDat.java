@@ -10,7 +10,8 @@
 
 package thobe.logfileviewer.kernel.source.logline;
 
-import thobe.logfileviewer.plugin.util.SizeOf;
+import thobe.logfileviewer.kernel.memory.InstanceTracker;
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
 
 /**
  * @author Thomas Obenaus
@@ -19,30 +20,38 @@ import thobe.logfileviewer.plugin.util.SizeOf;
  */
 public final class LogLineDat
 {
-	private final String	data;
-	private static long		instances	= 0;
+	private static final long				SIZE	= ObjectLayout.shallowSizeOf( LogLineDat.class );
+
+	/**
+	 * Counts the instances (there is no finalizer, so the data is collected as soon as it is unreachable).
+	 */
+	private static final InstanceTracker	TRACKER	= new InstanceTracker( "LogLineDat" );
+
+	private final String					data;
 
 	public LogLineDat( String data )
 	{
 		this.data = data;
-		instances++;
+		TRACKER.allocated( this );
 	}
 
+	/**
+	 * Returns the estimated number of live instances, -1 if tracking is disabled (see {@link #getInstanceTracker()}).
+	 * @return
+	 */
 	public static long getNumberOfInstances( )
 	{
-		return instances;
+		return TRACKER.getNumLiveEstimate( );
 	}
 
-	public long getMemory( )
+	public static InstanceTracker getInstanceTracker( )
 	{
-		return SizeOf.STRING( this.data );
+		return TRACKER;
 	}
 
-	@Override
-	protected void finalize( ) throws Throwable
+	public long getMemory( )
 	{
-		instances--;
-		super.finalize( );
+		return SIZE + ObjectLayout.sizeOf( this.data );
 	}
 
 	public String getData( )
@@ -10,11 +10,21 @@
 
 package thobe.logfileviewer.kernel.source.logline;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
-import thobe.logfileviewer.kernel.memory.LRUCache;
+import thobe.logfileviewer.kernel.memory.IRemovalListener;
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
+import thobe.logfileviewer.kernel.memory.TinyLfuCache;
+import thobe.logfileviewer.kernel.source.template.TemplateMatch;
+import thobe.logfileviewer.kernel.source.template.TemplateMiner;
 import thobe.logfileviewer.kernel.source.timestamp.LineAndTime;
 import thobe.logfileviewer.kernel.source.timestamp.TimeStampExtractor;
+import thobe.logfileviewer.kernel.source.timestamp.ITimeStampParser;
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampFormatDetector;
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampParser;
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampParserRegistry;
 import thobe.logfileviewer.plugin.source.logline.ILogLine;
 
 /**
@@ -25,15 +35,25 @@ import thobe.logfileviewer.plugin.source.logline.ILogLine;
  */
 public class LogLineFactory implements ILogLineFactoryAccess
 {
+	/**
+	 * Blocks having at least this number of lines are parsed in parallel (see {@link LogLineFactory#buildLogLines(List)}).
+	 */
+	private static final int				PARALLEL_THRESHOLD	= 4096;
+
+	/**
+	 * Max number of lines parsed by one task of the {@link ForkJoinPool}.
+	 */
+	private static final int				LINES_PER_TASK		= 1024;
+
 	/**
 	 * Id of the next {@link LogLine}
 	 */
 	private long							logLineId;
 
 	/**
-	 * Cache for the data of LogLines
+	 * Cache for the data of LogLines (pools the data of repeated lines), threadsafe
 	 */
-	private LRUCache<String, LogLineDat>	cache;
+	private TinyLfuCache<String, LogLineDat>	cache;
 
 	/**
 	 * Class responsible for extracting the time-stamps from a given LogLine
@@ -41,19 +61,30 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	private TimeStampExtractor				timeStampExtractor;
 
 	/**
-	 * Cache-Statistics: hits
+	 * The time-stamp formats the format of this stream is detected from.
 	 */
-	private long							hits	= 0;
+	private final TimeStampParserRegistry	timeStampParserRegistry;
 
 	/**
-	 * Cache-Statistics: misses
+	 * Time-stamp of the previous line, used for lines that do not contain a time-stamp.
 	 */
-	private long							misses	= 0;
+	private long							previousTimeStamp;
 
 	/**
-	 * Memory consumed by the internal cache
+	 * Memory consumed by the internal cache. The pooled data is counted by the line that created it ({@link LogLine#getMemory()}), so
+	 * the cache is only charged for its entries.
 	 */
-	private AtomicLong						memory;
+	private final MemoryAccount				cacheMemory;
+
+	/**
+	 * Splits the lines into template and parameters (if {@link #templateMiningEnabled}).
+	 */
+	private final TemplateMiner				templateMiner;
+
+	/**
+	 * If true lines are stored as template plus parameters ({@link TemplatedLogLine}) instead of pooling their data.
+	 */
+	private volatile boolean				templateMiningEnabled;
 
 	/**
 	 * Ctor
@@ -62,12 +93,76 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	 */
 	public LogLineFactory( int cacheSize )
 	{
-		this.cache = new LRUCache<>( cacheSize );
-		this.timeStampExtractor = new TimeStampExtractor( );
+		this.cacheMemory = new MemoryAccount( "LogLineFactory.cache" );
+		this.cache = new TinyLfuCache<>( cacheSize, new IRemovalListener<String, LogLineDat>( )
+		{
+			@Override
+			public void onRemoval( String key, LogLineDat value )
+			{
+				cacheMemory.release( TinyLfuCache.ENTRY_OVERHEAD );
+			}
+		} );
+		this.timeStampParserRegistry = TimeStampParserRegistry.createDefault( );
+		this.timeStampExtractor = new TimeStampExtractor( new TimeStampFormatDetector( this.timeStampParserRegistry ) );
+		this.previousTimeStamp = System.currentTimeMillis( );
 		this.logLineId = 0;
-		this.misses = 0;
-		this.hits = 0;
-		this.memory = new AtomicLong( 0 );
+		this.templateMiner = new TemplateMiner( );
+		this.templateMiningEnabled = false;
+	}
+
+	/**
+	 * Enables/ disables mining the templates of the lines built from now on. If enabled the lines are stored as template plus parameters
+	 * (the cache is not used), lines that could not be mined are built as usual.
+	 * @param enabled
+	 */
+	public void setTemplateMiningEnabled( boolean enabled )
+	{
+		this.templateMiningEnabled = enabled;
+	}
+
+	public boolean isTemplateMiningEnabled( )
+	{
+		return templateMiningEnabled;
+	}
+
+	@Override
+	public TemplateMiner getTemplateMiner( )
+	{
+		return templateMiner;
+	}
+
+	/**
+	 * Sets the format of the time-stamps of the lines built from now on.
+	 * @param pattern - a fixed pattern (see {@link TimeStampParser}), null or empty to detect the format on the first lines using the
+	 *            parsers of the {@link #getTimeStampParserRegistry()}
+	 * @param numDetectionLines - number of lines the format is detected on
+	 * @throws IllegalArgumentException - if the pattern is not supported
+	 */
+	public void setTimeStampFormat( String pattern, int numDetectionLines )
+	{
+		if ( pattern == null || pattern.trim( ).isEmpty( ) )
+			this.timeStampExtractor.setParser( new TimeStampFormatDetector( this.timeStampParserRegistry, numDetectionLines ) );
+		else
+			this.timeStampExtractor.setTimePattern( pattern.trim( ) );
+	}
+
+	/**
+	 * Returns the parser used for the time-stamps, a {@link TimeStampFormatDetector} if the format is detected.
+	 * @return
+	 */
+	public ITimeStampParser getTimeStampParser( )
+	{
+		return this.timeStampExtractor.getParser( );
+	}
+
+	/**
+	 * Returns the registry of the time-stamp formats the format is detected from, parsers registered here are used from the next call of
+	 * {@link #setTimeStampFormat(String, int)} on.
+	 * @return
+	 */
+	public TimeStampParserRegistry getTimeStampParserRegistry( )
+	{
+		return timeStampParserRegistry;
 	}
 
 	/**
@@ -85,7 +180,7 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	 */
 	public long getCacheHits( )
 	{
-		return hits;
+		return this.cache.getHits( );
 	}
 
 	/**
@@ -94,7 +189,7 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	 */
 	public long getCacheMisses( )
 	{
-		return misses;
+		return this.cache.getMisses( );
 	}
 
 	/**
@@ -103,10 +198,7 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	 */
 	public float getCacheRatio( )
 	{
-		long overall = hits + misses;
-		if ( overall == 0 )
-			return 0;
-		return ( hits / ( float ) ( overall ) );
+		return this.cache.getHitRatio( );
 	}
 
 	/**
@@ -117,31 +209,103 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	public ILogLine buildLogLine( String newLine )
 	{
 		LineAndTime lineAndTime = this.timeStampExtractor.splitLineAndTimeStamp( newLine );
+		if ( this.templateMiningEnabled )
+			return this.buildLogLine( lineAndTime, null, false );
 
-		String data = lineAndTime.getLineWithoutTimeStamp( );
-		long timeStamp = lineAndTime.getTimeStamp( );
+		boolean[] cached = new boolean[1];
+		LogLineDat logLineDat = this.getLogLineDat( lineAndTime.getLineWithoutTimeStamp( ), cached, 0 );
+		return this.buildLogLine( lineAndTime, logLineDat, cached[0] );
+	}
 
-		// ask the cache if the data is already there
-		LogLineDat logLineDat = this.cache.get( lineAndTime.getLineWithoutTimeStamp( ) );
-		boolean cached = false;
-		if ( logLineDat == null )
+	/**
+	 * Creates new {@link ILogLine}s from the given Strings. The ids of the returned {@link ILogLine}s are ascending in the order of the given
+	 * Strings. For big blocks the time-stamps are extracted and the data is looked up in the cache in parallel (using the common
+	 * {@link ForkJoinPool}), the ids are assigned (and the templates are mined) afterwards in order.
+	 * @param newLines
+	 * @return - the immutable block of the new {@link ILogLine}s
+	 */
+	public LogLineBlock buildLogLines( List<String> newLines )
+	{
+		ILogLine[] logLines = new ILogLine[newLines.size( )];
+		final boolean mining = this.templateMiningEnabled;
+		if ( newLines.size( ) < PARALLEL_THRESHOLD )
 		{
-			logLineDat = new LogLineDat( data );
-			LogLineDat oldLogLineDat = this.cache.put( data, logLineDat );
-
-			this.memory.addAndGet( logLineDat.getMemory( ) );
-			if ( oldLogLineDat != null )
+			for ( int i = 0; i < logLines.length; ++i )
 			{
-				this.memory.addAndGet( oldLogLineDat.getMemory( ) * ( -1 ) );
+				logLines[i] = this.buildLogLine( newLines.get( i ) );
 			}
+			return new LogLineBlock( logLines );
+		}// if ( newLines.size( ) < PARALLEL_THRESHOLD ) .
 
-			misses++;
-		}// if ( logLineDat == null ).
-		else
+		// 1. extract the time-stamps and look up the data on all cores
+		LineAndTime[] linesAndTimes = new LineAndTime[newLines.size( )];
+		LogLineDat[] logLineDats = new LogLineDat[newLines.size( )];
+		boolean[] cached = new boolean[newLines.size( )];
+		ForkJoinPool.commonPool( ).invoke( new TimeStampSplitter( mining ? null : this, this.timeStampExtractor.getParser( ), newLines, linesAndTimes, logLineDats, cached, 0, linesAndTimes.length ) );
+
+		// 2. build the lines in order
+		for ( int i = 0; i < logLines.length; ++i )
+		{
+			logLines[i] = this.buildLogLine( linesAndTimes[i], logLineDats[i], cached[i] );
+		}
+		return new LogLineBlock( logLines );
+	}
+
+	/**
+	 * Returns the pooled data for the given String, a new one is created (and offered to the cache) if it is not in the cache. Threadsafe.
+	 * @param data
+	 * @param cached - cached[index] is set to true if the data was found in the cache
+	 * @param index
+	 * @return
+	 */
+	private LogLineDat getLogLineDat( String data, boolean[] cached, int index )
+	{
+		// ask the cache if the data is already there
+		LogLineDat logLineDat = this.cache.get( data );
+		if ( logLineDat != null )
 		{
-			cached = true;
-			hits++;
-		}// if ( logLineDat == null ) ... else ...
+			cached[index] = true;
+			return logLineDat;
+		}// if ( logLineDat != null ) .
+
+		logLineDat = new LogLineDat( data );
+		LogLineDat otherLogLineDat = this.cache.putIfAbsent( data, logLineDat );
+		if ( otherLogLineDat != null )
+		{
+			// added by another thread meanwhile (charged there)
+			cached[index] = true;
+			return otherLogLineDat;
+		}// if ( otherLogLineDat != null ) .
+
+		this.cacheMemory.charge( TinyLfuCache.ENTRY_OVERHEAD );
+		return logLineDat;
+	}
+
+	/**
+	 * Builds the line, if no data is given (template-mining) the template of the line is mined.
+	 */
+	private ILogLine buildLogLine( LineAndTime lineAndTime, LogLineDat logLineDat, boolean cached )
+	{
+		// lines without a time-stamp get the one of the previous line
+		if ( lineAndTime.isTimeStampFound( ) )
+		{
+			this.previousTimeStamp = lineAndTime.getTimeStamp( );
+		}
+		long timeStamp = this.previousTimeStamp;
+
+		if ( logLineDat == null )
+		{
+			TemplateMatch match = this.templateMiner.mine( lineAndTime.getLineWithoutTimeStamp( ) );
+			if ( match != null )
+			{
+				return new TemplatedLogLine( this.logLineId++, timeStamp, match.getTemplate( ), match.getParameters( ) );
+			}// if ( match != null ) .
+
+			// max number of templates reached
+			boolean[] wasCached = new boolean[1];
+			logLineDat = this.getLogLineDat( lineAndTime.getLineWithoutTimeStamp( ), wasCached, 0 );
+			cached = wasCached[0];
+		}// if ( logLineDat == null ) .
 
 		// create the logline
 		LogLine logLine = new LogLine( this.logLineId, timeStamp, logLineDat, cached );
@@ -156,7 +320,13 @@ public class LogLineFactory implements ILogLineFactoryAccess
 	 */
 	public long getCacheMemory( )
 	{
-		return this.memory.get( );
+		return this.cacheMemory.get( );
+	}
+
+	@Override
+	public MemoryAccount getCacheMemoryAccount( )
+	{
+		return cacheMemory;
 	}
 
 	/**
@@ -167,9 +337,75 @@ public class LogLineFactory implements ILogLineFactoryAccess
 		this.cache.clear( );
 	}
 
+	/**
+	 * Evicts the coldest entries of the internal cache until (about) the given amount of memory is freed.
+	 * @param bytes
+	 * @return - the memory freed (in bytes)
+	 */
+	public long freeCacheMemory( long bytes )
+	{
+		final long memoryBefore = this.cacheMemory.get( );
+		final int size = this.cache.size( );
+		if ( size == 0 || memoryBefore <= 0 )
+			return 0;
+
+		final long bytesPerEntry = Math.max( 1, memoryBefore / size );
+		this.cache.evict( ( int ) Math.min( size, ( bytes + bytesPerEntry - 1 ) / bytesPerEntry ) );
+		return memoryBefore - this.cacheMemory.get( );
+	}
+
 	@Override
 	public int getMaxCacheSize( )
 	{
 		return this.cache.getMaxCacheSize( );
 	}
+
+	/**
+	 * Task that extracts the time-stamps of a range of lines and looks up their data in the cache, splitting the range until it is small
+	 * enough (the data is not looked up if no factory is given). Each task uses its own {@link TimeStampExtractor} since they are not
+	 * thread-safe, the {@link ITimeStampParser} is shared.
+	 */
+	@SuppressWarnings ( "serial")
+	private static final class TimeStampSplitter extends RecursiveAction
+	{
+		private final LogLineFactory	factory;
+		private final ITimeStampParser	parser;
+		private final List<String>		lines;
+		private final LineAndTime[]		result;
+		private final LogLineDat[]		logLineDats;
+		private final boolean[]			cached;
+		private final int				from;
+		private final int				to;
+
+		public TimeStampSplitter( LogLineFactory factory, ITimeStampParser parser, List<String> lines, LineAndTime[] result, LogLineDat[] logLineDats, boolean[] cached, int from, int to )
+		{
+			this.factory = factory;
+			this.parser = parser;
+			this.lines = lines;
+			this.result = result;
+			this.logLineDats = logLineDats;
+			this.cached = cached;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute( )
+		{
+			if ( this.to - this.from <= LINES_PER_TASK )
+			{
+				TimeStampExtractor extractor = new TimeStampExtractor( this.parser );
+				for ( int i = this.from; i < this.to; ++i )
+				{
+					this.result[i] = extractor.splitLineAndTimeStamp( this.lines.get( i ) );
+					if ( this.factory != null )
+						this.logLineDats[i] = this.factory.getLogLineDat( this.result[i].getLineWithoutTimeStamp( ), this.cached, i );
+				}
+				return;
+			}// if ( this.to - this.from <= LINES_PER_TASK ) .
+
+			int mid = ( this.from + this.to ) >>> 1;
+			invokeAll( new TimeStampSplitter( this.factory, this.parser, this.lines, this.result, this.logLineDats, this.cached, this.from, mid ), new TimeStampSplitter( this.factory, this.parser, this.lines, this.result, this.logLineDats, this.cached, mid, this.to ) );
+		}
+	}
 }
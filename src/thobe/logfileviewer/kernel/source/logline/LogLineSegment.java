@@ -0,0 +1,188 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * Fixed-size chunk of the {@link LogLineBuffer} holding {@link ILogLine}s with contiguous ids (the id of the line at index i is
+ * firstId+i). A line is found by offset arithmetic, no search is needed. Lines are only appended (by one writer), a segment is never
+ * modified otherwise. The number of lines is volatile and written after the line was stored, so readers see all lines up to the size they
+ * read without locking. How the lines are stored is up to the subclasses.
+ * @author Thomas Obenaus
+ * @source LogLineSegment.java
+ * @date Oct 17, 2026
+ */
+abstract class LogLineSegment
+{
+	/**
+	 * Max number of lines.
+	 */
+	protected final int		capacity;
+
+	/**
+	 * Id of the first line.
+	 */
+	protected final long	firstId;
+
+	/**
+	 * Number of lines in this segment (published to the readers).
+	 */
+	private volatile int	size;
+
+	/**
+	 * Ctor
+	 * @param capacity - max number of lines
+	 * @param firstId - id of the first line that will be added
+	 */
+	protected LogLineSegment( int capacity, long firstId )
+	{
+		this.capacity = capacity;
+		this.firstId = firstId;
+		this.size = 0;
+	}
+
+	/**
+	 * Returns true if the given line can be appended (the segment is not full and the id is the next one).
+	 * @param line
+	 * @return
+	 */
+	public boolean accepts( ILogLine line )
+	{
+		return ( this.size < this.capacity ) && ( line.getId( ) == this.firstId + this.size );
+	}
+
+	/**
+	 * Appends the given line, the caller has to ensure that {@link #accepts(ILogLine)} is true.
+	 * @param line
+	 */
+	public final void add( ILogLine line )
+	{
+		final int index = this.size;
+		this.store( index, line );
+
+		// publish the line
+		this.size = index + 1;
+	}
+
+	/**
+	 * Stores the given line at the given index, called by the writer before the line is published.
+	 * @param index
+	 * @param line
+	 */
+	protected abstract void store( int index, ILogLine line );
+
+	/**
+	 * Called by the writer when no more lines will be added (the next segment was started), e.g. to trim the storage. Readers may still
+	 * access the segment.
+	 */
+	public void seal( )
+	{}
+
+	/**
+	 * Called by the writer after the segment was dropped from the buffer (and spilled), to release memory that is not managed by the GC.
+	 */
+	public void release( )
+	{}
+
+	/**
+	 * Returns the line at the given index (has to be < {@link #size()}).
+	 * @param index
+	 * @return
+	 */
+	public abstract ILogLine get( int index );
+
+	/**
+	 * Returns the heap-memory used by this segment.
+	 * @return
+	 */
+	public abstract long getMemory( );
+
+	/**
+	 * Returns the memory used by this segment outside of the heap.
+	 * @return
+	 */
+	public long getOffHeapMemory( )
+	{
+		return 0;
+	}
+
+	/**
+	 * Returns an immutable block of the lines [from,to) of this segment.
+	 * @param from
+	 * @param to
+	 * @return
+	 */
+	public LogLineBlock view( int from, int to )
+	{
+		ILogLine[] lines = new ILogLine[to - from];
+		this.copyTo( lines, 0, from, to );
+		return new LogLineBlock( lines );
+	}
+
+	/**
+	 * Copies the lines [from,to) of this segment to the given array starting at dstPos.
+	 * @param dst
+	 * @param dstPos
+	 * @param from
+	 * @param to
+	 */
+	public void copyTo( ILogLine[] dst, int dstPos, int from, int to )
+	{
+		for ( int i = from; i < to; ++i )
+			dst[dstPos++] = this.get( i );
+	}
+
+	/**
+	 * Returns the index of the first line having an id >= the given one (size if there is none).
+	 * @param id
+	 * @return
+	 */
+	public int lowerBound( long id )
+	{
+		if ( id <= this.firstId )
+			return 0;
+		return ( int ) Math.min( id - this.firstId, this.size );
+	}
+
+	/**
+	 * Returns the index behind the last line having an id <= the given one (0 if there is none).
+	 * @param id
+	 * @return
+	 */
+	public int upperBound( long id )
+	{
+		if ( id < this.firstId )
+			return 0;
+		// no +1 before comparing, id may be Long.MAX_VALUE
+		final int size = this.size;
+		return ( id - this.firstId >= size ) ? size : ( int ) ( id - this.firstId + 1 );
+	}
+
+	public long getFirstId( )
+	{
+		return firstId;
+	}
+
+	/**
+	 * Returns the id of the last line (firstId-1 if the segment is empty).
+	 * @return
+	 */
+	public long getLastId( )
+	{
+		return this.firstId + this.size - 1;
+	}
+
+	public int size( )
+	{
+		return size;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * {@link LogLineSegment} storing the lines outside of the heap. The UTF-8 bytes of all lines are stored back to back in one direct
+ * {@link ByteBuffer} (growing by doubling, copied to a buffer of the exact size on {@link #seal()}), the heap only holds the end-offset and the time-stamp (as delta to the time-stamp of the
+ * first line) of each line in primitive arrays, the id is implicit. So a line costs 8 bytes on the heap and no object at all.
+ * {@link ILogLine}s are created on access ({@link FlyweightLogLine}). Replaced buffers and the buffer of a released segment are freed
+ * explicitly by the {@link DirectMemoryReclaimer} of the buffer.
+ * @author Thomas Obenaus
+ * @source OffHeapLogLineSegment.java
+ * @date Oct 17, 2026
+ */
+final class OffHeapLogLineSegment extends LogLineSegment
+{
+	/**
+	 * Initial size of the data-buffer (in bytes).
+	 */
+	private static final int		INITIAL_DATA_SIZE	= 64 * 1024;
+
+	private static final Charset	UTF8				= Charset.forName( "UTF-8" );
+
+	/**
+	 * Size of the segment and of the heap-part of its direct buffer.
+	 */
+	private static final long		SIZE				= ObjectLayout.shallowSizeOf( OffHeapLogLineSegment.class ) + ObjectLayout.shallowSizeOf( "java.nio.DirectByteBuffer", 64 );
+
+	/**
+	 * Bytes of all lines. Replaced (by a bigger copy) if it is full, the reference is written before the bytes of a new line, so a reader
+	 * reading it after the size of the segment always gets a buffer containing all published lines.
+	 */
+	private volatile ByteBuffer		data;
+
+	/**
+	 * Index behind the last byte of each line, the first byte of line i is ends[i-1] (0 for the first line).
+	 */
+	private final int[]				ends;
+
+	/**
+	 * Time-stamp of each line relative to {@link #baseTimeStamp}.
+	 */
+	private final int[]				timeStampDeltas;
+	private final long				baseTimeStamp;
+
+	/**
+	 * Number of bytes used in {@link #data} (only accessed by the writer).
+	 */
+	private int						dataSize;
+
+	/**
+	 * Frees the buffers that are not used any more.
+	 */
+	private final DirectMemoryReclaimer	reclaimer;
+
+	/**
+	 * Ctor
+	 * @param capacity - max number of lines
+	 * @param firstId - id of the first line that will be added
+	 * @param baseTimeStamp - time-stamps are stored relative to this one (usually the one of the first line)
+	 * @param reclaimer - frees the buffers that are not used any more (shared by the segments of a buffer)
+	 */
+	public OffHeapLogLineSegment( int capacity, long firstId, long baseTimeStamp, DirectMemoryReclaimer reclaimer )
+	{
+		super( capacity, firstId );
+		this.data = ByteBuffer.allocateDirect( INITIAL_DATA_SIZE );
+		this.ends = new int[capacity];
+		this.timeStampDeltas = new int[capacity];
+		this.baseTimeStamp = baseTimeStamp;
+		this.dataSize = 0;
+		this.reclaimer = reclaimer;
+	}
+
+	/**
+	 * The time-stamp of the line has to be representable as delta to the base time-stamp too (approx. +-24 days).
+	 */
+	@Override
+	public boolean accepts( ILogLine line )
+	{
+		long delta = line.getTimeStamp( ) - this.baseTimeStamp;
+		return super.accepts( line ) && ( delta >= Integer.MIN_VALUE ) && ( delta <= Integer.MAX_VALUE );
+	}
+
+	@Override
+	protected void store( int index, ILogLine line )
+	{
+		String str = line.getData( );
+		byte[] bytes = ( str != null ) ? str.getBytes( UTF8 ) : new byte[0];
+
+		ByteBuffer buffer = this.data;
+		if ( this.dataSize + bytes.length > buffer.capacity( ) )
+		{
+			// grow, the published bytes are copied before the new buffer is published
+			long newSize = Math.max( ( long ) buffer.capacity( ) * 2, ( long ) this.dataSize + bytes.length );
+			if ( newSize > Integer.MAX_VALUE )
+				throw new IllegalStateException( "Segment exceeds the max size of " + Integer.MAX_VALUE + " bytes" );
+			buffer = this.replaceData( ( int ) newSize );
+		}// if ( this.dataSize + bytes.length > buffer.capacity( ) ) .
+
+		ByteBuffer dst = buffer.duplicate( );
+		dst.position( this.dataSize );
+		dst.put( bytes );
+		this.dataSize += bytes.length;
+		this.ends[index] = this.dataSize;
+		this.timeStampDeltas[index] = ( int ) ( line.getTimeStamp( ) - this.baseTimeStamp );
+	}
+
+	/**
+	 * Copies the published bytes to a new buffer of the given size that replaces the current one, the old one is freed as soon as no
+	 * reader uses it.
+	 * @param newSize
+	 * @return - the new buffer
+	 */
+	private ByteBuffer replaceData( int newSize )
+	{
+		final ByteBuffer buffer = this.data;
+		ByteBuffer newBuffer = ByteBuffer.allocateDirect( newSize );
+		ByteBuffer src = buffer.duplicate( );
+		src.position( 0 );
+		src.limit( this.dataSize );
+		newBuffer.put( src );
+		this.data = newBuffer;
+		this.reclaimer.retire( buffer );
+		return newBuffer;
+	}
+
+	/**
+	 * Trims the buffer to the bytes of the lines (up to half of it is unused after growing).
+	 */
+	@Override
+	public void seal( )
+	{
+		if ( this.data.capacity( ) > this.dataSize )
+			this.replaceData( this.dataSize );
+	}
+
+	@Override
+	public void release( )
+	{
+		this.reclaimer.retire( this.data );
+	}
+
+	@Override
+	public ILogLine get( int index )
+	{
+		final int start = ( index == 0 ) ? 0 : this.ends[index - 1];
+		final int end = this.ends[index];
+
+		// absolute reads on a private view, the buffer is shared with other readers
+		ByteBuffer src = this.data.duplicate( );
+		src.position( start );
+		byte[] bytes = new byte[end - start];
+		src.get( bytes );
+
+		return new FlyweightLogLine( this.firstId + index, this.baseTimeStamp + this.timeStampDeltas[index], new String( bytes, UTF8 ) );
+	}
+
+	@Override
+	public long getMemory( )
+	{
+		return SIZE + ( 2 * ObjectLayout.sizeOfArray( int.class, this.capacity ) );
+	}
+
+	@Override
+	public long getOffHeapMemory( )
+	{
+		return this.data.capacity( );
+	}
+}
@@ -0,0 +1,538 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * Disk tier of the {@link LogLineBuffer}: segments evicted from memory are appended to files in a temporary directory instead of being
+ * discarded. Each line is written as record [id (long), time-stamp (long), length (int), UTF-8 bytes]. A sparse index (the first line of
+ * each segment and every {@link #INDEX_INTERVAL}th line) maps ids to file-offsets, a range is read back with positional reads starting at
+ * the closest index entry. Files are rotated at {@link #MAX_FILE_SIZE} bytes, the oldest file is deleted if the max size of the store is
+ * exceeded. Appending is done by one writer, reading is thread-safe.
+ * @author Thomas Obenaus
+ * @source SpillStore.java
+ * @date Oct 17, 2026
+ */
+final class SpillStore
+{
+	/**
+	 * An index entry is created for every INDEX_INTERVAL lines.
+	 */
+	private static final int				INDEX_INTERVAL	= 256;
+
+	/**
+	 * Max size of one file (in bytes).
+	 */
+	private static final long				MAX_FILE_SIZE	= 256 * 1024 * 1024;
+
+	/**
+	 * Size of the header of a record: id, time-stamp, length.
+	 */
+	private static final int				RECORD_HEADER	= 8 + 8 + 4;
+
+	/**
+	 * Size of the buffer used for reading/ writing.
+	 */
+	private static final int				IO_BUFFER_SIZE	= 64 * 1024;
+
+	private static final Charset			UTF8			= Charset.forName( "UTF-8" );
+
+	private final Path						directory;
+
+	/**
+	 * Max size of all files (in bytes).
+	 */
+	private final long						maxSize;
+
+	/**
+	 * The files, oldest first.
+	 */
+	private final List<SpillFile>			files;
+
+	/**
+	 * The sparse index, ordered by id.
+	 */
+	private final List<IndexEntry>			index;
+
+	/**
+	 * Guards {@link #files} and {@link #index}, the bytes of a file are written before the index entries referencing them are added.
+	 */
+	private final ReentrantReadWriteLock	lock;
+
+	/**
+	 * Buffer for writing (only used by the writer).
+	 */
+	private ByteBuffer						writeBuffer;
+
+	private int								nextFileNumber;
+	private long							numLines;
+	private final Logger					log;
+
+	/**
+	 * Ctor
+	 * @param maxSize - max size of all files (in bytes), the oldest lines are deleted if it is exceeded
+	 * @throws IOException - if the temporary directory could not be created
+	 */
+	public SpillStore( long maxSize ) throws IOException
+	{
+		this.directory = Files.createTempDirectory( "logfileviewer-spill" );
+		this.directory.toFile( ).deleteOnExit( );
+		this.maxSize = Math.max( MAX_FILE_SIZE, maxSize );
+		this.files = new ArrayList<>( );
+		this.index = new ArrayList<>( );
+		this.lock = new ReentrantReadWriteLock( );
+		this.writeBuffer = ByteBuffer.allocate( IO_BUFFER_SIZE );
+		this.nextFileNumber = 0;
+		this.numLines = 0;
+		this.log = Logger.getLogger( "thobe.logfileviewer.kernel.source.logline.SpillStore" );
+	}
+
+	/**
+	 * Appends all lines of the given segment. The ids have to be greater than the ones of all lines appended before.
+	 * @param segment
+	 * @throws IOException
+	 */
+	public void append( LogLineSegment segment ) throws IOException
+	{
+		final int size = segment.size( );
+		if ( size == 0 )
+			return;
+
+		SpillFile file = this.getFileForWriting( );
+		List<IndexEntry> newEntries = new ArrayList<>( );
+		long position = file.size;
+		this.writeBuffer.clear( );
+
+		for ( int i = 0; i < size; ++i )
+		{
+			ILogLine line = segment.get( i );
+			String data = line.getData( );
+			byte[] bytes = ( data != null ) ? data.getBytes( UTF8 ) : new byte[0];
+
+			if ( ( i % INDEX_INTERVAL ) == 0 )
+			{
+				newEntries.add( new IndexEntry( line.getId( ), file, position + this.writeBuffer.position( ) ) );
+			}// if ( ( i % INDEX_INTERVAL ) == 0 ) .
+
+			if ( this.writeBuffer.remaining( ) < RECORD_HEADER + bytes.length )
+			{
+				position += this.flush( file.channel, position );
+				if ( this.writeBuffer.capacity( ) < RECORD_HEADER + bytes.length )
+					this.writeBuffer = ByteBuffer.allocate( RECORD_HEADER + bytes.length );
+			}// if ( this.writeBuffer.remaining( ) < RECORD_HEADER + bytes.length ) .
+
+			this.writeBuffer.putLong( line.getId( ) );
+			this.writeBuffer.putLong( line.getTimeStamp( ) );
+			this.writeBuffer.putInt( bytes.length );
+			this.writeBuffer.put( bytes );
+		}// for ( int i = 0; i < size; ++i ) .
+		position += this.flush( file.channel, position );
+
+		// publish the lines
+		this.lock.writeLock( ).lock( );
+		try
+		{
+			file.size = position;
+			if ( file.firstId == Long.MAX_VALUE )
+				file.firstId = segment.getFirstId( );
+			file.lastId = segment.getLastId( );
+			this.index.addAll( newEntries );
+			this.numLines += size;
+		}
+		finally
+		{
+			this.lock.writeLock( ).unlock( );
+		}
+
+		this.deleteOldestFilesIfMaxSizeWasExceeded( );
+	}
+
+	/**
+	 * Writes the content of the write-buffer at the given position.
+	 * @param channel
+	 * @param position
+	 * @return - number of bytes written
+	 * @throws IOException
+	 */
+	private int flush( FileChannel channel, long position ) throws IOException
+	{
+		this.writeBuffer.flip( );
+		int written = 0;
+		while ( this.writeBuffer.hasRemaining( ) )
+			written += channel.write( this.writeBuffer, position + written );
+		this.writeBuffer.clear( );
+		return written;
+	}
+
+	/**
+	 * Returns the file to append to, a new one is created if there is none or the current one is full.
+	 * @return
+	 * @throws IOException
+	 */
+	private SpillFile getFileForWriting( ) throws IOException
+	{
+		SpillFile current = null;
+		this.lock.readLock( ).lock( );
+		try
+		{
+			if ( !this.files.isEmpty( ) )
+				current = this.files.get( this.files.size( ) - 1 );
+		}
+		finally
+		{
+			this.lock.readLock( ).unlock( );
+		}
+
+		if ( current != null && current.size < MAX_FILE_SIZE )
+			return current;
+
+		Path path = this.directory.resolve( String.format( "spill-%05d.dat", this.nextFileNumber++ ) );
+		FileChannel channel = FileChannel.open( path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE );
+		path.toFile( ).deleteOnExit( );
+		SpillFile file = new SpillFile( path, channel );
+
+		this.lock.writeLock( ).lock( );
+		try
+		{
+			this.files.add( file );
+		}
+		finally
+		{
+			this.lock.writeLock( ).unlock( );
+		}
+		return file;
+	}
+
+	private void deleteOldestFilesIfMaxSizeWasExceeded( )
+	{
+		List<SpillFile> deletedFiles = new ArrayList<>( );
+		this.lock.writeLock( ).lock( );
+		try
+		{
+			long size = 0;
+			for ( SpillFile file : this.files )
+				size += file.size;
+
+			// never delete the file currently written
+			while ( size > this.maxSize && this.files.size( ) > 1 )
+			{
+				SpillFile oldest = this.files.remove( 0 );
+				size -= oldest.size;
+				deletedFiles.add( oldest );
+
+				int numEntries = 0;
+				while ( numEntries < this.index.size( ) && this.index.get( numEntries ).file == oldest )
+					numEntries++;
+				this.index.subList( 0, numEntries ).clear( );
+			}// while ( size > this.maxSize && this.files.size( ) > 1 ) .
+		}
+		finally
+		{
+			this.lock.writeLock( ).unlock( );
+		}
+
+		for ( SpillFile file : deletedFiles )
+		{
+			LOG( ).info( "Max size of the spill-store reached, deleting '" + file.path + "' (ids up to " + file.lastId + ")" );
+			file.delete( );
+		}
+	}
+
+	/**
+	 * Returns the lines having an id within [start,end].
+	 * @param start
+	 * @param end
+	 * @return
+	 */
+	public List<ILogLine> read( long start, long end )
+	{
+		List<ILogLine> lines = new ArrayList<>( );
+
+		// 1. collect the byte-ranges to be read
+		List<SpillFile> filesToRead = new ArrayList<>( );
+		List<Long> fromOffsets = new ArrayList<>( );
+		List<Long> toOffsets = new ArrayList<>( );
+		this.lock.readLock( ).lock( );
+		try
+		{
+			if ( this.index.isEmpty( ) || this.index.get( 0 ).id > end )
+				return lines;
+
+			// last entry having id <= start (or the first one)
+			int low = 0;
+			int high = this.index.size( ) - 1;
+			while ( low < high )
+			{
+				int mid = ( low + high + 1 ) >>> 1;
+				if ( this.index.get( mid ).id <= start )
+					low = mid;
+				else
+					high = mid - 1;
+			}// while ( low < high ) .
+
+			IndexEntry first = this.index.get( low );
+			for ( int i = this.files.indexOf( first.file ); i < this.files.size( ); ++i )
+			{
+				SpillFile file = this.files.get( i );
+				if ( file != first.file && file.firstId > end )
+					break;
+				filesToRead.add( file );
+				fromOffsets.add( ( file == first.file ) ? first.offset : 0 );
+				toOffsets.add( file.size );
+			}// for ( int i = this.files.indexOf( first.file ); i < this.files.size( ); ++i ) .
+		}
+		finally
+		{
+			this.lock.readLock( ).unlock( );
+		}
+
+		// 2. read the records
+		try
+		{
+			ByteBuffer buffer = ByteBuffer.allocate( IO_BUFFER_SIZE );
+			for ( int i = 0; i < filesToRead.size( ); ++i )
+			{
+				if ( !this.readRecords( filesToRead.get( i ).channel, fromOffsets.get( i ), toOffsets.get( i ), start, end, lines, buffer ) )
+					break;
+			}
+		}
+		catch ( IOException e )
+		{
+			// e.g. the file was deleted meanwhile
+			LOG( ).warning( "Unable to read spilled lines [" + start + "," + end + "]: " + e.getLocalizedMessage( ) );
+		}
+		return lines;
+	}
+
+	/**
+	 * Reads the records between the given offsets and adds the ones having an id within [start,end] to the given list.
+	 * @return - false if a record having an id > end was found (no need to read further)
+	 * @throws IOException
+	 */
+	private boolean readRecords( FileChannel channel, long from, long to, long start, long end, List<ILogLine> lines, ByteBuffer buffer ) throws IOException
+	{
+		long position = from;
+		while ( position < to )
+		{
+			buffer.clear( );
+			buffer.limit( ( int ) Math.min( buffer.capacity( ), to - position ) );
+			int read = channel.read( buffer, position );
+			if ( read <= 0 )
+				break;
+			buffer.flip( );
+
+			int consumed = 0;
+			while ( buffer.remaining( ) >= RECORD_HEADER )
+			{
+				buffer.mark( );
+				long id = buffer.getLong( );
+				long timeStamp = buffer.getLong( );
+				int length = buffer.getInt( );
+				if ( buffer.remaining( ) < length )
+				{
+					// record continues behind the buffer
+					buffer.reset( );
+					break;
+				}// if ( buffer.remaining( ) < length ) .
+
+				if ( id > end )
+					return false;
+
+				if ( id >= start )
+				{
+					byte[] bytes = new byte[length];
+					buffer.get( bytes );
+					lines.add( new FlyweightLogLine( id, timeStamp, new String( bytes, UTF8 ) ) );
+				}// if ( id >= start ) .
+				else
+				{
+					buffer.position( buffer.position( ) + length );
+				}// if ( id >= start ) ... else ...
+				consumed += RECORD_HEADER + length;
+			}// while ( buffer.remaining( ) >= RECORD_HEADER ) .
+
+			if ( consumed == 0 )
+			{
+				// record bigger than the buffer
+				buffer = ByteBuffer.allocate( buffer.capacity( ) * 2 );
+			}
+			position += consumed;
+		}// while ( position < to ) .
+		return true;
+	}
+
+	/**
+	 * Returns the id of the first line still on disk, -1 if there is none.
+	 * @return
+	 */
+	public long getFirstId( )
+	{
+		this.lock.readLock( ).lock( );
+		try
+		{
+			return ( this.files.isEmpty( ) || this.files.get( 0 ).firstId == Long.MAX_VALUE ) ? -1 : this.files.get( 0 ).firstId;
+		}
+		finally
+		{
+			this.lock.readLock( ).unlock( );
+		}
+	}
+
+	/**
+	 * Returns the id of the last spilled line, -1 if there is none.
+	 * @return
+	 */
+	public long getLastId( )
+	{
+		this.lock.readLock( ).lock( );
+		try
+		{
+			return this.files.isEmpty( ) ? -1 : this.files.get( this.files.size( ) - 1 ).lastId;
+		}
+		finally
+		{
+			this.lock.readLock( ).unlock( );
+		}
+	}
+
+	/**
+	 * Returns the number of lines spilled so far (including the ones that where deleted due to the max size).
+	 * @return
+	 */
+	public long getNumLines( )
+	{
+		this.lock.readLock( ).lock( );
+		try
+		{
+			return numLines;
+		}
+		finally
+		{
+			this.lock.readLock( ).unlock( );
+		}
+	}
+
+	/**
+	 * Returns the size of all files (in bytes).
+	 * @return
+	 */
+	public long getSize( )
+	{
+		this.lock.readLock( ).lock( );
+		try
+		{
+			long size = 0;
+			for ( SpillFile file : this.files )
+				size += file.size;
+			return size;
+		}
+		finally
+		{
+			this.lock.readLock( ).unlock( );
+		}
+	}
+
+	/**
+	 * Deletes all files.
+	 */
+	public void close( )
+	{
+		List<SpillFile> deletedFiles = null;
+		this.lock.writeLock( ).lock( );
+		try
+		{
+			deletedFiles = new ArrayList<>( this.files );
+			this.files.clear( );
+			this.index.clear( );
+		}
+		finally
+		{
+			this.lock.writeLock( ).unlock( );
+		}
+
+		for ( SpillFile file : deletedFiles )
+			file.delete( );
+		this.directory.toFile( ).delete( );
+	}
+
+	private Logger LOG( )
+	{
+		return this.log;
+	}
+
+	private final class SpillFile
+	{
+		private final Path			path;
+		private final FileChannel	channel;
+
+		/**
+		 * Number of bytes written and published.
+		 */
+		private long				size;
+
+		/**
+		 * Id of the first/ last line in the file (firstId is set on the first published append).
+		 */
+		private long				firstId;
+		private long				lastId;
+
+		public SpillFile( Path path, FileChannel channel )
+		{
+			this.path = path;
+			this.channel = channel;
+			this.size = 0;
+			this.firstId = Long.MAX_VALUE;
+			this.lastId = -1;
+		}
+
+		public void delete( )
+		{
+			try
+			{
+				this.channel.close( );
+				Files.deleteIfExists( this.path );
+			}
+			catch ( IOException e )
+			{
+				LOG( ).warning( "Unable to delete '" + this.path + "': " + e.getLocalizedMessage( ) );
+				new File( this.path.toString( ) ).deleteOnExit( );
+			}
+		}
+	}
+
+	private static final class IndexEntry
+	{
+		private final long		id;
+		private final SpillFile	file;
+		private final long		offset;
+
+		public IndexEntry( long id, SpillFile file, long offset )
+		{
+			this.id = id;
+			this.file = file;
+			this.offset = offset;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import thobe.logfileviewer.kernel.memory.ObjectLayout;
+import thobe.logfileviewer.kernel.source.template.ITemplatedLogLine;
+import thobe.logfileviewer.kernel.source.template.LogTemplate;
+
+/**
+ * Log-line keeping only the (shared) {@link LogTemplate} and the parameters instead of the data, the data is reconstructed on each call of
+ * {@link #getData()}.
+ * @author Thomas Obenaus
+ * @source TemplatedLogLine.java
+ * @date Oct 17, 2026
+ */
+public final class TemplatedLogLine implements ITemplatedLogLine
+{
+	private static final long	SIZE	= ObjectLayout.shallowSizeOf( TemplatedLogLine.class );
+
+	private final long			id;
+	private final long			timeStamp;
+	private final LogTemplate	template;
+	private final String		parameters;
+
+	public TemplatedLogLine( long id, long timeStamp, LogTemplate template, String parameters )
+	{
+		this.id = id;
+		this.timeStamp = timeStamp;
+		this.template = template;
+		this.parameters = parameters;
+	}
+
+	@Override
+	public LogTemplate getTemplate( )
+	{
+		return template;
+	}
+
+	@Override
+	public String getData( )
+	{
+		return this.template.format( this.parameters );
+	}
+
+	@Override
+	public long getTimeStamp( )
+	{
+		return timeStamp;
+	}
+
+	@Override
+	public long getId( )
+	{
+		return id;
+	}
+
+	/**
+	 * The template is shared by all lines of its group and not counted here.
+	 */
+	@Override
+	public long getMemory( )
+	{
+		long memory = SIZE;
+		if ( this.parameters != null )
+			memory += ObjectLayout.sizeOf( this.parameters );
+		return memory;
+	}
+
+	@Override
+	public String getTimeStampStr( )
+	{
+		return String.format( "%tH:%tM:%tS.%tL", this.timeStamp, this.timeStamp, this.timeStamp, this.timeStamp );
+	}
+
+	@Override
+	public String toString( )
+	{
+		return String.format( "{%5d|%s} - %s", this.id, this.getTimeStampStr( ), this.getData( ) );
+	}
+}
@@ -0,0 +1,226 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logline;
+
+import java.util.Arrays;
+
+/**
+ * Sparse index mapping time-stamps to ids, one entry per block of {@link #INTERVAL} lines. The time-stamps of a stream are ascending
+ * except for some lines out of order, thus an entry keeps the max time-stamp of all lines up to the end of its block and the min
+ * time-stamp of all (complete) blocks from its block on. Both are monotonic, so the block containing the first line having a time-stamp >=
+ * t and the block containing the last line having a time-stamp <= t are found by binary search. The block currently filled (open block)
+ * is not part of the entries, it has to be searched by the caller.
+ * Lines are added by one writer, searching is thread-safe.
+ * @author Thomas Obenaus
+ * @source TimeIndex.java
+ * @date Oct 17, 2026
+ */
+final class TimeIndex
+{
+	/**
+	 * Number of lines per block.
+	 */
+	static final int	INTERVAL	= 256;
+
+	/**
+	 * The entries [head,head+size), guarded by this.
+	 */
+	private long[]		firstIds;
+	private long[]		maxTimeStamps;
+	private long[]		minTimeStamps;
+	private int			head;
+	private int			size;
+
+	/**
+	 * The open block (only modified by the writer).
+	 */
+	private long		openFirstId;
+	private int			openLines;
+	private long		openMinTimeStamp;
+	private long		prefixMaxTimeStamp;
+
+	/**
+	 * Id of the first line of the open block as seen by readers, -1 if there is no line in the open block.
+	 */
+	private volatile long	publishedOpenFirstId;
+
+	TimeIndex( )
+	{
+		this.firstIds = new long[64];
+		this.maxTimeStamps = new long[64];
+		this.minTimeStamps = new long[64];
+		this.head = 0;
+		this.size = 0;
+		this.openFirstId = -1;
+		this.openLines = 0;
+		this.openMinTimeStamp = Long.MAX_VALUE;
+		this.prefixMaxTimeStamp = Long.MIN_VALUE;
+		this.publishedOpenFirstId = -1;
+	}
+
+	/**
+	 * Adds a line, the ids have to be ascending. Called by the writer only.
+	 * @param id
+	 * @param timeStamp
+	 */
+	void add( long id, long timeStamp )
+	{
+		if ( this.openLines == 0 )
+		{
+			this.openFirstId = id;
+			this.publishedOpenFirstId = id;
+		}// if ( this.openLines == 0 ) .
+		this.openLines++;
+		this.openMinTimeStamp = Math.min( this.openMinTimeStamp, timeStamp );
+		this.prefixMaxTimeStamp = Math.max( this.prefixMaxTimeStamp, timeStamp );
+
+		if ( this.openLines == INTERVAL )
+			this.closeBlock( );
+	}
+
+	/**
+	 * Turns the open block into an entry.
+	 */
+	private synchronized void closeBlock( )
+	{
+		if ( this.head + this.size == this.firstIds.length )
+		{
+			if ( this.head > this.size )
+			{
+				// compact
+				System.arraycopy( this.firstIds, this.head, this.firstIds, 0, this.size );
+				System.arraycopy( this.maxTimeStamps, this.head, this.maxTimeStamps, 0, this.size );
+				System.arraycopy( this.minTimeStamps, this.head, this.minTimeStamps, 0, this.size );
+				this.head = 0;
+			}
+			else
+			{
+				this.firstIds = Arrays.copyOf( this.firstIds, this.firstIds.length * 2 );
+				this.maxTimeStamps = Arrays.copyOf( this.maxTimeStamps, this.maxTimeStamps.length * 2 );
+				this.minTimeStamps = Arrays.copyOf( this.minTimeStamps, this.minTimeStamps.length * 2 );
+			}
+		}// if ( this.head + this.size == this.firstIds.length ) .
+
+		final int index = this.head + this.size;
+		this.firstIds[index] = this.openFirstId;
+		this.maxTimeStamps[index] = this.prefixMaxTimeStamp;
+		this.minTimeStamps[index] = this.openMinTimeStamp;
+		this.size++;
+
+		// keep the min of the following blocks, stops at the first entry not affected (usually the previous one)
+		for ( int i = index - 1; i >= this.head && this.minTimeStamps[i] > this.openMinTimeStamp; --i )
+			this.minTimeStamps[i] = this.openMinTimeStamp;
+
+		this.openLines = 0;
+		this.openMinTimeStamp = Long.MAX_VALUE;
+		this.publishedOpenFirstId = -1;
+	}
+
+	/**
+	 * Removes the entries of the blocks containing only lines having an id < the given one.
+	 * @param firstId - id of the first line still available
+	 */
+	synchronized void trim( long firstId )
+	{
+		while ( this.size > 0 )
+		{
+			long nextFirstId = ( this.size > 1 ) ? this.firstIds[this.head + 1] : this.openFirstIdOrMax( );
+			if ( nextFirstId > firstId )
+				break;
+			this.head++;
+			this.size--;
+		}// while ( this.size > 0 ) .
+		if ( this.size == 0 )
+			this.head = 0;
+	}
+
+	private long openFirstIdOrMax( )
+	{
+		final long openFirstId = this.publishedOpenFirstId;
+		return ( openFirstId < 0 ) ? Long.MAX_VALUE : openFirstId;
+	}
+
+	/**
+	 * Returns the id range [first,last] of the block containing the first line having a time-stamp >= the given one. If no complete block
+	 * contains such a line, the range of the open block is returned (last = Long.MAX_VALUE), null if there is no open block.
+	 * @param timeStamp
+	 * @return
+	 */
+	synchronized long[] findFirstBlock( long timeStamp )
+	{
+		// first entry having maxTimeStamp >= timeStamp
+		int low = this.head;
+		int high = this.head + this.size;
+		while ( low < high )
+		{
+			int mid = ( low + high ) >>> 1;
+			if ( this.maxTimeStamps[mid] < timeStamp )
+				low = mid + 1;
+			else
+				high = mid;
+		}// while ( low < high ) .
+		return this.blockRange( low );
+	}
+
+	/**
+	 * Returns the id range [first,last] of the last complete block containing a line having a time-stamp <= the given one, null if there is
+	 * none. The open block is not searched.
+	 * @param timeStamp
+	 * @return
+	 */
+	synchronized long[] findLastBlock( long timeStamp )
+	{
+		// last entry having minTimeStamp <= timeStamp
+		int low = this.head;
+		int high = this.head + this.size;
+		while ( low < high )
+		{
+			int mid = ( low + high ) >>> 1;
+			if ( this.minTimeStamps[mid] <= timeStamp )
+				low = mid + 1;
+			else
+				high = mid;
+		}// while ( low < high ) .
+		return ( low == this.head ) ? null : this.blockRange( low - 1 );
+	}
+
+	/**
+	 * Returns the id range of the block with the given index, the open block if the index is behind the last entry.
+	 */
+	private long[] blockRange( int index )
+	{
+		if ( index < this.head + this.size )
+		{
+			long nextFirstId = ( index + 1 < this.head + this.size ) ? this.firstIds[index + 1] : this.openFirstIdOrMax( );
+			return new long[] { this.firstIds[index], ( nextFirstId == Long.MAX_VALUE ) ? Long.MAX_VALUE : nextFirstId - 1 };
+		}// if ( index < this.head + this.size ) .
+		final long openFirstId = this.publishedOpenFirstId;
+		return ( openFirstId < 0 ) ? null : new long[] { openFirstId, Long.MAX_VALUE };
+	}
+
+	/**
+	 * Returns the id of the first line of the open block, -1 if there is no line in the open block.
+	 * @return
+	 */
+	long getOpenFirstId( )
+	{
+		return this.publishedOpenFirstId;
+	}
+
+	/**
+	 * Returns the number of entries.
+	 * @return
+	 */
+	synchronized int size( )
+	{
+		return this.size;
+	}
+}
@@ -0,0 +1,47 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logstream;
+
+import java.util.regex.Pattern;
+
+import thobe.logfileviewer.plugin.source.logstream.ILogStreamAccess;
+import thobe.logfileviewer.plugin.source.logstream.ILogStreamRequester;
+
+/**
+ * Extension of {@link ILogStreamAccess} for requesting lines by time instead of by id, e.g. for zooming into a timeline. Plugins get
+ * access to it by checking the {@link ILogStreamAccess} they where given for this interface.
+ * @author Thomas Obenaus
+ * @source ILogStreamTimeRangeAccess.java
+ * @date Oct 17, 2026
+ */
+public interface ILogStreamTimeRangeAccess extends ILogStreamAccess
+{
+	/**
+	 * Requests the lines from the first line having a time-stamp >= startTime to the last line having a time-stamp <= endTime. The lines are
+	 * delivered asynchronously via {@link ILogStreamRequester#response(int, java.util.List, boolean)}.
+	 * @param startTime - ms since epoch
+	 * @param endTime - ms since epoch
+	 * @param requester
+	 * @param filter - only lines matching the filter are delivered (null for all)
+	 * @return - the id of the request, -1 if the requester is null
+	 */
+	public int requestLogLinesByTime( long startTime, long endTime, ILogStreamRequester requester, Pattern filter );
+
+	/**
+	 * Requests the lines from the first line having a time-stamp >= startTime to the last line having a time-stamp <= endTime. The lines are
+	 * delivered asynchronously via {@link ILogStreamRequester#response(int, java.util.List, boolean)}.
+	 * @param startTime - ms since epoch
+	 * @param endTime - ms since epoch
+	 * @param requester
+	 * @return - the id of the request, -1 if the requester is null
+	 */
+	public int requestLogLinesByTime( long startTime, long endTime, ILogStreamRequester requester );
+}
@@ -55,7 +55,8 @@ public class InternalLogStreamReader extends Thread
 	private LogStreamReaderState					stateOfLogStream;
 
 	/**
-	 * The time to sleep between two lines that where read from the source (in ms).
+	 * Max time to wait for new lines or a state change of the source (in ms). Events are published as soon as they arrive, this is just
+	 * the interval used to check whether quitting was requested.
 	 */
 	private AtomicInteger							sleepTime;
 
@@ -64,7 +65,7 @@ public class InternalLogStreamReader extends Thread
 		super( "thobe.logfileviewer.source.LogStreamContentPublisher" );
 		this.quitRequested = new AtomicBoolean( false );
 		this.log = Logger.getLogger( "thobe.logfileviewer.source.InternalLogStreamReader" );
-		this.sleepTime = new AtomicInteger( 100 );
+		this.sleepTime = new AtomicInteger( 1000 );
 		this.listeners = new ArrayList<>( );
 		this.stateOfLogStream = LogStreamReaderState.CLOSED;
 	}
@@ -98,6 +99,7 @@ public class InternalLogStreamReader extends Thread
 		synchronized ( this )
 		{
 			this.traceSource = traceSource;
+			this.notifyAll( );
 		}
 	}
 
@@ -105,7 +107,11 @@ public class InternalLogStreamReader extends Thread
 	{
 		synchronized ( this )
 		{
+			// the consumer may wait on the buffer of the source
+			if ( this.traceSource != null )
+				this.traceSource.wakeUpConsumer( );
 			this.traceSource = null;
+			this.notifyAll( );
 		}
 	}
 
@@ -117,10 +123,12 @@ public class InternalLogStreamReader extends Thread
 
 		while ( !this.quitRequested.get( ) )
 		{
+			ExternalLogStreamReader source = null;
+			LogStreamReaderState state = LogStreamReaderState.CLOSED;
 			synchronized ( this )
 			{
 				// check state of stream
-				LogStreamReaderState state = LogStreamReaderState.CLOSED;
+				source = this.traceSource;
 				if ( this.traceSource != null )
 				{
 					state = this.traceSource.getCurrentState( );
@@ -149,7 +157,24 @@ public class InternalLogStreamReader extends Thread
 
 			try
 			{
-				Thread.sleep( this.sleepTime.get( ) );
+				// wait for the next block or state-change of the source (no polling), without a source for the next one
+				if ( source != null && state == LogStreamReaderState.OPEN )
+				{
+					source.awaitNextLine( this.sleepTime.get( ) );
+				}// if ( source != null && state == LogStreamReaderState.OPEN ) .
+				else if ( source != null )
+				{
+					// lines left in the buffer of a closed source must not wake us up
+					source.awaitStateChange( this.sleepTime.get( ) );
+				}// if ( source != null && state == LogStreamReaderState.OPEN ) ... else if ( source != null ) ...
+				else
+				{
+					synchronized ( this )
+					{
+						if ( this.traceSource == null && !this.quitRequested.get( ) )
+							this.wait( this.sleepTime.get( ) );
+					}// synchronized ( this ) .
+				}// if ( source != null && state == LogStreamReaderState.OPEN ) ... else ...
 			}
 			catch ( InterruptedException e )
 			{
@@ -183,7 +208,7 @@ public class InternalLogStreamReader extends Thread
 	}
 
 	/**
-	 * Sets the time to sleep between publishing new contents read from the log (in ms).
+	 * Sets the max time to wait for new contents read from the log before checking whether quitting was requested (in ms).
 	 * @param sleepTime
 	 */
 	public void setSleepTime( int sleepTime )
@@ -194,6 +219,12 @@ public class InternalLogStreamReader extends Thread
 	public void kill( ) throws LogStreamException
 	{
 		this.quitRequested.set( true );
+		synchronized ( this )
+		{
+			if ( this.traceSource != null )
+				this.traceSource.wakeUpConsumer( );
+			this.notifyAll( );
+		}
 	}
 
 	protected Logger LOG( )
@@ -0,0 +1,390 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logstream;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+import thobe.logfileviewer.kernel.source.OverflowPolicy;
+import thobe.logfileviewer.kernel.source.logline.LogLineBlock;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+import thobe.logfileviewer.plugin.source.logstream.ILogStreamDataListener;
+
+/**
+ * Bounded queue of blocks of {@link ILogLine}s for one {@link ILogStreamDataListener}. The blocks are delivered on a shared
+ * {@link Executor}, but never concurrently for the same listener and always in the order they where added. This decouples a slow listener
+ * from the thread publishing the lines and from all other listeners. If the queue is full the {@link OverflowPolicy} decides whether the
+ * publishing thread waits (back-pressure, bounded by a timeout after which the oldest block is dropped) or blocks are dropped for this
+ * listener.
+ * @author Thomas Obenaus
+ * @source ListenerDeliveryQueue.java
+ * @date Oct 17, 2026
+ */
+final class ListenerDeliveryQueue implements Runnable
+{
+	/**
+	 * Max number of blocks delivered in one run, afterwards the queue is rescheduled to give the other listeners a chance.
+	 */
+	private static final int				MAX_BLOCKS_PER_RUN	= 16;
+
+	private final ILogStreamDataListener	listener;
+	private final Executor					executor;
+	private final Deque<PendingBlock>		blocks;
+	private final int						capacity;
+	private final OverflowPolicy			overflowPolicy;
+
+	/**
+	 * Only used for {@link OverflowPolicy#SAMPLE}: one of sampleRate blocks is kept while the queue is full.
+	 */
+	private final int						sampleRate;
+	private long							sampleCounter;
+
+	/**
+	 * Number of lines in all blocks that where not delivered yet.
+	 */
+	private int								numLines;
+
+	/**
+	 * True if the queue is currently submitted to (or running on) the executor.
+	 */
+	private boolean							scheduled;
+	private boolean							closed;
+
+	private final ReentrantLock				lock;
+	private final Condition					notFull;
+
+	private final AtomicLong				deliveredBlocks;
+	private final AtomicLong				droppedBlocks;
+	private final AtomicLong				droppedLines;
+
+	/**
+	 * Sum of the delivery-lags (time between adding a block and passing it to the listener) in ns.
+	 */
+	private final AtomicLong				lagSum;
+	private final AtomicLong				lagMax;
+
+	private final Logger					log;
+
+	/**
+	 * Ctor
+	 * @param listener - the listener the blocks are delivered to
+	 * @param executor - the executor running the delivery
+	 * @param capacity - max number of blocks in the queue
+	 * @param overflowPolicy - what happens if the queue is full
+	 * @param sampleRate - for {@link OverflowPolicy#SAMPLE} keep one of sampleRate blocks while the queue is full
+	 */
+	public ListenerDeliveryQueue( ILogStreamDataListener listener, Executor executor, int capacity, OverflowPolicy overflowPolicy, int sampleRate )
+	{
+		if ( capacity < 1 )
+			throw new IllegalArgumentException( "Capacity has to be >= 1 (" + capacity + ")" );
+		this.listener = listener;
+		this.executor = executor;
+		this.blocks = new ArrayDeque<>( capacity );
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.sampleRate = Math.max( 1, sampleRate );
+		this.sampleCounter = 0;
+		this.numLines = 0;
+		this.scheduled = false;
+		this.closed = false;
+		this.lock = new ReentrantLock( );
+		this.notFull = this.lock.newCondition( );
+		this.deliveredBlocks = new AtomicLong( 0 );
+		this.droppedBlocks = new AtomicLong( 0 );
+		this.droppedLines = new AtomicLong( 0 );
+		this.lagSum = new AtomicLong( 0 );
+		this.lagMax = new AtomicLong( 0 );
+		this.log = Logger.getLogger( "thobe.logfileviewer.source.ListenerDeliveryQueue" );
+	}
+
+	/**
+	 * Adds the given (immutable) block for delivery without waiting. If the queue is full the {@link OverflowPolicy} is applied, except for
+	 * {@link OverflowPolicy#BLOCK}: then nothing is done and false is returned, so the caller can serve the other listeners before it waits
+	 * in {@link #offer(LogLineBlock, long)}.
+	 * @param lines
+	 * @return - false if the policy is {@link OverflowPolicy#BLOCK} and the queue is full, true otherwise (also if the queue is closed)
+	 */
+	public boolean tryOffer( LogLineBlock lines )
+	{
+		this.lock.lock( );
+		try
+		{
+			if ( !this.closed && this.overflowPolicy == OverflowPolicy.BLOCK && this.blocks.size( ) >= this.capacity )
+				return false;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+
+		try
+		{
+			// does not wait: only the publishing thread adds blocks, so the queue is still not full or the policy does not block
+			this.offer( lines, 0 );
+		}
+		catch ( InterruptedException e )
+		{
+			Thread.currentThread( ).interrupt( );
+		}
+		return true;
+	}
+
+	/**
+	 * Adds the given (immutable) block for delivery. If the queue is full the {@link OverflowPolicy} is applied, for
+	 * {@link OverflowPolicy#BLOCK} this method waits at most the given time for a free slot, afterwards the oldest block is dropped (a slow
+	 * listener must never stop the publishing thread).
+	 * @param lines
+	 * @param timeout - max time to wait for {@link OverflowPolicy#BLOCK} (in ms)
+	 * @return - false if the block was not added since the queue is closed
+	 * @throws InterruptedException
+	 */
+	public boolean offer( LogLineBlock lines, long timeout ) throws InterruptedException
+	{
+		this.lock.lockInterruptibly( );
+		try
+		{
+			if ( this.closed )
+				return false;
+
+			if ( this.blocks.size( ) >= this.capacity )
+			{
+				switch ( this.overflowPolicy )
+				{
+				case DROP_OLDEST:
+					this.dropHead( );
+					break;
+				case SAMPLE:
+					if ( ( this.sampleCounter++ % this.sampleRate ) != 0 )
+					{
+						// drop the new block
+						this.droppedBlocks.incrementAndGet( );
+						this.droppedLines.addAndGet( lines.size( ) );
+						return true;
+					}// if ( ( this.sampleCounter++ % this.sampleRate ) != 0 ) .
+					this.dropHead( );
+					break;
+				case BLOCK:
+				default:
+					long nanos = TimeUnit.MILLISECONDS.toNanos( timeout );
+					while ( ( this.blocks.size( ) >= this.capacity ) && !this.closed && ( nanos > 0 ) )
+					{
+						nanos = this.notFull.awaitNanos( nanos );
+					}
+					if ( this.closed )
+						return false;
+					if ( this.blocks.size( ) >= this.capacity )
+						this.dropHead( );
+					break;
+				}// switch ( this.overflowPolicy ) .
+			}// if ( this.blocks.size( ) >= this.capacity ) .
+			else
+			{
+				this.sampleCounter = 0;
+			}// if ( this.blocks.size( ) >= this.capacity ) ... else ...
+
+			this.blocks.add( new PendingBlock( lines, System.nanoTime( ) ) );
+			this.numLines += lines.size( );
+
+			if ( !this.scheduled )
+			{
+				this.scheduled = true;
+				this.schedule( );
+			}// if ( !this.scheduled ) .
+			return true;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Delivers the pending blocks to the listener (called by the executor).
+	 */
+	@Override
+	public void run( )
+	{
+		for ( int i = 0; i < MAX_BLOCKS_PER_RUN; ++i )
+		{
+			PendingBlock block = null;
+			this.lock.lock( );
+			try
+			{
+				block = this.blocks.poll( );
+				if ( block == null || this.closed )
+				{
+					this.scheduled = false;
+					return;
+				}// if ( block == null || this.closed ) .
+				this.numLines -= block.lines.size( );
+				this.notFull.signal( );
+			}
+			finally
+			{
+				this.lock.unlock( );
+			}
+
+			long lag = System.nanoTime( ) - block.enqueueTime;
+			this.lagSum.addAndGet( lag );
+			if ( lag > this.lagMax.get( ) )
+				this.lagMax.set( lag );
+
+			long elapsedTime = System.currentTimeMillis( );
+			try
+			{
+				this.listener.onNewBlockOfLines( block.lines );
+			}
+			catch ( RuntimeException e )
+			{
+				LOG( ).severe( "Listener '" + this.listener.getNameOfDataListener( ) + "' failed to process a block of lines: " + e.getLocalizedMessage( ) );
+			}
+			elapsedTime = System.currentTimeMillis( ) - elapsedTime;
+			this.deliveredBlocks.incrementAndGet( );
+
+			if ( elapsedTime > 100 )
+			{
+				LOG( ).warning( "Listener '" + this.listener.getNameOfDataListener( ) + "' needs " + ( elapsedTime / 1000.0f ) + "s to process a block of " + block.lines.size( ) + " lines." );
+			}// if ( elapsedTime > 100 ).
+		}// for ( int i = 0; i < MAX_BLOCKS_PER_RUN; ++i ) .
+
+		// there might be more blocks, continue in a new run
+		this.lock.lock( );
+		try
+		{
+			if ( this.blocks.isEmpty( ) || this.closed )
+				this.scheduled = false;
+			else
+				this.schedule( );
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Closes the queue, pending blocks are discarded and a producer waiting in {@link #offer(LogLineBlock, long)} returns.
+	 */
+	public void close( )
+	{
+		this.lock.lock( );
+		try
+		{
+			this.closed = true;
+			this.blocks.clear( );
+			this.numLines = 0;
+			this.notFull.signalAll( );
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of this queue.
+	 * @return
+	 */
+	public ListenerDeliveryStats getStats( )
+	{
+		int queuedBlocks = 0;
+		int queuedLines = 0;
+		long currentLag = 0;
+		this.lock.lock( );
+		try
+		{
+			queuedBlocks = this.blocks.size( );
+			queuedLines = this.numLines;
+			PendingBlock oldest = this.blocks.peek( );
+			if ( oldest != null )
+				currentLag = System.nanoTime( ) - oldest.enqueueTime;
+		}
+		finally
+		{
+			this.lock.unlock( );
+		}
+
+		long delivered = this.deliveredBlocks.get( );
+		double avgLag = ( delivered > 0 ) ? ( this.lagSum.get( ) / ( double ) delivered ) : 0;
+		return new ListenerDeliveryStats( this.listener.getNameOfDataListener( ), queuedBlocks, this.capacity, queuedLines, toMs( currentLag ), toMs( avgLag ), toMs( this.lagMax.get( ) ), delivered, this.droppedBlocks.get( ), this.droppedLines.get( ) );
+	}
+
+	public ILogStreamDataListener getListener( )
+	{
+		return listener;
+	}
+
+	/**
+	 * Submits this queue to the executor, has to be called holding the lock.
+	 */
+	private void schedule( )
+	{
+		try
+		{
+			this.executor.execute( this );
+		}
+		catch ( RejectedExecutionException e )
+		{
+			// executor shut down, nothing will be delivered anymore
+			this.scheduled = false;
+		}
+	}
+
+	/**
+	 * Drops the oldest block, has to be called holding the lock.
+	 */
+	private void dropHead( )
+	{
+		PendingBlock dropped = this.blocks.poll( );
+		if ( dropped != null )
+		{
+			this.numLines -= dropped.lines.size( );
+			this.droppedBlocks.incrementAndGet( );
+			this.droppedLines.addAndGet( dropped.lines.size( ) );
+		}// if ( dropped != null ) .
+	}
+
+	private static double toMs( double nanos )
+	{
+		return nanos / TimeUnit.MILLISECONDS.toNanos( 1 );
+	}
+
+	private Logger LOG( )
+	{
+		return this.log;
+	}
+
+	/**
+	 * A block waiting for delivery.
+	 */
+	private static final class PendingBlock
+	{
+		private final LogLineBlock	lines;
+
+		/**
+		 * Time (ns) the block was added to the queue.
+		 */
+		private final long				enqueueTime;
+
+		public PendingBlock( LogLineBlock lines, long enqueueTime )
+		{
+			this.lines = lines;
+			this.enqueueTime = enqueueTime;
+		}
+	}
+}
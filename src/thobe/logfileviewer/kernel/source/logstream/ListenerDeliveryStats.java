@@ -0,0 +1,127 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.logstream;
+
+import thobe.logfileviewer.plugin.source.logstream.ILogStreamDataListener;
+
+/**
+ * Snapshot of the delivery-statistics (lag) of one {@link ILogStreamDataListener}.
+ * @author Thomas Obenaus
+ * @source ListenerDeliveryStats.java
+ * @date Oct 17, 2026
+ */
+public final class ListenerDeliveryStats
+{
+	private final String	listenerName;
+	private final int		queuedBlocks;
+	private final int		capacity;
+	private final int		queuedLines;
+	private final double	currentLag;
+	private final double	avgLag;
+	private final double	maxLag;
+	private final long		deliveredBlocks;
+	private final long		droppedBlocks;
+	private final long		droppedLines;
+
+	public ListenerDeliveryStats( String listenerName, int queuedBlocks, int capacity, int queuedLines, double currentLag, double avgLag, double maxLag, long deliveredBlocks, long droppedBlocks, long droppedLines )
+	{
+		this.listenerName = listenerName;
+		this.queuedBlocks = queuedBlocks;
+		this.capacity = capacity;
+		this.queuedLines = queuedLines;
+		this.currentLag = currentLag;
+		this.avgLag = avgLag;
+		this.maxLag = maxLag;
+		this.deliveredBlocks = deliveredBlocks;
+		this.droppedBlocks = droppedBlocks;
+		this.droppedLines = droppedLines;
+	}
+
+	public String getListenerName( )
+	{
+		return listenerName;
+	}
+
+	/**
+	 * Returns the number of blocks waiting for delivery.
+	 * @return
+	 */
+	public int getQueuedBlocks( )
+	{
+		return queuedBlocks;
+	}
+
+	/**
+	 * Returns the max number of blocks that can wait for delivery.
+	 * @return
+	 */
+	public int getCapacity( )
+	{
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of lines waiting for delivery.
+	 * @return
+	 */
+	public int getQueuedLines( )
+	{
+		return queuedLines;
+	}
+
+	/**
+	 * Returns the time (in ms) the oldest block that was not delivered yet is waiting.
+	 * @return
+	 */
+	public double getCurrentLag( )
+	{
+		return currentLag;
+	}
+
+	/**
+	 * Returns the average time (in ms) a block waited until it was delivered.
+	 * @return
+	 */
+	public double getAvgLag( )
+	{
+		return avgLag;
+	}
+
+	/**
+	 * Returns the max time (in ms) a block waited until it was delivered.
+	 * @return
+	 */
+	public double getMaxLag( )
+	{
+		return maxLag;
+	}
+
+	public long getDeliveredBlocks( )
+	{
+		return deliveredBlocks;
+	}
+
+	public long getDroppedBlocks( )
+	{
+		return droppedBlocks;
+	}
+
+	public long getDroppedLines( )
+	{
+		return droppedLines;
+	}
+
+	@Override
+	public String toString( )
+	{
+		return this.listenerName + ": queued=" + this.queuedBlocks + "/" + this.capacity + " (" + this.queuedLines + " lines), lag=" + this.currentLag + " ms, avgLag=" + this.avgLag + " ms, maxLag=" + this.maxLag + " ms, delivered=" + this.deliveredBlocks + ", droppedLines=" + this.droppedLines;
+	}
+}
@@ -19,38 +19,48 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
-import thobe.logfileviewer.kernel.memory.IMemoryWatchable;
+import thobe.logfileviewer.kernel.memory.IGradedMemoryWatchable;
+import thobe.logfileviewer.kernel.source.LogLineBufferMode;
+import thobe.logfileviewer.kernel.source.OverflowPolicy;
 import thobe.logfileviewer.kernel.source.err.LogLineBufferException;
 import thobe.logfileviewer.kernel.source.err.LogStreamException;
 import thobe.logfileviewer.kernel.source.extreader.ExternalLogStreamReader;
+import thobe.logfileviewer.kernel.source.filter.LiteralPrefilter;
+import thobe.logfileviewer.kernel.source.filter.MultiPatternMatcher;
+import thobe.logfileviewer.kernel.source.filter.PatternRegistry;
+import thobe.logfileviewer.kernel.source.filter.PrefilterStats;
 import thobe.logfileviewer.kernel.source.logline.ILogLineBuffer;
 import thobe.logfileviewer.kernel.source.logline.ILogLineFactoryAccess;
+import thobe.logfileviewer.kernel.source.logline.LogLineBlock;
 import thobe.logfileviewer.kernel.source.logline.LogLine;
 import thobe.logfileviewer.kernel.source.logline.LogLineBuffer;
 import thobe.logfileviewer.kernel.source.logline.LogLineFactory;
+import thobe.logfileviewer.kernel.source.template.ITemplatedLogLine;
 import thobe.logfileviewer.plugin.source.logline.ILogLine;
 import thobe.logfileviewer.plugin.source.logstream.IInternalLogStreamReaderListener;
-import thobe.logfileviewer.plugin.source.logstream.ILogStreamAccess;
 import thobe.logfileviewer.plugin.source.logstream.ILogStreamDataListener;
 import thobe.logfileviewer.plugin.source.logstream.ILogStreamRequester;
 import thobe.logfileviewer.plugin.source.logstream.ILogStreamStateListener;
-import thobe.logfileviewer.plugin.util.PatternMatch;
 
 /**
  * The resource representing the log-file (access to the log-file). The contents of the logfile can be obtained through the
  * {@link ILogStreamDataListener}. The current states of the logfile (open, eof, closed, ..) can be obtained through the
- * {@link ILogStreamStateListener}.
+ * {@link ILogStreamStateListener}. New lines are delivered asynchronously, each {@link ILogStreamDataListener} has its own bounded queue
+ * (see {@link ListenerDeliveryQueue}) so a slow listener does not stall reading the log-file.
  * @author Thomas Obenaus
  * @source LogStream.java
  * @date May 29, 2014
  */
-public class LogStream extends Thread implements IInternalLogStreamReaderListener, ILogStreamAccess, IMemoryWatchable
+public class LogStream extends Thread implements IInternalLogStreamReaderListener, ILogStreamTimeRangeAccess, IGradedMemoryWatchable
 {
 	private static final String								NAME				= "thobe.logfileviewer.source.LogStream";
 
@@ -59,6 +69,22 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 	 */
 	private static final int								LOG_LINE_CACHE_SIZE	= 100000;
 
+	/**
+	 * Default max number of blocks waiting for delivery per {@link ILogStreamDataListener}.
+	 */
+	public static final int									DEF_DELIVERY_QUEUE_CAPACITY	= 64;
+
+	/**
+	 * Default number of threads delivering the blocks to the {@link ILogStreamDataListener}s.
+	 */
+	public static final int									DEF_DELIVERY_THREADS		= 2;
+
+	/**
+	 * Max time (ms) the publishing thread waits for full delivery-queues ({@link OverflowPolicy#BLOCK}) per block of lines, afterwards the
+	 * oldest blocks of these queues are dropped.
+	 */
+	private static final int								MAX_DELIVERY_WAIT			= 200;
+
 	/**
 	 * {@link Thread} that reads the log-file asynchronously.
 	 */
@@ -85,6 +111,42 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 	 */
 	private Map<Pattern, LogLineBlockToLogStreamListener>	logLineBlockToLSDLMap;
 
+	/**
+	 * Matches a line against the filters of all entries of {@link LogStream#logLineBlockToLSDLMap} in one go. Will be rebuilt (lazily) each
+	 * time the map changes.
+	 */
+	private MultiPatternMatcher<LogLineBlockToLogStreamListener>	dispatchMatcher;
+
+	/**
+	 * Statistics of the literal-prefilters used for dispatching new lines to the listeners and for filtering requests.
+	 */
+	private PrefilterStats									dispatchPrefilterStats;
+	private PrefilterStats									requestPrefilterStats;
+
+	/**
+	 * Interns the line-filters of the {@link ILogStreamDataListener}s, the keys of {@link LogStream#logStreamDataListeners} and
+	 * {@link LogStream#logLineBlockToLSDLMap} are the canonical instances.
+	 */
+	private PatternRegistry									patternRegistry;
+
+	/**
+	 * One delivery-queue per registered {@link ILogStreamDataListener}, guarded by {@link LogStream#logLineBlockToLSDLMap}.
+	 */
+	private Map<ILogStreamDataListener, ListenerDeliveryQueue>	deliveryQueues;
+
+	/**
+	 * Executor delivering the blocks of the delivery-queues (created on demand).
+	 */
+	private ExecutorService									deliveryExecutor;
+
+	/**
+	 * Settings for the delivery-queues, see {@link LogStream#setListenerDeliverySettings(int, OverflowPolicy, int, int)}.
+	 */
+	private int												deliveryQueueCapacity;
+	private OverflowPolicy									deliveryOverflowPolicy;
+	private int												deliverySampleRate;
+	private int												deliveryThreads;
+
 	/**
 	 * Factory responsible for the creation (and caching) of loglines.
 	 */
@@ -117,8 +179,6 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 	 */
 	private AtomicBoolean									quitRequested;
 
-	private static Pattern									ALL_PATTERN			= Pattern.compile( ".*" );
-
 	/**
 	 * Ctor
 	 */
@@ -127,6 +187,16 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 		super( NAME );
 
 		this.logLineBlockToLSDLMap = new HashMap<>( );
+		this.dispatchMatcher = null;
+		this.dispatchPrefilterStats = new PrefilterStats( );
+		this.requestPrefilterStats = new PrefilterStats( );
+		this.patternRegistry = new PatternRegistry( );
+		this.deliveryQueues = new HashMap<>( );
+		this.deliveryExecutor = null;
+		this.deliveryQueueCapacity = DEF_DELIVERY_QUEUE_CAPACITY;
+		this.deliveryOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+		this.deliverySampleRate = 10;
+		this.deliveryThreads = DEF_DELIVERY_THREADS;
 		this.logStreamStateListeners = new ArrayList<>( );
 		this.logStreamDataListeners = new HashMap<>( );
 		this.logStreamReader = null;
@@ -175,18 +245,19 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 				ILogStreamRequester requester = req.getRequester( );
 				if ( requester != null )
 				{
-					List<ILogLine> logLines = this.logLineBuffer.getLines( req.getStart( ), req.getEnd( ) );
+					List<ILogLine> logLines = req.isByTime( ) ? this.logLineBuffer.getLinesByTime( req.getStart( ), req.getEnd( ) ) : this.logLineBuffer.getLines( req.getStart( ), req.getEnd( ) );
 					if ( req.getFilter( ) == null )
 					{
 						requester.response( req.getId( ), logLines, true );
 					}
 					else
 					{
-						Pattern pat = req.getFilter( );
+						// lines not containing the literals required by the filter are rejected before the regex is evaluated
+						LiteralPrefilter filter = new LiteralPrefilter( req.getFilter( ), this.requestPrefilterStats );
 						List<ILogLine> filteredLines = new ArrayList<ILogLine>( );
 						for ( ILogLine l : logLines )
 						{
-							if ( PatternMatch.matches( pat, l ) )
+							if ( filter.matches( l.getData( ) ) )
 							{
 								filteredLines.add( l );
 							}
@@ -203,6 +274,38 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 	{
 		this.quitRequested.set( true );
 		this.eventSemaphore.release( );
+
+		// stop delivering to the listeners
+		synchronized ( this.logLineBlockToLSDLMap )
+		{
+			for ( ListenerDeliveryQueue queue : this.deliveryQueues.values( ) )
+				queue.close( );
+			if ( this.deliveryExecutor != null )
+				this.deliveryExecutor.shutdownNow( );
+		}// synchronized ( this.logLineBlockToLSDLMap ) .
+
+		// delete the lines spilled to disk
+		this.logLineBuffer.setSpillSettings( false, 0 );
+	}
+
+	/**
+	 * Settings for the delivery of new lines to the {@link ILogStreamDataListener}s. Each listener gets its own bounded queue of blocks,
+	 * the blocks are delivered by a pool of threads. The settings are applied to listeners added afterwards, the number of threads only
+	 * before the first listener was added.
+	 * @param capacity - max number of blocks waiting for delivery per listener
+	 * @param overflowPolicy - what happens if a listener can't keep up and its queue is full
+	 * @param sampleRate - for {@link OverflowPolicy#SAMPLE} keep one of sampleRate blocks while the queue is full
+	 * @param numThreads - number of threads delivering the blocks
+	 */
+	public void setListenerDeliverySettings( int capacity, OverflowPolicy overflowPolicy, int sampleRate, int numThreads )
+	{
+		synchronized ( this.logLineBlockToLSDLMap )
+		{
+			this.deliveryQueueCapacity = Math.max( 1, capacity );
+			this.deliveryOverflowPolicy = overflowPolicy;
+			this.deliverySampleRate = Math.max( 1, sampleRate );
+			this.deliveryThreads = Math.max( 1, numThreads );
+		}// synchronized ( this.logLineBlockToLSDLMap ) .
 	}
 
 	/**
@@ -230,56 +333,100 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 	}
 
 	/**
-	 * Add a new {@link ILogStreamDataListener}.
+	 * Add a new {@link ILogStreamDataListener}. The blocks passed to {@link ILogStreamDataListener#onNewBlockOfLines(List)} are immutable
+	 * {@link LogLineBlock}s shared with other listeners, they can be kept without copying but must not be modified.
 	 * @param l
 	 */
 	public void addLogStreamDataListener( ILogStreamDataListener l )
 	{
+		// listeners using equivalent filters (same regex and flags) share one entry, the filter is evaluated once per line
+		Pattern filter = null;
 		synchronized ( this.logStreamDataListeners )
 		{
-			Set<ILogStreamDataListener> listeners = this.logStreamDataListeners.get( l.getLineFilter( ) );
+			filter = this.patternRegistry.acquire( l.getLineFilter( ) );
+			Set<ILogStreamDataListener> listeners = this.logStreamDataListeners.get( filter );
 			if ( listeners == null )
 			{
 				// create an empty set if no listeners with the given filter are available
 				listeners = new HashSet<>( );
-				this.logStreamDataListeners.put( l.getLineFilter( ), listeners );
+				this.logStreamDataListeners.put( filter, listeners );
+			}
+			if ( !listeners.add( l ) )
+			{
+				// already registered
+				this.patternRegistry.release( filter );
 			}
-			listeners.add( l );
 		}
 
 		// add the entry to the mapping LogLine<->LogStreamStateListener too
 		synchronized ( this.logLineBlockToLSDLMap )
 		{
-			LogLineBlockToLogStreamListener entry = this.logLineBlockToLSDLMap.get( l.getLineFilter( ) );
+			LogLineBlockToLogStreamListener entry = this.logLineBlockToLSDLMap.get( filter );
 			if ( entry == null )
 			{
-				entry = new LogLineBlockToLogStreamListener( new ArrayList<ILogLine>( ), new HashSet<ILogStreamDataListener>( ) );
+				entry = new LogLineBlockToLogStreamListener( filter, new ArrayList<ILogLine>( ), new HashSet<ILogStreamDataListener>( ) );
 
-				this.logLineBlockToLSDLMap.put( l.getLineFilter( ), entry );
+				this.logLineBlockToLSDLMap.put( filter, entry );
+				this.dispatchMatcher = null;
 			}// if ( entry == null ) .
 			entry.value.add( l );
+
+			// each listener gets its own queue
+			if ( !this.deliveryQueues.containsKey( l ) )
+			{
+				this.deliveryQueues.put( l, new ListenerDeliveryQueue( l, this.getDeliveryExecutor( ), this.deliveryQueueCapacity, this.deliveryOverflowPolicy, this.deliverySampleRate ) );
+			}// if ( !this.deliveryQueues.containsKey( l ) ) .
 		}// synchronized ( this.logLineBlockToLSDLMap ) .
 	}
 
+	/**
+	 * Returns the executor delivering the blocks to the listeners, has to be called holding the lock of
+	 * {@link LogStream#logLineBlockToLSDLMap}.
+	 * @return
+	 */
+	private ExecutorService getDeliveryExecutor( )
+	{
+		if ( this.deliveryExecutor == null )
+		{
+			this.deliveryExecutor = Executors.newFixedThreadPool( this.deliveryThreads, new ThreadFactory( )
+			{
+				private final AtomicInteger	threadCount	= new AtomicInteger( 0 );
+
+				@Override
+				public Thread newThread( Runnable r )
+				{
+					Thread thread = new Thread( r, NAME + ".Delivery-" + this.threadCount.getAndIncrement( ) );
+					thread.setDaemon( true );
+					return thread;
+				}
+			} );
+		}// if ( this.deliveryExecutor == null ) .
+		return this.deliveryExecutor;
+	}
+
 	/**
 	 * Remove a {@link ILogStreamDataListener}.
 	 * @param l
 	 */
 	public void removeLogStreamDataListener( ILogStreamDataListener l )
 	{
+		Pattern filter = null;
 		synchronized ( this.logStreamDataListeners )
 		{
-			Set<ILogStreamDataListener> listeners = this.logStreamDataListeners.get( l.getLineFilter( ) );
-			if ( listeners != null )
+			filter = this.patternRegistry.lookup( l.getLineFilter( ) );
+			Set<ILogStreamDataListener> listeners = this.logStreamDataListeners.get( filter );
+			if ( listeners != null && listeners.remove( l ) )
 			{
-				listeners.remove( l );
-			}
+				if ( listeners.isEmpty( ) )
+					this.logStreamDataListeners.remove( filter );
+				this.patternRegistry.release( filter );
+			}// if ( listeners != null && listeners.remove( l ) ) .
 		}
 
 		// remove the entry to the mapping LogLine<->LogStreamStateListener too
 		synchronized ( this.logLineBlockToLSDLMap )
 		{
-			LogLineBlockToLogStreamListener entry = this.logLineBlockToLSDLMap.get( l.getLineFilter( ) );
+			LogLineBlockToLogStreamListener entry = this.logLineBlockToLSDLMap.get( filter );
 			if ( entry != null )
 			{
 				// remove the listener
@@ -287,8 +434,18 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 
 				// remove the complete entry if no more listeners are attached
 				if ( entry.getValue( ).isEmpty( ) )
-					this.logLineBlockToLSDLMap.remove( l.getLineFilter( ) );
+				{
+					this.logLineBlockToLSDLMap.remove( filter );
+					this.dispatchMatcher = null;
+				}// if ( entry.getValue( ).isEmpty( ) ) .
 			}// if ( entry != null ) .
+
+			// blocks not delivered yet are discarded
+			ListenerDeliveryQueue queue = this.deliveryQueues.remove( l );
+			if ( queue != null )
+			{
+				queue.close( );
+			}// if ( queue != null ) .
 		}// synchronized ( this.logLineBlockToLSDLMap ) .
 	}
 
@@ -339,12 +496,6 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 		}
 	}
 
-	private LogLine buildLogLine( String newLine )
-	{
-		LogLine logLine = ( LogLine ) this.logLineFactory.buildLogLine( newLine );
-		return logLine;
-	}
-
 	@Override
 	public void onEOFReached( )
 	{
@@ -426,47 +577,53 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 	@Override
 	public void onNewBlock( List<String> newBlock )
 	{
-		long elapsed = System.currentTimeMillis( );
-
-		List<ILogLine> newBlockForBuffer = new ArrayList<>( );
-		// for each line of the block
-		for ( String newLine : newBlock )
+		// 1. find the lines matching at least one filter
+		List<String> matchingLines = new ArrayList<>( );
+		List<List<LogLineBlockToLogStreamListener>> matchingEntriesPerLine = new ArrayList<>( );
+		synchronized ( this.logLineBlockToLSDLMap )
 		{
-			LogLine logLine = null;
-			synchronized ( this.logLineBlockToLSDLMap )
+			if ( this.dispatchMatcher == null )
 			{
-				for ( Entry<Pattern, LogLineBlockToLogStreamListener> entry : this.logLineBlockToLSDLMap.entrySet( ) )
-				{
-					Pattern linePattern = entry.getKey( );
-					if ( linePattern == null )
-					{
-						linePattern = ALL_PATTERN;
-					}
+				// the filters have changed
+				this.dispatchMatcher = new MultiPatternMatcher<>( this.logLineBlockToLSDLMap, this.dispatchPrefilterStats );
+			}// if ( this.dispatchMatcher == null ) .
 
-					try
-					{
-						// look if the filter matches the line
-						if ( newLine != null && PatternMatch.matches( linePattern, newLine ) )
-						{
-							// only build the line if at least one filter matches
-							if ( logLine == null )
-							{
-								logLine = this.buildLogLine( newLine );
-								newBlockForBuffer.add( logLine );
-							}// if ( line == null ).
+			// for each line of the block
+			for ( String newLine : newBlock )
+			{
+				if ( newLine == null )
+					continue;
 
-							// add the logline
-							entry.getValue( ).key.add( logLine );
-						}// if ( newLine != null && newLine.matches( lineFilter ) ).
+				// all filters matching the line (one pass for all literal filters)
+				List<LogLineBlockToLogStreamListener> matchingEntries = this.dispatchMatcher.match( newLine );
 
-					}// try
-					catch ( PatternSyntaxException e )
-					{
-						LOG( ).warning( "Unable to process line '" + newLine + "' using line-filter '" + linePattern.pattern( ) + "': " + e.getLocalizedMessage( ) );
-					}// catch ( PatternSyntaxException e ).
-				}// for ( Entry<String, LogLineBlockToLogStreamListener> entry : logLineBlockToLSDLMap.entrySet( ) ) .
-			}// synchronized ( this.logLineBlockToLSDLMap ) .
-		}// for ( String newLine : newBlock ) .
+				// only build the line if at least one filter matches
+				if ( matchingEntries != null )
+				{
+					matchingLines.add( newLine );
+					matchingEntriesPerLine.add( matchingEntries );
+				}// if ( matchingEntries != null ) .
+			}// for ( String newLine : newBlock ) .
+		}// synchronized ( this.logLineBlockToLSDLMap ) .
+
+		// 2. build the loglines (in parallel for big blocks, the ids are ascending in the order of the block)
+		LogLineBlock newBlockForBuffer = this.logLineFactory.buildLogLines( matchingLines );
+
+		// 3. assign the loglines to the blocks of the matching filters, the filters may have been removed/ re-added while the lines where
+		// built: the current entry of the filter is taken, lines of removed filters are skipped
+		synchronized ( this.logLineBlockToLSDLMap )
+		{
+			for ( int i = 0; i < newBlockForBuffer.size( ); ++i )
+			{
+				ILogLine logLine = newBlockForBuffer.get( i );
+				for ( LogLineBlockToLogStreamListener matchedEntry : matchingEntriesPerLine.get( i ) )
+				{
+					LogLineBlockToLogStreamListener entry = this.logLineBlockToLSDLMap.get( matchedEntry.getFilter( ) );
+					if ( entry != null )
+						entry.getKey( ).add( logLine );
+				}// for ( LogLineBlockToLogStreamListener matchedEntry : matchingEntriesPerLine.get( i ) ) .
+			}// for ( int i = 0; i < newBlockForBuffer.size( ); ++i ) .
+		}// synchronized ( this.logLineBlockToLSDLMap ) .
 
 		// add the lines to the buffer
 		try
@@ -478,7 +635,9 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 			LOG( ).severe( "Error adding block of LogLines to LogStream.buffer: " + e.getLocalizedMessage( ) );
 		}
 
-		// now fire the blocks to the listeners
+		// now hand over the blocks to the delivery-queues of the listeners
+		List<ListenerDeliveryQueue> queues = new ArrayList<>( );
+		List<LogLineBlock> blocksForQueues = new ArrayList<>( );
 		synchronized ( this.logLineBlockToLSDLMap )
 		{
 			for ( Entry<Pattern, LogLineBlockToLogStreamListener> entry : this.logLineBlockToLSDLMap.entrySet( ) )
@@ -486,18 +645,91 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 				List<ILogLine> logLines = entry.getValue( ).getKey( );
 				Set<ILogStreamDataListener> listeners = entry.getValue( ).getValue( );
 
-				for ( ILogStreamDataListener listener : listeners )
+				if ( !logLines.isEmpty( ) )
 				{
-					listener.onNewBlockOfLines( logLines );
-				}// for(LogStreamDataListener listener : listeners).
+					// one immutable block shared by all listeners having the same filter, if the filter matched all lines the block built
+					// by the factory is passed on without copying
+					LogLineBlock block = ( logLines.size( ) == newBlockForBuffer.size( ) ) ? newBlockForBuffer : LogLineBlock.copyOf( logLines );
+					for ( ILogStreamDataListener listener : listeners )
+					{
+						ListenerDeliveryQueue queue = this.deliveryQueues.get( listener );
+						if ( queue != null )
+						{
+							queues.add( queue );
+							blocksForQueues.add( block );
+						}// if ( queue != null ) .
+					}// for(LogStreamDataListener listener : listeners).
+				}// if ( !logLines.isEmpty( ) ) .
 
 				// clear the block of loglines
 				entry.getValue( ).getKey( ).clear( );
 			}// for ( Entry<String, LogLineBlockToLogStreamListener> entry : this.logLineBlockToLSDLMap.entrySet( ) ).
 		}// synchronized ( this.logLineBlockToLSDLMap   ).
 
-		elapsed = System.currentTimeMillis( ) - elapsed;
-//		System.out.println( "Elapsed Time in LogStream.onNewBlock(" + elapsed / 1000f + "s)" );
+		// outside the lock, a full queue (OverflowPolicy.BLOCK) must not block adding/ removing listeners. First serve all queues that
+		// have room, then wait for the full ones (together at most MAX_DELIVERY_WAIT ms, afterwards their oldest blocks are dropped).
+		try
+		{
+			List<Integer> fullQueues = new ArrayList<>( );
+			for ( int i = 0; i < queues.size( ); ++i )
+			{
+				if ( !queues.get( i ).tryOffer( blocksForQueues.get( i ) ) )
+					fullQueues.add( i );
+			}// for ( int i = 0; i < queues.size( ); ++i ) .
+
+			final long deadline = System.currentTimeMillis( ) + MAX_DELIVERY_WAIT;
+			for ( int i : fullQueues )
+			{
+				queues.get( i ).offer( blocksForQueues.get( i ), Math.max( 0, deadline - System.currentTimeMillis( ) ) );
+			}// for ( int i : fullQueues ) .
+		}
+		catch ( InterruptedException e )
+		{
+			LOG( ).warning( "Interrupted while handing over a block of lines to the listeners." );
+			Thread.currentThread( ).interrupt( );
+		}
+	}
+
+	/**
+	 * Settings for the buffer retaining the lines for requests ({@link LogStream#requestLogLines(long, long, ILogStreamRequester)}).
+	 * @param mode - how the lines are stored, applied to lines added from now on
+	 * @param maxCapacity - max number of lines
+	 */
+	public void setLogLineBufferSettings( LogLineBufferMode mode, int maxCapacity )
+	{
+		this.logLineBuffer.setMode( mode );
+		this.logLineBuffer.setMaxCapacity( maxCapacity );
+	}
+
+	/**
+	 * Settings for writing the lines dropped from the buffer to disk, requests for these lines are answered from disk.
+	 * @param enabled
+	 * @param maxSizeMB - max size of the lines on disk (in MB), the oldest ones are deleted if it is exceeded
+	 */
+	public void setSpillSettings( boolean enabled, int maxSizeMB )
+	{
+		this.logLineBuffer.setSpillSettings( enabled, maxSizeMB * 1024L * 1024L );
+	}
+
+	/**
+	 * Enables/ disables storing the lines as template plus parameters, the templates are available via
+	 * {@link ILogLineFactoryAccess#getTemplateMiner()} and the lines implement {@link ITemplatedLogLine}.
+	 * @param enabled
+	 */
+	public void setTemplateMiningEnabled( boolean enabled )
+	{
+		this.logLineFactory.setTemplateMiningEnabled( enabled );
+	}
+
+	/**
+	 * Sets the format of the time-stamps of the lines.
+	 * @param pattern - a fixed pattern (e.g. "HH:mm:ss.SSS"), null or empty to detect the format on the first lines of the stream
+	 * @param numDetectionLines - number of lines the format is detected on
+	 * @throws IllegalArgumentException - if the pattern is not supported
+	 */
+	public void setTimeStampFormat( String pattern, int numDetectionLines )
+	{
+		this.logLineFactory.setTimeStampFormat( pattern, numDetectionLines );
 	}
 
 	/**
@@ -511,6 +743,95 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 		return this.logStreamReader.getLinesPerSecond( );
 	}
 
+	/**
+	 * Returns the average time (in ms) a block of lines waits in the reader ({@link ExternalLogStreamReader}) until it is published.
+	 * @return
+	 */
+	public double getLogStreamReaderAvgHandOverLatency( )
+	{
+		if ( this.logStreamReader == null )
+			return 0;
+		return this.logStreamReader.getAvgHandOverLatency( );
+	}
+
+	/**
+	 * Returns the max time (in ms) a block of lines waited in the reader ({@link ExternalLogStreamReader}) until it was published.
+	 * @return
+	 */
+	public double getLogStreamReaderMaxHandOverLatency( )
+	{
+		if ( this.logStreamReader == null )
+			return 0;
+		return this.logStreamReader.getMaxHandOverLatency( );
+	}
+
+	/**
+	 * Returns the fill-level [0..1] of the line-buffer of the reader ({@link ExternalLogStreamReader}).
+	 * @return
+	 */
+	public double getLogStreamReaderFillLevel( )
+	{
+		if ( this.logStreamReader == null )
+			return 0;
+		return this.logStreamReader.getLineBufferFillLevel( );
+	}
+
+	/**
+	 * Returns the number of lines the reader ({@link ExternalLogStreamReader}) dropped since its line-buffer was full.
+	 * @return
+	 */
+	public long getLogStreamReaderDroppedLines( )
+	{
+		if ( this.logStreamReader == null )
+			return 0;
+		return this.logStreamReader.getNumDroppedLines( );
+	}
+
+	/**
+	 * Returns the delivery-statistics (lag, queued and dropped blocks) of all registered {@link ILogStreamDataListener}s.
+	 * @return
+	 */
+	public List<ListenerDeliveryStats> getListenerDeliveryStats( )
+	{
+		List<ListenerDeliveryQueue> queues = null;
+		synchronized ( this.logLineBlockToLSDLMap )
+		{
+			queues = new ArrayList<>( this.deliveryQueues.values( ) );
+		}
+
+		List<ListenerDeliveryStats> stats = new ArrayList<>( );
+		for ( ListenerDeliveryQueue queue : queues )
+			stats.add( queue.getStats( ) );
+		return stats;
+	}
+
+	/**
+	 * Returns the registry of the line-filters of the {@link ILogStreamDataListener}s (number of distinct filters and subscribers).
+	 * @return
+	 */
+	public PatternRegistry getPatternRegistry( )
+	{
+		return patternRegistry;
+	}
+
+	/**
+	 * Returns the statistics of the literal-prefilter used for dispatching new lines to the {@link ILogStreamDataListener}s.
+	 * @return
+	 */
+	public PrefilterStats getDispatchPrefilterStats( )
+	{
+		return dispatchPrefilterStats;
+	}
+
+	/**
+	 * Returns the statistics of the literal-prefilter used for filtering the lines of requests.
+	 * @return
+	 */
+	public PrefilterStats getRequestPrefilterStats( )
+	{
+		return requestPrefilterStats;
+	}
+
 	public ILogLineFactoryAccess getLogLineFactory( )
 	{
 		return this.logLineFactory;
@@ -523,15 +844,26 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 
 	final class LogLineBlockToLogStreamListener implements Map.Entry<List<ILogLine>, Set<ILogStreamDataListener>>
 	{
+		private final Pattern				filter;
 		private final List<ILogLine>		key;
 		private Set<ILogStreamDataListener>	value;
 
-		public LogLineBlockToLogStreamListener( List<ILogLine> key, Set<ILogStreamDataListener> value )
+		public LogLineBlockToLogStreamListener( Pattern filter, List<ILogLine> key, Set<ILogStreamDataListener> value )
 		{
+			this.filter = filter;
 			this.key = key;
 			this.value = value;
 		}
 
+		/**
+		 * Returns the filter this entry is registered for in {@link LogStream#logLineBlockToLSDLMap}.
+		 * @return
+		 */
+		public Pattern getFilter( )
+		{
+			return filter;
+		}
+
 		@Override
 		public List<ILogLine> getKey( )
 		{
@@ -566,6 +898,33 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 		this.logLineBuffer.freeMemory( );
 	}
 
+	/**
+	 * Frees the cache of the {@link LogLineFactory} (rebuilt cheaply) first, then the oldest lines of the {@link LogLineBuffer}.
+	 */
+	@Override
+	public long freeMemory( long bytes )
+	{
+		long freed = this.logLineFactory.freeCacheMemory( bytes );
+		if ( freed < bytes )
+			freed += this.logLineBuffer.freeMemory( bytes - freed );
+		return freed;
+	}
+
+	@Override
+	public long getReclaimableMemory( )
+	{
+		return this.logLineFactory.getCacheMemory( ) + this.logLineBuffer.getReclaimableMemory( );
+	}
+
+	/**
+	 * The priority of the coldest part (the cache if it is not empty).
+	 */
+	@Override
+	public int getEvictionPriority( )
+	{
+		return ( this.logLineFactory.getCacheMemory( ) > 0 ) ? PRIORITY_CACHE : this.logLineBuffer.getEvictionPriority( );
+	}
+
 	@Override
 	public String getNameOfMemoryWatchable( )
 	{
@@ -579,6 +938,29 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 
 	@Override
 	public int requestLogLines( long start, long end, ILogStreamRequester requester, Pattern filter )
+	{
+		return this.addRequest( start, end, false, requester, filter );
+	}
+
+	@Override
+	public int requestLogLines( long start, long end, ILogStreamRequester requester )
+	{
+		return requestLogLines( start, end, requester, null );
+	}
+
+	@Override
+	public int requestLogLinesByTime( long startTime, long endTime, ILogStreamRequester requester, Pattern filter )
+	{
+		return this.addRequest( startTime, endTime, true, requester, filter );
+	}
+
+	@Override
+	public int requestLogLinesByTime( long startTime, long endTime, ILogStreamRequester requester )
+	{
+		return requestLogLinesByTime( startTime, endTime, requester, null );
+	}
+
+	private int addRequest( long start, long end, boolean byTime, ILogStreamRequester requester, Pattern filter )
 	{
 		int newId = -1;
 
@@ -590,7 +972,7 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 				this.nextRequestId++;
 
 				// build and put the new request to the queue
-				this.requestQueue.push( new Request( newId, start, end, requester, filter ) );
+				this.requestQueue.push( new Request( newId, start, end, byTime, requester, filter ) );
 			}// synchronized ( this.requestQueue )
 
 			this.eventSemaphore.release( );
@@ -599,25 +981,25 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 		return newId;
 	}
 
-	@Override
-	public int requestLogLines( long start, long end, ILogStreamRequester requester )
-	{
-		return requestLogLines( start, end, requester, null );
-	}
-
 	private class Request
 	{
 		private int					id;
 		private long				start;
 		private long				end;
+
+		/**
+		 * If true start and end are time-stamps, otherwise ids.
+		 */
+		private boolean				byTime;
 		private ILogStreamRequester	requester;
 		private Pattern				filter;
 
-		public Request( int id, long start, long end, ILogStreamRequester requester, Pattern filter )
+		public Request( int id, long start, long end, boolean byTime, ILogStreamRequester requester, Pattern filter )
 		{
 			this.id = id;
 			this.start = start;
 			this.end = end;
+			this.byTime = byTime;
 			this.requester = requester;
 			this.filter = filter;
 		}
@@ -647,10 +1029,15 @@ public class LogStream extends Thread implements IInternalLogStreamReaderListene
 			return filter;
 		}
 
+		public boolean isByTime( )
+		{
+			return byTime;
+		}
+
 		@Override
 		public String toString( )
 		{
-			return "[" + this.id + "] filter=" + ( ( this.filter != null ) ? this.filter.toString( ) : "n/a" ) + ", range=(" + this.start + "," + this.end + "), req=" + this.requester.getLSRequesterName( );
+			return "[" + this.id + "] filter=" + ( ( this.filter != null ) ? this.filter.toString( ) : "n/a" ) + ", " + ( this.byTime ? "timeRange=(" : "range=(" ) + this.start + "," + this.end + "), req=" + this.requester.getLSRequesterName( );
 		}
 
 	}
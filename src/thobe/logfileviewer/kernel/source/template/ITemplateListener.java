@@ -0,0 +1,27 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.template;
+
+/**
+ * Listener for new templates found by the {@link TemplateMiner}.
+ * @author Thomas Obenaus
+ * @source ITemplateListener.java
+ * @date Oct 17, 2026
+ */
+public interface ITemplateListener
+{
+	/**
+	 * Called for a new group of lines or a new (more general) version of the template of a group. Called by the thread mining the lines
+	 * (the reading thread), so keep it short.
+	 * @param template
+	 */
+	public void onNewTemplate( LogTemplate template );
+}
@@ -0,0 +1,25 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.template;
+
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * {@link ILogLine} stored as {@link LogTemplate} plus parameters (if template-mining is enabled). Lines can be grouped by
+ * {@link LogTemplate#getGroupId()} instead of matching their data.
+ * @author Thomas Obenaus
+ * @source ITemplatedLogLine.java
+ * @date Oct 17, 2026
+ */
+public interface ITemplatedLogLine extends ILogLine
+{
+	public LogTemplate getTemplate( );
+}
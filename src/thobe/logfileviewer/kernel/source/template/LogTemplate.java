@@ -0,0 +1,197 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.template;
+
+import java.util.Arrays;
+
+/**
+ * Immutable template of a group of log-lines, e.g. "value=<*> addr=<*> received". A template is a sequence of tokens (the line split at
+ * single spaces), each token is either constant or a parameter that may have a constant prefix (e.g. "value=" in "value=<*>"). A line is
+ * reconstructed exactly from the template and its parameters ({@link #format(String)}), since tokens never contain a space the parameters
+ * of a line are kept in one String separated by spaces (one object per line instead of one per parameter).
+ * Templates of a group are generalized over time (constant tokens become parameters), each generalization is a new instance with the same
+ * {@link #getGroupId()}, so lines stored with an older version still reconstruct correctly. The group-id is the key for grouping lines.
+ * @author Thomas Obenaus
+ * @source LogTemplate.java
+ * @date Oct 17, 2026
+ */
+public final class LogTemplate
+{
+	/**
+	 * How a parameter is shown in {@link #toString()}.
+	 */
+	public static final String	WILDCARD	= "<*>";
+
+	private final int			groupId;
+	private final int			version;
+
+	/**
+	 * The constant token or the constant prefix of the parameter.
+	 */
+	private final String[]		tokens;
+	private final boolean[]		parameter;
+	private final int			numParameters;
+
+	LogTemplate( int groupId, int version, String[] tokens, boolean[] parameter )
+	{
+		this.groupId = groupId;
+		this.version = version;
+		this.tokens = tokens;
+		this.parameter = parameter;
+		int numParameters = 0;
+		for ( boolean isParameter : parameter )
+			numParameters += isParameter ? 1 : 0;
+		this.numParameters = numParameters;
+	}
+
+	/**
+	 * Returns the id of the group of lines, stable over all versions of the template.
+	 * @return
+	 */
+	public int getGroupId( )
+	{
+		return groupId;
+	}
+
+	/**
+	 * Returns the version of the template (0 for the first one, incremented on each generalization).
+	 * @return
+	 */
+	public int getVersion( )
+	{
+		return version;
+	}
+
+	public int getNumTokens( )
+	{
+		return this.tokens.length;
+	}
+
+	public int getNumParameters( )
+	{
+		return numParameters;
+	}
+
+	/**
+	 * Returns true if the token at the given index is a parameter.
+	 * @param index
+	 * @return
+	 */
+	public boolean isParameter( int index )
+	{
+		return this.parameter[index];
+	}
+
+	/**
+	 * Returns the constant token or the constant prefix of the parameter at the given index.
+	 * @param index
+	 * @return
+	 */
+	public String getToken( int index )
+	{
+		return this.tokens[index];
+	}
+
+	/**
+	 * Returns true if the given token fits the token at the given index (equals the constant or starts with the prefix of the parameter).
+	 * @param index
+	 * @param token
+	 * @return
+	 */
+	boolean fits( int index, String token )
+	{
+		return this.parameter[index] ? token.startsWith( this.tokens[index] ) : token.equals( this.tokens[index] );
+	}
+
+	/**
+	 * Returns the parameters of the given tokens (has to fit this template) separated by spaces, the prefixes are not included. Null if the
+	 * template has no parameters.
+	 * @param tokens
+	 * @return
+	 */
+	String extractParameters( String[] tokens )
+	{
+		if ( this.numParameters == 0 )
+			return null;
+
+		StringBuilder parameters = new StringBuilder( );
+		boolean first = true;
+		for ( int i = 0; i < this.tokens.length; ++i )
+		{
+			if ( this.parameter[i] )
+			{
+				if ( !first )
+					parameters.append( ' ' );
+				parameters.append( tokens[i], this.tokens[i].length( ), tokens[i].length( ) );
+				first = false;
+			}// if ( this.parameter[i] ) .
+		}// for ( int i = 0; i < this.tokens.length; ++i ) .
+		return parameters.toString( );
+	}
+
+	/**
+	 * Reconstructs the line from the given parameters (as extracted for this version of the template).
+	 * @param parameters - separated by spaces (null if the template has no parameters)
+	 * @return
+	 */
+	public String format( String parameters )
+	{
+		StringBuilder builder = new StringBuilder( );
+		int start = 0;
+		for ( int i = 0; i < this.tokens.length; ++i )
+		{
+			if ( i > 0 )
+				builder.append( ' ' );
+			builder.append( this.tokens[i] );
+			if ( this.parameter[i] )
+			{
+				int end = parameters.indexOf( ' ', start );
+				if ( end < 0 )
+					end = parameters.length( );
+				builder.append( parameters, start, end );
+				start = end + 1;
+			}// if ( this.parameter[i] ) .
+		}// for ( int i = 0; i < this.tokens.length; ++i ) .
+		return builder.toString( );
+	}
+
+	@Override
+	public String toString( )
+	{
+		StringBuilder builder = new StringBuilder( );
+		for ( int i = 0; i < this.tokens.length; ++i )
+		{
+			if ( i > 0 )
+				builder.append( ' ' );
+			builder.append( this.tokens[i] );
+			if ( this.parameter[i] )
+				builder.append( WILDCARD );
+		}// for ( int i = 0; i < this.tokens.length; ++i ) .
+		return builder.toString( );
+	}
+
+	@Override
+	public int hashCode( )
+	{
+		return 31 * ( 31 * this.groupId + this.version ) + Arrays.hashCode( this.tokens );
+	}
+
+	@Override
+	public boolean equals( Object obj )
+	{
+		if ( this == obj )
+			return true;
+		if ( obj == null || getClass( ) != obj.getClass( ) )
+			return false;
+		LogTemplate other = ( LogTemplate ) obj;
+		return this.groupId == other.groupId && this.version == other.version && Arrays.equals( this.tokens, other.tokens ) && Arrays.equals( this.parameter, other.parameter );
+	}
+}
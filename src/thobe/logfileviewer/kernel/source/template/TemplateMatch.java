@@ -0,0 +1,44 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.template;
+
+/**
+ * Result of mining one line: its {@link LogTemplate} and its parameters.
+ * @author Thomas Obenaus
+ * @source TemplateMatch.java
+ * @date Oct 17, 2026
+ */
+public final class TemplateMatch
+{
+	private final LogTemplate	template;
+	private final String		parameters;
+
+	TemplateMatch( LogTemplate template, String parameters )
+	{
+		this.template = template;
+		this.parameters = parameters;
+	}
+
+	public LogTemplate getTemplate( )
+	{
+		return template;
+	}
+
+	/**
+	 * Returns the parameters of the line (without their prefixes) separated by spaces, null if the template has none.
+	 * {@link LogTemplate#format(String)} reconstructs the line.
+	 * @return
+	 */
+	public String getParameters( )
+	{
+		return parameters;
+	}
+}
@@ -0,0 +1,342 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.template;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Online template-miner (similar to Drain): splits each line into a {@link LogTemplate} and its parameters while the lines are read. The
+ * line is split at single spaces, tokens containing digits are treated as parameters from the start (keeping a "key=" or "key:" prefix as
+ * constant). The group of a line is searched in a tree of fixed depth: first by the number of tokens, then by the first tokens (tokens
+ * containing digits are routed as parameter, a node has at most {@link #DEF_MAX_CHILDREN} children, further tokens share one child). In the
+ * leaf the group with the most similar template is taken (share of tokens fitting the template), if the similarity is below the threshold
+ * a new group is created. If the line does not fit the template of its group completely the template is generalized (a new version with
+ * more parameters). Thread-safe, lines are mined one after the other.
+ * @author Thomas Obenaus
+ * @source TemplateMiner.java
+ * @date Oct 17, 2026
+ */
+public class TemplateMiner
+{
+	public static final float				DEF_SIMILARITY_THRESHOLD	= 0.5f;
+
+	/**
+	 * Number of tokens used for the tree-search.
+	 */
+	public static final int					DEF_DEPTH					= 2;
+
+	public static final int					DEF_MAX_CHILDREN			= 100;
+
+	/**
+	 * If this number of groups is reached, lines not fitting an existing group are not mined any more.
+	 */
+	public static final int					DEF_MAX_GROUPS				= 10000;
+
+	private static final String				ROUTING_WILDCARD			= LogTemplate.WILDCARD;
+
+	private final float						similarityThreshold;
+	private final int						depth;
+	private final int						maxChildren;
+	private final int						maxGroups;
+
+	/**
+	 * Tree for the search of the group, the first level is the number of tokens.
+	 */
+	private final Map<Integer, TreeNode>	root;
+
+	/**
+	 * Current template of each group (index = group-id).
+	 */
+	private final List<LogTemplate>			templates;
+
+	private final List<ITemplateListener>	listeners;
+
+	private long							numLines;
+	private long							numNotMined;
+
+	public TemplateMiner( )
+	{
+		this( DEF_SIMILARITY_THRESHOLD, DEF_DEPTH, DEF_MAX_CHILDREN, DEF_MAX_GROUPS );
+	}
+
+	/**
+	 * Ctor
+	 * @param similarityThreshold - min share of tokens of a line fitting the template of a group to join the group
+	 * @param depth - number of tokens used for the tree-search
+	 * @param maxChildren - max number of children of a node of the search-tree
+	 * @param maxGroups - max number of groups
+	 */
+	public TemplateMiner( float similarityThreshold, int depth, int maxChildren, int maxGroups )
+	{
+		this.similarityThreshold = similarityThreshold;
+		this.depth = Math.max( 0, depth );
+		this.maxChildren = Math.max( 1, maxChildren );
+		this.maxGroups = Math.max( 1, maxGroups );
+		this.root = new HashMap<>( );
+		this.templates = new ArrayList<>( );
+		this.listeners = new CopyOnWriteArrayList<>( );
+		this.numLines = 0;
+		this.numNotMined = 0;
+	}
+
+	/**
+	 * Returns the template and the parameters of the given line, null if the line could not be mined (max number of groups reached).
+	 * @param line
+	 * @return
+	 */
+	public synchronized TemplateMatch mine( String line )
+	{
+		if ( line == null )
+			return null;
+		this.numLines++;
+
+		final String[] tokens = line.split( " ", -1 );
+		final List<Group> leaf = this.findLeaf( tokens );
+
+		// the most similar group (if equal the more general one)
+		Group bestGroup = null;
+		int bestFits = -1;
+		for ( Group group : leaf )
+		{
+			int fits = this.countFits( group.template, tokens );
+			if ( fits > bestFits || ( fits == bestFits && group.template.getNumParameters( ) > bestGroup.template.getNumParameters( ) ) )
+			{
+				bestGroup = group;
+				bestFits = fits;
+			}
+		}// for ( Group group : leaf ) .
+
+		if ( bestGroup != null && bestFits >= this.similarityThreshold * tokens.length )
+		{
+			if ( bestFits < tokens.length )
+			{
+				bestGroup.template = this.generalize( bestGroup.template, tokens );
+				this.templates.set( bestGroup.template.getGroupId( ), bestGroup.template );
+				this.fireNewTemplate( bestGroup.template );
+			}// if ( bestFits < tokens.length ) .
+			return new TemplateMatch( bestGroup.template, bestGroup.template.extractParameters( tokens ) );
+		}// if ( bestGroup != null && bestFits >= this.similarityThreshold * tokens.length ) .
+
+		if ( this.templates.size( ) >= this.maxGroups )
+		{
+			this.numNotMined++;
+			return null;
+		}// if ( this.templates.size( ) >= this.maxGroups ) .
+
+		// new group
+		Group group = new Group( this.createTemplate( this.templates.size( ), tokens ) );
+		leaf.add( group );
+		this.templates.add( group.template );
+		this.fireNewTemplate( group.template );
+		return new TemplateMatch( group.template, group.template.extractParameters( tokens ) );
+	}
+
+	/**
+	 * Returns the current template of each group (index = group-id).
+	 * @return
+	 */
+	public synchronized List<LogTemplate> getTemplates( )
+	{
+		return new ArrayList<>( this.templates );
+	}
+
+	/**
+	 * Returns the current template of the given group, null if there is no such group.
+	 * @param groupId
+	 * @return
+	 */
+	public synchronized LogTemplate getTemplate( int groupId )
+	{
+		return ( groupId >= 0 && groupId < this.templates.size( ) ) ? this.templates.get( groupId ) : null;
+	}
+
+	public synchronized int getNumGroups( )
+	{
+		return this.templates.size( );
+	}
+
+	public synchronized long getNumLines( )
+	{
+		return numLines;
+	}
+
+	/**
+	 * Returns the number of lines that could not be mined since the max number of groups was reached.
+	 * @return
+	 */
+	public synchronized long getNumNotMined( )
+	{
+		return numNotMined;
+	}
+
+	public void addTemplateListener( ITemplateListener l )
+	{
+		this.listeners.add( l );
+	}
+
+	public void removeTemplateListener( ITemplateListener l )
+	{
+		this.listeners.remove( l );
+	}
+
+	private void fireNewTemplate( LogTemplate template )
+	{
+		for ( ITemplateListener l : this.listeners )
+			l.onNewTemplate( template );
+	}
+
+	/**
+	 * Returns the leaf (list of groups) for the given tokens, missing nodes are created.
+	 * @param tokens
+	 * @return
+	 */
+	private List<Group> findLeaf( String[] tokens )
+	{
+		TreeNode node = this.root.get( tokens.length );
+		if ( node == null )
+		{
+			node = new TreeNode( );
+			this.root.put( tokens.length, node );
+		}// if ( node == null ) .
+
+		final int levels = Math.min( this.depth, tokens.length );
+		for ( int level = 0; level < levels; ++level )
+		{
+			String key = routingKey( tokens[level] );
+			TreeNode child = node.children.get( key );
+			if ( child == null )
+			{
+				// too many children, the rest shares one
+				if ( node.children.size( ) >= this.maxChildren )
+					key = ROUTING_WILDCARD;
+				child = node.children.get( key );
+				if ( child == null )
+				{
+					child = new TreeNode( );
+					node.children.put( key, child );
+				}// if ( child == null ) .
+			}// if ( child == null ) .
+			node = child;
+		}// for ( int level = 0; level < levels; ++level ) .
+		return node.groups;
+	}
+
+	private int countFits( LogTemplate template, String[] tokens )
+	{
+		int fits = 0;
+		for ( int i = 0; i < tokens.length; ++i )
+		{
+			if ( template.fits( i, tokens[i] ) )
+				fits++;
+		}
+		return fits;
+	}
+
+	/**
+	 * Creates the template of a new group, tokens containing digits are parameters.
+	 */
+	private LogTemplate createTemplate( int groupId, String[] tokens )
+	{
+		String[] templateTokens = new String[tokens.length];
+		boolean[] parameter = new boolean[tokens.length];
+		for ( int i = 0; i < tokens.length; ++i )
+		{
+			int firstDigit = indexOfDigit( tokens[i] );
+			parameter[i] = firstDigit >= 0;
+			templateTokens[i] = parameter[i] ? tokens[i].substring( 0, keyLength( tokens[i], firstDigit ) ) : tokens[i];
+		}// for ( int i = 0; i < tokens.length; ++i ) .
+		return new LogTemplate( groupId, 0, templateTokens, parameter );
+	}
+
+	/**
+	 * Returns the next version of the template, all tokens not fitting the given ones become parameters (keeping a common "key=" prefix).
+	 */
+	private LogTemplate generalize( LogTemplate template, String[] tokens )
+	{
+		String[] templateTokens = new String[tokens.length];
+		boolean[] parameter = new boolean[tokens.length];
+		for ( int i = 0; i < tokens.length; ++i )
+		{
+			templateTokens[i] = template.getToken( i );
+			parameter[i] = template.isParameter( i );
+			if ( template.fits( i, tokens[i] ) )
+				continue;
+
+			// the "key=" prefix of a constant is kept if the token has the same key
+			String prefix = "";
+			if ( !parameter[i] )
+			{
+				int keyLength = keyLength( templateTokens[i], templateTokens[i].length( ) );
+				if ( keyLength > 0 && tokens[i].startsWith( templateTokens[i].substring( 0, keyLength ) ) )
+					prefix = templateTokens[i].substring( 0, keyLength );
+			}// if ( !parameter[i] ) .
+			templateTokens[i] = prefix;
+			parameter[i] = true;
+		}// for ( int i = 0; i < tokens.length; ++i ) .
+		return new LogTemplate( template.getGroupId( ), template.getVersion( ) + 1, templateTokens, parameter );
+	}
+
+	/**
+	 * Key for the search-tree, tokens containing digits are routed as parameter (with their key-prefix).
+	 */
+	private static String routingKey( String token )
+	{
+		int firstDigit = indexOfDigit( token );
+		if ( firstDigit < 0 )
+			return token;
+		return token.substring( 0, keyLength( token, firstDigit ) ) + ROUTING_WILDCARD;
+	}
+
+	private static int indexOfDigit( String token )
+	{
+		for ( int i = 0; i < token.length( ); ++i )
+		{
+			char c = token.charAt( i );
+			if ( c >= '0' && c <= '9' )
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the length of the "key=" or "key:" prefix of the token before the given index (0 if there is none).
+	 */
+	private static int keyLength( String token, int end )
+	{
+		for ( int i = end - 1; i >= 0; --i )
+		{
+			char c = token.charAt( i );
+			if ( c == '=' || c == ':' )
+				return i + 1;
+		}
+		return 0;
+	}
+
+	private static final class TreeNode
+	{
+		private final Map<String, TreeNode>	children	= new HashMap<>( );
+		private final List<Group>			groups		= new ArrayList<>( );
+	}
+
+	private static final class Group
+	{
+		private LogTemplate	template;
+
+		public Group( LogTemplate template )
+		{
+			this.template = template;
+		}
+	}
+}
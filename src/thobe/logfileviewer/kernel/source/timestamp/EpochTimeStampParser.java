@@ -0,0 +1,85 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.timestamp;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parser for time-stamps given as a number of units since epoch, e.g. epoch-micros "1697540000123456". The number has to consist of
+ * exactly the given number of digits (16 for micros of the current decades) and must not be followed by another digit, thus numbers of
+ * other units are not mistaken. Immutable and thread-safe.
+ * @author Thomas Obenaus
+ * @source EpochTimeStampParser.java
+ * @date Oct 17, 2026
+ */
+public final class EpochTimeStampParser implements ITimeStampParser
+{
+	private final TimeUnit	unit;
+	private final int		numDigits;
+
+	/**
+	 * Ctor
+	 * @param unit - the unit of the number (e.g. {@link TimeUnit#MICROSECONDS})
+	 * @param numDigits - the number of digits (1-18)
+	 */
+	public EpochTimeStampParser( TimeUnit unit, int numDigits )
+	{
+		if ( numDigits < 1 || numDigits > 18 )
+			throw new IllegalArgumentException( "The number of digits has to be in [1,18] but was " + numDigits );
+		this.unit = unit;
+		this.numDigits = numDigits;
+	}
+
+	@Override
+	public int parse( CharSequence line, int offset, long[] timeStamp )
+	{
+		final int length = line.length( );
+		final int end = offset + this.numDigits;
+		if ( end > length )
+			return -1;
+
+		long value = 0;
+		for ( int pos = offset; pos < end; ++pos )
+		{
+			char c = line.charAt( pos );
+			if ( c < '0' || c > '9' )
+				return -1;
+			value = value * 10 + ( c - '0' );
+		}// for ( int pos = offset; pos < end; ++pos ) .
+
+		int pos = end;
+		if ( pos < length )
+		{
+			char c = line.charAt( pos );
+			if ( c >= '0' && c <= '9' )
+				return -1;
+		}// if ( pos < length ) .
+
+		timeStamp[0] = this.unit.toMillis( value );
+
+		// skip the whitespace between time-stamp and payload
+		while ( pos < length && line.charAt( pos ) <= ' ' )
+			pos++;
+		return pos;
+	}
+
+	@Override
+	public String getName( )
+	{
+		return "epoch-" + this.unit.name( ).toLowerCase( ) + "(" + this.numDigits + ")";
+	}
+
+	@Override
+	public String toString( )
+	{
+		return "EpochTimeStampParser [" + this.getName( ) + "]";
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.timestamp;
+
+/**
+ * Parser for a time-stamp at the beginning of a line. Implementations have to be thread-safe, should not allocate and should reject lines
+ * of other formats as early as possible since several parsers are tried on lines that do not match.
+ * @author Thomas Obenaus
+ * @source ITimeStampParser.java
+ * @date Oct 17, 2026
+ */
+public interface ITimeStampParser
+{
+	/**
+	 * Parses the time-stamp starting at the given offset of the line.
+	 * @param line
+	 * @param offset - index of the first character of the time-stamp
+	 * @param timeStamp - the time-stamp (ms since epoch) is written to timeStamp[0], not modified if the line has no time-stamp
+	 * @return - the index of the first non-whitespace character behind the time-stamp (the start of the payload), -1 if there is no
+	 *         time-stamp at the given offset
+	 */
+	public int parse( CharSequence line, int offset, long[] timeStamp );
+
+	/**
+	 * Returns the name of the format (e.g. the pattern).
+	 * @return
+	 */
+	public String getName( );
+}
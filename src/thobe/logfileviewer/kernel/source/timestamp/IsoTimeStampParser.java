@@ -0,0 +1,156 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.timestamp;
+
+import java.util.TimeZone;
+
+/**
+ * Parser for ISO-8601 time-stamps: yyyy-MM-dd, 'T' or ' ', HH:mm:ss, an optional fraction of the second ('.' or ',' followed by 1-9
+ * digits, truncated to ms) and an optional offset ('Z', +HH:mm, +HHmm or +HH). Time-stamps without offset are interpreted in the given
+ * time-zone. Immutable and thread-safe.
+ * @author Thomas Obenaus
+ * @source IsoTimeStampParser.java
+ * @date Oct 17, 2026
+ */
+public final class IsoTimeStampParser implements ITimeStampParser
+{
+	/**
+	 * Length of "yyyy-MM-ddTHH:mm:ss"
+	 */
+	private static final int	MIN_LENGTH	= 19;
+
+	private final TimeZone		timeZone;
+
+	public IsoTimeStampParser( )
+	{
+		this( TimeZone.getDefault( ) );
+	}
+
+	public IsoTimeStampParser( TimeZone timeZone )
+	{
+		this.timeZone = ( TimeZone ) timeZone.clone( );
+	}
+
+	@Override
+	public int parse( CharSequence line, int offset, long[] timeStamp )
+	{
+		final int length = line.length( );
+		if ( length - offset < MIN_LENGTH )
+			return -1;
+
+		int year = digits( line, offset, 4 );
+		if ( year < 0 || line.charAt( offset + 4 ) != '-' )
+			return -1;
+		int month = digits( line, offset + 5, 2 );
+		if ( month < 1 || month > 12 || line.charAt( offset + 7 ) != '-' )
+			return -1;
+		int day = digits( line, offset + 8, 2 );
+		char separator = line.charAt( offset + 10 );
+		if ( day < 1 || day > 31 || ( separator != 'T' && separator != ' ' ) )
+			return -1;
+		int hour = digits( line, offset + 11, 2 );
+		if ( hour < 0 || hour > 23 || line.charAt( offset + 13 ) != ':' )
+			return -1;
+		int minute = digits( line, offset + 14, 2 );
+		if ( minute < 0 || minute > 59 || line.charAt( offset + 16 ) != ':' )
+			return -1;
+		int second = digits( line, offset + 17, 2 );
+		if ( second < 0 || second > 60 )
+			return -1;
+
+		int pos = offset + MIN_LENGTH;
+
+		// fraction of the second
+		int millisecond = 0;
+		if ( pos + 1 < length && ( line.charAt( pos ) == '.' || line.charAt( pos ) == ',' ) && isDigit( line.charAt( pos + 1 ) ) )
+		{
+			pos++;
+			int numDigits = 0;
+			while ( pos < length && isDigit( line.charAt( pos ) ) && numDigits < 9 )
+			{
+				if ( numDigits < 3 )
+					millisecond = millisecond * 10 + ( line.charAt( pos ) - '0' );
+				numDigits++;
+				pos++;
+			}// while ( pos < length && isDigit( line.charAt( pos ) ) && numDigits < 9 ) .
+			for ( int d = numDigits; d < 3; ++d )
+				millisecond *= 10;
+		}// if ( pos + 1 < length && ( line.charAt( pos ) == '.' || line.charAt( pos ) == ',' ) ... ) .
+
+		long localMillis = TimeStampParser.toLocalMillis( year, month, day, hour, minute, second, millisecond );
+
+		// offset
+		if ( pos < length && line.charAt( pos ) == 'Z' )
+		{
+			timeStamp[0] = localMillis;
+			pos++;
+		}
+		else if ( pos + 2 < length && ( line.charAt( pos ) == '+' || line.charAt( pos ) == '-' ) && digits( line, pos + 1, 2 ) >= 0 )
+		{
+			int sign = ( line.charAt( pos ) == '-' ) ? -1 : 1;
+			int offsetMinutes = digits( line, pos + 1, 2 ) * 60;
+			pos += 3;
+			if ( pos + 2 < length && line.charAt( pos ) == ':' && digits( line, pos + 1, 2 ) >= 0 )
+			{
+				offsetMinutes += digits( line, pos + 1, 2 );
+				pos += 3;
+			}
+			else if ( pos + 1 < length && digits( line, pos, 2 ) >= 0 )
+			{
+				offsetMinutes += digits( line, pos, 2 );
+				pos += 2;
+			}
+			timeStamp[0] = localMillis - sign * offsetMinutes * 60000L;
+		}
+		else
+		{
+			timeStamp[0] = TimeStampParser.toUtc( localMillis, this.timeZone );
+		}
+
+		// skip the whitespace between time-stamp and payload
+		while ( pos < length && line.charAt( pos ) <= ' ' )
+			pos++;
+		return pos;
+	}
+
+	private static boolean isDigit( char c )
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Returns the value of the given number of digits at the given position, -1 if there is a non-digit.
+	 */
+	private static int digits( CharSequence line, int pos, int numDigits )
+	{
+		int value = 0;
+		for ( int i = pos; i < pos + numDigits; ++i )
+		{
+			char c = line.charAt( i );
+			if ( !isDigit( c ) )
+				return -1;
+			value = value * 10 + ( c - '0' );
+		}// for ( int i = pos; i < pos + numDigits; ++i ) .
+		return value;
+	}
+
+	@Override
+	public String getName( )
+	{
+		return "ISO-8601";
+	}
+
+	@Override
+	public String toString( )
+	{
+		return "IsoTimeStampParser";
+	}
+}
@@ -19,11 +19,24 @@ public class LineAndTime
 {
 	private String	lineWithoutTimeStamp;
 	private long	timeStamp;
+	private boolean	timeStampFound;
 
 	public LineAndTime( long timeStamp, String lineWithoutTimeStamp )
+	{
+		this( timeStamp, lineWithoutTimeStamp, true );
+	}
+
+	/**
+	 * Ctor
+	 * @param timeStamp - the time-stamp
+	 * @param lineWithoutTimeStamp - the line with the time-stamp removed
+	 * @param timeStampFound - false if the line does not contain a time-stamp (the given time-stamp is just the previous one)
+	 */
+	public LineAndTime( long timeStamp, String lineWithoutTimeStamp, boolean timeStampFound )
 	{
 		this.timeStamp = timeStamp;
 		this.lineWithoutTimeStamp = lineWithoutTimeStamp;
+		this.timeStampFound = timeStampFound;
 	}
 
 	public String getLineWithoutTimeStamp( )
@@ -35,4 +48,14 @@ public class LineAndTime
 	{
 		return timeStamp;
 	}
+
+	/**
+	 * Returns false if the line does not contain a time-stamp, in this case {@link LineAndTime#getTimeStamp()} returns the time-stamp of
+	 * the previous line.
+	 * @return
+	 */
+	public boolean isTimeStampFound( )
+	{
+		return timeStampFound;
+	}
 }
@@ -10,57 +10,76 @@
 
 package thobe.logfileviewer.kernel.source.timestamp;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 import thobe.tools.log.ILoggable;
 
 /**
+ * Splits lines into time-stamp and data using an {@link ITimeStampParser}, by default a {@link TimeStampFormatDetector} choosing from the
+ * default {@link TimeStampParserRegistry}. Lines without time-stamp get the time-stamp of the previous line, thus an extractor is not
+ * thread-safe, but the (thread-safe) parser can be shared by several extractors.
  * @author Thomas Obenaus
  * @source TimeStampExtractor.java
  * @date Jun 1, 2014
  */
 public class TimeStampExtractor extends ILoggable
 {
-	private String				timePattern;
-	private SimpleDateFormat	formatter;
-	private long				previousTimeStamp;
+	public static final String			DEF_TIME_PATTERN	= "HH:mm:ss.SSS";
+
+	private volatile ITimeStampParser	parser;
+	private long						previousTimeStamp;
+
+	/**
+	 * Result of the parser, reused for each line.
+	 */
+	private final long[]				timeStamp;
 
 	public TimeStampExtractor( )
 	{
-		String pattern = "HH:mm:ss.SSS";
-		this.formatter = new SimpleDateFormat( pattern );
-		this.timePattern = dateFormatPatternToRegex( pattern );
-		this.previousTimeStamp = System.currentTimeMillis( );
+		this( new TimeStampFormatDetector( TimeStampParserRegistry.createDefault( ) ) );
 	}
 
-	private String dateFormatPatternToRegex( String dateFormatPattern )
+	public TimeStampExtractor( ITimeStampParser parser )
 	{
-		String regex = dateFormatPattern.replaceAll( "H|m|s|S", "[0-9]" );
-		return regex;
+		this.parser = parser;
+		this.timeStamp = new long[1];
+		this.previousTimeStamp = System.currentTimeMillis( );
 	}
 
+	/**
+	 * Sets a fixed pattern of the time-stamps (no detection).
+	 * @param pattern - e.g. "HH:mm:ss.SSS" (see {@link TimeStampParser} for the supported fields)
+	 * @throws IllegalArgumentException - if the pattern is not supported
+	 */
 	public void setTimePattern( String pattern )
 	{
-		this.formatter = new SimpleDateFormat( pattern );
-		this.timePattern = dateFormatPatternToRegex( pattern );
+		this.parser = new TimeStampParser( pattern );
+	}
+
+	public void setParser( ITimeStampParser parser )
+	{
+		this.parser = parser;
+	}
+
+	public ITimeStampParser getParser( )
+	{
+		return parser;
 	}
 
 	public LineAndTime splitLineAndTimeStamp( String line )
 	{
-		try
-		{
-			Date date = this.formatter.parse( line );
-			this.previousTimeStamp = date.getTime( );
-			return new LineAndTime( this.previousTimeStamp, line.replaceFirst( this.timePattern, "" ).trim( ) );
-		}
-		catch ( ParseException e )
+		int payloadStart = this.parser.parse( line, 0, this.timeStamp );
+		if ( payloadStart < 0 )
 		{
 			//LOG( ).info( "Failed to find/parse timestamp in line '" + line + "'" );
-		}
+			return new LineAndTime( this.previousTimeStamp, line, false );
+		}// if ( payloadStart < 0 ) .
+
+		this.previousTimeStamp = this.timeStamp[0];
 
-		return new LineAndTime( this.previousTimeStamp, line );
+		// trim the trailing whitespace
+		int payloadEnd = line.length( );
+		while ( payloadEnd > payloadStart && line.charAt( payloadEnd - 1 ) <= ' ' )
+			payloadEnd--;
+		return new LineAndTime( this.previousTimeStamp, line.substring( payloadStart, payloadEnd ) );
 	}
 
 	@Override
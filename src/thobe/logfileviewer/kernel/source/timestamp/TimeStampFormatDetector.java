@@ -0,0 +1,238 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.timestamp;
+
+import java.util.List;
+
+import thobe.tools.log.ILoggable;
+
+/**
+ * {@link ITimeStampParser} learning the format of the time-stamps of one stream. During detection each line is parsed by all parsers of
+ * the {@link TimeStampParserRegistry} and the matches are counted. After the given number of lines the detector locks onto the parser
+ * with the most matches, from then on each line costs one parse. Lines the locked parser does not match (e.g. continuation lines of a
+ * stack-trace) are tried with the other parsers, since these reject foreign lines after a few characters this fallback is cheap. If
+ * another parser matches {@link #DEF_RELOCK_LINES} lines without the locked one matching in between (lines without time-stamp do not
+ * count), the detector locks onto that one (the format of the stream changed). A plain number ({@link EpochTimeStampParser}) is too
+ * ambiguous for the fallback (e.g. an id at the beginning of a continuation line): it only counts for relocking and is not taken as
+ * time-stamp unless the detector locked onto its parser.
+ * Threadsafe.
+ * @author Thomas Obenaus
+ * @source TimeStampFormatDetector.java
+ * @date Oct 17, 2026
+ */
+public class TimeStampFormatDetector extends ILoggable implements ITimeStampParser
+{
+	public static final int				DEF_DETECTION_LINES	= 100;
+
+	/**
+	 * Number of lines in a row another parser has to match to replace the locked one.
+	 */
+	public static final int				DEF_RELOCK_LINES	= 16;
+
+	private final ITimeStampParser[]	parsers;
+	private final int					numDetectionLines;
+
+	/**
+	 * Matches per parser during detection.
+	 */
+	private final int[]					matches;
+	private int							numLinesSeen;
+
+	/**
+	 * Index of the parser the detector is locked onto, -1 while detecting or if no parser matched during detection.
+	 */
+	private volatile int				lockedIndex;
+	private volatile boolean			detecting;
+
+	/**
+	 * Index of the parser that matched the last lines the locked parser did not and the number of these lines.
+	 */
+	private int							relockIndex;
+	private volatile int				relockLines;
+
+	public TimeStampFormatDetector( TimeStampParserRegistry registry )
+	{
+		this( registry, DEF_DETECTION_LINES );
+	}
+
+	/**
+	 * Ctor
+	 * @param registry - the parsers to choose from
+	 * @param numDetectionLines - number of lines to detect the format on
+	 */
+	public TimeStampFormatDetector( TimeStampParserRegistry registry, int numDetectionLines )
+	{
+		List<ITimeStampParser> parsers = registry.getParsers( );
+		this.parsers = parsers.toArray( new ITimeStampParser[parsers.size( )] );
+		this.numDetectionLines = Math.max( 1, numDetectionLines );
+		this.matches = new int[this.parsers.length];
+		this.numLinesSeen = 0;
+		this.lockedIndex = -1;
+		this.detecting = true;
+		this.relockIndex = -1;
+		this.relockLines = 0;
+	}
+
+	@Override
+	public int parse( CharSequence line, int offset, long[] timeStamp )
+	{
+		if ( this.detecting )
+			return this.detect( line, offset, timeStamp );
+
+		final int lockedIndex = this.lockedIndex;
+		if ( lockedIndex >= 0 )
+		{
+			int payloadStart = this.parsers[lockedIndex].parse( line, offset, timeStamp );
+			if ( payloadStart >= 0 )
+			{
+				if ( this.relockLines != 0 )
+					this.resetRelock( );
+				return payloadStart;
+			}// if ( payloadStart >= 0 ) .
+		}// if ( lockedIndex >= 0 ) .
+
+		// fallback
+		final long previousTimeStamp = timeStamp[0];
+		int ambiguousIndex = -1;
+		for ( int i = 0; i < this.parsers.length; ++i )
+		{
+			if ( i == lockedIndex )
+				continue;
+			int payloadStart = this.parsers[i].parse( line, offset, timeStamp );
+			if ( payloadStart >= 0 )
+			{
+				if ( this.parsers[i] instanceof EpochTimeStampParser )
+				{
+					// the line is kept as it is, unless the number turns out to be the new format
+					if ( ambiguousIndex < 0 )
+						ambiguousIndex = i;
+					timeStamp[0] = previousTimeStamp;
+					continue;
+				}// if ( this.parsers[i] instanceof EpochTimeStampParser ) .
+				this.onForeignMatch( lockedIndex, i );
+				return payloadStart;
+			}// if ( payloadStart >= 0 ) .
+		}// for ( int i = 0; i < this.parsers.length; ++i ) .
+
+		if ( ambiguousIndex >= 0 && this.onForeignMatch( lockedIndex, ambiguousIndex ) )
+			return this.parsers[ambiguousIndex].parse( line, offset, timeStamp );
+		return -1;
+	}
+
+	/**
+	 * Parses the line with all parsers and counts the matches, the result of the first (most preferred) matching parser is returned. Locks
+	 * onto the parser with the most matches after {@link #numDetectionLines} lines.
+	 */
+	private synchronized int detect( CharSequence line, int offset, long[] timeStamp )
+	{
+		int result = -1;
+		long resultTimeStamp = 0;
+		for ( int i = 0; i < this.parsers.length; ++i )
+		{
+			int payloadStart = this.parsers[i].parse( line, offset, timeStamp );
+			if ( payloadStart >= 0 )
+			{
+				this.matches[i]++;
+				if ( result < 0 )
+				{
+					result = payloadStart;
+					resultTimeStamp = timeStamp[0];
+				}// if ( result < 0 ) .
+			}// if ( payloadStart >= 0 ) .
+		}// for ( int i = 0; i < this.parsers.length; ++i ) .
+		if ( result >= 0 )
+			timeStamp[0] = resultTimeStamp;
+
+		if ( this.detecting && ++this.numLinesSeen >= this.numDetectionLines )
+		{
+			int best = -1;
+			for ( int i = 0; i < this.parsers.length; ++i )
+			{
+				if ( this.matches[i] > 0 && ( best < 0 || this.matches[i] > this.matches[best] ) )
+					best = i;
+			}// for ( int i = 0; i < this.parsers.length; ++i ) .
+			this.lockedIndex = best;
+			this.detecting = false;
+			LOG( ).info( "Time-stamp format detected after " + this.numLinesSeen + " lines: " + ( ( best < 0 ) ? "none" : this.parsers[best].getName( ) + " (" + this.matches[best] + " matches)" ) );
+		}// if ( this.detecting && ++this.numLinesSeen >= this.numDetectionLines ) .
+		return result;
+	}
+
+	/**
+	 * Called if the parser with the given index matched a line the locked one did not, relocks onto that parser if it matched
+	 * {@link #DEF_RELOCK_LINES} lines since the locked one matched the last time.
+	 * @return - true if the detector is locked onto the given parser now
+	 */
+	private synchronized boolean onForeignMatch( int lockedIndex, int index )
+	{
+		if ( this.lockedIndex != lockedIndex )
+			return this.lockedIndex == index;
+
+		if ( this.relockIndex == index )
+		{
+			this.relockLines++;
+		}
+		else
+		{
+			this.relockIndex = index;
+			this.relockLines = 1;
+		}
+
+		if ( this.relockLines >= DEF_RELOCK_LINES )
+		{
+			LOG( ).info( "Time-stamp format changed from " + ( ( lockedIndex < 0 ) ? "none" : this.parsers[lockedIndex].getName( ) ) + " to " + this.parsers[index].getName( ) );
+			this.lockedIndex = index;
+			this.relockIndex = -1;
+			this.relockLines = 0;
+		}// if ( this.relockLines >= DEF_RELOCK_LINES ) .
+		return this.lockedIndex == index;
+	}
+
+	private synchronized void resetRelock( )
+	{
+		this.relockIndex = -1;
+		this.relockLines = 0;
+	}
+
+	/**
+	 * Returns the parser the detector is locked onto, null while detecting or if no format was detected.
+	 * @return
+	 */
+	public ITimeStampParser getLockedParser( )
+	{
+		final int lockedIndex = this.lockedIndex;
+		return ( lockedIndex < 0 ) ? null : this.parsers[lockedIndex];
+	}
+
+	public boolean isDetecting( )
+	{
+		return detecting;
+	}
+
+	@Override
+	public String getName( )
+	{
+		ITimeStampParser locked = this.getLockedParser( );
+		return this.detecting ? "detecting" : ( locked == null ) ? "none" : locked.getName( );
+	}
+
+	@Override
+	protected String getLogChannelName( )
+	{
+		return "thobe.logfileviewer.source.TimeStampFormatDetector";
+	}
+
+	@Override
+	public String toString( )
+	{
+		return "TimeStampFormatDetector [" + this.getName( ) + "]";
+	}
+}
@@ -0,0 +1,394 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.timestamp;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Parser for time-stamps at the beginning of a line, compiled from a pattern in the syntax of {@link java.text.SimpleDateFormat}. Supported
+ * are the numeric fields yyyy, yy, MM, dd, HH, mm, ss, SSS (each letter stands for exactly one digit, yy is 20yy, the first digit of dd may
+ * be a space as in syslog), MMM (english abbreviation of the month), literal characters and quoted literals ('T'). Fields missing in the
+ * pattern default to 1970-01-01 00:00:00.000 and the time is interpreted in the given time-zone, like {@link java.text.SimpleDateFormat}
+ * does. Only a pattern containing the month but no year (syslog "MMM dd HH:mm:ss") uses the current year instead, a time-stamp that
+ * would be more than a day in the future belongs to the previous year (a log of December read in January).
+ * Parsing allocates nothing and throws no exception for lines without time-stamp. The parser is thread-safe (immutable apart from the cached current year).
+ * @author Thomas Obenaus
+ * @source TimeStampParser.java
+ * @date Oct 17, 2026
+ */
+public final class TimeStampParser implements ITimeStampParser
+{
+	private static final int	LITERAL			= 0;
+	private static final int	YEAR			= 1;
+	private static final int	YEAR_2_DIGITS	= 2;
+	private static final int	MONTH			= 3;
+	private static final int	DAY				= 4;
+	private static final int	HOUR			= 5;
+	private static final int	MINUTE			= 6;
+	private static final int	SECOND			= 7;
+	private static final int	MILLISECOND		= 8;
+	private static final int	MONTH_NAME		= 9;
+
+	private static final String	MONTH_NAMES		= "JanFebMarAprMayJunJulAugSepOctNovDec";
+
+	private static final long	MS_PER_DAY		= 24L * 60 * 60 * 1000;
+
+	private final String		pattern;
+
+	/**
+	 * Kind of each element of the pattern.
+	 */
+	private final int[]			kinds;
+
+	/**
+	 * Number of digits of a field or the character of a literal.
+	 */
+	private final int[]			values;
+
+	/**
+	 * Number of characters of a time-stamp.
+	 */
+	private final int			length;
+
+	private final TimeZone		timeZone;
+
+	/**
+	 * True if the pattern contains the month but no year.
+	 */
+	private final boolean		useCurrentYear;
+
+	/**
+	 * The current year (in the time-zone of the parser), only used if {@link #useCurrentYear} is set.
+	 */
+	private volatile Year		currentYear;
+
+	/**
+	 * Ctor, the time is interpreted in the default time-zone.
+	 * @param pattern - e.g. "HH:mm:ss.SSS"
+	 * @throws IllegalArgumentException - if the pattern contains an unsupported field
+	 */
+	public TimeStampParser( String pattern )
+	{
+		this( pattern, TimeZone.getDefault( ) );
+	}
+
+	/**
+	 * Ctor
+	 * @param pattern - e.g. "yyyy-MM-dd'T'HH:mm:ss.SSS"
+	 * @param timeZone
+	 * @throws IllegalArgumentException - if the pattern contains an unsupported field
+	 */
+	public TimeStampParser( String pattern, TimeZone timeZone )
+	{
+		this.pattern = pattern;
+		this.timeZone = ( TimeZone ) timeZone.clone( );
+
+		List<int[]> elements = new ArrayList<>( );
+		int i = 0;
+		while ( i < pattern.length( ) )
+		{
+			char c = pattern.charAt( i );
+			if ( c == '\'' )
+			{
+				// quoted literal, '' is a single quote
+				int end = pattern.indexOf( '\'', i + 1 );
+				if ( end < 0 )
+					throw new IllegalArgumentException( "Unterminated quote in time-stamp pattern '" + pattern + "'" );
+				if ( end == i + 1 )
+					elements.add( new int[] { LITERAL, '\'' } );
+				for ( int j = i + 1; j < end; ++j )
+					elements.add( new int[] { LITERAL, pattern.charAt( j ) } );
+				i = end + 1;
+				continue;
+			}// if ( c == '\'' ) .
+
+			if ( !( ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' ) ) )
+			{
+				elements.add( new int[] { LITERAL, c } );
+				i++;
+				continue;
+			}// if ( !( ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' ) ) ) .
+
+			int count = 1;
+			while ( i + count < pattern.length( ) && pattern.charAt( i + count ) == c )
+				count++;
+			elements.add( new int[] { kindOf( c, count, pattern ), count } );
+			i += count;
+		}// while ( i < pattern.length( ) ) .
+
+		this.kinds = new int[elements.size( )];
+		this.values = new int[elements.size( )];
+		int length = 0;
+		boolean hasYear = false;
+		boolean hasMonth = false;
+		for ( int e = 0; e < elements.size( ); ++e )
+		{
+			this.kinds[e] = elements.get( e )[0];
+			this.values[e] = elements.get( e )[1];
+			length += ( this.kinds[e] == LITERAL ) ? 1 : this.values[e];
+			hasYear |= ( this.kinds[e] == YEAR ) || ( this.kinds[e] == YEAR_2_DIGITS );
+			hasMonth |= ( this.kinds[e] == MONTH ) || ( this.kinds[e] == MONTH_NAME );
+		}// for ( int e = 0; e < elements.size( ); ++e ) .
+		this.length = length;
+		this.useCurrentYear = hasMonth && !hasYear;
+		this.currentYear = null;
+	}
+
+	private static int kindOf( char c, int count, String pattern )
+	{
+		switch ( c )
+		{
+		case 'y':
+			if ( count == 4 )
+				return YEAR;
+			if ( count == 2 )
+				return YEAR_2_DIGITS;
+			break;
+		case 'M':
+			if ( count <= 2 )
+				return MONTH;
+			if ( count == 3 )
+				return MONTH_NAME;
+			break;
+		case 'd':
+			if ( count <= 2 )
+				return DAY;
+			break;
+		case 'H':
+			if ( count <= 2 )
+				return HOUR;
+			break;
+		case 'm':
+			if ( count <= 2 )
+				return MINUTE;
+			break;
+		case 's':
+			if ( count <= 2 )
+				return SECOND;
+			break;
+		case 'S':
+			if ( count <= 3 )
+				return MILLISECOND;
+			break;
+		}// switch ( c ) .
+		throw new IllegalArgumentException( "Unsupported field '" + new String( new char[count] ).replace( '\0', c ) + "' in time-stamp pattern '" + pattern + "'" );
+	}
+
+	@Override
+	public int parse( CharSequence line, int offset, long[] timeStamp )
+	{
+		if ( line.length( ) - offset < this.length )
+			return -1;
+
+		int year = 1970;
+		long now = 0;
+		if ( this.useCurrentYear )
+		{
+			now = System.currentTimeMillis( );
+			year = this.getCurrentYear( now );
+		}// if ( this.useCurrentYear ) .
+		int month = 1;
+		int day = 1;
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int millisecond = 0;
+
+		int pos = offset;
+		for ( int e = 0; e < this.kinds.length; ++e )
+		{
+			final int kind = this.kinds[e];
+			if ( kind == LITERAL )
+			{
+				if ( line.charAt( pos ) != this.values[e] )
+					return -1;
+				pos++;
+				continue;
+			}// if ( kind == LITERAL ) .
+
+			if ( kind == MONTH_NAME )
+			{
+				month = monthOfName( line, pos );
+				if ( month < 0 )
+					return -1;
+				pos += 3;
+				continue;
+			}// if ( kind == MONTH_NAME ) .
+
+			// exactly the given number of digits
+			int value = 0;
+			for ( int d = 0; d < this.values[e]; ++d )
+			{
+				char c = line.charAt( pos++ );
+				if ( c == ' ' && d == 0 && kind == DAY && this.values[e] == 2 )
+					continue;
+				if ( c < '0' || c > '9' )
+					return -1;
+				value = value * 10 + ( c - '0' );
+			}// for ( int d = 0; d < this.values[e]; ++d ) .
+
+			switch ( kind )
+			{
+			case YEAR:
+				year = value;
+				break;
+			case YEAR_2_DIGITS:
+				year = 2000 + value;
+				break;
+			case MONTH:
+				month = value;
+				break;
+			case DAY:
+				day = value;
+				break;
+			case HOUR:
+				hour = value;
+				break;
+			case MINUTE:
+				minute = value;
+				break;
+			case SECOND:
+				second = value;
+				break;
+			case MILLISECOND:
+				// S is the number of milliseconds, not a fraction
+				millisecond = value;
+				break;
+			}// switch ( kind ) .
+		}// for ( int e = 0; e < this.kinds.length; ++e ) .
+
+		if ( month < 1 || month > 12 || day < 1 || day > 31 || hour > 23 || minute > 59 || second > 60 )
+			return -1;
+
+		long localMillis = toLocalMillis( year, month, day, hour, minute, second, millisecond );
+		long utc = toUtc( localMillis, this.timeZone );
+		if ( this.useCurrentYear && utc > now + MS_PER_DAY )
+			utc = toUtc( toLocalMillis( year - 1, month, day, hour, minute, second, millisecond ), this.timeZone );
+		timeStamp[0] = utc;
+
+		// skip the whitespace between time-stamp and payload
+		while ( pos < line.length( ) && line.charAt( pos ) <= ' ' )
+			pos++;
+		return pos;
+	}
+
+	/**
+	 * Returns the year of the given time in the time-zone of the parser, computed once per year.
+	 */
+	private int getCurrentYear( long now )
+	{
+		Year currentYear = this.currentYear;
+		if ( currentYear == null || now < currentYear.start || now >= currentYear.end )
+		{
+			Calendar calendar = Calendar.getInstance( this.timeZone );
+			calendar.setTimeInMillis( now );
+			int year = calendar.get( Calendar.YEAR );
+			currentYear = new Year( year, toUtc( toLocalMillis( year, 1, 1, 0, 0, 0, 0 ), this.timeZone ), toUtc( toLocalMillis( year + 1, 1, 1, 0, 0, 0, 0 ), this.timeZone ) );
+			this.currentYear = currentYear;
+		}// if ( currentYear == null || now < currentYear.start || now >= currentYear.end ) .
+		return currentYear.year;
+	}
+
+	/**
+	 * Returns the month (1-12) of the english abbreviation at the given position, -1 if there is none.
+	 */
+	private static int monthOfName( CharSequence line, int pos )
+	{
+		for ( int m = 0; m < 12; ++m )
+		{
+			if ( line.charAt( pos ) == MONTH_NAMES.charAt( m * 3 ) && line.charAt( pos + 1 ) == MONTH_NAMES.charAt( m * 3 + 1 ) && line.charAt( pos + 2 ) == MONTH_NAMES.charAt( m * 3 + 2 ) )
+				return m + 1;
+		}// for ( int m = 0; m < 12; ++m ) .
+		return -1;
+	}
+
+	/**
+	 * Returns the ms since 1970-01-01 00:00:00.000 of the given local time (no time-zone applied).
+	 */
+	static long toLocalMillis( int year, int month, int day, int hour, int minute, int second, int millisecond )
+	{
+		return daysFromCivil( year, month, day ) * MS_PER_DAY + ( ( hour * 60L + minute ) * 60L + second ) * 1000L + millisecond;
+	}
+
+	/**
+	 * Converts local time to ms since epoch (UTC) using the offset of the time-zone valid at that time.
+	 */
+	static long toUtc( long localMillis, TimeZone timeZone )
+	{
+		int offset = timeZone.getOffset( localMillis - timeZone.getRawOffset( ) );
+		int offsetAtResult = timeZone.getOffset( localMillis - offset );
+		return localMillis - offsetAtResult;
+	}
+
+	/**
+	 * Days since 1970-01-01 of the given date (proleptic gregorian calendar).
+	 */
+	private static long daysFromCivil( int year, int month, int day )
+	{
+		long y = ( month <= 2 ) ? year - 1 : year;
+		long era = ( y >= 0 ? y : y - 399 ) / 400;
+		long yearOfEra = y - era * 400;
+		long dayOfYear = ( 153 * ( month + ( month > 2 ? -3 : 9 ) ) + 2 ) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * 146097 + dayOfEra - 719468;
+	}
+
+	/**
+	 * Returns the number of characters of a time-stamp.
+	 * @return
+	 */
+	public int getLength( )
+	{
+		return length;
+	}
+
+	public String getPattern( )
+	{
+		return pattern;
+	}
+
+	@Override
+	public String getName( )
+	{
+		return pattern;
+	}
+
+	public TimeZone getTimeZone( )
+	{
+		return ( TimeZone ) timeZone.clone( );
+	}
+
+	@Override
+	public String toString( )
+	{
+		return "TimeStampParser [" + this.pattern + "]";
+	}
+
+	/**
+	 * A year and its bounds (ms since epoch, UTC).
+	 */
+	private static final class Year
+	{
+		private final int	year;
+		private final long	start;
+		private final long	end;
+
+		private Year( int year, long start, long end )
+		{
+			this.year = year;
+			this.start = start;
+			this.end = end;
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.logfileviewer.kernel.source.timestamp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the (compiled) {@link ITimeStampParser}s a {@link TimeStampFormatDetector} chooses from. The order of registration is the
+ * order of preference if several parsers match the same number of lines. Threadsafe.
+ * @author Thomas Obenaus
+ * @source TimeStampParserRegistry.java
+ * @date Oct 17, 2026
+ */
+public class TimeStampParserRegistry
+{
+	private final List<ITimeStampParser>	parsers;
+
+	public TimeStampParserRegistry( )
+	{
+		this.parsers = new CopyOnWriteArrayList<>( );
+	}
+
+	/**
+	 * Returns a registry containing the parsers for the formats known by the LogFileViewer: "HH:mm:ss.SSS", ISO-8601, syslog ("MMM dd
+	 * HH:mm:ss"), epoch-micros and epoch-millis.
+	 * @return
+	 */
+	public static TimeStampParserRegistry createDefault( )
+	{
+		TimeStampParserRegistry registry = new TimeStampParserRegistry( );
+		registry.register( new TimeStampParser( TimeStampExtractor.DEF_TIME_PATTERN ) );
+		registry.register( new IsoTimeStampParser( ) );
+		registry.register( new TimeStampParser( "MMM dd HH:mm:ss" ) );
+		registry.register( new EpochTimeStampParser( TimeUnit.MICROSECONDS, 16 ) );
+		registry.register( new EpochTimeStampParser( TimeUnit.MILLISECONDS, 13 ) );
+		return registry;
+	}
+
+	/**
+	 * Adds a parser (with the lowest preference).
+	 * @param parser
+	 */
+	public void register( ITimeStampParser parser )
+	{
+		this.parsers.add( parser );
+	}
+
+	/**
+	 * Adds a parser for the given pattern (see {@link TimeStampParser}).
+	 * @param pattern
+	 * @throws IllegalArgumentException - if the pattern is not supported
+	 */
+	public void register( String pattern )
+	{
+		this.register( new TimeStampParser( pattern ) );
+	}
+
+	public boolean unregister( ITimeStampParser parser )
+	{
+		return this.parsers.remove( parser );
+	}
+
+	/**
+	 * Returns a snapshot of the registered parsers in the order of preference.
+	 * @return
+	 */
+	public List<ITimeStampParser> getParsers( )
+	{
+		return Collections.unmodifiableList( new ArrayList<>( this.parsers ) );
+	}
+}
@@ -15,9 +15,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
+import thobe.logfileviewer.kernel.memory.MemoryAccount;
 import thobe.logfileviewer.kernel.plugin.PluginManager;
 import thobe.logfileviewer.kernel.source.logline.LogLine;
 import thobe.logfileviewer.kernel.source.logline.LogLineDat;
+import thobe.logfileviewer.kernel.source.logstream.ListenerDeliveryStats;
 import thobe.logfileviewer.kernel.source.logstream.LogStream;
 import thobe.logfileviewer.plugin.api.IPlugin;
 
@@ -116,36 +118,60 @@ public class StatsPrinter extends Thread
 				strBuffer.append( "---------------------------------------------\n" );
 				strBuffer.append( "Memory-Consumption: \n" );
 				long completeMemory = 0;
+
+				// the plugins report their memory themselves
+				this.mngr.getMemory( );
 				for ( Entry<String, IPlugin> entry : this.mngr.getPlugins( ).entrySet( ) )
 				{
-					IPlugin plugin = entry.getValue( );
-					completeMemory += plugin.getMemory( );
-					strBuffer.append( "--|" + plugin.getPluginName( ) + ": " + ( plugin.getMemory( ) / MB_DIVIDER ) + " MB\n" );
+					MemoryAccount account = this.mngr.getMemoryAccount( entry.getKey( ) );
+					if ( account == null )
+						continue;
+					completeMemory += account.get( );
+					strBuffer.append( "--|" + entry.getValue( ).getPluginName( ) + ": " + ( account.get( ) / MB_DIVIDER ) + " MB\n" );
 				}// for ( Entry<String, Plugin> entry : this.mngr.getPlugins( ).entrySet( ) ) .
 
 				// add memory of the LogLineFactory
-				strBuffer.append( "--|LogLineFactory: " + ( this.logStream.getLogLineFactory( ).getCacheMemory( ) / MB_DIVIDER ) + " MB\n" );
-				completeMemory += this.logStream.getLogLineFactory( ).getCacheMemory( );
+				MemoryAccount cacheAccount = this.logStream.getLogLineFactory( ).getCacheMemoryAccount( );
+				strBuffer.append( "--|LogLineFactory: " + ( cacheAccount.get( ) / MB_DIVIDER ) + " MB\n" );
+				completeMemory += cacheAccount.get( );
 
 				// add memory of the LogLineBuffer
-				strBuffer.append( "--|LogLineBuffer: " + ( this.logStream.getLogLineBuffer( ).getMemory( ) / MB_DIVIDER ) + " MB\n" );
-				completeMemory += this.logStream.getLogLineBuffer( ).getMemory( );
-
-				// complete memory
-				strBuffer.append( "\n" );
-				strBuffer.append( "-OverAll: " + ( completeMemory / MB_DIVIDER ) + " MB\n" );
+				MemoryAccount bufferAccount = this.logStream.getLogLineBuffer( ).getMemoryAccount( );
+				strBuffer.append( "--|LogLineBuffer: " + ( bufferAccount.get( ) / MB_DIVIDER ) + " MB\n" );
+				completeMemory += bufferAccount.get( );
 
 				long freeMemory = Runtime.getRuntime( ).freeMemory( );
 				long maxMemory = Runtime.getRuntime( ).maxMemory( );
 				long totalMemory = Runtime.getRuntime( ).totalMemory( );
 				long usedMemory = totalMemory - freeMemory;
 
+				// complete memory (the used heap contains garbage not collected yet too)
+				strBuffer.append( "\n" );
+				strBuffer.append( "-OverAll: " + ( completeMemory / MB_DIVIDER ) + " MB (" + Math.round( completeMemory * 100.0 / Math.max( 1, usedMemory ) ) + "% of the used heap)\n" );
+
 				strBuffer.append( "-JVM: free=" + ( freeMemory / MB_DIVIDER ) + " MB, used=" + ( usedMemory / MB_DIVIDER ) );
 				strBuffer.append( "MB, currAvailInJVM=" + ( totalMemory / MB_DIVIDER ) + "MB, maxAvail=" + ( maxMemory / MB_DIVIDER ) + "MB\n" );
 
 				// lines per second
 				strBuffer.append( "\n" );
 				strBuffer.append( "Reader " + this.logStream.getLogStreamReaderLPS( ) + " lps\n" );
+				strBuffer.append( "-HandOver latency: avg=" + this.logStream.getLogStreamReaderAvgHandOverLatency( ) + " ms, max=" + this.logStream.getLogStreamReaderMaxHandOverLatency( ) + " ms\n" );
+				strBuffer.append( "-LineBuffer: fillLevel=" + this.logStream.getLogStreamReaderFillLevel( ) + ", droppedLines=" + this.logStream.getLogStreamReaderDroppedLines( ) + "\n" );
+
+				// delivery to the listeners (lag of slow plugins)
+				strBuffer.append( "\n" );
+				strBuffer.append( "Delivery:\n" );
+				for ( ListenerDeliveryStats stats : this.logStream.getListenerDeliveryStats( ) )
+				{
+					strBuffer.append( "-" + stats + "\n" );
+				}
+
+				// prefilter statistics (regex-evaluations saved)
+				strBuffer.append( "\n" );
+				strBuffer.append( "Prefilter:\n" );
+				strBuffer.append( "-Filters: " + this.logStream.getPatternRegistry( ) + "\n" );
+				strBuffer.append( "-Dispatch: " + this.logStream.getDispatchPrefilterStats( ) + "\n" );
+				strBuffer.append( "-Requests: " + this.logStream.getRequestPrefilterStats( ) + "\n" );
 
 				// cache statistics
 				strBuffer.append( "\n" );
@@ -154,13 +180,17 @@ public class StatsPrinter extends Thread
 				strBuffer.append( ", misses=" + this.logStream.getLogLineFactory( ).getCacheMisses( ) );
 				strBuffer.append( ", ratio=" + this.logStream.getLogLineFactory( ).getCacheRatio( ) );
 				strBuffer.append( ", size=" + this.logStream.getLogLineFactory( ).getCacheSize( ) + "/" + this.logStream.getLogLineFactory( ).getMaxCacheSize( ) + "\n" );
-				strBuffer.append( "-#Instances: LogLine=" + LogLine.getNumberOfInstances( ) + ", LogLineDat=" + LogLineDat.getNumberOfInstances( ) + "\n" );
+				strBuffer.append( "-Templates: groups=" + this.logStream.getLogLineFactory( ).getTemplateMiner( ).getNumGroups( ) + ", lines=" + this.logStream.getLogLineFactory( ).getTemplateMiner( ).getNumLines( ) + ", notMined=" + this.logStream.getLogLineFactory( ).getTemplateMiner( ).getNumNotMined( ) + "\n" );
+				strBuffer.append( "-#Instances: " + LogLine.getInstanceTracker( ) + ", " + LogLineDat.getInstanceTracker( ) + "\n" );
 				strBuffer.append( "---------------------------------------------\n" );
 
 				// LogLineBuffer statistics
 				strBuffer.append( "\n" );
 				strBuffer.append( "LogLineBuffer:\n" );
 				strBuffer.append( " -currentLoad=" + this.logStream.getLogLineBuffer( ).getCurrentLoad( ) + "\n" );
+				strBuffer.append( " -offHeap=" + ( this.logStream.getLogLineBuffer( ).getOffHeapMemory( ) / MB_DIVIDER ) + " MB\n" );
+				strBuffer.append( " -pendingCompressions=" + this.logStream.getLogLineBuffer( ).getNumPendingCompressions( ) + "\n" );
+				strBuffer.append( " -spilled=" + this.logStream.getLogLineBuffer( ).getNumSpilledLines( ) + " lines, " + ( this.logStream.getLogLineBuffer( ).getSpillSize( ) / MB_DIVIDER ) + " MB on disk\n" );
 				strBuffer.append( " -Settings: loadFactor=" + this.logStream.getLogLineBuffer( ).getLoadFactor( ) );
 				strBuffer.append( ", maxCapacity=" + this.logStream.getLogLineBuffer( ).getMaxCapacity( ) + "\n" );
 				strBuffer.append( "---------------------------------------------\n" );
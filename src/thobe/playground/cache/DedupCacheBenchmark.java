@@ -0,0 +1,162 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.cache;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import thobe.logfileviewer.kernel.memory.LRUCache;
+import thobe.logfileviewer.kernel.memory.TinyLfuCache;
+
+/**
+ * Compares the {@link LRUCache} (formerly used by the LogLineFactory) to the {@link TinyLfuCache} on a stream of keys like the data of log
+ * lines: repeated lines following a Zipf distribution mixed with one-hit wonders (lines containing counters). Prints the hit ratio of both
+ * and the throughput (get/put pairs per second) with the given number of threads.
+ * Usage: DedupCacheBenchmark [cacheSize] [numKeys] [uniquePercent] [threads]
+ * @author Thomas Obenaus
+ * @source DedupCacheBenchmark.java
+ * @date Oct 17, 2026
+ */
+public class DedupCacheBenchmark
+{
+	/**
+	 * Number of distinct repeated keys.
+	 */
+	private static final int	NUM_TEMPLATES	= 50000;
+
+	public static void main( String[] args ) throws InterruptedException
+	{
+		final int cacheSize = args.length > 0 ? Integer.parseInt( args[0] ) : 5000;
+		final int numKeys = args.length > 1 ? Integer.parseInt( args[1] ) : 2000000;
+		final int uniquePercent = args.length > 2 ? Integer.parseInt( args[2] ) : 30;
+		final int numThreads = args.length > 3 ? Integer.parseInt( args[3] ) : Runtime.getRuntime( ).availableProcessors( );
+
+		final String[] keys = createKeys( numKeys, uniquePercent );
+		System.out.println( "cacheSize=" + cacheSize + ", keys=" + numKeys + ", unique=" + uniquePercent + "%, threads=" + numThreads );
+
+		for ( int round = 0; round < 3; ++round )
+		{
+			// LRU
+			final LRUCache<String, String> lru = new LRUCache<>( cacheSize );
+			final long[] lruHits = new long[numThreads];
+			long lruTime = run( numThreads, keys, new Worker( )
+			{
+				@Override
+				public void access( int thread, String key )
+				{
+					if ( lru.get( key ) != null )
+						lruHits[thread]++;
+					else
+						lru.put( key, key );
+				}
+			} );
+			long lruHitSum = 0;
+			for ( long hits : lruHits )
+				lruHitSum += hits;
+
+			// W-TinyLFU
+			final TinyLfuCache<String, String> tinyLfu = new TinyLfuCache<>( cacheSize, null );
+			long tinyLfuTime = run( numThreads, keys, new Worker( )
+			{
+				@Override
+				public void access( int thread, String key )
+				{
+					if ( tinyLfu.get( key ) == null )
+						tinyLfu.putIfAbsent( key, key );
+				}
+			} );
+
+			System.out.println( String.format( "LRUCache:     hitRatio=%.3f, %6.2f M ops/s", lruHitSum / ( float ) numKeys, numKeys / ( float ) lruTime ) );
+			System.out.println( String.format( "TinyLfuCache: hitRatio=%.3f, %6.2f M ops/s (%s)", tinyLfu.getHitRatio( ), numKeys / ( float ) tinyLfuTime, tinyLfu ) );
+		}// for ( int round = 0; round < 3; ++round ) .
+	}
+
+	/**
+	 * Runs the worker on the given keys with the given number of threads (each thread gets a contiguous part), returns the elapsed time in
+	 * microseconds.
+	 */
+	private static long run( int numThreads, final String[] keys, final Worker worker ) throws InterruptedException
+	{
+		final CountDownLatch start = new CountDownLatch( 1 );
+		final CountDownLatch done = new CountDownLatch( numThreads );
+		final int keysPerThread = keys.length / numThreads;
+		for ( int t = 0; t < numThreads; ++t )
+		{
+			final int thread = t;
+			new Thread( new Runnable( )
+			{
+				@Override
+				public void run( )
+				{
+					try
+					{
+						start.await( );
+						int to = ( thread == numThreads - 1 ) ? keys.length : ( thread + 1 ) * keysPerThread;
+						for ( int i = thread * keysPerThread; i < to; ++i )
+							worker.access( thread, keys[i] );
+					}
+					catch ( InterruptedException e )
+					{
+						Thread.currentThread( ).interrupt( );
+					}
+					done.countDown( );
+				}
+			} ).start( );
+		}// for ( int t = 0; t < numThreads; ++t ) .
+
+		long begin = System.nanoTime( );
+		start.countDown( );
+		done.await( );
+		return ( System.nanoTime( ) - begin ) / 1000;
+	}
+
+	private static String[] createKeys( int numKeys, int uniquePercent )
+	{
+		// cumulative zipf distribution (s=1) over the templates
+		double[] cumulative = new double[NUM_TEMPLATES];
+		double sum = 0;
+		for ( int i = 0; i < NUM_TEMPLATES; ++i )
+		{
+			sum += 1.0 / ( i + 1 );
+			cumulative[i] = sum;
+		}
+
+		Random random = new Random( 4711 );
+		String[] keys = new String[numKeys];
+		for ( int i = 0; i < numKeys; ++i )
+		{
+			if ( random.nextInt( 100 ) < uniquePercent )
+			{
+				keys[i] = "INFO [COM] msg=" + i + " payload=" + Integer.toHexString( random.nextInt( ) );
+				continue;
+			}// if ( random.nextInt( 100 ) < uniquePercent ) .
+
+			double value = random.nextDouble( ) * sum;
+			int low = 0;
+			int high = NUM_TEMPLATES - 1;
+			while ( low < high )
+			{
+				int mid = ( low + high ) >>> 1;
+				if ( cumulative[mid] < value )
+					low = mid + 1;
+				else
+					high = mid;
+			}// while ( low < high ) .
+			keys[i] = "DEBUG [ETH] heartbeat from node " + low;
+		}// for ( int i = 0; i < numKeys; ++i ) .
+		return keys;
+	}
+
+	private interface Worker
+	{
+		public void access( int thread, String key );
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.filter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import thobe.logfileviewer.kernel.source.filter.LiteralPrefilter;
+import thobe.logfileviewer.kernel.source.filter.MultiPatternMatcher;
+import thobe.logfileviewer.plugin.util.PatternMatch;
+
+/**
+ * Compares dispatching lines to a set of filters (like the sub-consoles of the console-plugin) using the loop formerly used in
+ * LogStream.onNewBlock (one {@link PatternMatch#matches(Pattern, String)} per filter and line) against the {@link MultiPatternMatcher}.
+ * The results of both are compared line by line.
+ * Usage: MultiPatternBenchmark [numLines] [numFilters] [rounds]
+ * @author Thomas Obenaus
+ * @source MultiPatternBenchmark.java
+ * @date Oct 17, 2026
+ */
+public class MultiPatternBenchmark
+{
+	private static final String[]	LEVELS		= { "INFO", "DEBUG", "WARN", "ERROR", "TRACE" };
+	private static final String[]	COMPONENTS	= { "CAN_RX", "CAN_TX", "ETH", "DIAG", "NVM", "COM", "PDU", "SCHED" };
+
+	public static void main( String[] args )
+	{
+		final int numLines = args.length > 0 ? Integer.parseInt( args[0] ) : 200000;
+		final int numFilters = args.length > 1 ? Integer.parseInt( args[1] ) : 30;
+		final int rounds = args.length > 2 ? Integer.parseInt( args[2] ) : 5;
+
+		List<String> lines = createLines( numLines );
+		Map<Pattern, Integer> filters = createFilters( numFilters );
+		MultiPatternMatcher<Integer> matcher = new MultiPatternMatcher<>( filters );
+
+		System.out.println( "lines=" + numLines + ", filters=" + filters.size( ) + " (regex: " + matcher.getNumRegexPatterns( ) + ")" );
+
+		// check that both deliver the same results
+		for ( String line : lines )
+		{
+			List<Integer> expected = matchLoop( filters, line );
+			List<Integer> actual = matcher.match( line );
+			if ( ( expected == null ) != ( actual == null ) || ( expected != null && !expected.equals( actual ) ) )
+				throw new IllegalStateException( "Different results for '" + line + "': " + expected + " vs. " + actual );
+		}// for ( String line : lines ) .
+		checkNonBmpLiterals( );
+
+		for ( int round = 0; round < rounds; ++round )
+		{
+			long matches = 0;
+			long start = System.nanoTime( );
+			for ( String line : lines )
+			{
+				List<Integer> result = matchLoop( filters, line );
+				matches += ( result != null ) ? result.size( ) : 0;
+			}
+			long loopTime = System.nanoTime( ) - start;
+
+			start = System.nanoTime( );
+			long matches2 = 0;
+			for ( String line : lines )
+			{
+				List<Integer> result = matcher.match( line );
+				matches2 += ( result != null ) ? result.size( ) : 0;
+			}
+			long matcherTime = System.nanoTime( ) - start;
+
+			System.out.println( "round " + round + ": loop=" + ( loopTime / 1000000 ) + "ms, matcher=" + ( matcherTime / 1000000 ) + "ms, speedup=" + String.format( "%.1f", loopTime / ( double ) matcherTime ) + "x (matches " + matches + "/" + matches2 + ")" );
+		}// for ( int round = 0; round < rounds; ++round ) .
+
+		System.out.println( "prefilter of the regex-filters: " + matcher.getPrefilterStats( ) );
+	}
+
+	/**
+	 * Checks that a quantifier on a char outside the BMP (surrogate pair) is applied to the whole char by the prefilter, e.g. "a\uD83D\uDE00?b"
+	 * must not require "a\uD83D".
+	 */
+	private static void checkNonBmpLiterals( )
+	{
+		final String smiley = "\uD83D\uDE00";
+		String[][] cases = { { "a" + smiley + "?b", "ab" }, { "a" + smiley + "?b", "a" + smiley + "b" }, { "a" + smiley + "*b", "ab" }, { "a\\" + smiley + "?b", "ab" }, { "\\Qa" + smiley + "\\E?b", "ab" }, { ".*x" + smiley + "+y.*", "-x" + smiley + smiley + "y-" } };
+		for ( String[] entry : cases )
+		{
+			Pattern pattern = Pattern.compile( entry[0] );
+			boolean expected = PatternMatch.matches( pattern, entry[1] );
+			boolean actual = new LiteralPrefilter( pattern, null ).matches( entry[1] );
+			if ( expected != actual )
+				throw new IllegalStateException( "Different results for '" + entry[1] + "' and pattern '" + entry[0] + "': " + expected + " vs. " + actual );
+		}// for ( String[] entry : cases ) .
+	}
+
+	/**
+	 * The way LogStream.onNewBlock matched the lines before.
+	 */
+	private static List<Integer> matchLoop( Map<Pattern, Integer> filters, String line )
+	{
+		List<Integer> result = null;
+		for ( Entry<Pattern, Integer> entry : filters.entrySet( ) )
+		{
+			if ( PatternMatch.matches( entry.getKey( ), line ) )
+			{
+				if ( result == null )
+					result = new ArrayList<>( );
+				result.add( entry.getValue( ) );
+			}
+		}// for ( Entry<Pattern, Integer> entry : filters.entrySet( ) ) .
+		return result;
+	}
+
+	private static List<String> createLines( int numLines )
+	{
+		Random random = new Random( 4711 );
+		List<String> lines = new ArrayList<>( numLines );
+		for ( int i = 0; i < numLines; ++i )
+		{
+			String component = COMPONENTS[random.nextInt( COMPONENTS.length )];
+			lines.add( String.format( "%02d:%02d:%02d.%03d %s [%s] 0x%03X msg=%d len=%d payload=%08x", ( i / 3600000 ) % 24, ( i / 60000 ) % 60, ( i / 1000 ) % 60, i % 1000, LEVELS[random.nextInt( LEVELS.length )], component, random.nextInt( 0x800 ), random.nextInt( 100000 ), random.nextInt( 64 ), random.nextInt( ) ) );
+		}// for ( int i = 0; i < numLines; ++i ) .
+		return lines;
+	}
+
+	private static Map<Pattern, Integer> createFilters( int numFilters )
+	{
+		List<String> regexes = new ArrayList<>( );
+		regexes.add( ".*" );
+		for ( String level : LEVELS )
+			regexes.add( ".*" + level + ".*" );
+		for ( String component : COMPONENTS )
+			regexes.add( ".*\\[" + component + "\\].*" );
+		regexes.add( ".*CAN_RX\\] 0x1A3.*" );
+		regexes.add( ".*ERROR.*CAN_TX.*" );
+		regexes.add( ".*len=6[0-3].*" );
+		regexes.add( "\\d\\d:00:.*" );
+		regexes.add( ".*(WARN|ERROR) \\[DIAG\\].*" );
+
+		int i = 0;
+		while ( regexes.size( ) < numFilters )
+			regexes.add( ".*0x" + Integer.toHexString( 0x100 + ( i++ * 37 ) ).toUpperCase( ) + " .*" );
+
+		Map<Pattern, Integer> filters = new LinkedHashMap<>( );
+		for ( int j = 0; j < Math.min( numFilters, regexes.size( ) ); ++j )
+			filters.put( Pattern.compile( regexes.get( j ) ), j );
+		return filters;
+	}
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.footprint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import thobe.logfileviewer.kernel.source.LogLineBufferMode;
+import thobe.logfileviewer.kernel.source.err.LogLineBufferException;
+import thobe.logfileviewer.kernel.source.logline.LogLineBuffer;
+import thobe.logfileviewer.kernel.source.logline.LogLineFactory;
+
+/**
+ * Measures the heap retained per line by the {@link LogLineBuffer} for each {@link LogLineBufferMode}. The lines are built by the
+ * {@link LogLineFactory} (a share of them repeats, so their data is pooled), afterwards the cache of the factory is cleared and the used heap
+ * is compared to the one before. Run with enough heap (e.g. -Xmx1g), the first mode (HEAP) keeps one LogLine per line.
+ * Usage: LogLineFootprint [numLines] [repeatedPercent] [mode (all if omitted)]
+ * @author Thomas Obenaus
+ * @source LogLineFootprint.java
+ * @date Oct 17, 2026
+ */
+public class LogLineFootprint
+{
+	private static final String[]	LEVELS			= { "INFO", "DEBUG", "WARN", "ERROR", "TRACE" };
+	private static final String[]	COMPONENTS		= { "CAN_RX", "CAN_TX", "ETH", "DIAG", "NVM", "COM", "PDU", "SCHED" };
+
+	/**
+	 * Number of distinct repeated lines.
+	 */
+	private static final int		NUM_TEMPLATES	= 500;
+
+	private static final int		BLOCK_SIZE		= 4096;
+
+	public static void main( String[] args ) throws LogLineBufferException
+	{
+		final int numLines = args.length > 0 ? Integer.parseInt( args[0] ) : 1000000;
+		final int repeatedPercent = args.length > 1 ? Integer.parseInt( args[1] ) : 50;
+
+		final LogLineBufferMode[] modes = args.length > 2 ? new LogLineBufferMode[] { LogLineBufferMode.valueOf( args[2] ) } : LogLineBufferMode.values( );
+
+		System.out.println( "lines=" + numLines + ", repeated=" + repeatedPercent + "%" );
+		for ( LogLineBufferMode mode : modes )
+		{
+			measure( mode, numLines, repeatedPercent );
+		}
+		System.exit( 0 );
+	}
+
+	private static void measure( LogLineBufferMode mode, int numLines, int repeatedPercent ) throws LogLineBufferException
+	{
+		LogLineBuffer buffer = new LogLineBuffer( numLines + 1, 0.75f );
+		buffer.setMode( mode );
+		LogLineFactory factory = new LogLineFactory( 100000 );
+		Random random = new Random( 4711 );
+
+		long usedBefore = usedHeap( );
+		long start = System.nanoTime( );
+		List<String> block = new ArrayList<>( BLOCK_SIZE );
+		for ( int i = 0; i < numLines; ++i )
+		{
+			block.add( createLine( i, random, repeatedPercent ) );
+			if ( block.size( ) == BLOCK_SIZE || i == numLines - 1 )
+			{
+				buffer.add( factory.buildLogLines( block ) );
+				block.clear( );
+			}// if ( block.size( ) == BLOCK_SIZE || i == numLines - 1 ) .
+		}// for ( int i = 0; i < numLines; ++i ) .
+		long elapsed = System.nanoTime( ) - start;
+
+		// the compressed segments should be measured
+		while ( buffer.getNumPendingCompressions( ) > 0 )
+			Thread.yield( );
+
+		// only the buffer should retain the lines
+		factory.clearCache( );
+		long retained = usedHeap( ) - usedBefore;
+
+		System.out.println( String.format( "%-10s heap=%6.1f MB (%5.1f bytes/line), offHeap=%6.1f MB, estimate=%6.1f MB, build=%5d ms", mode, retained / ( 1024f * 1024f ), retained / ( float ) numLines, buffer.getOffHeapMemory( ) / ( 1024f * 1024f ), buffer.getMemory( ) / ( 1024f * 1024f ), elapsed / 1000000 ) );
+
+		// check that all lines are still there
+		if ( buffer.getLines( -1, -1 ).size( ) != numLines )
+			throw new IllegalStateException( "Expected " + numLines + " lines in mode " + mode );
+
+		buffer.freeMemory( );
+		buffer = null;
+		usedHeap( );
+	}
+
+	private static String createLine( int i, Random random, int repeatedPercent )
+	{
+		String time = String.format( "%02d:%02d:%02d.%03d ", ( i / 3600000 ) % 24, ( i / 60000 ) % 60, ( i / 1000 ) % 60, i % 1000 );
+		if ( random.nextInt( 100 ) < repeatedPercent )
+		{
+			int template = random.nextInt( NUM_TEMPLATES );
+			return time + LEVELS[template % LEVELS.length] + " [" + COMPONENTS[template % COMPONENTS.length] + "] heartbeat from node " + template;
+		}// if ( random.nextInt( 100 ) < repeatedPercent ) .
+
+		return time + LEVELS[random.nextInt( LEVELS.length )] + " [" + COMPONENTS[random.nextInt( COMPONENTS.length )] + "] msg=" + random.nextInt( 100000 ) + " payload=" + Integer.toHexString( random.nextInt( ) );
+	}
+
+	/**
+	 * Returns the used heap after collecting the garbage (and running the finalizers) until it does not shrink any more.
+	 * @return
+	 */
+	private static long usedHeap( )
+	{
+		Runtime runtime = Runtime.getRuntime( );
+		long used = Long.MAX_VALUE;
+		for ( int i = 0; i < 20; ++i )
+		{
+			System.gc( );
+			System.runFinalization( );
+			long current = runtime.totalMemory( ) - runtime.freeMemory( );
+			if ( current >= used )
+				break;
+			used = current;
+		}// for ( int i = 0; i < 20; ++i ) .
+		return used;
+	}
+}
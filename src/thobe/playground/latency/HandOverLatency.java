@@ -0,0 +1,150 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.latency;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+
+import thobe.logfileviewer.kernel.source.err.LogStreamException;
+import thobe.logfileviewer.kernel.source.err.LogStreamTimeoutException;
+import thobe.logfileviewer.kernel.source.extreader.ExternalLogStreamReader;
+import thobe.logfileviewer.kernel.source.logstream.LogStream;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+import thobe.logfileviewer.plugin.source.logstream.ILogStreamDataListener;
+
+/**
+ * Measures the latency between a line arriving at the {@link ExternalLogStreamReader} and the line being delivered to an
+ * {@link ILogStreamDataListener} of the {@link LogStream}. Blocks of lines carrying their creation-time ({@link System#nanoTime()}) arrive
+ * at random intervals, the percentiles of the ingest-to-listener latency are printed at the end.
+ * Usage: HandOverLatency [numBlocks] [maxIntervalMs]
+ * @author Thomas Obenaus
+ * @source HandOverLatency.java
+ * @date Oct 17, 2026
+ */
+public class HandOverLatency
+{
+	private static final int	LINES_PER_BLOCK	= 5;
+
+	public static void main( String[] args ) throws LogStreamException, InterruptedException
+	{
+		final int numBlocks = args.length > 0 ? Integer.parseInt( args[0] ) : 200;
+		final int maxInterval = args.length > 1 ? Integer.parseInt( args[1] ) : 50;
+
+		final long[] latencies = new long[numBlocks * LINES_PER_BLOCK];
+		final CountDownLatch allReceived = new CountDownLatch( latencies.length );
+
+		LogStream logStream = new LogStream( );
+		logStream.start( );
+		logStream.addLogStreamDataListener( new ILogStreamDataListener( )
+		{
+			private int	received	= 0;
+
+			@Override
+			public void onNewBlockOfLines( List<ILogLine> blockOfLines )
+			{
+				long now = System.nanoTime( );
+				for ( ILogLine line : blockOfLines )
+				{
+					String data = line.getData( );
+					long created = Long.parseLong( data.substring( data.lastIndexOf( ' ' ) + 1 ) );
+					latencies[received++] = now - created;
+					allReceived.countDown( );
+				}// for ( ILogLine line : blockOfLines ) .
+			}
+
+			@Override
+			public Pattern getLineFilter( )
+			{
+				return Pattern.compile( ".*" );
+			}
+
+			@Override
+			public String getNameOfDataListener( )
+			{
+				return "HandOverLatency";
+			}
+		} );
+
+		SyntheticLogStreamReader reader = new SyntheticLogStreamReader( numBlocks, maxInterval );
+		logStream.open( reader );
+		allReceived.await( );
+
+		Arrays.sort( latencies );
+		System.out.println( "lines=" + latencies.length + ", blocks=" + numBlocks + ", maxInterval=" + maxInterval + "ms" );
+		System.out.println( "ingest->listener latency: p50=" + toMs( latencies[latencies.length / 2] ) + "ms, p99=" + toMs( latencies[( int ) ( latencies.length * 0.99 )] ) + "ms, max=" + toMs( latencies[latencies.length - 1] ) + "ms" );
+		System.out.println( "reader hand-over latency: avg=" + reader.getAvgHandOverLatency( ) + "ms, max=" + reader.getMaxHandOverLatency( ) + "ms" );
+
+		logStream.close( );
+		System.exit( 0 );
+	}
+
+	private static double toMs( long nanos )
+	{
+		return nanos / 1000000.0;
+	}
+
+	/**
+	 * Source emitting blocks of lines at random intervals, each line ends with the time it was created at.
+	 */
+	private static class SyntheticLogStreamReader extends ExternalLogStreamReader
+	{
+		private final Random	random;
+		private final int		maxInterval;
+		private int				blocksLeft;
+
+		public SyntheticLogStreamReader( int numBlocks, int maxInterval )
+		{
+			super( "SyntheticLogStreamReader" );
+			this.random = new Random( 42 );
+			this.maxInterval = maxInterval;
+			this.blocksLeft = numBlocks;
+		}
+
+		@Override
+		protected String readLineImpl( int maxBlockTime ) throws LogStreamException, LogStreamTimeoutException
+		{
+			throw new LogStreamException( "Not supported" );
+		}
+
+		@Override
+		protected List<String> readBlockImpl( int minBlockTime, int maxBlockTime, int minBlockSize, int maxBlockSize ) throws LogStreamException, LogStreamTimeoutException
+		{
+			List<String> block = new ArrayList<>( );
+			if ( this.blocksLeft-- <= 0 )
+				return block;
+
+			try
+			{
+				Thread.sleep( this.random.nextInt( this.maxInterval + 1 ) );
+			}
+			catch ( InterruptedException e )
+			{
+				throw new LogStreamException( "Interrupted" );
+			}
+
+			for ( int i = 0; i < LINES_PER_BLOCK; ++i )
+				block.add( "synthetic line " + i + " " + System.nanoTime( ) );
+			return block;
+		}
+
+		@Override
+		protected void openImpl( int timeout ) throws LogStreamException
+		{}
+
+		@Override
+		protected void closeImpl( ) throws LogStreamException
+		{}
+	}
+}
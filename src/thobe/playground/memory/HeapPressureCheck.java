@@ -0,0 +1,75 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.memory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import thobe.logfileviewer.kernel.memory.MemoryWatchDog;
+import thobe.logfileviewer.kernel.source.err.LogLineBufferException;
+import thobe.logfileviewer.kernel.source.logline.LogLineBuffer;
+import thobe.logfileviewer.kernel.source.logline.LogLineFactory;
+
+/**
+ * Fills an (unlimited) {@link LogLineBuffer} with unique lines while a {@link MemoryWatchDog} watches the heap and checks that the buffer
+ * gives memory back before an {@link OutOfMemoryError} occurs. Run with a small heap (e.g. -Xmx96m), pass "off" as second argument to see
+ * the same load without watchdog run out of memory.
+ * Usage: HeapPressureCheck [numLines] [on|off]
+ * @author Thomas Obenaus
+ * @source HeapPressureCheck.java
+ * @date Oct 17, 2026
+ */
+public class HeapPressureCheck
+{
+	private static final int	BLOCK_SIZE	= 4096;
+
+	public static void main( String[] args ) throws LogLineBufferException
+	{
+		final int numLines = args.length > 0 ? Integer.parseInt( args[0] ) : 5000000;
+		final boolean watch = args.length < 2 || !args[1].equals( "off" );
+
+		LogLineBuffer buffer = new LogLineBuffer( Integer.MAX_VALUE, 0.75f );
+		LogLineFactory factory = new LogLineFactory( 1000 );
+		MemoryWatchDog watchDog = new MemoryWatchDog( );
+		if ( watch )
+		{
+			watchDog.register( buffer );
+			watchDog.start( );
+		}// if ( watch ) .
+
+		System.out.println( "lines=" + numLines + ", maxHeap=" + ( Runtime.getRuntime( ).maxMemory( ) / 1024 / 1024 ) + "MB, threshold=" + ( watchDog.getThreshold( ) / 1024 / 1024 ) + "MB, watchDog=" + watch );
+		long start = System.currentTimeMillis( );
+		int exitCode = 0;
+		try
+		{
+			List<String> block = new ArrayList<>( BLOCK_SIZE );
+			for ( int i = 0; i < numLines; ++i )
+			{
+				block.add( String.format( "%02d:%02d:%02d.%03d INFO [SCHED] unique message number %d", ( i / 3600000 ) % 24, ( i / 60000 ) % 60, ( i / 1000 ) % 60, i % 1000, i ) );
+				if ( block.size( ) == BLOCK_SIZE || i == numLines - 1 )
+				{
+					buffer.add( factory.buildLogLines( block ) );
+					block.clear( );
+				}// if ( block.size( ) == BLOCK_SIZE || i == numLines - 1 ) .
+			}// for ( int i = 0; i < numLines; ++i ) .
+			System.out.println( "PASSED: " + numLines + " lines added in " + ( System.currentTimeMillis( ) - start ) + " ms, load=" + buffer.getCurrentLoad( ) + ", frees=" + watchDog.getNumFrees( ) );
+		}
+		catch ( OutOfMemoryError e )
+		{
+			buffer.freeMemory( );
+			System.out.println( "FAILED: " + e.getLocalizedMessage( ) + " after " + ( System.currentTimeMillis( ) - start ) + " ms, frees=" + watchDog.getNumFrees( ) );
+			exitCode = 1;
+		}
+
+		watchDog.quit( );
+		System.exit( exitCode );
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import thobe.logfileviewer.kernel.source.logline.LogLineBlock;
+import thobe.logfileviewer.kernel.source.logline.LogLineFactory;
+import thobe.logfileviewer.kernel.source.template.LogTemplate;
+import thobe.logfileviewer.kernel.source.template.TemplateMiner;
+import thobe.logfileviewer.plugin.source.logline.ILogLine;
+
+/**
+ * Builds synthetic lines (a few message-types with varying numbers, addresses and states) with and without template-mining, checks that
+ * every mined line reconstructs to the original data, prints the templates found, the build-time and the heap retained by the lines (the
+ * cache of the factory is cleared before measuring).
+ * Usage: TemplateMiningDemo [numLines]
+ * @author Thomas Obenaus
+ * @source TemplateMiningDemo.java
+ * @date Oct 17, 2026
+ */
+public class TemplateMiningDemo
+{
+	private static final String[]	STATES	= { "IDLE", "RUNNING", "WAITING", "ERROR" };
+
+	public static void main( String[] args )
+	{
+		final int numLines = args.length > 0 ? Integer.parseInt( args[0] ) : 500000;
+
+		List<String> lines = createLines( numLines );
+		for ( boolean mining : new boolean[] { false, true } )
+		{
+			LogLineFactory factory = new LogLineFactory( 10000 );
+			factory.setTemplateMiningEnabled( mining );
+
+			long usedBefore = usedHeap( );
+			long start = System.nanoTime( );
+			LogLineBlock block = factory.buildLogLines( lines );
+			long elapsed = System.nanoTime( ) - start;
+
+			factory.clearCache( );
+			long retained = usedHeap( ) - usedBefore;
+
+			for ( int i = 0; i < block.size( ); ++i )
+			{
+				ILogLine line = block.get( i );
+				if ( !line.getData( ).equals( lines.get( i ).substring( 13 ) ) )
+					throw new IllegalStateException( "Line " + i + " was not reconstructed: '" + line.getData( ) + "' vs. '" + lines.get( i ) + "'" );
+			}// for ( int i = 0; i < block.size( ); ++i ) .
+
+			System.out.println( String.format( "mining=%-5b build=%5d ms, retained heap=%6.1f MB (%5.1f bytes/line)", mining, elapsed / 1000000, retained / ( 1024f * 1024f ), retained / ( float ) numLines ) );
+			if ( mining )
+			{
+				TemplateMiner miner = factory.getTemplateMiner( );
+				System.out.println( "groups=" + miner.getNumGroups( ) + ", notMined=" + miner.getNumNotMined( ) );
+				for ( LogTemplate template : miner.getTemplates( ) )
+					System.out.println( String.format( "  #%-3d v%-2d %s", template.getGroupId( ), template.getVersion( ), template ) );
+			}// if ( mining ) .
+		}// for ( boolean mining : new boolean[] { false, true } ) .
+	}
+
+	/**
+	 * Returns the used heap after collecting the garbage (and running the finalizers) until it does not shrink any more.
+	 * @return
+	 */
+	private static long usedHeap( )
+	{
+		Runtime runtime = Runtime.getRuntime( );
+		long used = Long.MAX_VALUE;
+		for ( int i = 0; i < 20; ++i )
+		{
+			System.gc( );
+			System.runFinalization( );
+			long current = runtime.totalMemory( ) - runtime.freeMemory( );
+			if ( current >= used )
+				break;
+			used = current;
+		}// for ( int i = 0; i < 20; ++i ) .
+		return used;
+	}
+
+	private static List<String> createLines( int numLines )
+	{
+		Random random = new Random( 4711 );
+		List<String> lines = new ArrayList<>( numLines );
+		for ( int i = 0; i < numLines; ++i )
+		{
+			String time = String.format( "%02d:%02d:%02d.%03d ", ( i / 3600000 ) % 24, ( i / 60000 ) % 60, ( i / 1000 ) % 60, i % 1000 );
+			String line;
+			switch ( random.nextInt( 5 ) )
+			{
+			case 0:
+				line = "DEBUG [CAN_RX] value=" + random.nextInt( 1000 ) + " addr=0x" + Integer.toHexString( random.nextInt( ) ) + " received";
+				break;
+			case 1:
+				line = "INFO [SCHED] task " + random.nextInt( 64 ) + " switched to state=" + STATES[random.nextInt( STATES.length )];
+				break;
+			case 2:
+				line = "WARN [NVM] write of block " + random.nextInt( 4096 ) + " took " + random.nextInt( 500 ) + "ms";
+				break;
+			case 3:
+				line = "INFO [ETH] link up";
+				break;
+			default:
+				line = "DEBUG [COM] pdu id:" + random.nextInt( 256 ) + " len=" + random.nextInt( 64 ) + " from node" + random.nextInt( 16 ) + " ok";
+				break;
+			}// switch ( random.nextInt( 5 ) ) .
+			lines.add( time + line );
+		}// for ( int i = 0; i < numLines; ++i ) .
+		return lines;
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright (C) 2014, Thomas Obenaus. All rights reserved.
+ *  Licensed under the New BSD License (3-clause lic)
+ *  See attached license-file.
+ *
+ *	Author: 	Thomas Obenaus
+ *	EMail:		obenaus.thomas@gmail.com
+ *  Project:    LogFileViewer
+ */
+
+package thobe.playground.timestamp;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampFormatDetector;
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampParser;
+import thobe.logfileviewer.kernel.source.timestamp.TimeStampParserRegistry;
+
+/**
+ * Compares splitting lines into time-stamp and payload with {@link SimpleDateFormat} and a regex (as the TimeStampExtractor did before)
+ * against the {@link TimeStampParser}. Checks that both return the same time-stamps and payloads, then measures (after a warm-up) the
+ * throughput and the bytes allocated per line of the parsing itself (without building the payload String). Checks as well that syslog
+ * time-stamps (without year) get the current year and that the {@link TimeStampFormatDetector} does not take a number at the beginning
+ * of a continuation line as time-stamp.
+ * Usage: TimeStampParserBenchmark [numLines] [iterations]
+ * @author Thomas Obenaus
+ * @source TimeStampParserBenchmark.java
+ * @date Oct 17, 2026
+ */
+public class TimeStampParserBenchmark
+{
+	private static final String	PATTERN	= "HH:mm:ss.SSS";
+
+	public static void main( String[] args ) throws ParseException
+	{
+		final int numLines = args.length > 0 ? Integer.parseInt( args[0] ) : 200000;
+		final int iterations = args.length > 1 ? Integer.parseInt( args[1] ) : 5;
+
+		List<String> lines = createLines( numLines );
+		SimpleDateFormat formatter = new SimpleDateFormat( PATTERN );
+		String regex = PATTERN.replaceAll( "H|m|s|S", "[0-9]" );
+		TimeStampParser parser = new TimeStampParser( PATTERN );
+
+		// 1. equality
+		long[] timeStamp = new long[1];
+		for ( String line : lines )
+		{
+			int payloadStart = parser.parse( line, 0, timeStamp );
+			long expected = formatter.parse( line ).getTime( );
+			String expectedPayload = line.replaceFirst( regex, "" ).trim( );
+			if ( payloadStart < 0 || timeStamp[0] != expected || !line.substring( payloadStart ).trim( ).equals( expectedPayload ) )
+				throw new IllegalStateException( "Different result for line '" + line + "': " + timeStamp[0] + " vs. " + expected );
+		}// for ( String line : lines ) .
+		if ( parser.parse( "no time-stamp", 0, timeStamp ) != -1 || parser.parse( "12:3x:00.000 x", 0, timeStamp ) != -1 )
+			throw new IllegalStateException( "Line without time-stamp was parsed" );
+		System.out.println( "equality check passed for " + numLines + " lines" );
+		checkSyslogYear( );
+		checkEpochFallback( );
+
+		// 2. throughput and allocations
+		for ( int i = 0; i < iterations; ++i )
+		{
+			long sum = 0;
+			long allocated = allocatedBytes( );
+			long start = System.nanoTime( );
+			for ( String line : lines )
+			{
+				sum += formatter.parse( line ).getTime( );
+				sum += line.replaceFirst( regex, "" ).length( );
+			}// for ( String line : lines ) .
+			long elapsedSdf = System.nanoTime( ) - start;
+			long allocatedSdf = allocatedBytes( ) - allocated;
+
+			allocated = allocatedBytes( );
+			start = System.nanoTime( );
+			for ( String line : lines )
+			{
+				sum += parser.parse( line, 0, timeStamp );
+				sum += timeStamp[0];
+			}// for ( String line : lines ) .
+			long elapsedParser = System.nanoTime( ) - start;
+			long allocatedParser = allocatedBytes( ) - allocated;
+
+			System.out.println( String.format( "#%d SimpleDateFormat+regex: %6.0f ns/line %6.1f B/line | TimeStampParser: %6.1f ns/line %6.1f B/line | speedup %.1fx (%d)", i, elapsedSdf / ( float ) numLines, allocatedSdf / ( float ) numLines, elapsedParser / ( float ) numLines, allocatedParser / ( float ) numLines, elapsedSdf / ( float ) elapsedParser, sum ) );
+		}// for ( int i = 0; i < iterations; ++i ) .
+	}
+
+	/**
+	 * Time-stamps without year are in the current year, unless they would be in the future.
+	 */
+	private static void checkSyslogYear( ) throws ParseException
+	{
+		final String pattern = "MMM dd HH:mm:ss";
+		SimpleDateFormat formatter = new SimpleDateFormat( pattern, Locale.ENGLISH );
+		TimeStampParser parser = new TimeStampParser( pattern );
+		long[] timeStamp = new long[1];
+
+		long anHourAgo = ( ( System.currentTimeMillis( ) - 3600000 ) / 1000 ) * 1000;
+		if ( parser.parse( formatter.format( anHourAgo ) + " sshd[42]: session opened", 0, timeStamp ) < 0 || timeStamp[0] != anHourAgo )
+			throw new IllegalStateException( "Syslog time-stamp of an hour ago was parsed as " + timeStamp[0] + " instead of " + anHourAgo );
+
+		long inTwoDays = System.currentTimeMillis( ) + 2 * 24 * 3600000L;
+		if ( parser.parse( formatter.format( inTwoDays ) + " sshd[42]: session opened", 0, timeStamp ) < 0 || timeStamp[0] > System.currentTimeMillis( ) || timeStamp[0] < inTwoDays - 367 * 24 * 3600000L )
+			throw new IllegalStateException( "Syslog time-stamp of in two days was not put into the previous year: " + timeStamp[0] );
+		System.out.println( "syslog check passed" );
+	}
+
+	/**
+	 * A number at the beginning of a line the locked format does not match is not a time-stamp, unless the format changed.
+	 */
+	private static void checkEpochFallback( )
+	{
+		TimeStampFormatDetector detector = new TimeStampFormatDetector( TimeStampParserRegistry.createDefault( ), 10 );
+		long[] timeStamp = new long[1];
+		for ( int i = 0; i < 10; ++i )
+			detector.parse( "12:00:0" + i + ".000 DEBUG [CAN_RX] received", 0, timeStamp );
+
+		timeStamp[0] = 42;
+		if ( detector.parse( "1697540000123 frames dropped", 0, timeStamp ) != -1 || timeStamp[0] != 42 )
+			throw new IllegalStateException( "Number at the beginning of a continuation line was taken as time-stamp" );
+		if ( detector.parse( "12:00:10.000 DEBUG [CAN_RX] received", 0, timeStamp ) < 0 )
+			throw new IllegalStateException( "Line of the locked format was not parsed" );
+
+		// the format changes to epoch-millis
+		int payloadStart = -1;
+		for ( int i = 0; i < TimeStampFormatDetector.DEF_RELOCK_LINES; ++i )
+			payloadStart = detector.parse( "16975400001" + ( 10 + i ) + " DEBUG [CAN_RX] received", 0, timeStamp );
+		if ( payloadStart < 0 || !detector.getName( ).startsWith( "epoch-milli" ) )
+			throw new IllegalStateException( "Detector did not relock onto epoch-millis: " + detector.getName( ) );
+		System.out.println( "epoch fallback check passed" );
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread so far, -1 if the JVM does not support it.
+	 * @return
+	 */
+	private static long allocatedBytes( )
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean( );
+		if ( bean instanceof com.sun.management.ThreadMXBean )
+			return ( ( com.sun.management.ThreadMXBean ) bean ).getThreadAllocatedBytes( Thread.currentThread( ).getId( ) );
+		return -1;
+	}
+
+	private static List<String> createLines( int numLines )
+	{
+		Random random = new Random( 4711 );
+		List<String> lines = new ArrayList<>( numLines );
+		for ( int i = 0; i < numLines; ++i )
+		{
+			String time = String.format( "%02d:%02d:%02d.%03d", random.nextInt( 24 ), random.nextInt( 60 ), random.nextInt( 60 ), random.nextInt( 1000 ) );
+			lines.add( time + ( ( i % 7 == 0 ) ? "  " : " " ) + "DEBUG [CAN_RX] value=" + random.nextInt( 1000 ) + " received " );
+		}// for ( int i = 0; i < numLines; ++i ) .
+		return lines;
+	}
+}